@@ -0,0 +1,155 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.audio.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ativelox.dichotomyz.audio.utils.AudioConverter;
+import de.ativelox.dichotomyz.audio.utils.EAudioType;
+
+/**
+ * Compares the conversion of recordings of the given length, encoded as 48KHz
+ * 16 bit stereo big-endian PCM, by the former implementation of
+ * {@link AudioConverter#generateWAVFile(byte[], int, int, int, EAudioType)}
+ * (see {@link LegacyAudioConverter}) to the current one, as well as to the
+ * streaming conversion used by
+ * {@link de.ativelox.dichotomyz.audio.utils.WAVFileWriter WAVFileWriter} and
+ * the conversion in place. An hour of audio takes roughly 660MB, thus the forked
+ * JVM gets a heap of 4GB.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class AudioConverterBenchmark {
+
+    /**
+     * The sample rate of the recordings, given in Hertz.
+     */
+    private static final int SAMPLE_RATE = 48000;
+
+    /**
+     * The number of channels of the recordings.
+     */
+    private static final int CHANNELS = 2;
+
+    /**
+     * The number of bits used per sample.
+     */
+    private static final int BIT_DEPTH = 16;
+
+    /**
+     * The size of the buffer used by the streaming conversion.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The length of the recordings in minutes.
+     */
+    @Param({ "1", "60" })
+    public int mMinutes;
+
+    /**
+     * The recording to convert.
+     */
+    private byte[] mData;
+
+    /**
+     * The recording to convert in place, wrapping {@link #mData}.
+     */
+    private ByteBuffer mInPlace;
+
+    /**
+     * The reusable buffer used by the streaming conversion.
+     */
+    private ByteBuffer mChunk;
+
+    /**
+     * Creates a recording of random audio of the given length.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+	mData = new byte[mMinutes * 60 * SAMPLE_RATE * CHANNELS * (BIT_DEPTH / 8)];
+	new Random(42).nextBytes(mData);
+
+	mInPlace = ByteBuffer.wrap(mData);
+	mChunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+
+    }
+
+    /**
+     * Converts the recording using the former implementation.
+     * 
+     * @return The .wav file created.
+     */
+    @Benchmark
+    public byte[] legacyGenerateWAVFile() {
+	return LegacyAudioConverter.generateWAVFile(mData, SAMPLE_RATE, CHANNELS, BIT_DEPTH, EAudioType.PCM);
+
+    }
+
+    /**
+     * Converts the recording using the current implementation.
+     * 
+     * @return The .wav file created.
+     */
+    @Benchmark
+    public byte[] generateWAVFile() {
+	return AudioConverter.generateWAVFile(mData, SAMPLE_RATE, CHANNELS, BIT_DEPTH, EAudioType.PCM);
+
+    }
+
+    /**
+     * Converts the recording chunk by chunk into a reusable direct buffer, as done
+     * when streaming to disk.
+     * 
+     * @return The number of samples converted.
+     */
+    @Benchmark
+    public long swapIntoBuffer() {
+	final ByteBuffer src = ByteBuffer.wrap(mData);
+	long samples = 0;
+
+	while (src.hasRemaining()) {
+	    mChunk.clear();
+	    samples += AudioConverter.swapByteOrder(src, mChunk, BIT_DEPTH / 8);
+
+	}
+	return samples;
+
+    }
+
+    /**
+     * Converts the recording in place. Every invocation reverses the previous
+     * one, which doesn't affect the work done.
+     * 
+     * @return The buffer converted.
+     */
+    @Benchmark
+    public ByteBuffer swapInPlace() {
+	AudioConverter.swapByteOrder(mInPlace, BIT_DEPTH / 8);
+	return mInPlace;
+
+    }
+}
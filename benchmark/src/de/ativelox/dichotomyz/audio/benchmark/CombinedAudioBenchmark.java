@@ -0,0 +1,113 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.audio.benchmark;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ativelox.dichotomyz.audio.AudioChatHandler;
+import de.ativelox.dichotomyz.audio.AudioRingBuffer;
+import de.ativelox.dichotomyz.audio.EAudioCaptureMode;
+import de.ativelox.dichotomyz.audio.EnergyVoiceActivityDetector;
+import net.dv8tion.jda.core.audio.CombinedAudio;
+
+/**
+ * Measures the 20ms frames of combined audio per second ingested by
+ * {@link AudioChatHandler#handleCombinedAudio(CombinedAudio)}, i.e. decoding
+ * the frame, passing it through an {@link EnergyVoiceActivityDetector} and
+ * writing it, or the gap of silence before it, to an {@link AudioRingBuffer}.
+ * The given percentage of frames contains speech, the others are silent. Run
+ * with the gc profiler to see the allocation per frame.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CombinedAudioBenchmark {
+
+    /**
+     * The number of frames the speech and silence is cycled through.
+     */
+    private static final int CYCLE = 100;
+
+    /**
+     * The number of seconds of audio buffered.
+     */
+    private static final int BUFFER_SECONDS = 60;
+
+    /**
+     * The percentage of frames containing speech.
+     */
+    @Param({ "10", "100" })
+    public int mSpeechPercentage;
+
+    /**
+     * The frames received, cycled through.
+     */
+    private CombinedAudio[] mFrames;
+
+    /**
+     * The handler ingesting the frames.
+     */
+    private AudioChatHandler mHandler;
+
+    /**
+     * The number of frames ingested so far, used to rotate through the frames.
+     */
+    private long mIngested;
+
+    /**
+     * Creates the frames, with random speech at roughly -10dBFS, and a handler
+     * with an empty buffer.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+	final Random random = new Random(42);
+	final short[] silence = new short[AudioRingBuffer.FRAME_SIZE / 2];
+	final short[] speech = new short[AudioRingBuffer.FRAME_SIZE / 2];
+
+	for (int i = 0; i < speech.length; i++) {
+	    speech[i] = (short) (random.nextGaussian() * 10000);
+
+	}
+
+	mFrames = new CombinedAudio[CYCLE];
+	for (int i = 0; i < CYCLE; i++) {
+	    mFrames[i] = new CombinedAudio(Collections.emptyList(), i < mSpeechPercentage ? speech : silence);
+
+	}
+	mHandler = new AudioChatHandler(new AudioRingBuffer(BUFFER_SECONDS), EAudioCaptureMode.COMBINED,
+		new EnergyVoiceActivityDetector());
+	mIngested = 0;
+
+    }
+
+    /**
+     * Ingests the next frame.
+     */
+    @Benchmark
+    public void ingest() {
+	mHandler.handleCombinedAudio(mFrames[(int) (mIngested++ % CYCLE)]);
+
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.audio.benchmark;
+
+import de.ativelox.dichotomyz.audio.utils.AudioConverter;
+import de.ativelox.dichotomyz.audio.utils.EAudioType;
+
+/**
+ * Provides a copy of the former implementation of
+ * {@link AudioConverter#generateWAVFile(byte[], int, int, int, EAudioType)},
+ * used as baseline by {@link AudioConverterBenchmark}. Apart from the logging
+ * of unsupported types, the code is unchanged, including its incorrect stride
+ * when swapping the byte order.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+final class LegacyAudioConverter {
+
+    /**
+     * Cuts off the highest k bits from the given integer.
+     * 
+     * @param x The integer from which to cut high bits.
+     * @param k The number of bits to cut from x.
+     * @return An integer, which represents x with k high bits cut off.
+     */
+    private static int cutOffLeadingBits(final int x, int k) {
+	return x & (int) Math.pow(2, 32 - k) - 1;
+    }
+
+    /**
+     * Generates a .wav file from the given data.
+     * 
+     * @param data          The array of bytes containing the data of the audio.
+     * @param sampleRate    The sample rate, given in Hertz.
+     * @param numOfChannels The number of channels used in the audio data, 1 for
+     *                      mono, 2 for stereo, etc.
+     * @param bitDepth      The number of bits used per sample.
+     * @param type          The type of the audio to be converted to a .wav file.
+     * 
+     * @return A byte array which is a can be read as a .wav file.
+     */
+    public static byte[] generateWAVFile(final byte[] data, final int sampleRate, final int numOfChannels,
+	    final int bitDepth, final EAudioType type) {
+
+	int typeIdenfifier = 0;
+
+	if (type == EAudioType.PCM) {
+	    typeIdenfifier = 1;
+
+	} else {
+	    return null;
+
+	}
+
+	final int frameSize = numOfChannels * ((int) Math.floor((bitDepth + 7) / 8));
+
+	// 12 bytes for the riff-header, 24 for the format-header and 8 for the
+	// data-header.
+	final byte[] resultData = new byte[data.length + 12 + 24 + 8];
+
+	// generate RIFF-header
+	resultData[0] = 'R';
+	resultData[1] = 'I';
+	resultData[2] = 'F';
+	resultData[3] = 'F';
+
+	final byte[] chunkSize = getBytesFrom(resultData.length - 8, 4);
+	resultData[4] = chunkSize[0];
+	resultData[5] = chunkSize[1];
+	resultData[6] = chunkSize[2];
+	resultData[7] = chunkSize[3];
+
+	resultData[8] = 'W';
+	resultData[9] = 'A';
+	resultData[10] = 'V';
+	resultData[11] = 'E';
+
+	// generate Format-header
+	resultData[12] = 'f';
+	resultData[13] = 'm';
+	resultData[14] = 't';
+	resultData[15] = ' ';
+
+	final byte[] remainingHeaderLength = getBytesFrom(16, 4);
+	resultData[16] = remainingHeaderLength[0];
+	resultData[17] = remainingHeaderLength[1];
+	resultData[18] = remainingHeaderLength[2];
+	resultData[19] = remainingHeaderLength[3];
+
+	final byte[] formatTag = getBytesFrom(typeIdenfifier, 2);
+	resultData[20] = formatTag[0];
+	resultData[21] = formatTag[1];
+
+	final byte[] channels = getBytesFrom(numOfChannels, 2);
+	resultData[22] = channels[0];
+	resultData[23] = channels[1];
+
+	final byte[] sampleRateByte = getBytesFrom(sampleRate, 4);
+	resultData[24] = sampleRateByte[0];
+	resultData[25] = sampleRateByte[1];
+	resultData[26] = sampleRateByte[2];
+	resultData[27] = sampleRateByte[3];
+
+	final byte[] bytesPerSecond = getBytesFrom(sampleRate * frameSize, 4);
+	resultData[28] = bytesPerSecond[0];
+	resultData[29] = bytesPerSecond[1];
+	resultData[30] = bytesPerSecond[2];
+	resultData[31] = bytesPerSecond[3];
+
+	final byte[] blockAlign = getBytesFrom(frameSize, 2);
+	resultData[32] = blockAlign[0];
+	resultData[33] = blockAlign[1];
+
+	final byte[] bitsPerSample = getBytesFrom(bitDepth, 2);
+	resultData[34] = bitsPerSample[0];
+	resultData[35] = bitsPerSample[1];
+
+	// generate data-header
+	resultData[36] = 'd';
+	resultData[37] = 'a';
+	resultData[38] = 't';
+	resultData[39] = 'a';
+
+	final byte[] remainingLength = getBytesFrom(resultData.length - 44, 4);
+	resultData[40] = remainingLength[0];
+	resultData[41] = remainingLength[1];
+	resultData[42] = remainingLength[2];
+	resultData[43] = remainingLength[3];
+
+	// conversion from little-endian to big-endian
+	// TODO: make it more dynamic given the bitDepth, only works for 16 bit atm.
+	for (int i = 0; i < data.length; i += bitDepth / 2) {
+	    resultData[44 + i] = data[i + 1];
+	    resultData[44 + i + 1] = data[i];
+	}
+
+	return resultData;
+
+    }
+
+    /**
+     * Gets up to 4 bytes from the given integer x, such that the concatenation of
+     * the entries of the returned result will yield x in byte representation.
+     * 
+     * @param x The integer which to dissect into k bytes.
+     * @param k The number of bytes to fetch from x.
+     * @return An array containing the byte representation of x.
+     */
+    private static byte[] getBytesFrom(final int x, final int k) {
+
+	byte[] result = new byte[k];
+
+	for (int i = 0; i < k; i++) {
+	    result[i] = (byte) ((x >> 8 * i) & (int) Math.pow(2, 8) - 1);
+	}
+
+	return result;
+    }
+}
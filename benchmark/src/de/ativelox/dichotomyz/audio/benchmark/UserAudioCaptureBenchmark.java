@@ -0,0 +1,160 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.audio.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ativelox.dichotomyz.audio.AudioRingBuffer;
+import de.ativelox.dichotomyz.audio.UserAudioCapture;
+
+/**
+ * Measures the throughput of {@link UserAudioCapture}, i.e. how many 20ms
+ * frames per second the receiving thread is able to route to the tracks of the
+ * given number of speakers, while a separate thread writes the tracks to disk.
+ * Run with the gc profiler to verify that routing does not allocate. The number
+ * of frames dropped is reported as secondary result by {@link Counters}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class UserAudioCaptureBenchmark {
+
+    /**
+     * The events counted while routing, reset every iteration and reported by
+     * JMH alongside the throughput.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+	/**
+	 * The number of frames dropped.
+	 */
+	public long dropped;
+
+	/**
+	 * Resets every counter.
+	 */
+	@Setup(Level.Iteration)
+	public void reset() {
+	    dropped = 0;
+
+	}
+    }
+
+    /**
+     * The number of users speaking at the same time.
+     */
+    @Param({ "10", "25" })
+    public int mSpeakers;
+
+    /**
+     * The directory the tracks are written to.
+     */
+    private Path mDirectory;
+
+    /**
+     * The capture under test.
+     */
+    private UserAudioCapture mCapture;
+
+    /**
+     * The thread writing the tracks.
+     */
+    private Thread mWriter;
+
+    /**
+     * The frame passed for every user.
+     */
+    private byte[] mFrame;
+
+    /**
+     * The number of frames passed so far, used to rotate through the speakers.
+     */
+    private long mFrames;
+
+    /**
+     * Starts a new capture writing to a temporary directory.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+	mDirectory = Files.createTempDirectory("useraudiocapturebenchmark");
+	mCapture = new UserAudioCapture(mDirectory, "benchmark", 16 * AudioRingBuffer.FRAMES_PER_SECOND,
+		2 * AudioRingBuffer.FRAMES_PER_SECOND);
+
+	mFrame = new byte[AudioRingBuffer.FRAME_SIZE];
+	new Random(42).nextBytes(mFrame);
+	mFrames = 0;
+
+	mWriter = new Thread(mCapture, "UserAudioCapture");
+	mWriter.start();
+
+    }
+
+    /**
+     * Routes a single frame to the track of the next speaker.
+     * 
+     * @param counters The events counted.
+     */
+    @Benchmark
+    public void handle(final Counters counters) {
+	final long dropped = mCapture.getDroppedFrames();
+	mCapture.handle(mFrames++ % mSpeakers, mFrame);
+	counters.dropped += mCapture.getDroppedFrames() - dropped;
+
+    }
+
+    /**
+     * Stops the capture and deletes the tracks.
+     * 
+     * @throws IOException          If an I/O error occurs.
+     * @throws InterruptedException If interrupted while waiting for the writing
+     *                              thread.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+	mCapture.stop();
+	mWriter.join();
+
+	try (final Stream<Path> files = Files.list(mDirectory)) {
+	    for (final Path file : (Iterable<Path>) files::iterator) {
+		Files.delete(file);
+
+	    }
+	}
+	Files.delete(mDirectory);
+
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.benchmark;
+
+import java.time.LocalDate;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this project with the gc profiler enabled, such that
+ * the allocation rate is reported next to every score, and writes the results
+ * as JSON. The results of two releases can be compared with any JMH result
+ * visualizer to spot regressions. Any argument is passed to JMH, e.g. a regular
+ * expression selecting the benchmarks to run, or <tt>-p mMemberCount=1000</tt>
+ * to restrict the parameters.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * The system property specifying the file the results are written to.
+     */
+    public static final String RESULT_PROPERTY = "dichotomyz.benchmark.result";
+
+    /**
+     * Runs the benchmarks. The results are written to the file given by
+     * {@link #RESULT_PROPERTY}, or to <tt>jmh-result-yyyy-MM-dd.json</tt> in the
+     * working directory.
+     * 
+     * @param args The arguments passed to JMH.
+     * @throws CommandLineOptionException If the arguments are invalid.
+     * @throws RunnerException            If a benchmark failed.
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+	final Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+		.addProfiler(GCProfiler.class).resultFormat(ResultFormatType.JSON)
+		.result(System.getProperty(RESULT_PROPERTY, "jmh-result-" + LocalDate.now() + ".json"))
+		.shouldFailOnError(true).build();
+
+	new Runner(options).run();
+
+    }
+
+    private BenchmarkRunner() {
+
+    }
+}
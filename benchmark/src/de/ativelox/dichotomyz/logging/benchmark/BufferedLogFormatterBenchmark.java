@@ -0,0 +1,226 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ativelox.dichotomyz.logging.BufferedLogFormatter;
+import de.ativelox.dichotomyz.logging.ILogger;
+import net.dv8tion.jda.core.OnlineStatus;
+import net.dv8tion.jda.core.entities.Guild;
+
+/**
+ * Measures the presence and game updates per second handled by the former
+ * bookkeeping of {@link BufferedLogFormatter} (see {@link LegacyActivityMaps})
+ * and the current one, cycling through the given number of members, as well
+ * as the time to initialize every member and to generate the daily reports of
+ * the current formatter. The former bookkeeping identifies members by their
+ * names, the current one by their ids. Run with the gc profiler to verify that
+ * updates of known members do not allocate.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BufferedLogFormatterBenchmark {
+
+    /**
+     * The statuses members cycle through.
+     */
+    private static final OnlineStatus[] CYCLE = { OnlineStatus.ONLINE, OnlineStatus.IDLE,
+	    OnlineStatus.DO_NOT_DISTURB };
+
+    /**
+     * The games members cycle through.
+     */
+    private static final String[] GAMES = { "League of Legends", "Overwatch", "Minecraft", "Spotify" };
+
+    /**
+     * The number of members of the guild.
+     */
+    @Param({ "1000", "50000", "100000" })
+    public int mMemberCount;
+
+    /**
+     * The names of the members.
+     */
+    private String[] mNames;
+
+    /**
+     * The ids of the members.
+     */
+    private long[] mIds;
+
+    /**
+     * The former bookkeeping.
+     */
+    private LegacyActivityMaps mLegacy;
+
+    /**
+     * The current formatter.
+     */
+    private BufferedLogFormatter mFormatter;
+
+    /**
+     * The number of updates so far, used to rotate through the members.
+     */
+    private long mUpdates;
+
+    /**
+     * The number of characters logged by {@link #currentLog()}.
+     */
+    private long mLogged;
+
+    /**
+     * The logger the reports are logged to, only counting the characters.
+     */
+    private final ILogger mLogger = (type, message) -> mLogged += message.length();
+
+    /**
+     * Creates a guild without any members, which doesn't know any of the ids
+     * tracked, thus the reports name the members by their ids.
+     * 
+     * @return The guild mentioned.
+     */
+    private static Guild createGuild() {
+	return (Guild) Proxy.newProxyInstance(Guild.class.getClassLoader(), new Class<?>[] { Guild.class },
+		(proxy, method, args) -> {
+		    if (method.getReturnType() == String.class) {
+			return "Benchmark";
+
+		    }
+		    if (method.getReturnType() == List.class) {
+			return Collections.emptyList();
+
+		    }
+		    return null;
+
+		});
+
+    }
+
+    /**
+     * Initializes both implementations with every member online.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+	mNames = new String[mMemberCount];
+	mIds = new long[mMemberCount];
+
+	for (int i = 0; i < mMemberCount; i++) {
+	    mNames[i] = "Member" + i;
+	    mIds[i] = 301234567890123456L + ((long) i << 22);
+
+	}
+	mLegacy = legacyInit();
+	mFormatter = currentInit();
+	mFormatter.init(createGuild());
+	mUpdates = 0;
+	mLogged = 0;
+
+    }
+
+    /**
+     * Initializes the current formatter, as done on startup and every day.
+     * 
+     * @return The formatter.
+     */
+    @Benchmark
+    public BufferedLogFormatter currentInit() {
+	final BufferedLogFormatter formatter = new BufferedLogFormatter();
+
+	for (int i = 0; i < mIds.length; i++) {
+	    formatter.addActivityChange(mIds[i], null, GAMES[i % GAMES.length]);
+
+	    for (final OnlineStatus status : OnlineStatus.values()) {
+		formatter.addStatusChange(mIds[i], status);
+
+	    }
+	}
+	return formatter;
+
+    }
+
+    /**
+     * Generates the daily reports of the current formatter, as done every day.
+     * 
+     * @return The number of characters logged so far.
+     */
+    @Benchmark
+    public long currentLog() {
+	mFormatter.log(mLogger);
+	return mLogged;
+
+    }
+
+    /**
+     * Lets the next member change its status and game with the current
+     * formatter.
+     */
+    @Benchmark
+    public void currentUpdate() {
+	final long update = mUpdates++;
+	final int member = (int) (update % mNames.length);
+	final int round = (int) (update / mNames.length);
+
+	mFormatter.addStatusChange(mIds[member], CYCLE[(round + 1) % CYCLE.length]);
+	mFormatter.addActivityChange(mIds[member], GAMES[(member + round) % GAMES.length], null);
+	mFormatter.addActivityChange(mIds[member], null, GAMES[(member + round + 1) % GAMES.length]);
+
+    }
+
+    /**
+     * Initializes the former bookkeeping, as done on startup and every day.
+     * 
+     * @return The bookkeeping.
+     */
+    @Benchmark
+    public LegacyActivityMaps legacyInit() {
+	final LegacyActivityMaps legacy = new LegacyActivityMaps();
+
+	for (int i = 0; i < mNames.length; i++) {
+	    legacy.init(mNames[i], GAMES[i % GAMES.length]);
+
+	}
+	return legacy;
+
+    }
+
+    /**
+     * Lets the next member change its status and game with the former
+     * bookkeeping.
+     */
+    @Benchmark
+    public void legacyUpdate() {
+	final long update = mUpdates++;
+	final int member = (int) (update % mNames.length);
+	final int round = (int) (update / mNames.length);
+
+	mLegacy.addStatusChange(mNames[member], CYCLE[round % CYCLE.length], CYCLE[(round + 1) % CYCLE.length]);
+	mLegacy.addActivityChange(mNames[member], GAMES[(member + round) % GAMES.length], null);
+	mLegacy.addActivityChange(mNames[member], null, GAMES[(member + round + 1) % GAMES.length]);
+
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.FTPLogger;
+import de.ativelox.dichotomyz.utils.FTPConnectionPool;
+
+/**
+ * Measures the uploads per second of the former implementation of
+ * {@link FTPLogger} (see {@link LegacyFTPLogger}) and the current one, against
+ * a {@link SimulatedFTPClient} with the given round-trip time. The number of
+ * commands sent, connects and threads started while logging are reported as
+ * secondary results by {@link Counters}. The former implementation starts a
+ * thread per message to disconnect after a timeout, while the current one
+ * shares the thread of the
+ * {@link de.ativelox.dichotomyz.callbacks.IdleTimeoutReaper}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class FTPLoggerBenchmark {
+
+    /**
+     * The events counted while logging, reset every iteration and reported by
+     * JMH alongside the throughput.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+	/**
+	 * The number of messages logged.
+	 */
+	public long logs;
+
+	/**
+	 * The number of commands sent to the server.
+	 */
+	public long commands;
+
+	/**
+	 * The number of connections opened by the current implementation.
+	 */
+	public long connects;
+
+	/**
+	 * The number of threads started.
+	 */
+	public long threads;
+
+	/**
+	 * The number of threads started before the iteration.
+	 */
+	private long mStartedThreads;
+
+	/**
+	 * Resets every counter.
+	 */
+	@Setup(Level.Iteration)
+	public void reset() {
+	    logs = 0;
+	    commands = 0;
+	    connects = 0;
+	    threads = 0;
+	    mStartedThreads = ManagementFactory.getThreadMXBean().getTotalStartedThreadCount();
+
+	}
+
+	/**
+	 * Counts a single message logged by the given client.
+	 * 
+	 * @param client         The client the message was uploaded with.
+	 * @param commandsBefore The number of commands sent by the client before
+	 *                       logging.
+	 */
+	private void count(final SimulatedFTPClient client, final long commandsBefore) {
+	    logs++;
+	    commands += client.getCommandCount() - commandsBefore;
+	    threads = ManagementFactory.getThreadMXBean().getTotalStartedThreadCount() - mStartedThreads;
+
+	}
+    }
+
+    /**
+     * The message logged.
+     */
+    private static final String MESSAGE = "Ativelox#1234 changed status from ONLINE to IDLE";
+
+    /**
+     * The time a single round-trip to the server takes in us.
+     */
+    @Param({ "200", "1000" })
+    public long mRoundTripMicros;
+
+    /**
+     * The client used by the former implementation.
+     */
+    private SimulatedFTPClient mLegacyClient;
+
+    /**
+     * The former implementation.
+     */
+    private LegacyFTPLogger mLegacy;
+
+    /**
+     * The client used by the current implementation.
+     */
+    private SimulatedFTPClient mPooledClient;
+
+    /**
+     * The pool used by the current implementation.
+     */
+    private FTPConnectionPool mPool;
+
+    /**
+     * The current implementation.
+     */
+    private FTPLogger mPooled;
+
+    /**
+     * Creates both loggers.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+	mLegacyClient = new SimulatedFTPClient(mRoundTripMicros);
+	mLegacy = new LegacyFTPLogger(mLegacyClient);
+
+	mPooledClient = new SimulatedFTPClient(mRoundTripMicros);
+	mPool = new FTPConnectionPool("localhost", "user", "password", 1, 30000, 300000, () -> mPooledClient);
+	mPooled = new FTPLogger("", mPool);
+
+    }
+
+    /**
+     * Logs a message using the former implementation.
+     * 
+     * @param counters The events counted.
+     */
+    @Benchmark
+    public void legacyLog(final Counters counters) {
+	final long commands = mLegacyClient.getCommandCount();
+	mLegacy.log(ELogType.INFO, MESSAGE);
+	counters.count(mLegacyClient, commands);
+
+    }
+
+    /**
+     * Logs a message using the current implementation.
+     * 
+     * @param counters The events counted.
+     */
+    @Benchmark
+    public void pooledLog(final Counters counters) {
+	final long commands = mPooledClient.getCommandCount();
+	final long connects = mPool.getConnectCount();
+	mPooled.log(ELogType.INFO, MESSAGE);
+	counters.count(mPooledClient, commands);
+	counters.connects += mPool.getConnectCount() - connects;
+
+    }
+
+    /**
+     * Closes both loggers.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+	mLegacy.close();
+	mPooled.close();
+
+    }
+}
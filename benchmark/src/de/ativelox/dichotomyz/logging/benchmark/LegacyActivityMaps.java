@@ -0,0 +1,118 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.ativelox.dichotomyz.logging.BufferedLogFormatter;
+import de.ativelox.dichotomyz.utils.TimestampedEntry;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides a copy of the former bookkeeping of {@link BufferedLogFormatter},
+ * used as baseline by {@link BufferedLogFormatterBenchmark}. Every change
+ * allocates a new {@link TimestampedEntry} and a boxed {@link Long}, held by
+ * nested hash maps keyed by the names of the users.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+final class LegacyActivityMaps {
+
+    /**
+     * A mapping from user names to each of their online statuses associated with
+     * their current active time.
+     */
+    private final Map<String, Map<OnlineStatus, TimestampedEntry<Long>>> mStatusMap;
+
+    /**
+     * A mapping from user names to each of their played games associated with
+     * their current active time.
+     */
+    private final Map<String, Map<String, TimestampedEntry<Long>>> mActivityMap;
+
+    /**
+     * Creates a new {@link LegacyActivityMaps}.
+     */
+    LegacyActivityMaps() {
+	mStatusMap = new HashMap<>();
+	mActivityMap = new HashMap<>();
+
+    }
+
+    /**
+     * Adds a change in the activity of a user, as done formerly.
+     * 
+     * @param affectedName The name of the affected user.
+     * @param oldGameName  The name of the game this user has stopped playing.
+     * @param newGameName  The name of the game this user has started playing.
+     */
+    void addActivityChange(final String affectedName, final String oldGameName, final String newGameName) {
+	final Map<String, TimestampedEntry<Long>> toUpdate = mActivityMap.get(affectedName);
+
+	if (oldGameName == null && newGameName == null) {
+	    return;
+	}
+
+	if (oldGameName == null) {
+	    if (toUpdate.get(newGameName) == null) {
+		toUpdate.put(newGameName, new TimestampedEntry<Long>(0L));
+
+	    }
+	    final TimestampedEntry<Long> oldEntry = toUpdate.get(newGameName);
+	    toUpdate.put(newGameName, new TimestampedEntry<Long>(oldEntry.getEntry()));
+
+	} else if (oldGameName.equals(newGameName)) {
+	    return;
+
+	} else if (newGameName == null) {
+	    final TimestampedEntry<Long> oldEntry = toUpdate.get(oldGameName);
+	    toUpdate.put(oldGameName, new TimestampedEntry<Long>(oldEntry.getEntry() + oldEntry.getDifference()));
+
+	}
+    }
+
+    /**
+     * Adds a change in the online status of a user, as done formerly.
+     * 
+     * @param affectedName The name of the affected user.
+     * @param oldStatus    The old online status of the user.
+     * @param newStatus    The new online status of the user.
+     */
+    void addStatusChange(final String affectedName, final OnlineStatus oldStatus, final OnlineStatus newStatus) {
+	final Map<OnlineStatus, TimestampedEntry<Long>> toUpdate = mStatusMap.get(affectedName);
+
+	if (oldStatus.equals(OnlineStatus.UNKNOWN)) {
+	    toUpdate.put(newStatus, new TimestampedEntry<Long>(0L));
+	    return;
+
+	}
+	final TimestampedEntry<Long> oldStatusTimestamp = toUpdate.get(oldStatus);
+	toUpdate.put(oldStatus,
+		new TimestampedEntry<Long>(oldStatusTimestamp.getDifference() + oldStatusTimestamp.getEntry()));
+
+	toUpdate.put(newStatus, new TimestampedEntry<Long>(toUpdate.get(newStatus).getEntry()));
+
+    }
+
+    /**
+     * Registers the given user, as done formerly for every member on
+     * initialization.
+     * 
+     * @param name The name of the user.
+     * @param game The name of the game the user plays, or <tt>null</tt>.
+     */
+    void init(final String name, final String game) {
+	mActivityMap.put(name, new HashMap<>());
+	mStatusMap.put(name, new HashMap<>());
+
+	addActivityChange(name, null, game);
+
+	for (final OnlineStatus status : OnlineStatus.values()) {
+	    addStatusChange(name, OnlineStatus.UNKNOWN, status);
+
+	}
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import de.ativelox.dichotomyz.ProjectPaths;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.FTPLogger;
+import de.ativelox.dichotomyz.logging.ILogger;
+import it.sauronsoftware.ftp4j.FTPAbortedException;
+import it.sauronsoftware.ftp4j.FTPClient;
+import it.sauronsoftware.ftp4j.FTPDataTransferException;
+import it.sauronsoftware.ftp4j.FTPException;
+import it.sauronsoftware.ftp4j.FTPIllegalReplyException;
+
+/**
+ * Provides a copy of the former implementation of {@link FTPLogger}, used as
+ * baseline by {@link FTPLoggerBenchmark}. Every log starts a new thread
+ * disconnecting the client after 5 seconds, walks up to the root directory and
+ * down to the target directory, and uploads the message as a whole new file.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+final class LegacyFTPLogger implements ILogger {
+
+    /**
+     * The time in milliseconds the client disconnects from the server.
+     */
+    private static final long FTP_TIMEOUT = 5000;
+
+    /**
+     * The underlying ftp client.
+     */
+    private final FTPClient mClient;
+
+    /**
+     * The thread used to timeout the FTP connection.
+     */
+    private Thread mInterruptionThread;
+
+    /**
+     * Whether the underlying client is currently logged into the FTP service or
+     * not.
+     */
+    private volatile boolean mLoggedIn;
+
+    /**
+     * Creates a new {@link LegacyFTPLogger}.
+     * 
+     * @param client The underlying ftp client.
+     */
+    LegacyFTPLogger(final FTPClient client) {
+	mClient = client;
+	mLoggedIn = false;
+	mInterruptionThread = new Thread(this::terminate);
+
+    }
+
+    /**
+     * Changes the directory of the given client to the given directoy, by walking
+     * up to the root directory first.
+     * 
+     * @param client The currently logged in client.
+     * @param dir    The directory to switch to.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     */
+    private static void changeDir(final FTPClient client, final String dir)
+	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException {
+	String curDir = client.currentDirectory();
+
+	while (true) {
+	    client.changeDirectoryUp();
+
+	    if (curDir.equals(client.currentDirectory())) {
+		break;
+
+	    }
+	    curDir = client.currentDirectory();
+
+	}
+
+	final String[] dirs = dir.split("//");
+
+	for (int i = 0; i < dirs.length; i++) {
+	    client.changeDirectory(dirs[i] + "/");
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+     * ELogType, java.lang.String)
+     */
+    @Override
+    public void log(final ELogType type, final String message) {
+	mInterruptionThread.interrupt();
+	mInterruptionThread = new Thread(this::terminate);
+
+	if (!mLoggedIn) {
+	    try {
+		mClient.connect("localhost");
+		mClient.login("user", "password");
+		mLoggedIn = true;
+
+	    } catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
+		e.printStackTrace();
+		return;
+
+	    }
+	}
+
+	try {
+	    changeDir(mClient, ProjectPaths.DEBUG_PATH);
+	    mClient.upload("Info.log", new ByteArrayInputStream(message.getBytes()), 0, 0, null);
+
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException
+		| FTPDataTransferException | FTPAbortedException e) {
+	    e.printStackTrace();
+
+	}
+
+	mInterruptionThread.start();
+    }
+
+    /**
+     * Disconnects the client after {@link LegacyFTPLogger#FTP_TIMEOUT}, unless
+     * interrupted.
+     */
+    private void terminate() {
+	try {
+	    Thread.sleep(FTP_TIMEOUT);
+
+	} catch (final InterruptedException e) {
+	    return;
+
+	}
+
+	try {
+	    mClient.disconnect(true);
+	    mLoggedIn = false;
+
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
+	    e.printStackTrace();
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logging.ILogger#close()
+     */
+    @Override
+    public void close() {
+	mInterruptionThread.interrupt();
+
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ativelox.dichotomyz.ProjectPaths;
+import de.ativelox.dichotomyz.logging.EFsyncPolicy;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.LocalFileLogger;
+
+/**
+ * Measures the logs per second written by the former implementation of
+ * {@link LocalFileLogger} (see {@link LegacyLocalFileLogger}) and the current
+ * one, committing every log or batches of {@link #BATCH} logs with the given
+ * fsync policy, as done behind an
+ * {@link de.ativelox.dichotomyz.logging.AsyncLogger AsyncLogger}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class LocalFileLoggerBenchmark {
+
+    /**
+     * The number of logs committed at once.
+     */
+    private static final int BATCH = 64;
+
+    /**
+     * The message logged.
+     */
+    private static final String MESSAGE = "Ativelox#1234 joined the voice channel General";
+
+    /**
+     * The way committed logs are forced to the storage device.
+     */
+    @Param({ "NONE", "COMMIT" })
+    public EFsyncPolicy mFsyncPolicy;
+
+    /**
+     * The directory the logs are written to.
+     */
+    private Path mDirectory;
+
+    /**
+     * The former implementation.
+     */
+    private LegacyLocalFileLogger mLegacy;
+
+    /**
+     * The current implementation, committing every log.
+     */
+    private LocalFileLogger mCommitEach;
+
+    /**
+     * The current implementation, committing in groups.
+     */
+    private LocalFileLogger mGroupCommit;
+
+    /**
+     * Creates every logger, writing to a temporary directory.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+	mDirectory = Files.createTempDirectory("localfileloggerbenchmark");
+	Files.createDirectories(mDirectory.resolve("legacy").resolve(ProjectPaths.DEBUG_PATH));
+
+	mLegacy = new LegacyLocalFileLogger(mDirectory.resolve("legacy") + "/");
+	mCommitEach = new LocalFileLogger(mDirectory.resolve("each") + "/", false, mFsyncPolicy);
+	mGroupCommit = new LocalFileLogger(mDirectory.resolve("group") + "/", true, mFsyncPolicy);
+
+    }
+
+    /**
+     * Logs a message using the former implementation.
+     */
+    @Benchmark
+    public void legacyLog() {
+	mLegacy.log(ELogType.INFO, MESSAGE);
+
+    }
+
+    /**
+     * Logs a message using the current implementation, committing it right away.
+     */
+    @Benchmark
+    public void commitEach() {
+	mCommitEach.log(ELogType.INFO, MESSAGE);
+
+    }
+
+    /**
+     * Logs a batch of messages using the current implementation, committing them
+     * at once.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void groupCommit() {
+	for (int i = 0; i < BATCH; i++) {
+	    mGroupCommit.log(ELogType.INFO, MESSAGE);
+
+	}
+	mGroupCommit.flush();
+
+    }
+
+    /**
+     * Closes every logger and deletes the logs.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+	mCommitEach.close();
+	mGroupCommit.close();
+
+	try (final Stream<Path> files = Files.walk(mDirectory)) {
+	    final Object[] paths = files.sorted((a, b) -> b.compareTo(a)).toArray();
+
+	    for (final Object path : paths) {
+		Files.delete((Path) path);
+
+	    }
+	}
+    }
+}
@@ -0,0 +1,386 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import it.sauronsoftware.ftp4j.FTPClient;
+import it.sauronsoftware.ftp4j.FTPDataTransferListener;
+import it.sauronsoftware.ftp4j.FTPException;
+import it.sauronsoftware.ftp4j.FTPFile;
+
+/**
+ * Provides a stand-in for a FTP server, embedded into the client. Every
+ * command sent over the control connection costs the given round-trip time,
+ * and every transfer additionally opens a data connection, costing another
+ * round-trip. Directories are created implicitly, and the size of every file
+ * is tracked, so the number of commands and bytes sent can be compared
+ * between implementations without a real server.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class SimulatedFTPClient extends FTPClient {
+
+    /**
+     * The reply code sent if a file or directory doesn't exist.
+     */
+    private static final int FILE_UNAVAILABLE = 550;
+
+    /**
+     * The time a single round-trip takes in ns.
+     */
+    private final long mRoundTripNanos;
+
+    /**
+     * The segments of the current working directory.
+     */
+    private final List<String> mDirectory;
+
+    /**
+     * The absolute paths of every directory on the server.
+     */
+    private final Set<String> mDirectories;
+
+    /**
+     * A mapping from the absolute paths of the files on the server to their
+     * sizes.
+     */
+    private final Map<String, Long> mFiles;
+
+    /**
+     * The number of commands sent.
+     */
+    private final AtomicLong mCommands;
+
+    /**
+     * The number of bytes transferred.
+     */
+    private final AtomicLong mBytes;
+
+    /**
+     * Whether this client is connected or not.
+     */
+    private boolean mConnected;
+
+    /**
+     * Whether this client is logged in or not.
+     */
+    private boolean mAuthenticated;
+
+    /**
+     * Creates a new {@link SimulatedFTPClient}.
+     * 
+     * @param roundTripMicros The time a single round-trip takes in us.
+     */
+    public SimulatedFTPClient(final long roundTripMicros) {
+	mRoundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+	mDirectory = new ArrayList<>();
+	mDirectories = new HashSet<>();
+	mDirectories.add("/");
+	mFiles = new HashMap<>();
+	mCommands = new AtomicLong();
+	mBytes = new AtomicLong();
+
+    }
+
+    /**
+     * Gets the absolute path of the current working directory.
+     * 
+     * @return The path mentioned.
+     */
+    private String absolute() {
+	return "/" + String.join("/", mDirectory);
+
+    }
+
+    /**
+     * Gets the absolute path of the given file in the current working directory.
+     * 
+     * @param name The name of the file.
+     * @return The path mentioned.
+     */
+    private String absolute(final String name) {
+	return mDirectory.isEmpty() ? "/" + name : absolute() + "/" + name;
+
+    }
+
+    /**
+     * Simulates a single command sent over the control connection.
+     */
+    private void command() {
+	mCommands.incrementAndGet();
+
+	if (mRoundTripNanos > 0) {
+	    LockSupport.parkNanos(mRoundTripNanos);
+
+	}
+    }
+
+    /**
+     * Gets the number of bytes transferred.
+     * 
+     * @return The number mentioned.
+     */
+    public long getBytesTransferred() {
+	return mBytes.get();
+
+    }
+
+    /**
+     * Gets the number of commands sent.
+     * 
+     * @return The number mentioned.
+     */
+    public long getCommandCount() {
+	return mCommands.get();
+
+    }
+
+    /**
+     * Simulates a transfer of the given stream to the given file.
+     * 
+     * @param name   The name of the file.
+     * @param in     The stream to transfer.
+     * @param append Whether the data is appended to the file or replaces it.
+     * @throws IOException If reading the stream fails.
+     */
+    private void transfer(final String name, final InputStream in, final boolean append) throws IOException {
+	// PASV and STOR/APPE
+	command();
+	command();
+
+	long size = 0;
+	final byte[] buffer = new byte[8192];
+	int read;
+
+	while ((read = in.read(buffer)) != -1) {
+	    size += read;
+
+	}
+	mBytes.addAndGet(size);
+
+	final String path = absolute(name);
+	mFiles.put(path, append && mFiles.containsKey(path) ? mFiles.get(path) + size : size);
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#append(java.lang.String,
+     * java.io.InputStream, long, it.sauronsoftware.ftp4j.FTPDataTransferListener)
+     */
+    @Override
+    public void append(final String name, final InputStream in, final long offset,
+	    final FTPDataTransferListener listener) throws IOException {
+	transfer(name, in, true);
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#changeDirectory(java.lang.String)
+     */
+    @Override
+    public void changeDirectory(final String path) throws FTPException {
+	command();
+	final List<String> target = new ArrayList<>(path.startsWith("/") ? new ArrayList<>() : mDirectory);
+
+	for (final String segment : path.split("/")) {
+	    if (segment.isEmpty() || segment.equals(".")) {
+		continue;
+
+	    }
+
+	    if (segment.equals("..")) {
+		if (!target.isEmpty()) {
+		    target.remove(target.size() - 1);
+
+		}
+	    } else {
+		target.add(segment);
+
+	    }
+	}
+	mDirectory.clear();
+	mDirectory.addAll(target);
+	mDirectories.add(absolute());
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#changeDirectoryUp()
+     */
+    @Override
+    public void changeDirectoryUp() {
+	command();
+
+	if (!mDirectory.isEmpty()) {
+	    mDirectory.remove(mDirectory.size() - 1);
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#connect(java.lang.String)
+     */
+    @Override
+    public String[] connect(final String host) {
+	command();
+	mConnected = true;
+	return new String[0];
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#createDirectory(java.lang.String)
+     */
+    @Override
+    public void createDirectory(final String path) {
+	command();
+	mDirectories.add(path.startsWith("/") ? path : absolute(path));
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#currentDirectory()
+     */
+    @Override
+    public String currentDirectory() {
+	command();
+	return absolute();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#disconnect(boolean)
+     */
+    @Override
+    public void disconnect(final boolean sendQuitCommand) {
+	if (sendQuitCommand) {
+	    command();
+
+	}
+	mConnected = false;
+	mAuthenticated = false;
+	mDirectory.clear();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#fileSize(java.lang.String)
+     */
+    @Override
+    public long fileSize(final String path) throws FTPException {
+	command();
+	final Long size = mFiles.get(path.startsWith("/") ? path : absolute(path));
+
+	if (size == null) {
+	    throw new FTPException(FILE_UNAVAILABLE, "No such file: " + path);
+
+	}
+	return size;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#isAuthenticated()
+     */
+    @Override
+    public boolean isAuthenticated() {
+	return mAuthenticated;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#isConnected()
+     */
+    @Override
+    public boolean isConnected() {
+	return mConnected;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#list()
+     */
+    @Override
+    public FTPFile[] list() {
+	// PASV and LIST
+	command();
+	command();
+	return new FTPFile[0];
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#login(java.lang.String,
+     * java.lang.String)
+     */
+    @Override
+    public void login(final String user, final String password) {
+	// USER and PASS
+	command();
+	command();
+	mAuthenticated = true;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#noop()
+     */
+    @Override
+    public void noop() {
+	command();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see it.sauronsoftware.ftp4j.FTPClient#upload(java.lang.String,
+     * java.io.InputStream, long, long,
+     * it.sauronsoftware.ftp4j.FTPDataTransferListener)
+     */
+    @Override
+    public void upload(final String name, final InputStream in, final long restartAt, final long streamOffset,
+	    final FTPDataTransferListener listener) throws IOException {
+	transfer(name, in, false);
+
+    }
+}
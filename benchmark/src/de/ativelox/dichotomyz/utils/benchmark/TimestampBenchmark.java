@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.utils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Measures the time taken by the conversions of {@link Timestamp}, which are
+ * done for every log and every line of the daily reports. Run with the gc
+ * profiler to verify that appending a duration to a reused builder does not
+ * allocate.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TimestampBenchmark {
+
+    /**
+     * The durations converted, cycling through them.
+     */
+    private static final long[] DURATIONS = { 0, 999, 61_000, 3_599_999, 86_399_999, 360_000_000_000L };
+
+    /**
+     * The builder reused by {@link #appendReadable()}.
+     */
+    private final StringBuilder mBuilder = new StringBuilder(32);
+
+    /**
+     * The number of conversions so far, used to rotate through the durations.
+     */
+    private int mConversions;
+
+    /**
+     * Appends the next duration to a reused builder, as done by the daily
+     * reports.
+     * 
+     * @return The builder.
+     */
+    @Benchmark
+    public StringBuilder appendReadable() {
+	mBuilder.setLength(0);
+	return Timestamp.appendReadable(mBuilder, DURATIONS[mConversions++ % DURATIONS.length]);
+
+    }
+
+    /**
+     * Gets the current date, as done for every log file.
+     * 
+     * @return The date.
+     */
+    @Benchmark
+    public String getCurrentDate() {
+	return Timestamp.getCurrentDate();
+
+    }
+
+    /**
+     * Gets the current time, as done for every log.
+     * 
+     * @return The time.
+     */
+    @Benchmark
+    public String getCurrentTime() {
+	return Timestamp.getCurrentTime();
+
+    }
+
+    /**
+     * Converts the next duration to a new string.
+     * 
+     * @return The string.
+     */
+    @Benchmark
+    public String msToReadable() {
+	return Timestamp.msToReadable(DURATIONS[mConversions++ % DURATIONS.length]);
+
+    }
+}
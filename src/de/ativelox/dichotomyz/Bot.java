@@ -1,13 +1,23 @@
 package de.ativelox.dichotomyz;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import javax.security.auth.login.LoginException;
 
 import de.ativelox.dichotomyz.settings.SettingsProvider;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.JDABuilder;
+import net.dv8tion.jda.core.utils.SessionController;
+import net.dv8tion.jda.core.utils.SessionControllerAdapter;
 
 /**
- * Provides a container for a built JDA client.
+ * Provides a container for a built JDA client. If more than one shard is
+ * configured by {@link SettingsProvider#getShardCount()}, one client per shard
+ * is built, all sharing the same {@link Listeners} and the same
+ * {@link SessionController}, which spaces out the logins of the shards, since
+ * discord only accepts a single login every 5 seconds.
  * 
  * @author Ativelox {@literal<ativelox.dev@web.de>}
  *
@@ -20,30 +30,53 @@ public class Bot {
     }
 
     /**
-     * The underlying JDA client.
+     * The underlying JDA client, i.e. the first shard.
      */
     public JDA mClient;
 
     /**
-     * Builds a {@link JDA} client and initializes the {@link SettingsProvider}.
+     * The underlying JDA clients, one per shard.
+     */
+    private final List<JDA> mShards;
+
+    /**
+     * Builds a {@link JDA} client per shard and initializes the
+     * {@link SettingsProvider}.
      */
     public Bot() {
 	SettingsProvider.init();
 
-	JDABuilder a = new JDABuilder(SettingsProvider.getToken());
+	final int shardCount = SettingsProvider.getShardCount();
+	final Listeners listeners = new Listeners(this);
+	final List<JDA> shards = new ArrayList<>(shardCount);
+	final SessionController sessions = new SessionControllerAdapter();
+
 	mClient = null;
 	try {
-	    a.addEventListener(new Listeners(this));
-	    mClient = a.build();
+	    for (int shard = 0; shard < shardCount; shard++) {
+		JDABuilder a = new JDABuilder(SettingsProvider.getToken());
+
+		if (shardCount > 1) {
+		    a.useSharding(shard, shardCount);
+
+		}
+		a.setSessionController(sessions);
+		a.addEventListener(new MeteredEventListener(listeners));
+		shards.add(a.build());
+
+	    }
+	    mClient = shards.get(0);
 
 	} catch (final LoginException e) {
 	    e.printStackTrace();
 
 	}
+	mShards = Collections.unmodifiableList(shards);
+
     }
 
     /**
-     * Gets the underlying JDA client.
+     * Gets the underlying JDA client, i.e. the first shard.
      * 
      * @return The JDA client.
      */
@@ -53,10 +86,22 @@ public class Bot {
     }
 
     /**
-     * Logs this client out of discords service.
+     * Gets the underlying JDA clients, one per shard.
+     * 
+     * @return The JDA clients.
+     */
+    public List<JDA> getShards() {
+	return mShards;
+
+    }
+
+    /**
+     * Logs every shard of this client out of discords service.
      */
     public void logout() {
-	mClient.shutdown();
+	for (final JDA shard : mShards) {
+	    shard.shutdown();
 
+	}
     }
 }
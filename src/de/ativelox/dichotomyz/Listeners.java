@@ -1,36 +1,64 @@
 package de.ativelox.dichotomyz;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import de.ativelox.dichotomyz.audio.AudioChatHandler;
 import de.ativelox.dichotomyz.callbacks.IDayCallback;
 import de.ativelox.dichotomyz.callbacks.IIntervalCallback;
 import de.ativelox.dichotomyz.callbacks.TimeObserver;
-import de.ativelox.dichotomyz.exceptions.UnexpectedGuildSizeException;
+import de.ativelox.dichotomyz.history.ActivityIndex;
+import de.ativelox.dichotomyz.history.EventJournal;
 import de.ativelox.dichotomyz.logging.BufferedLogFormatter;
 import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.FormatterShards;
 import de.ativelox.dichotomyz.logging.ILogger;
 import de.ativelox.dichotomyz.logging.Logger;
+import de.ativelox.dichotomyz.metrics.MetricsMBean;
+import de.ativelox.dichotomyz.metrics.MetricsRegistry;
+import de.ativelox.dichotomyz.metrics.MetricsReporter;
 import de.ativelox.dichotomyz.settings.SettingsProvider;
+import de.ativelox.dichotomyz.utils.Timestamp;
 import de.ativelox.dichotomyz.utils.UserUtils;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.events.ReadyEvent;
 import net.dv8tion.jda.core.events.ShutdownEvent;
+import net.dv8tion.jda.core.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.core.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.core.events.guild.voice.GenericGuildVoiceEvent;
 import net.dv8tion.jda.core.events.guild.voice.GuildVoiceJoinEvent;
 import net.dv8tion.jda.core.events.guild.voice.GuildVoiceLeaveEvent;
 import net.dv8tion.jda.core.events.guild.voice.GuildVoiceMoveEvent;
 import net.dv8tion.jda.core.events.message.priv.PrivateMessageReceivedEvent;
+import net.dv8tion.jda.core.events.user.update.UserUpdateDiscriminatorEvent;
 import net.dv8tion.jda.core.events.user.update.UserUpdateGameEvent;
+import net.dv8tion.jda.core.events.user.update.UserUpdateNameEvent;
 import net.dv8tion.jda.core.events.user.update.UserUpdateOnlineStatusEvent;
 import net.dv8tion.jda.core.hooks.ListenerAdapter;
 import net.dv8tion.jda.core.managers.AudioManager;
 
 /**
  * Implementation for the {@link ListenerAdapter} which forwards specific events
- * and handles them to create logs of user activity and the like.
+ * and handles them to create logs of user activity and the like. A single
+ * instance may listen to several shards, the activity of every guild is
+ * tracked by its own {@link BufferedLogFormatter}. The tracked activity is
+ * checkpointed in the interval given by
+ * {@link SettingsProvider#getCheckpointInterval()}, and restored once the guilds
+ * are ready after a crash. Every change is recorded in an {@link EventJournal},
+ * unless disabled by {@link SettingsProvider#isJournalEnabled()}, and indexed
+ * into an {@link ActivityIndex} once a day has passed. The metrics of the
+ * {@link MetricsRegistry} are exposed via JMX and written to disk in the
+ * interval given by {@link SettingsProvider#getMetricsInterval()}.
  * 
  * @author Ativelox {@literal<ativelox.dev@web.de>}
  *
  */
-public class Listeners extends ListenerAdapter implements IDayCallback {
+public class Listeners extends ListenerAdapter implements IDayCallback, IIntervalCallback {
 
     /**
      * The audio chat handler, used to send and receive audio on this client.
@@ -38,11 +66,37 @@ public class Listeners extends ListenerAdapter implements IDayCallback {
     private final AudioChatHandler mCaf;
 
     /**
-     * The formatter used to format given log messages in a user-friendly fashion.
-     * Every logging call should be made to this instance, since it forwards those
-     * to the underlying {@link ILogger}.
+     * The formatters used to format given log messages in a user-friendly
+     * fashion, one per guild. Every logging call should be made to these
+     * instances, since they forward those to the underlying {@link ILogger}.
+     */
+    private final FormatterShards mShards;
+
+    /**
+     * The journal every change in status and game is recorded in, or
+     * <tt>null</tt> if disabled.
+     */
+    private final EventJournal mJournal;
+
+    /**
+     * The index of the journal, or <tt>null</tt> if the journal is disabled.
      */
-    private BufferedLogFormatter mFormatter;
+    private final ActivityIndex mIndex;
+
+    /**
+     * Writes the metrics to disk, or <tt>null</tt> if disabled.
+     */
+    private final MetricsReporter mReporter;
+
+    /**
+     * The number of shards ready and not yet shut down.
+     */
+    private final AtomicInteger mRunningShards;
+
+    /**
+     * Whether the {@link TimeObserver} has been started yet.
+     */
+    private final AtomicBoolean mTimeObserverStarted;
 
     /**
      * The client this listener operates on.
@@ -67,7 +121,27 @@ public class Listeners extends ListenerAdapter implements IDayCallback {
 	mTimeObserver = new TimeObserver();
 	mTimeObserver.add(this);
 
-	mFormatter = new BufferedLogFormatter();
+	final int checkpointInterval = SettingsProvider.getCheckpointInterval();
+
+	if (checkpointInterval > 0) {
+	    mShards = new FormatterShards(Runtime.getRuntime().availableProcessors(),
+		    Paths.get(ProjectPaths.CHECKPOINT_PATH));
+	    mTimeObserver.add(this, TimeUnit.SECONDS.toMillis(checkpointInterval));
+
+	} else {
+	    mShards = new FormatterShards();
+
+	}
+	mJournal = SettingsProvider.isJournalEnabled() ? openJournal() : null;
+	mIndex = mJournal == null ? null : openIndex();
+
+	MetricsMBean.register();
+	final int metricsInterval = SettingsProvider.getMetricsInterval();
+	mReporter = metricsInterval > 0 ? new MetricsReporter(MetricsRegistry.Get(),
+		Paths.get(ProjectPaths.METRICS_PATH), TimeUnit.SECONDS.toMillis(metricsInterval)) : null;
+
+	mRunningShards = new AtomicInteger();
+	mTimeObserverStarted = new AtomicBoolean();
 	mClient = client;
     }
 
@@ -93,24 +167,101 @@ public class Listeners extends ListenerAdapter implements IDayCallback {
 	am.setReceivingHandler(mCaf);
 	am.setSendingHandler(mCaf);
 
+	mCaf.startRecording(Timestamp.getCurrentDate() + " - " + Timestamp.getCurrentTime().replace(':', '-'));
+
     }
 
     /**
-     * Initializes this listener, and is called after the
+     * Initializes this listener for the given shard, and is called after the
      * {@link Listeners#onReady(ReadyEvent) onReady} event is fired, allowing for
      * data-fetching which is server specific.
+     * 
+     * @param shard The shard which is ready.
+     */
+    private void init(final JDA shard) {
+	for (final Guild guild : shard.getGuilds()) {
+	    mShards.addGuild(guild);
+	    journalGuild(guild);
+
+	}
+    }
+
+    /**
+     * Records the initial online status and game of every member of the given
+     * guild in the journal, if enabled.
+     * 
+     * @param guild The guild mentioned.
      */
-    private void init() {
+    private void journalGuild(final Guild guild) {
+	if (mJournal == null) {
+	    return;
+
+	}
+	final long now = System.currentTimeMillis();
 
 	try {
-	    mFormatter.init(UserUtils.getAllUsers());
+	    for (final Member member : guild.getMembers()) {
+		final long id = member.getUser().getIdLong();
+		final String game = UserUtils.getUniformGameName(member.getGame());
+
+		mJournal.recordStatus(now, guild.getIdLong(), id, null, member.getOnlineStatus());
+
+		if (game != null) {
+		    mJournal.recordGame(now, guild.getIdLong(), id, null, game);
+
+		}
+	    }
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when writing the journal, " + e.getMessage());
+
+	}
+    }
+
+    /**
+     * Opens the index of the journal in {@link ProjectPaths#INDEX_PATH}.
+     * 
+     * @return The index, or <tt>null</tt> if it couldn't be opened.
+     */
+    private static ActivityIndex openIndex() {
+	try {
+	    return new ActivityIndex(Paths.get(ProjectPaths.INDEX_PATH), Paths.get(ProjectPaths.JOURNAL_PATH));
+
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when opening the index, " + e.getMessage());
+	    return null;
+
+	}
+    }
+
+    /**
+     * Opens the journal in {@link ProjectPaths#JOURNAL_PATH}.
+     * 
+     * @return The journal, or <tt>null</tt> if it couldn't be opened.
+     */
+    private static EventJournal openJournal() {
+	try {
+	    return new EventJournal(Paths.get(ProjectPaths.JOURNAL_PATH));
 
-	} catch (final UnexpectedGuildSizeException e) {
-	    Logger.Get().log(ELogType.WARNING, "Unexpected amount of guilds, might not work as intended");
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when opening the journal, " + e.getMessage());
+	    return null;
 
 	}
     }
 
+    @Override
+    public void onGuildJoin(final GuildJoinEvent event) {
+	mShards.addGuild(event.getGuild());
+	journalGuild(event.getGuild());
+
+    }
+
+    @Override
+    public void onGuildLeave(final GuildLeaveEvent event) {
+	mShards.removeGuild(event.getGuild().getIdLong());
+
+    }
+
     @Override
     public void onGuildVoiceJoin(final GuildVoiceJoinEvent event) {
 	handleGuildVoiceJoin(event);
@@ -127,6 +278,7 @@ public class Listeners extends ListenerAdapter implements IDayCallback {
 
 	final AudioManager am = event.getGuild().getAudioManager();
 	am.closeAudioConnection();
+	mCaf.stopRecording();
 	mCaf.reset();
     }
 
@@ -151,40 +303,47 @@ public class Listeners extends ListenerAdapter implements IDayCallback {
     @Override
     public void onReady(final ReadyEvent event) {
 	UserUtils.init(mClient);
-	init();
-	new Thread(mTimeObserver).start();
+	init(event.getJDA());
+	mRunningShards.incrementAndGet();
+
+	if (mTimeObserverStarted.compareAndSet(false, true)) {
+	    new Thread(mTimeObserver, "TimeObserver").start();
 
+	}
     }
 
     @Override
     public void onShutdown(final ShutdownEvent event) {
+	for (final Guild guild : event.getJDA().getGuilds()) {
+	    mShards.removeGuild(guild.getIdLong());
+
+	}
+
+	if (mRunningShards.decrementAndGet() > 0) {
+	    return;
+
+	}
 	mTimeObserver.stop();
+	mShards.close();
+	mCaf.stopRecording();
+
+	if (mJournal != null) {
+	    try {
+		mJournal.close();
+
+	    } catch (final IOException e) {
+		Logger.Get().log(ELogType.WARNING,
+			"Encountered an IO Exception, when closing the journal, " + e.getMessage());
+
+	    }
+	}
+
+	if (mReporter != null) {
+	    mReporter.close();
+
+	}
+	Logger.Get().close();
 
-	mFormatter.log();
-//
-//	// TODO: handle the audio file generation better.
-//
-//	int size = mCaf.numOfPackages();
-//	byte[] sound = new byte[3840 * size];
-//
-//	int i = 0;
-//	while (mCaf.hasNext()) {
-//	    byte[] currentPackage = mCaf.get20MsAudio();
-//
-//	    for (int j = 0; j < currentPackage.length; j++) {
-//		sound[i] = currentPackage[j];
-//		i++;
-//	    }
-//
-//	}
-//
-//	try {
-//	    Files.write(Paths.get(SettingsProvider.getPath() + ProjectPaths.AUDIO_RECEIVE_PATH + "test.raw"), sound,
-//		    StandardOpenOption.CREATE);
-//	} catch (IOException e) {
-//	    // TODO Auto-generated catch block
-//	    e.printStackTrace();
-//	}
     }
 
     @Override
@@ -200,14 +359,59 @@ public class Listeners extends ListenerAdapter implements IDayCallback {
 	    oldName = event.getOldGame().getName();
 
 	}
-	mFormatter.addActivityChange(event.getMember().getEffectiveName(), oldName, newName);
+	final BufferedLogFormatter formatter = mShards.get(event.getGuild().getIdLong());
+
+	if (formatter != null) {
+	    formatter.addActivityChange(event.getUser().getIdLong(), oldName, newName);
+
+	}
+
+	if (mJournal != null) {
+	    try {
+		mJournal.recordGame(System.currentTimeMillis(), event.getGuild().getIdLong(),
+			event.getUser().getIdLong(), oldName, newName);
+
+	    } catch (final IOException e) {
+		Logger.Get().log(ELogType.WARNING,
+			"Encountered an IO Exception, when writing the journal, " + e.getMessage());
+
+	    }
+	}
+
+    }
+
+    @Override
+    public void onUserUpdateDiscriminator(final UserUpdateDiscriminatorEvent event) {
+	UserUtils.onNameChanged(event.getUser().getName(), event.getOldDiscriminator());
+
+    }
+
+    @Override
+    public void onUserUpdateName(final UserUpdateNameEvent event) {
+	UserUtils.onNameChanged(event.getOldName(), event.getUser().getDiscriminator());
 
     }
 
     @Override
     public void onUserUpdateOnlineStatus(final UserUpdateOnlineStatusEvent event) {
-	mFormatter.addStatusChange(event.getMember().getEffectiveName(), event.getOldOnlineStatus(),
-		event.getNewOnlineStatus());
+	final BufferedLogFormatter formatter = mShards.get(event.getGuild().getIdLong());
+
+	if (formatter != null) {
+	    formatter.addStatusChange(event.getUser().getIdLong(), event.getNewOnlineStatus());
+
+	}
+
+	if (mJournal != null) {
+	    try {
+		mJournal.recordStatus(System.currentTimeMillis(), event.getGuild().getIdLong(),
+			event.getUser().getIdLong(), event.getOldOnlineStatus(), event.getNewOnlineStatus());
+
+	    } catch (final IOException e) {
+		Logger.Get().log(ELogType.WARNING,
+			"Encountered an IO Exception, when writing the journal, " + e.getMessage());
+
+	    }
+	}
 
     }
 
@@ -218,17 +422,30 @@ public class Listeners extends ListenerAdapter implements IDayCallback {
      */
     @Override
     public void onDayPassed() {
-	mFormatter.log();
+	mShards.rollover();
 
-	mFormatter = new BufferedLogFormatter();
-	try {
-	    mFormatter.init(UserUtils.getAllUsers());
+	if (mIndex != null) {
+	    try {
+		mJournal.flush();
+		mIndex.update();
 
-	} catch (UnexpectedGuildSizeException e) {
-	    Logger.Get().log(ELogType.WARNING, e.getMessage());
+	    } catch (final IOException e) {
+		Logger.Get().log(ELogType.WARNING,
+			"Encountered an IO Exception, when indexing the journal, " + e.getMessage());
 
+	    }
 	}
-	mFormatter.updateDate();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.callbacks.IIntervalCallback#onIntervalPassed(long)
+     */
+    @Override
+    public void onIntervalPassed(final long intervalMs) {
+	mShards.checkpointAll();
 
     }
 }
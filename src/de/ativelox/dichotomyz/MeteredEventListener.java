@@ -0,0 +1,76 @@
+package de.ativelox.dichotomyz;
+
+import de.ativelox.dichotomyz.metrics.Counter;
+import de.ativelox.dichotomyz.metrics.Histogram;
+import de.ativelox.dichotomyz.metrics.MetricsRegistry;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.hooks.EventListener;
+
+/**
+ * Forwards every event to the given listener, recording the time taken to
+ * handle it in a histogram per type of event, named
+ * <tt>events.&lt;type&gt;</tt>, and counting the events whose handling failed
+ * in <tt>events.failures</tt>. The histogram of a type is looked up once per
+ * type, thus handling an event doesn't allocate.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MeteredEventListener implements EventListener {
+
+    /**
+     * The histograms of every type of event.
+     */
+    private static final ClassValue<Histogram> LATENCIES = new ClassValue<Histogram>() {
+
+	@Override
+	protected Histogram computeValue(final Class<?> type) {
+	    return MetricsRegistry.Get().histogram("events." + type.getSimpleName());
+
+	}
+    };
+
+    /**
+     * The number of events whose handling failed.
+     */
+    private static final Counter FAILURES = MetricsRegistry.Get().counter("events.failures");
+
+    /**
+     * The listener the events are forwarded to.
+     */
+    private final EventListener mListener;
+
+    /**
+     * Creates a new {@link MeteredEventListener}.
+     * 
+     * @param listener The listener to forward the events to.
+     */
+    public MeteredEventListener(final EventListener listener) {
+	mListener = listener;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.dv8tion.jda.core.hooks.EventListener#onEvent(net.dv8tion.jda.core.events.
+     * Event)
+     */
+    @Override
+    public void onEvent(final Event event) {
+	final long start = System.nanoTime();
+
+	try {
+	    mListener.onEvent(event);
+
+	} catch (final RuntimeException e) {
+	    FAILURES.increment();
+	    throw e;
+
+	} finally {
+	    LATENCIES.get(event.getClass()).recordSince(start);
+
+	}
+    }
+}
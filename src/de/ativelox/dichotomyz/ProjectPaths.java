@@ -16,6 +16,14 @@ public final class ProjectPaths {
 
     public static final String DEBUG_PATH = "Debug//";
 
+    public static final String CHECKPOINT_PATH = "Checkpoints//";
+
+    public static final String JOURNAL_PATH = "Journal//";
+
+    public static final String INDEX_PATH = "Index//";
+
+    public static final String METRICS_PATH = "Metrics//";
+
     private ProjectPaths() {
 
     }
@@ -2,13 +2,14 @@ package de.ativelox.dichotomyz.audio;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayDeque;
 
 import de.ativelox.dichotomyz.ProjectPaths;
 import de.ativelox.dichotomyz.logging.ELogType;
-import de.ativelox.dichotomyz.logging.ILogger;
 import de.ativelox.dichotomyz.logging.Logger;
+import de.ativelox.dichotomyz.metrics.Counter;
+import de.ativelox.dichotomyz.metrics.MetricsRegistry;
 import de.ativelox.dichotomyz.settings.SettingsProvider;
 import net.dv8tion.jda.core.audio.AudioReceiveHandler;
 import net.dv8tion.jda.core.audio.AudioSendHandler;
@@ -18,9 +19,14 @@ import net.dv8tion.jda.core.entities.AudioChannel;
 
 /**
  * This class allows clients to send and receive audio from a
- * {@linkplain AudioChannel}. Currently, it will record everything as combined
- * audio, and send some noise, since otherwise the API won't return audio to
- * this class.
+ * {@linkplain AudioChannel}. Depending on its {@link EAudioCaptureMode}, it
+ * will record everything as combined audio into a fixed-size
+ * {@link AudioRingBuffer}, and/or every user separately using a
+ * {@link UserAudioCapture}. Combined audio passes an {@link IAudioStage} first,
+ * e.g. to drop silent packages, whose runs get stored as single gap markers.
+ * It also sends some noise, since otherwise the API won't return audio to this
+ * class. The packages received and dropped are counted in the metrics named
+ * <tt>audio.*</tt>.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
@@ -28,9 +34,34 @@ import net.dv8tion.jda.core.entities.AudioChannel;
 public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
 
     /**
-     * A queue representing the packages of audio received.
+     * The number of packages of combined audio received.
      */
-    private final ArrayDeque<byte[]> mAudio;
+    private static final Counter FRAMES_RECEIVED = MetricsRegistry.Get().counter("audio.frames.received");
+
+    /**
+     * The number of packages of combined audio dropped by the stage.
+     */
+    private static final Counter FRAMES_SILENT = MetricsRegistry.Get().counter("audio.frames.silent");
+
+    /**
+     * The number of packages of audio of single users received.
+     */
+    private static final Counter USER_FRAMES_RECEIVED = MetricsRegistry.Get().counter("audio.user.frames.received");
+
+    /**
+     * The number of frame buffers shared by every user track.
+     */
+    private static final int USER_POOL_CAPACITY = 16 * AudioRingBuffer.FRAMES_PER_SECOND;
+
+    /**
+     * The number of frames that can be queued per user track.
+     */
+    private static final int USER_TRACK_CAPACITY = 2 * AudioRingBuffer.FRAMES_PER_SECOND;
+
+    /**
+     * The buffer holding the packages of audio received.
+     */
+    private final AudioRingBuffer mAudio;
 
     /**
      * The audio sequence to send as noise.
@@ -43,33 +74,114 @@ public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
     private boolean mSending;
 
     /**
-     * The logger used for logging.
+     * The recorder currently writing the received audio to disk, or <tt>null</tt>
+     * if no recording is in progress.
+     */
+    private AudioRecorder mRecorder;
+
+    /**
+     * The thread executing the last {@link AudioRecorder}, or <tt>null</tt> if
+     * none was started yet. Joined before a new recording starts, since the
+     * buffer must only be drained by a single thread at once.
+     */
+    private Thread mRecorderThread;
+
+    /**
+     * The way received audio is captured.
+     */
+    private final EAudioCaptureMode mMode;
+
+    /**
+     * The stage every package of combined audio passes before it is stored.
+     */
+    private final IAudioStage mStage;
+
+    /**
+     * The number of consecutive packages dropped by {@link AudioChatHandler#mStage}
+     * not yet stored as gap marker. Only written by the thread receiving audio.
      */
-    private ILogger mLogger;
+    private volatile int mPendingSilence;
+
+    /**
+     * Whether {@link AudioChatHandler#mStage} and
+     * {@link AudioChatHandler#mPendingSilence} should be reset by the thread
+     * receiving audio before the next package is handled, since the stage is not
+     * thread-safe.
+     */
+    private volatile boolean mResetPending;
+
+    /**
+     * The capture currently writing the audio of every user to disk, or
+     * <tt>null</tt> if no per-user recording is in progress.
+     */
+    private volatile UserAudioCapture mUserCapture;
 
     /**
      * Creates a new {@link AudioChatHandler}, reading the audio to send as noise
-     * from the filename.
+     * from the filename. The amount of received audio buffered is specified by
+     * {@link SettingsProvider#getAudioBufferSeconds()} and the capture mode by
+     * {@link SettingsProvider#getAudioCaptureMode()}. Silent packages are dropped
+     * by an {@link EnergyVoiceActivityDetector}, if enabled by
+     * {@link SettingsProvider#isVADEnabled()}.
      * 
      * @param audioSendName The name of the file used to send audio to the channel
      */
     public AudioChatHandler(final String audioSendName) {
-	mAudio = new ArrayDeque<>();
-	mLogger = Logger.Get();
+	this(audioSendName, SettingsProvider.getAudioBufferSeconds(), SettingsProvider.getAudioCaptureMode(),
+		SettingsProvider.isVADEnabled()
+			? new EnergyVoiceActivityDetector(SettingsProvider.getVADThreshold(),
+				EnergyVoiceActivityDetector.DEFAULT_HANGOVER_FRAMES)
+			: data -> true);
 
-	mSending = true;
+    }
+
+    /**
+     * Creates a new {@link AudioChatHandler}, reading the audio to send as noise
+     * from the filename.
+     * 
+     * @param audioSendName The name of the file used to send audio to the channel
+     * @param bufferSeconds The amount of received audio to buffer, in seconds.
+     * @param mode          The way received audio is captured.
+     * @param stage         The stage every package of combined audio passes
+     *                      before it is stored.
+     */
+    public AudioChatHandler(final String audioSendName, final int bufferSeconds, final EAudioCaptureMode mode,
+	    final IAudioStage stage) {
+	this(new AudioRingBuffer(bufferSeconds), mode, stage);
 
 	try {
 	    mToSend = Files
 		    .readAllBytes(Paths.get(SettingsProvider.getPath() + ProjectPaths.AUDIO_SEND_PATH + audioSendName));
 
 	} catch (IOException e) {
-	    mLogger.log(ELogType.WARNING, "Encountered an IO Exception, when trying to open: "
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when trying to open: "
 		    + ProjectPaths.AUDIO_SEND_PATH + audioSendName);
 
 	}
     }
 
+    /**
+     * Creates a new {@link AudioChatHandler} without audio to send as noise,
+     * which doesn't read any settings, e.g. to benchmark the handling of
+     * received audio.
+     * 
+     * @param audio The buffer the combined audio is stored in.
+     * @param mode  The way received audio is captured.
+     * @param stage The stage every package of combined audio passes before it
+     *              is stored.
+     */
+    public AudioChatHandler(final AudioRingBuffer audio, final EAudioCaptureMode mode, final IAudioStage stage) {
+	mAudio = audio;
+	mMode = mode;
+	mStage = stage;
+	mPendingSilence = 0;
+	mResetPending = false;
+	MetricsRegistry.Get().gauge("audio.frames.overwritten", mAudio::getOverwrittenFrames);
+
+	mSending = true;
+
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -93,7 +205,7 @@ public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
      */
     @Override
     public boolean canReceiveCombined() {
-	return true;
+	return mMode != EAudioCaptureMode.PER_USER;
 
     }
 
@@ -104,24 +216,25 @@ public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
      */
     @Override
     public boolean canReceiveUser() {
-	return false;
+	return mMode != EAudioCaptureMode.COMBINED;
 
     }
 
     /**
-     * Gets 20ms of combined audio as specified by
+     * Gets the buffer holding the combined audio as specified by
      * {@link de.ativelox.dichotomyz.audio.AudioChatHandler#handleCombinedAudio(CombinedAudio)
-     * handleCombinedAudio} in the form of bytes. The encoding is specified by
+     * handleCombinedAudio} in 20ms packages. The encoding is specified by
      * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#OUTPUT_FORMAT
-     * OUTPUT_FORMAT}. Using this method until {@link AudioChatHandler#hasNext()
-     * hasNext} returns <tt>false</tt>, and concatenating the arrays, will result in
-     * a complete audio file for the recorded voice activity.
+     * OUTPUT_FORMAT}. Reading from this buffer until
+     * {@link AudioRingBuffer#hasNext() hasNext} returns <tt>false</tt>, and
+     * concatenating the frames, will result in a complete audio file for the
+     * recorded voice activity, as long as no frames were overwritten.
      * 
-     * @return
+     * @return The buffer mentioned.
      */
-    public byte[] get20MsAudio() {
+    public AudioRingBuffer getReceivedAudio() {
+	return mAudio;
 
-	return mAudio.poll();
     }
 
     /*
@@ -132,7 +245,29 @@ public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
      */
     @Override
     public void handleCombinedAudio(final CombinedAudio combinedAudio) {
-	mAudio.add(combinedAudio.getAudioData(1f));
+	final byte[] data = combinedAudio.getAudioData(1f);
+	FRAMES_RECEIVED.increment();
+
+	if (mResetPending) {
+	    mResetPending = false;
+	    mStage.reset();
+	    mPendingSilence = 0;
+
+	}
+
+	if (!mStage.accept(data)) {
+	    FRAMES_SILENT.increment();
+	    mPendingSilence++;
+	    return;
+
+	}
+
+	if (mPendingSilence > 0) {
+	    mAudio.writeGap(mPendingSilence);
+	    mPendingSilence = 0;
+
+	}
+	mAudio.write(data);
 
     }
 
@@ -145,18 +280,13 @@ public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
      */
     @Override
     public void handleUserAudio(final UserAudio userAudio) {
-	// Nothing todo, since we don't receive user audio.
+	final UserAudioCapture capture = mUserCapture;
+	USER_FRAMES_RECEIVED.increment();
 
-    }
+	if (capture != null) {
+	    capture.handle(userAudio.getUser().getIdLong(), userAudio.getAudioData(1f));
 
-    /**
-     * Whether there's still 20ms of audio to retrieve from this structure or not.
-     * 
-     * @return <tt>true</tt> if there's still audio to retrieve, <tt>false</tt>
-     *         otherwise.
-     */
-    public boolean hasNext() {
-	return !mAudio.isEmpty();
+	}
 
     }
 
@@ -166,15 +296,6 @@ public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
 
     }
 
-    /**
-     * The number of packages of 20ms audio this structure currently holds.
-     * 
-     * @return The number specified.
-     */
-    public int numOfPackages() {
-	return mAudio.size();
-    }
-
     /*
      * (non-Javadoc)
      * 
@@ -186,6 +307,77 @@ public class AudioChatHandler implements AudioReceiveHandler, AudioSendHandler {
 
     }
 
+    /**
+     * Starts recording the received audio to .wav files located in
+     * {@link ProjectPaths#AUDIO_RECEIVE_PATH}. The combined audio is written to
+     * <tt>name.wav</tt>, the audio of every user to <tt>name - id.wav</tt>,
+     * depending on the capture mode. The audio is written incrementally while it
+     * arrives. Does nothing if a recording is already in progress. Waits for the
+     * previous recording to be written completely first.
+     * 
+     * @param name The name of the recording, without file extension.
+     */
+    public synchronized void startRecording(final String name) {
+	if (mRecorder != null || mUserCapture != null) {
+	    return;
+
+	}
+	final Path directory = Paths.get(SettingsProvider.getPath() + ProjectPaths.AUDIO_RECEIVE_PATH);
+
+	if (mMode != EAudioCaptureMode.PER_USER) {
+	    if (mRecorderThread != null) {
+		try {
+		    mRecorderThread.join();
+
+		} catch (final InterruptedException e) {
+		    Thread.currentThread().interrupt();
+		    Logger.Get().log(ELogType.WARNING,
+			    "Interrupted while waiting for the previous recording, not recording " + name);
+		    return;
+
+		}
+		mRecorderThread = null;
+
+	    }
+	    mAudio.clear();
+	    mResetPending = true;
+
+	    mRecorder = new AudioRecorder(mAudio, directory.resolve(name + ".wav"));
+	    mRecorderThread = new Thread(mRecorder, "AudioRecorder");
+	    mRecorderThread.start();
+
+	}
+
+	if (mMode != EAudioCaptureMode.COMBINED) {
+	    final UserAudioCapture capture = new UserAudioCapture(directory, name, USER_POOL_CAPACITY,
+		    USER_TRACK_CAPACITY);
+	    new Thread(capture, "UserAudioCapture").start();
+	    MetricsRegistry.Get().gauge("audio.user.frames.dropped", capture::getDroppedFrames);
+
+	    mUserCapture = capture;
+
+	}
+    }
+
+    /**
+     * Stops the recording currently in progress, if any. The remaining audio gets
+     * written asynchronously, followed by the silence received since the last
+     * package of audio.
+     */
+    public synchronized void stopRecording() {
+	if (mRecorder != null) {
+	    mRecorder.stop(mPendingSilence);
+	    mRecorder = null;
+
+	}
+
+	if (mUserCapture != null) {
+	    mUserCapture.stop();
+	    mUserCapture = null;
+
+	}
+    }
+
     /**
      * Resets this handler, by resetting the flag {@link AudioChatHandler#mSending}
      * to <tt>true</tt> allowing for rejoining of AudioChannels and receiving audio.
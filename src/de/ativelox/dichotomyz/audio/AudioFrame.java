@@ -0,0 +1,105 @@
+package de.ativelox.dichotomyz.audio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable read cursor for an {@link AudioRingBuffer}. Every successful call
+ * to {@link AudioRingBuffer#read(AudioFrame)} points this frame at the next
+ * slot of the buffer, without copying any of the audio data. Consumers should
+ * hold on to a single instance and pass it to every read call.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public final class AudioFrame {
+
+    /**
+     * A read-only view on the slot this frame currently points at.
+     */
+    private ByteBuffer mData;
+
+    /**
+     * The sequence number of the frame this instance currently points at.
+     */
+    private long mSequence;
+
+    /**
+     * The number of silent frames this frame stands for, if it is a gap marker.
+     */
+    private int mSilentFrames;
+
+    /**
+     * Creates a new {@link AudioFrame}, which does not yet point at any audio
+     * data.
+     */
+    public AudioFrame() {
+	mData = null;
+	mSequence = -1;
+	mSilentFrames = 0;
+
+    }
+
+    /**
+     * Gets a read-only view on the audio data of this frame. The view is only
+     * valid until the producer of the underlying {@link AudioRingBuffer} wraps
+     * around and overwrites the slot, which happens regardless of further calls
+     * to {@link AudioRingBuffer#read(AudioFrame)} once the consumer lags behind
+     * by the capacity of the buffer. Whether the data used was still valid is
+     * told by {@link AudioRingBuffer#isIntact(AudioFrame)}.
+     * 
+     * @return The view mentioned, or <tt>null</tt> if nothing has been read yet.
+     */
+    public ByteBuffer getData() {
+	return mData;
+
+    }
+
+    /**
+     * Gets the sequence number of this frame, i.e. the number of frames that have
+     * been written to the underlying buffer before this one.
+     * 
+     * @return The sequence number mentioned, or <tt>-1</tt> if nothing has been
+     *         read yet.
+     */
+    public long getSequence() {
+	return mSequence;
+
+    }
+
+    /**
+     * Gets the number of consecutive silent 20ms frames this frame stands for, if
+     * it is a gap marker written by {@link AudioRingBuffer#writeGap(int)}. Gap
+     * markers carry no audio data.
+     * 
+     * @return The number mentioned, or <tt>0</tt> if this frame holds audio.
+     */
+    public int getSilentFrames() {
+	return mSilentFrames;
+
+    }
+
+    /**
+     * Whether this frame is a gap marker standing for a run of silence or not.
+     * 
+     * @return <tt>true</tt> if this frame is a gap marker, <tt>false</tt> if it
+     *         holds audio.
+     */
+    public boolean isGap() {
+	return mSilentFrames > 0;
+
+    }
+
+    /**
+     * Points this frame at the given slot.
+     * 
+     * @param data         The view on the slot.
+     * @param sequence     The sequence number of the slot.
+     * @param silentFrames The number of silent frames the slot stands for.
+     */
+    void set(final ByteBuffer data, final long sequence, final int silentFrames) {
+	mData = data;
+	mSequence = sequence;
+	mSilentFrames = silentFrames;
+
+    }
+}
@@ -0,0 +1,120 @@
+package de.ativelox.dichotomyz.audio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides a bounded pool of reusable buffers, each able to hold 20ms of
+ * audio. Every buffer is a slice of a single direct {@link ByteBuffer}
+ * allocated upfront, thus acquiring and releasing buffers never allocates. If
+ * the pool is exhausted, {@link AudioFramePool#acquire()} fails instead of
+ * growing the pool. This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class AudioFramePool {
+
+    /**
+     * The buffers currently available.
+     */
+    private final ArrayBlockingQueue<ByteBuffer> mFree;
+
+    /**
+     * The number of buffers in this pool.
+     */
+    private final int mCapacity;
+
+    /**
+     * The number of times a buffer was requested while the pool was exhausted.
+     */
+    private final AtomicLong mExhausted;
+
+    /**
+     * Creates a new {@link AudioFramePool}.
+     * 
+     * @param capacity The number of buffers in this pool, must be positive.
+     */
+    public AudioFramePool(final int capacity) {
+	if (capacity <= 0) {
+	    throw new IllegalArgumentException("The capacity of the pool must be positive: " + capacity);
+
+	}
+	mCapacity = capacity;
+	mFree = new ArrayBlockingQueue<>(capacity);
+	mExhausted = new AtomicLong();
+
+	final ByteBuffer storage = ByteBuffer.allocateDirect(capacity * AudioRingBuffer.FRAME_SIZE);
+
+	for (int i = 0; i < capacity; i++) {
+	    storage.limit((i + 1) * AudioRingBuffer.FRAME_SIZE);
+	    storage.position(i * AudioRingBuffer.FRAME_SIZE);
+
+	    mFree.add(storage.slice());
+
+	}
+    }
+
+    /**
+     * Takes a buffer from this pool. The buffer is cleared and has a capacity of
+     * {@link AudioRingBuffer#FRAME_SIZE} bytes, and should be given back with
+     * {@link AudioFramePool#release(ByteBuffer)} once it is no longer needed.
+     * 
+     * @return The buffer mentioned, or <tt>null</tt> if the pool is exhausted.
+     */
+    public ByteBuffer acquire() {
+	final ByteBuffer buffer = mFree.poll();
+
+	if (buffer == null) {
+	    mExhausted.incrementAndGet();
+	    return null;
+
+	}
+	buffer.clear();
+	return buffer;
+
+    }
+
+    /**
+     * Gets the number of buffers currently available.
+     * 
+     * @return The number mentioned.
+     */
+    public int available() {
+	return mFree.size();
+
+    }
+
+    /**
+     * Gets the number of buffers in this pool.
+     * 
+     * @return The number mentioned.
+     */
+    public int getCapacity() {
+	return mCapacity;
+
+    }
+
+    /**
+     * Gets the number of times a buffer was requested while this pool was
+     * exhausted.
+     * 
+     * @return The number mentioned.
+     */
+    public long getExhaustedCount() {
+	return mExhausted.get();
+
+    }
+
+    /**
+     * Gives the given buffer, previously taken by
+     * {@link AudioFramePool#acquire()}, back to this pool.
+     * 
+     * @param buffer The buffer mentioned.
+     */
+    public void release(final ByteBuffer buffer) {
+	mFree.offer(buffer);
+
+    }
+}
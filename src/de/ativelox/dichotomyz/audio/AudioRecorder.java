@@ -0,0 +1,241 @@
+package de.ativelox.dichotomyz.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import de.ativelox.dichotomyz.audio.utils.AudioConverter;
+import de.ativelox.dichotomyz.audio.utils.WAVFileWriter;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.Logger;
+import net.dv8tion.jda.core.audio.AudioReceiveHandler;
+
+/**
+ * Provides a runnable that continuously drains an {@link AudioRingBuffer} into
+ * a .wav file, using a {@link WAVFileWriter}. The audio is expected to be
+ * encoded as specified by {@link AudioReceiveHandler#OUTPUT_FORMAT
+ * OUTPUT_FORMAT}. After {@link AudioRecorder#stop()} is called, the remaining
+ * audio gets written and the file is closed.
+ * <p>
+ * Gap markers read from the buffer are not written as silence. Instead, a
+ * compact record is appended to a <tt>.gaps</tt> file next to the .wav file,
+ * consisting of the offset into the audio data the silence belongs to (8
+ * bytes) and the number of silent 20ms frames (4 bytes), both big-endian.
+ * {@link AudioConverter#expandGaps(Path, Path)} writes the silence back into
+ * the audio, restoring the timeline of the recording.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class AudioRecorder implements Runnable {
+
+    /**
+     * The time in ms to wait for new audio if the buffer is empty.
+     */
+    private static final long IDLE_WAIT_MS = 20;
+
+    /**
+     * The size of a single gap record in bytes.
+     */
+    public static final int GAP_RECORD_SIZE = 8 + 4;
+
+    /**
+     * The buffer to drain.
+     */
+    private final AudioRingBuffer mSource;
+
+    /**
+     * The path of the file written to.
+     */
+    private final Path mPath;
+
+    /**
+     * The path of the file the gap markers are written to.
+     */
+    private final Path mGapPath;
+
+    /**
+     * The channel of the file the gap markers are written to, opened as soon as
+     * the first gap marker is read.
+     */
+    private FileChannel mGapChannel;
+
+    /**
+     * The reusable buffer used to write a single gap record.
+     */
+    private final ByteBuffer mGapRecord;
+
+    /**
+     * The cursor used to read from {@link AudioRecorder#mSource}.
+     */
+    private final AudioFrame mFrame;
+
+    /**
+     * The number of frames overwritten by the producer while they were written,
+     * only accessed by the thread executing {@link AudioRecorder#run()}.
+     */
+    private long mTorn;
+
+    /**
+     * Whether {@link AudioRecorder#run()} should keep on draining the buffer or
+     * not.
+     */
+    private volatile boolean mRunning;
+
+    /**
+     * The number of silent 20ms frames following the audio drained last, written
+     * as gap once this recorder is stopped.
+     */
+    private volatile int mTrailingSilence;
+
+    /**
+     * Creates a new {@link AudioRecorder}.
+     * 
+     * @param source The buffer to drain.
+     * @param path   The path of the .wav file to write, an existing file gets
+     *               overwritten.
+     */
+    public AudioRecorder(final AudioRingBuffer source, final Path path) {
+	mSource = source;
+	mPath = path;
+	mGapPath = getGapPath(path);
+	mGapRecord = ByteBuffer.allocate(GAP_RECORD_SIZE);
+	mFrame = new AudioFrame();
+	mTorn = 0;
+	mRunning = true;
+	mTrailingSilence = 0;
+
+    }
+
+    /**
+     * Writes every frame currently held by the buffer to the given writer.
+     * 
+     * @param writer The writer to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void drain(final WAVFileWriter writer) throws IOException {
+	while (mSource.read(mFrame)) {
+	    if (mFrame.isGap()) {
+		writeGap(writer.getDataLength(), mFrame.getSilentFrames());
+
+	    } else {
+		writer.write(mFrame.getData());
+
+		if (!mSource.isIntact(mFrame)) {
+		    mTorn++;
+
+		}
+	    }
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run() {
+	final long overwrittenAtStart = mSource.getOverwrittenFrames();
+
+	try (final WAVFileWriter writer = new WAVFileWriter(mPath, AudioReceiveHandler.OUTPUT_FORMAT)) {
+	    while (mRunning) {
+		drain(writer);
+		LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT_MS));
+
+	    }
+	    drain(writer);
+
+	    if (mTrailingSilence > 0) {
+		writeGap(writer.getDataLength(), mTrailingSilence);
+
+	    }
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING,
+		    "Encountered an IO Exception, when trying to record audio to: " + mPath + ", " + e.getMessage());
+
+	}
+
+	try {
+	    if (mGapChannel != null) {
+		mGapChannel.close();
+
+	    }
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING,
+		    "Encountered an IO Exception, when trying to close: " + mGapPath + ", " + e.getMessage());
+
+	}
+
+	final long overwritten = mSource.getOverwrittenFrames() - overwrittenAtStart + mTorn;
+
+	if (overwritten > 0) {
+	    Logger.Get().log(ELogType.WARNING,
+		    "The recording " + mPath.getFileName() + " lost " + overwritten + " packages of audio.");
+
+	}
+    }
+
+    /**
+     * Gets the path of the file the gap markers of the recording written to the
+     * given .wav file are written to.
+     * 
+     * @param path The path of the .wav file.
+     * @return The path mentioned.
+     */
+    public static Path getGapPath(final Path path) {
+	return path.resolveSibling(path.getFileName().toString().replaceFirst("\\.wav$", "") + ".gaps");
+
+    }
+
+    /**
+     * Appends a gap record to the gap file.
+     * 
+     * @param offset       The offset into the audio data the silence belongs to.
+     * @param silentFrames The number of silent 20ms frames.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeGap(final long offset, final int silentFrames) throws IOException {
+	if (mGapChannel == null) {
+	    mGapChannel = FileChannel.open(mGapPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		    StandardOpenOption.TRUNCATE_EXISTING);
+
+	}
+	mGapRecord.clear();
+	mGapRecord.putLong(offset).putInt(silentFrames);
+	mGapRecord.flip();
+
+	while (mGapRecord.hasRemaining()) {
+	    mGapChannel.write(mGapRecord);
+
+	}
+    }
+
+    /**
+     * Stops this recorder. The remaining audio gets written and the file is
+     * closed by the thread executing {@link AudioRecorder#run()}.
+     */
+    public void stop() {
+	stop(0);
+
+    }
+
+    /**
+     * Stops this recorder. The remaining audio gets written, followed by a gap of
+     * the given number of silent frames, and the file is closed by the thread
+     * executing {@link AudioRecorder#run()}.
+     * 
+     * @param trailingSilentFrames The number of silent 20ms frames received after
+     *                             the last frame of audio, not yet written to the
+     *                             buffer as gap marker.
+     */
+    public void stop(final int trailingSilentFrames) {
+	mTrailingSilence = trailingSilentFrames;
+	mRunning = false;
+
+    }
+}
@@ -0,0 +1,279 @@
+package de.ativelox.dichotomyz.audio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-capacity ring buffer for 20ms packages of audio, backed by a single
+ * direct {@link ByteBuffer}. Every package written is copied into a
+ * preallocated slot, so the memory used by this buffer never grows, no matter
+ * how long a recording takes. If the consumer falls behind, the oldest packages
+ * get overwritten, which is reported by
+ * {@link AudioRingBuffer#getOverwrittenFrames()}. Runs of silence can be stored
+ * as a single gap marker using {@link AudioRingBuffer#writeGap(int)}, instead
+ * of occupying a slot per silent frame.
+ * <p>
+ * Frames are read without copying, thus the producer may overwrite the slot
+ * of a frame while the consumer still uses it, once the consumer lags behind
+ * by the capacity of this buffer. Consumers should check
+ * {@link AudioRingBuffer#isIntact(AudioFrame)} after using a frame.
+ * <p>
+ * This buffer supports exactly one producer and one consumer thread.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class AudioRingBuffer {
+
+    /**
+     * The size of 20ms of audio in bytes, as specified by
+     * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#OUTPUT_FORMAT
+     * OUTPUT_FORMAT} (48KHz, 16 bit, stereo).
+     */
+    public static final int FRAME_SIZE = 3840;
+
+    /**
+     * The number of frames needed for one second of audio.
+     */
+    public static final int FRAMES_PER_SECOND = 50;
+
+    /**
+     * The direct buffer holding every slot of this ring buffer.
+     */
+    private final ByteBuffer mStorage;
+
+    /**
+     * A read-only view for every slot in {@link AudioRingBuffer#mStorage}.
+     */
+    private final ByteBuffer[] mSlots;
+
+    /**
+     * The number of valid bytes in each slot.
+     */
+    private final int[] mLengths;
+
+    /**
+     * The number of silent frames each slot stands for, <tt>0</tt> if the slot
+     * holds audio.
+     */
+    private final int[] mSilentFrames;
+
+    /**
+     * The number of slots in this buffer.
+     */
+    private final int mCapacity;
+
+    /**
+     * The sequence number of the next frame to write.
+     */
+    private final AtomicLong mWriteSequence;
+
+    /**
+     * The sequence number of the next frame to read.
+     */
+    private final AtomicLong mReadSequence;
+
+    /**
+     * The number of frames that got overwritten before they were read.
+     */
+    private final AtomicLong mOverwritten;
+
+    /**
+     * Creates a new {@link AudioRingBuffer}, which is able to hold the given
+     * amount of audio.
+     * 
+     * @param seconds The amount of audio this buffer can hold in seconds, must be
+     *                positive.
+     */
+    public AudioRingBuffer(final int seconds) {
+	if (seconds <= 0) {
+	    throw new IllegalArgumentException("The capacity of the buffer must be positive: " + seconds);
+
+	}
+	mCapacity = seconds * FRAMES_PER_SECOND;
+	mStorage = ByteBuffer.allocateDirect(mCapacity * FRAME_SIZE);
+	mSlots = new ByteBuffer[mCapacity];
+	mLengths = new int[mCapacity];
+	mSilentFrames = new int[mCapacity];
+
+	for (int i = 0; i < mCapacity; i++) {
+	    final ByteBuffer slot = mStorage.duplicate();
+	    slot.position(i * FRAME_SIZE);
+	    slot.limit((i + 1) * FRAME_SIZE);
+
+	    mSlots[i] = slot.slice().asReadOnlyBuffer();
+
+	}
+
+	mWriteSequence = new AtomicLong();
+	mReadSequence = new AtomicLong();
+	mOverwritten = new AtomicLong();
+
+    }
+
+    /**
+     * Gets the number of frames currently available to read.
+     * 
+     * @return The number mentioned.
+     */
+    public int available() {
+	return (int) Math.max(0, mWriteSequence.get() - mReadSequence.get());
+
+    }
+
+    /**
+     * Discards every frame currently held by this buffer. Should only be called
+     * by the consumer.
+     */
+    public void clear() {
+	mReadSequence.set(mWriteSequence.get());
+
+    }
+
+    /**
+     * Gets the number of frames this buffer can hold.
+     * 
+     * @return The number mentioned.
+     */
+    public int getCapacity() {
+	return mCapacity;
+
+    }
+
+    /**
+     * Gets the number of frames that were overwritten by the producer before the
+     * consumer was able to read them.
+     * 
+     * @return The number mentioned.
+     */
+    public long getOverwrittenFrames() {
+	return mOverwritten.get();
+
+    }
+
+    /**
+     * Whether there's still 20ms of audio to retrieve from this buffer or not.
+     * 
+     * @return <tt>true</tt> if there's still audio to retrieve, <tt>false</tt>
+     *         otherwise.
+     */
+    public boolean hasNext() {
+	return mReadSequence.get() < mWriteSequence.get();
+
+    }
+
+    /**
+     * Whether the slot the given frame points at has not been overwritten since
+     * the frame was read, i.e. whether the data of the frame used so far is
+     * valid. Should be called by the consumer after using the data of the frame.
+     * The producer overwrites the slot as soon as it writes the frame
+     * {@link AudioRingBuffer#getCapacity()} frames after it, thus the check is
+     * conservative while that frame is about to be written.
+     * 
+     * @param frame The frame previously read from this buffer.
+     * @return <tt>true</tt> if the data of the frame is intact, <tt>false</tt>
+     *         if it might have been overwritten.
+     */
+    public boolean isIntact(final AudioFrame frame) {
+	return mWriteSequence.get() - frame.getSequence() < mCapacity;
+
+    }
+
+    /**
+     * Points the given frame at the oldest frame not yet read, without copying
+     * its data. Should only be called by the consumer.
+     * 
+     * @param frame The cursor to point at the frame read.
+     * @return <tt>true</tt> if a frame was read, <tt>false</tt> if this buffer
+     *         is empty.
+     */
+    public boolean read(final AudioFrame frame) {
+	while (true) {
+	    final long sequence = mReadSequence.get();
+
+	    if (sequence >= mWriteSequence.get()) {
+		return false;
+
+	    }
+	    final int slot = (int) (sequence % mCapacity);
+	    final int length = mLengths[slot];
+	    final int silentFrames = mSilentFrames[slot];
+
+	    // the producer might have overwritten this slot in the meantime, in which
+	    // case it also advanced the read sequence.
+	    if (mReadSequence.compareAndSet(sequence, sequence + 1)) {
+		final ByteBuffer view = mSlots[slot];
+		view.limit(length);
+		view.position(0);
+
+		frame.set(view, sequence, silentFrames);
+		return true;
+
+	    }
+	}
+    }
+
+    /**
+     * Claims the next slot of this buffer for writing. If the buffer is full, the
+     * oldest frame is overwritten.
+     * 
+     * @param sequence The sequence number of the frame to write.
+     * @return The index of the slot claimed.
+     */
+    private int claim(final long sequence) {
+	long read = mReadSequence.get();
+	while (sequence - read >= mCapacity) {
+	    if (mReadSequence.compareAndSet(read, read + 1)) {
+		mOverwritten.incrementAndGet();
+		break;
+
+	    }
+	    read = mReadSequence.get();
+
+	}
+	return (int) (sequence % mCapacity);
+
+    }
+
+    /**
+     * Copies the given 20ms of audio into the next slot of this buffer. If the
+     * buffer is full, the oldest frame is overwritten. Should only be called by
+     * the producer.
+     * 
+     * @param data The audio data to copy, at most {@link AudioRingBuffer#FRAME_SIZE}
+     *             bytes are used.
+     */
+    public void write(final byte[] data) {
+	final long sequence = mWriteSequence.get();
+	final int slot = claim(sequence);
+	final int length = Math.min(data.length, FRAME_SIZE);
+
+	mStorage.position(slot * FRAME_SIZE);
+	mStorage.put(data, 0, length);
+	mLengths[slot] = length;
+	mSilentFrames[slot] = 0;
+
+	// publishes the slot to the consumer.
+	mWriteSequence.lazySet(sequence + 1);
+
+    }
+
+    /**
+     * Writes a gap marker into the next slot of this buffer, which stands for the
+     * given number of consecutive silent frames. If the buffer is full, the
+     * oldest frame is overwritten. Should only be called by the producer.
+     * 
+     * @param silentFrames The number of silent frames, must be positive.
+     */
+    public void writeGap(final int silentFrames) {
+	final long sequence = mWriteSequence.get();
+	final int slot = claim(sequence);
+
+	mLengths[slot] = 0;
+	mSilentFrames[slot] = silentFrames;
+
+	// publishes the slot to the consumer.
+	mWriteSequence.lazySet(sequence + 1);
+
+    }
+}
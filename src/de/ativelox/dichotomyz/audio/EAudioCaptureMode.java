@@ -0,0 +1,26 @@
+package de.ativelox.dichotomyz.audio;
+
+/**
+ * Provides an enumeration for the different ways received audio is captured.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public enum EAudioCaptureMode {
+
+    /**
+     * Captures the audio of every user mixed into a single track.
+     */
+    COMBINED,
+
+    /**
+     * Captures the audio of every user in a separate track.
+     */
+    PER_USER,
+
+    /**
+     * Captures both, the mixed track and a separate track per user.
+     */
+    BOTH;
+
+}
@@ -0,0 +1,130 @@
+package de.ativelox.dichotomyz.audio;
+
+/**
+ * Provides a voice activity detection stage, which drops packages of audio
+ * whose energy (RMS) stays below a given threshold. To not cut off the quiet
+ * ends of words, packages following voice activity are kept for a given number
+ * of packages (the hangover), even if they are considered silent. The energy is
+ * computed directly over the 16 bit big-endian samples as specified by
+ * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#OUTPUT_FORMAT
+ * OUTPUT_FORMAT}, without allocating any memory.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class EnergyVoiceActivityDetector implements IAudioStage {
+
+    /**
+     * The default threshold in dBFS below which packages are considered silent.
+     */
+    public static final int DEFAULT_THRESHOLD_DBFS = -50;
+
+    /**
+     * The default number of packages kept after voice activity, i.e. 300ms.
+     */
+    public static final int DEFAULT_HANGOVER_FRAMES = 15;
+
+    /**
+     * The maximum amplitude of a 16 bit sample.
+     */
+    private static final double FULL_SCALE = 32768d;
+
+    /**
+     * The mean of the squared samples a package needs to reach to be considered
+     * voice activity.
+     */
+    private final double mThresholdMeanSquare;
+
+    /**
+     * The number of packages kept after voice activity.
+     */
+    private final int mHangoverFrames;
+
+    /**
+     * The number of packages that are still kept due to the hangover.
+     */
+    private int mHangoverLeft;
+
+    /**
+     * Creates a new {@link EnergyVoiceActivityDetector} with the default
+     * threshold and hangover.
+     */
+    public EnergyVoiceActivityDetector() {
+	this(DEFAULT_THRESHOLD_DBFS, DEFAULT_HANGOVER_FRAMES);
+
+    }
+
+    /**
+     * Creates a new {@link EnergyVoiceActivityDetector}.
+     * 
+     * @param thresholdDbfs  The threshold in dBFS below which packages are
+     *                       considered silent, e.g. <tt>-50</tt>.
+     * @param hangoverFrames The number of packages kept after voice activity.
+     */
+    public EnergyVoiceActivityDetector(final int thresholdDbfs, final int hangoverFrames) {
+	final double amplitude = FULL_SCALE * Math.pow(10, thresholdDbfs / 20d);
+
+	mThresholdMeanSquare = amplitude * amplitude;
+	mHangoverFrames = hangoverFrames;
+	mHangoverLeft = 0;
+
+    }
+
+    /**
+     * Computes the mean of the squared 16 bit big-endian samples of the given
+     * data.
+     * 
+     * @param data The audio data.
+     * @return The mean mentioned, or <tt>0</tt> if there are no samples.
+     */
+    public static double meanSquare(final byte[] data) {
+	final int samples = data.length / 2;
+
+	if (samples == 0) {
+	    return 0;
+
+	}
+	long sum = 0;
+
+	for (int i = 0; i < samples * 2; i += 2) {
+	    final int sample = (short) ((data[i] << 8) | (data[i + 1] & 0xFF));
+	    sum += sample * sample;
+
+	}
+	return (double) sum / samples;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.audio.IAudioStage#accept(byte[])
+     */
+    @Override
+    public boolean accept(final byte[] data) {
+	if (meanSquare(data) >= mThresholdMeanSquare) {
+	    mHangoverLeft = mHangoverFrames;
+	    return true;
+
+	}
+
+	if (mHangoverLeft > 0) {
+	    mHangoverLeft--;
+	    return true;
+
+	}
+	return false;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.audio.IAudioStage#reset()
+     */
+    @Override
+    public void reset() {
+	mHangoverLeft = 0;
+
+    }
+}
@@ -0,0 +1,31 @@
+package de.ativelox.dichotomyz.audio;
+
+/**
+ * A stage of the pipeline every received 20ms package of audio passes before it
+ * is stored, allowing for filtering of packages.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public interface IAudioStage {
+
+    /**
+     * Processes the given package of audio and decides whether it should be
+     * stored or not. Implementations must not keep a reference to the data.
+     * 
+     * @param data The audio data, encoded as specified by
+     *             {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#OUTPUT_FORMAT
+     *             OUTPUT_FORMAT}.
+     * @return <tt>true</tt> if the package should be stored, <tt>false</tt> if
+     *         it should be dropped.
+     */
+    boolean accept(final byte[] data);
+
+    /**
+     * Resets any state this stage keeps between packages, e.g. when a new
+     * recording starts. The default implementation does nothing.
+     */
+    default void reset() {
+
+    }
+}
@@ -0,0 +1,324 @@
+package de.ativelox.dichotomyz.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import de.ativelox.dichotomyz.audio.utils.WAVFileWriter;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.Logger;
+import de.ativelox.dichotomyz.utils.LongHashMap;
+import net.dv8tion.jda.core.audio.AudioReceiveHandler;
+
+/**
+ * Captures the audio of every user separately, writing one .wav file per user.
+ * Frames passed to {@link UserAudioCapture#handle(long, byte[])} are copied
+ * into buffers of a bounded {@link AudioFramePool} and queued on the track of
+ * the respective user, keyed by the users id. The thread executing
+ * {@link UserAudioCapture#run()} writes the queued frames to disk and gives the
+ * buffers back to the pool, thus no memory is allocated per frame. If the pool
+ * or the queue of a track is exhausted, frames are dropped, which is reported
+ * by {@link UserAudioCapture#getDroppedFrames()}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class UserAudioCapture implements Runnable {
+
+    /**
+     * The time in ms to wait for new audio if no track has queued frames.
+     */
+    private static final long IDLE_WAIT_MS = 20;
+
+    /**
+     * A track of audio associated with a single user.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class UserTrack {
+
+	/**
+	 * The id of the user.
+	 */
+	private final long mUserId;
+
+	/**
+	 * The frames received, but not yet written.
+	 */
+	private final ArrayBlockingQueue<ByteBuffer> mPending;
+
+	/**
+	 * The writer of the file of this track, opened by the writing thread as
+	 * soon as the first frame arrives.
+	 */
+	private WAVFileWriter mWriter;
+
+	/**
+	 * Whether writing this track has failed, in which case further frames get
+	 * discarded.
+	 */
+	private boolean mFailed;
+
+	/**
+	 * Creates a new {@link UserTrack}.
+	 * 
+	 * @param userId   The id of the user.
+	 * @param capacity The number of frames that can be queued.
+	 */
+	private UserTrack(final long userId, final int capacity) {
+	    mUserId = userId;
+	    mPending = new ArrayBlockingQueue<>(capacity);
+	    mWriter = null;
+	    mFailed = false;
+
+	}
+    }
+
+    /**
+     * The pool the frame buffers are taken from.
+     */
+    private final AudioFramePool mPool;
+
+    /**
+     * A mapping from user ids to their tracks, only accessed by the receiving
+     * thread.
+     */
+    private final LongHashMap<UserTrack> mTracks;
+
+    /**
+     * Every track, published to the writing thread.
+     */
+    private volatile UserTrack[] mTrackList;
+
+    /**
+     * The number of frames that can be queued per track.
+     */
+    private final int mTrackCapacity;
+
+    /**
+     * The directory the files are written to.
+     */
+    private final Path mDirectory;
+
+    /**
+     * The prefix of the file names, which are completed by the users id.
+     */
+    private final String mPrefix;
+
+    /**
+     * The number of frames received.
+     */
+    private final AtomicLong mReceived;
+
+    /**
+     * The number of frames dropped.
+     */
+    private final AtomicLong mDropped;
+
+    /**
+     * Whether {@link UserAudioCapture#run()} should keep on writing frames or not.
+     */
+    private volatile boolean mRunning;
+
+    /**
+     * Creates a new {@link UserAudioCapture}.
+     * 
+     * @param directory     The directory to write the files to.
+     * @param prefix        The prefix of the file names, which are completed by
+     *                      the users id.
+     * @param poolCapacity  The number of frame buffers shared by every track.
+     * @param trackCapacity The number of frames that can be queued per track.
+     */
+    public UserAudioCapture(final Path directory, final String prefix, final int poolCapacity,
+	    final int trackCapacity) {
+	mPool = new AudioFramePool(poolCapacity);
+	mTracks = new LongHashMap<>();
+	mTrackList = new UserTrack[0];
+	mTrackCapacity = trackCapacity;
+	mDirectory = directory;
+	mPrefix = prefix;
+
+	mReceived = new AtomicLong();
+	mDropped = new AtomicLong();
+	mRunning = true;
+
+    }
+
+    /**
+     * Closes the file of every track.
+     */
+    private void closeAll() {
+	for (final UserTrack track : mTrackList) {
+	    if (track.mWriter == null) {
+		continue;
+
+	    }
+
+	    try {
+		track.mWriter.close();
+
+	    } catch (final IOException e) {
+		Logger.Get().log(ELogType.WARNING,
+			"Encountered an IO Exception, when closing the audio track of " + track.mUserId);
+
+	    }
+	}
+    }
+
+    /**
+     * Writes every frame currently queued on any track.
+     * 
+     * @return The number of frames written.
+     */
+    private int drain() {
+	int written = 0;
+
+	for (final UserTrack track : mTrackList) {
+	    ByteBuffer frame;
+
+	    while ((frame = track.mPending.poll()) != null) {
+		if (!track.mFailed) {
+		    try {
+			if (track.mWriter == null) {
+			    track.mWriter = new WAVFileWriter(
+				    mDirectory.resolve(mPrefix + " - " + track.mUserId + ".wav"),
+				    AudioReceiveHandler.OUTPUT_FORMAT);
+
+			}
+			track.mWriter.write(frame);
+			written++;
+
+		    } catch (final IOException e) {
+			track.mFailed = true;
+			Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when writing the audio track of "
+				+ track.mUserId + ", " + e.getMessage());
+
+		    }
+		}
+		mPool.release(frame);
+
+	    }
+	}
+	return written;
+
+    }
+
+    /**
+     * Gets the number of frames dropped, because either the pool or the queue of
+     * a track was exhausted.
+     * 
+     * @return The number mentioned.
+     */
+    public long getDroppedFrames() {
+	return mDropped.get();
+
+    }
+
+    /**
+     * Gets the pool the frame buffers are taken from.
+     * 
+     * @return The pool mentioned.
+     */
+    public AudioFramePool getPool() {
+	return mPool;
+
+    }
+
+    /**
+     * Gets the number of frames received.
+     * 
+     * @return The number mentioned.
+     */
+    public long getReceivedFrames() {
+	return mReceived.get();
+
+    }
+
+    /**
+     * Gets the number of users a track has been created for.
+     * 
+     * @return The number mentioned.
+     */
+    public int getTrackCount() {
+	return mTrackList.length;
+
+    }
+
+    /**
+     * Queues the given 20ms of audio on the track of the given user. Should only
+     * be called by a single thread, i.e. the thread receiving audio.
+     * 
+     * @param userId The id of the user the audio belongs to.
+     * @param data   The audio data, encoded as specified by
+     *               {@link AudioReceiveHandler#OUTPUT_FORMAT OUTPUT_FORMAT}.
+     */
+    public void handle(final long userId, final byte[] data) {
+	mReceived.incrementAndGet();
+
+	UserTrack track = mTracks.get(userId);
+
+	if (track == null) {
+	    track = new UserTrack(userId, mTrackCapacity);
+	    mTracks.put(userId, track);
+
+	    final UserTrack[] tracks = Arrays.copyOf(mTrackList, mTrackList.length + 1);
+	    tracks[tracks.length - 1] = track;
+	    mTrackList = tracks;
+
+	}
+
+	final ByteBuffer frame = mPool.acquire();
+
+	if (frame == null) {
+	    mDropped.incrementAndGet();
+	    return;
+
+	}
+	frame.put(data, 0, Math.min(data.length, frame.remaining()));
+	frame.flip();
+
+	if (!track.mPending.offer(frame)) {
+	    mPool.release(frame);
+	    mDropped.incrementAndGet();
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run() {
+	while (mRunning) {
+	    if (drain() == 0) {
+		LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT_MS));
+
+	    }
+	}
+	drain();
+	closeAll();
+
+	if (mDropped.get() > 0) {
+	    Logger.Get().log(ELogType.WARNING,
+		    "The per-user recording " + mPrefix + " lost " + mDropped.get() + " packages of audio.");
+
+	}
+    }
+
+    /**
+     * Stops this capture. The remaining audio gets written and the files are
+     * closed by the thread executing {@link UserAudioCapture#run()}.
+     */
+    public void stop() {
+	mRunning = false;
+
+    }
+}
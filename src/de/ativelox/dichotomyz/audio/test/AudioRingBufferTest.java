@@ -0,0 +1,141 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.audio.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.audio.AudioFrame;
+import de.ativelox.dichotomyz.audio.AudioRingBuffer;
+
+/**
+ * Provides Tests for {@link AudioRingBuffer}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class AudioRingBufferTest {
+
+    /**
+     * Creates a frame of the default size filled with the given value.
+     * 
+     * @param value The value to fill the frame with.
+     * @return The frame mentioned.
+     */
+    private static byte[] frameOf(final int value) {
+	final byte[] frame = new byte[AudioRingBuffer.FRAME_SIZE];
+
+	for (int i = 0; i < frame.length; i++) {
+	    frame[i] = (byte) value;
+
+	}
+	return frame;
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.AudioRingBuffer#read(AudioFrame)}.
+     */
+    @Test
+    public void testReadInOrder() {
+	final AudioRingBuffer buffer = new AudioRingBuffer(1);
+	final AudioFrame frame = new AudioFrame();
+
+	buffer.write(frameOf(1));
+	buffer.write(frameOf(2));
+	Assert.assertEquals(2, buffer.available());
+
+	Assert.assertTrue(buffer.read(frame));
+	Assert.assertEquals(0, frame.getSequence());
+	Assert.assertEquals(AudioRingBuffer.FRAME_SIZE, frame.getData().remaining());
+	Assert.assertEquals(1, frame.getData().get(0));
+
+	Assert.assertTrue(buffer.read(frame));
+	Assert.assertEquals(2, frame.getData().get(AudioRingBuffer.FRAME_SIZE - 1));
+
+	Assert.assertFalse(buffer.read(frame));
+	Assert.assertFalse(buffer.hasNext());
+	Assert.assertEquals(0, buffer.getOverwrittenFrames());
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.AudioRingBuffer#write(byte[])}.
+     */
+    @Test
+    public void testOverwriteWhenFull() {
+	final AudioRingBuffer buffer = new AudioRingBuffer(1);
+	final AudioFrame frame = new AudioFrame();
+	final int capacity = buffer.getCapacity();
+
+	for (int i = 0; i < capacity + 5; i++) {
+	    buffer.write(frameOf(i));
+
+	}
+
+	Assert.assertEquals(capacity, buffer.available());
+	Assert.assertEquals(5, buffer.getOverwrittenFrames());
+
+	Assert.assertTrue(buffer.read(frame));
+	Assert.assertEquals(5, frame.getSequence());
+	Assert.assertEquals(5, frame.getData().get(0));
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.AudioRingBuffer#isIntact(AudioFrame)}.
+     */
+    @Test
+    public void testIntactUntilWrappedAround() {
+	final AudioRingBuffer buffer = new AudioRingBuffer(1);
+	final AudioFrame frame = new AudioFrame();
+	final int capacity = buffer.getCapacity();
+
+	buffer.write(frameOf(0));
+	Assert.assertTrue(buffer.read(frame));
+
+	for (int i = 1; i < capacity - 1; i++) {
+	    buffer.write(frameOf(i));
+
+	}
+	Assert.assertTrue(buffer.isIntact(frame));
+	Assert.assertEquals(0, frame.getData().get(0));
+
+	buffer.write(frameOf(capacity - 1));
+	Assert.assertFalse(buffer.isIntact(frame));
+
+	buffer.write(frameOf(capacity));
+	Assert.assertFalse(buffer.isIntact(frame));
+	Assert.assertEquals(0, buffer.getOverwrittenFrames());
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.AudioRingBuffer#writeGap(int)}.
+     */
+    @Test
+    public void testGapMarker() {
+	final AudioRingBuffer buffer = new AudioRingBuffer(1);
+	final AudioFrame frame = new AudioFrame();
+
+	buffer.write(frameOf(1));
+	buffer.writeGap(250);
+	buffer.write(frameOf(2));
+	Assert.assertEquals(3, buffer.available());
+
+	Assert.assertTrue(buffer.read(frame));
+	Assert.assertFalse(frame.isGap());
+
+	Assert.assertTrue(buffer.read(frame));
+	Assert.assertTrue(frame.isGap());
+	Assert.assertEquals(250, frame.getSilentFrames());
+	Assert.assertEquals(0, frame.getData().remaining());
+
+	Assert.assertTrue(buffer.read(frame));
+	Assert.assertFalse(frame.isGap());
+	Assert.assertEquals(2, frame.getData().get(0));
+    }
+
+}
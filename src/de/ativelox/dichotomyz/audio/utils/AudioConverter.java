@@ -1,17 +1,26 @@
 package de.ativelox.dichotomyz.audio.utils;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 
 import de.ativelox.dichotomyz.ProjectPaths;
+import de.ativelox.dichotomyz.audio.AudioRecorder;
+import de.ativelox.dichotomyz.audio.AudioRingBuffer;
 import de.ativelox.dichotomyz.logging.ELogType;
 import de.ativelox.dichotomyz.logging.Logger;
 import de.ativelox.dichotomyz.settings.SettingsProvider;
+import net.dv8tion.jda.core.audio.AudioReceiveHandler;
 
 /**
- * Provides methods to convert audio formats.
+ * Provides methods to convert audio formats. The conversion of the byte order
+ * works on {@link ByteBuffer ByteBuffers}, either in place or into a buffer
+ * supplied by the caller, thus no memory gets allocated per sample.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
@@ -19,179 +28,397 @@ import de.ativelox.dichotomyz.settings.SettingsProvider;
 public class AudioConverter {
 
     /**
-     * Does the same as {@link AudioConverter#byteConcatenation4(byte, byte)
-     * byteConcatenation4} by leaving first and second empty.
+     * The size of the headers of a .wav file in bytes. 12 bytes for the
+     * riff-header, 24 for the format-header and 8 for the data-header.
+     */
+    public static final int WAV_HEADER_SIZE = 12 + 24 + 8;
+
+    /**
+     * The offset of the chunk size field of the riff-header in a .wav file.
+     */
+    public static final int WAV_CHUNK_SIZE_OFFSET = 4;
+
+    /**
+     * The offset of the data length field of the data-header in a .wav file.
+     */
+    public static final int WAV_DATA_LENGTH_OFFSET = 40;
+
+    /**
+     * The size of the chunks in which raw files are streamed while converting
+     * them.
+     */
+    private static final int CONVERSION_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The id of the riff-header, "RIFF" read as little-endian integer.
+     */
+    private static final int RIFF_ID = 0x46464952;
+
+    /**
+     * The type of the riff-header of a .wav file, "WAVE" read as little-endian
+     * integer.
+     */
+    private static final int WAVE_ID = 0x45564157;
+
+    /**
+     * Converts the given file of raw audio, encoded as specified by
+     * {@link AudioReceiveHandler#OUTPUT_FORMAT OUTPUT_FORMAT}, to a .wav file. The
+     * raw file is streamed in small chunks, thus the memory used is independent
+     * of the length of the audio.
      * 
-     * @see AudioConverter#byteConcatenation4(byte, byte)
+     * @param raw The path to the raw audio file.
+     * @param wav The path to the .wav file to create.
+     * @throws IOException If an I/O error occurs.
      */
-    private static int byteConcatenation2(byte first, byte second) {
-	int firstShift = cutOffLeadingBits(first, 24) << 8;
-	int secondShift = cutOffLeadingBits(second, 24);
+    public static void convertRAWFile(final Path raw, final Path wav) throws IOException {
+	final ByteBuffer chunk = ByteBuffer.allocateDirect(CONVERSION_CHUNK_SIZE);
 
-	return firstShift | secondShift;
+	try (final FileChannel in = FileChannel.open(raw);
+		final WAVFileWriter out = new WAVFileWriter(wav, AudioReceiveHandler.OUTPUT_FORMAT)) {
+
+	    while (in.read(chunk) != -1) {
+		chunk.flip();
+		out.write(chunk);
+		chunk.compact();
+
+	    }
+	}
     }
 
     /**
-     * Concatenates 4 bytes into a (32 bit) integer. Where first fill occupy the
-     * highest 8 bits and fourth the lowest 8 bits.
+     * Copies the given number of bytes of audio data from the current position
+     * of the given channel to the given writer.
      * 
-     * @param first  The byte to fill the highest 8 bits, starting from 2^31 to 2^24
-     * @param second The byte to fill the next 8 bits, starting from 2^23 to 2^16
-     * @param third  The byte to fill the next 8 bits, starting from 2^15 to 2^8
-     * @param fourth The byte to fill the lowest 8 bits, starting from 2^7 to 2^0
-     * 
-     * @return The integer associated with the byte concatenation mentioned.
+     * @param in     The channel to copy from.
+     * @param out    The writer to copy to.
+     * @param chunk  The buffer used to copy, which is cleared beforehand.
+     * @param length The number of bytes to copy.
+     * @throws IOException If an I/O error occurs.
      */
-    private static int byteConcatenation4(byte first, byte second, byte third, byte fourth) {
+    private static void copy(final FileChannel in, final WAVFileWriter out, final ByteBuffer chunk,
+	    final long length) throws IOException {
+	long remaining = length;
+	chunk.clear();
+
+	while (remaining > 0) {
+	    chunk.limit(chunk.position() + (int) Math.min(chunk.capacity() - chunk.position(), remaining));
+	    final int read = in.read(chunk);
+
+	    if (read == -1) {
+		throw new EOFException("The audio data ended unexpectedly.");
 
-	int firstShift = cutOffLeadingBits(first, 24) << 24;
-	int secondShift = cutOffLeadingBits(second, 24) << 16;
-	int thirdShift = cutOffLeadingBits(third, 24) << 8;
-	int fourthShift = cutOffLeadingBits(fourth, 24);
+	    }
+	    remaining -= read;
+	    chunk.flip();
+	    out.write(chunk);
+	    chunk.compact();
 
-	return firstShift | secondShift | thirdShift | fourthShift;
+	}
     }
 
     /**
-     * Cuts off the highest k bits from the given integer.
+     * Expands the silence dropped from a recording back into its audio, such
+     * that the timeline of the recording is restored. The recording consists of
+     * a .wav file written by {@link WAVFileWriter} and the gap records written
+     * next to it by {@link AudioRecorder}, see
+     * {@link AudioRecorder#getGapPath(Path)}. Every gap is written as silence at
+     * the offset it was recorded at. A missing gap file is treated as empty, and
+     * an incomplete last record, e.g. after a crash, is ignored. Both files are
+     * streamed in small chunks, thus the memory used is independent of the
+     * length of the recording.
      * 
-     * @param x The integer from which to cut high bits.
-     * @param k The number of bits to cut from x.
-     * @return An integer, which represents x with k high bits cut off.
+     * @param wav The path to the .wav file of the recording.
+     * @param out The path to the .wav file to create.
+     * @throws IOException If an I/O error occurs, or the .wav file is malformed.
      */
-    private static int cutOffLeadingBits(final int x, int k) {
-	return x & (int) Math.pow(2, 32 - k) - 1;
+    public static void expandGaps(final Path wav, final Path out) throws IOException {
+	final Path gaps = AudioRecorder.getGapPath(wav);
+	final ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+	try (final FileChannel in = FileChannel.open(wav);
+		final FileChannel gapChannel = Files.exists(gaps) ? FileChannel.open(gaps) : null) {
+	    if (!readFully(in, header) || header.getInt(0) != RIFF_ID || header.getInt(8) != WAVE_ID) {
+		throw new IOException("The file " + wav + " is no .wav file.");
+
+	    }
+	    final int channels = header.getShort(22);
+	    final int sampleRate = header.getInt(24);
+	    final int frameSize = header.getShort(32);
+	    final int bitDepth = header.getShort(34);
+	    final EAudioType type = header.getShort(20) == EAudioType.PCM_FLOAT.getFormatTag()
+		    ? EAudioType.PCM_FLOAT
+		    : EAudioType.PCM;
+
+	    final long dataLength = in.size() - WAV_HEADER_SIZE;
+	    final long silentFrameSize = (long) sampleRate / AudioRingBuffer.FRAMES_PER_SECOND * frameSize;
+
+	    // 8 bit samples are unsigned, every other type is silent at zero.
+	    final byte silence = type == EAudioType.PCM && bitDepth == 8 ? (byte) 0x80 : 0;
+	    final ByteBuffer chunk = ByteBuffer.allocateDirect(CONVERSION_CHUNK_SIZE);
+	    final ByteBuffer record = ByteBuffer.allocate(AudioRecorder.GAP_RECORD_SIZE);
+
+	    try (final WAVFileWriter writer = new WAVFileWriter(out, sampleRate, channels, bitDepth, false,
+		    (long) sampleRate * frameSize, type)) {
+		long position = 0;
+
+		while (gapChannel != null && readFully(gapChannel, record)) {
+		    final long offset = Math.min(Math.max(record.getLong(0), position), dataLength);
+
+		    copy(in, writer, chunk, offset - position);
+		    position = offset;
+		    writeSilence(writer, chunk, record.getInt(8) * silentFrameSize, silence, frameSize);
+		    record.clear();
+
+		}
+		copy(in, writer, chunk, dataLength - position);
+
+	    }
+	}
     }
 
     /**
-     * Generates a .wav file from the given data.
+     * Reads from the given channel until the given buffer is full.
      * 
-     * @param data          The array of bytes containing the data of the audio.
-     * @param sampleRate    The sample rate, given in Hertz.
-     * @param numOfChannels The number of channels used in the audio data, 1 for
-     *                      mono, 2 for stereo, etc.
-     * @param bitDepth      The number of bits used per sample.
-     * @param type          The type of the audio to be converted to a .wav file.
+     * @param in     The channel to read from.
+     * @param buffer The buffer to read into.
+     * @return <tt>true</tt> if the buffer got filled, <tt>false</tt> if the
+     *         channel ended before.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static boolean readFully(final FileChannel in, final ByteBuffer buffer) throws IOException {
+	while (buffer.hasRemaining()) {
+	    if (in.read(buffer) == -1) {
+		return false;
+
+	    }
+	}
+	return true;
+
+    }
+
+    /**
+     * Writes the given number of bytes of silence to the given writer.
      * 
-     * @return A byte array which is a can be read as a .wav file.
+     * @param out       The writer to write to.
+     * @param chunk     The buffer used to write, which is overwritten.
+     * @param length    The number of bytes to write, a multiple of the given
+     *                  frame size.
+     * @param silence   The value of every byte of silence.
+     * @param frameSize The number of bytes of a single sample of every channel.
+     * @throws IOException If an I/O error occurs.
      */
-    public static byte[] generateWAVFile(final byte[] data, final int sampleRate, final int numOfChannels,
-	    final int bitDepth, final EAudioType type) {
+    private static void writeSilence(final WAVFileWriter out, final ByteBuffer chunk, final long length,
+	    final byte silence, final int frameSize) throws IOException {
+	final int size = chunk.capacity() - chunk.capacity() % frameSize;
+	long remaining = length;
 
-	int typeIdenfifier = 0;
+	chunk.clear();
+	while (chunk.position() < size) {
+	    chunk.put(silence);
 
-	if (type == EAudioType.PCM) {
-	    typeIdenfifier = 1;
+	}
 
-	} else {
-	    Logger.Get().log(ELogType.WARNING, "Unsupported audio type: " + type.toString());
-	    return null;
+	while (remaining > 0) {
+	    chunk.limit((int) Math.min(size, remaining)).position(0);
+	    out.write(chunk);
+	    remaining -= chunk.position();
 
 	}
+    }
+
+    /**
+     * Reverses the byte order of every whole sample between the position and the
+     * limit of the given buffer, in place. The position of the buffer stays
+     * unchanged. Supports 8, 16, 24, 32 and 64 bit samples, either integer or
+     * float.
+     * 
+     * @param buffer         The buffer containing the samples.
+     * @param bytesPerSample The number of bytes used per sample.
+     * @throws IllegalArgumentException If the given number of bytes per sample is
+     *                                  not supported.
+     */
+    public static void swapByteOrder(final ByteBuffer buffer, final int bytesPerSample) {
+	final int start = buffer.position();
+	final int end = start + buffer.remaining() - buffer.remaining() % bytesPerSample;
 
-	final int frameSize = numOfChannels * ((int) Math.floor((bitDepth + 7) / 8));
+	switch (bytesPerSample) {
+	case 1:
+	    break;
 
-	// 12 bytes for the riff-header, 24 for the format-header and 8 for the
-	// data-header.
-	final byte[] resultData = new byte[data.length + 12 + 24 + 8];
+	case 2:
+	    for (int i = start; i < end; i += 2) {
+		buffer.putShort(i, Short.reverseBytes(buffer.getShort(i)));
+
+	    }
+	    break;
+
+	case 3:
+	    for (int i = start; i < end; i += 3) {
+		final byte first = buffer.get(i);
+		buffer.put(i, buffer.get(i + 2));
+		buffer.put(i + 2, first);
+
+	    }
+	    break;
+
+	case 4:
+	    for (int i = start; i < end; i += 4) {
+		buffer.putInt(i, Integer.reverseBytes(buffer.getInt(i)));
+
+	    }
+	    break;
+
+	case 8:
+	    for (int i = start; i < end; i += 8) {
+		buffer.putLong(i, Long.reverseBytes(buffer.getLong(i)));
+
+	    }
+	    break;
+
+	default:
+	    throw new IllegalArgumentException("Unsupported number of bytes per sample: " + bytesPerSample);
+
+	}
+    }
+
+    /**
+     * Copies as many whole samples as possible from the given source to the given
+     * destination buffer, reversing the byte order of every sample. The positions
+     * of both buffers are advanced accordingly. Supports 8, 16, 24, 32 and 64 bit
+     * samples, either integer or float. 16, 32 and 64 bit samples are copied in
+     * bulk, using views of opposing byte order.
+     * 
+     * @param src            The buffer to read the samples from.
+     * @param dst            The buffer to write the converted samples to.
+     * @param bytesPerSample The number of bytes used per sample.
+     * @return The number of samples copied.
+     * @throws IllegalArgumentException If the given number of bytes per sample is
+     *                                  not supported.
+     */
+    public static int swapByteOrder(final ByteBuffer src, final ByteBuffer dst, final int bytesPerSample) {
+	final int samples = Math.min(src.remaining(), dst.remaining()) / bytesPerSample;
+	final int length = samples * bytesPerSample;
+	final ByteOrder srcOrder = src.order();
+	final ByteOrder dstOrder = dst.order();
+	final int srcLimit = src.limit();
+
+	src.limit(src.position() + length);
+	src.order(ByteOrder.BIG_ENDIAN);
+	dst.order(ByteOrder.LITTLE_ENDIAN);
+
+	switch (bytesPerSample) {
+	case 1:
+	    dst.put(src);
+	    break;
+
+	case 2:
+	    dst.asShortBuffer().put(src.asShortBuffer());
+	    break;
+
+	case 3:
+	    for (int i = src.position(), j = dst.position(); i < src.limit(); i += 3, j += 3) {
+		dst.put(j, src.get(i + 2));
+		dst.put(j + 1, src.get(i + 1));
+		dst.put(j + 2, src.get(i));
+
+	    }
+	    break;
+
+	case 4:
+	    dst.asIntBuffer().put(src.asIntBuffer());
+	    break;
+
+	case 8:
+	    dst.asLongBuffer().put(src.asLongBuffer());
+	    break;
+
+	default:
+	    src.limit(srcLimit);
+	    src.order(srcOrder);
+	    dst.order(dstOrder);
+	    throw new IllegalArgumentException("Unsupported number of bytes per sample: " + bytesPerSample);
+
+	}
+
+	if (bytesPerSample != 1) {
+	    src.position(src.position() + length);
+	    dst.position(dst.position() + length);
+
+	}
+	src.limit(srcLimit);
+	src.order(srcOrder);
+	dst.order(dstOrder);
+
+	return samples;
+
+    }
+
+    /**
+     * Writes the RIFF-header, Format-header and the data-header of a .wav file
+     * into the given buffer, starting at its current position.
+     * 
+     * @param dst           The buffer to write the headers to, needs at least
+     *                      {@link AudioConverter#WAV_HEADER_SIZE} bytes remaining.
+     * @param dataLength    The length of the audio data following the headers.
+     * @param sampleRate    The sample rate, given in Hertz.
+     * @param numOfChannels The number of channels used in the audio data, 1 for
+     *                      mono, 2 for stereo, etc.
+     * @param bitDepth      The number of bits used per sample.
+     * @param type          The type of the audio following the headers.
+     */
+    public static void writeWAVHeader(final ByteBuffer dst, final long dataLength, final int sampleRate,
+	    final int numOfChannels, final int bitDepth, final EAudioType type) {
+	final ByteOrder order = dst.order();
+	dst.order(ByteOrder.LITTLE_ENDIAN);
+
+	final int frameSize = numOfChannels * ((bitDepth + 7) / 8);
 
 	// generate RIFF-header
-	resultData[0] = 'R';
-	resultData[1] = 'I';
-	resultData[2] = 'F';
-	resultData[3] = 'F';
-
-	final byte[] chunkSize = getBytesFrom(resultData.length - 8, 4);
-	resultData[4] = chunkSize[0];
-	resultData[5] = chunkSize[1];
-	resultData[6] = chunkSize[2];
-	resultData[7] = chunkSize[3];
-
-	resultData[8] = 'W';
-	resultData[9] = 'A';
-	resultData[10] = 'V';
-	resultData[11] = 'E';
+	dst.put((byte) 'R').put((byte) 'I').put((byte) 'F').put((byte) 'F');
+	dst.putInt((int) (dataLength + WAV_HEADER_SIZE - 8));
+	dst.put((byte) 'W').put((byte) 'A').put((byte) 'V').put((byte) 'E');
 
 	// generate Format-header
-	resultData[12] = 'f';
-	resultData[13] = 'm';
-	resultData[14] = 't';
-	resultData[15] = ' ';
-
-	final byte[] remainingHeaderLength = getBytesFrom(16, 4);
-	resultData[16] = remainingHeaderLength[0];
-	resultData[17] = remainingHeaderLength[1];
-	resultData[18] = remainingHeaderLength[2];
-	resultData[19] = remainingHeaderLength[3];
-
-	final byte[] formatTag = getBytesFrom(typeIdenfifier, 2);
-	resultData[20] = formatTag[0];
-	resultData[21] = formatTag[1];
-
-	final byte[] channels = getBytesFrom(numOfChannels, 2);
-	resultData[22] = channels[0];
-	resultData[23] = channels[1];
-
-	final byte[] sampleRateByte = getBytesFrom(sampleRate, 4);
-	resultData[24] = sampleRateByte[0];
-	resultData[25] = sampleRateByte[1];
-	resultData[26] = sampleRateByte[2];
-	resultData[27] = sampleRateByte[3];
-
-	final byte[] bytesPerSecond = getBytesFrom(sampleRate * frameSize, 4);
-	resultData[28] = bytesPerSecond[0];
-	resultData[29] = bytesPerSecond[1];
-	resultData[30] = bytesPerSecond[2];
-	resultData[31] = bytesPerSecond[3];
-
-	final byte[] blockAlign = getBytesFrom(frameSize, 2);
-	resultData[32] = blockAlign[0];
-	resultData[33] = blockAlign[1];
-
-	final byte[] bitsPerSample = getBytesFrom(bitDepth, 2);
-	resultData[34] = bitsPerSample[0];
-	resultData[35] = bitsPerSample[1];
+	dst.put((byte) 'f').put((byte) 'm').put((byte) 't').put((byte) ' ');
+	dst.putInt(16);
+	dst.putShort((short) type.getFormatTag());
+	dst.putShort((short) numOfChannels);
+	dst.putInt(sampleRate);
+	dst.putInt(sampleRate * frameSize);
+	dst.putShort((short) frameSize);
+	dst.putShort((short) bitDepth);
 
 	// generate data-header
-	resultData[36] = 'd';
-	resultData[37] = 'a';
-	resultData[38] = 't';
-	resultData[39] = 'a';
-
-	final byte[] remainingLength = getBytesFrom(resultData.length - 44, 4);
-	resultData[40] = remainingLength[0];
-	resultData[41] = remainingLength[1];
-	resultData[42] = remainingLength[2];
-	resultData[43] = remainingLength[3];
-
-	// conversion from little-endian to big-endian
-	// TODO: make it more dynamic given the bitDepth, only works for 16 bit atm.
-	for (int i = 0; i < data.length; i += bitDepth / 2) {
-	    resultData[44 + i] = data[i + 1];
-	    resultData[44 + i + 1] = data[i];
-	}
+	dst.put((byte) 'd').put((byte) 'a').put((byte) 't').put((byte) 'a');
+	dst.putInt((int) dataLength);
 
-	return resultData;
+	dst.order(order);
 
     }
 
     /**
-     * Gets up to 4 bytes from the given integer x, such that the concatenation of
-     * the entries of the returned result will yield x in byte representation.
+     * Generates a .wav file from the given big-endian audio data.
      * 
-     * @param x The integer which to dissect into k bytes.
-     * @param k The number of bytes to fetch from x.
-     * @return An array containing the byte representation of x.
+     * @param data          The array of bytes containing the data of the audio,
+     *                      big-endian.
+     * @param sampleRate    The sample rate, given in Hertz.
+     * @param numOfChannels The number of channels used in the audio data, 1 for
+     *                      mono, 2 for stereo, etc.
+     * @param bitDepth      The number of bits used per sample.
+     * @param type          The type of the audio to be converted to a .wav file.
+     * 
+     * @return A byte array which is a can be read as a .wav file.
      */
-    private static byte[] getBytesFrom(final int x, final int k) {
+    public static byte[] generateWAVFile(final byte[] data, final int sampleRate, final int numOfChannels,
+	    final int bitDepth, final EAudioType type) {
+	final byte[] resultData = new byte[data.length + WAV_HEADER_SIZE];
+	final ByteBuffer result = ByteBuffer.wrap(resultData);
 
-	byte[] result = new byte[k];
+	writeWAVHeader(result, data.length, sampleRate, numOfChannels, bitDepth, type);
+	swapByteOrder(ByteBuffer.wrap(data), result, (bitDepth + 7) / 8);
 
-	for (int i = 0; i < k; i++) {
-	    result[i] = (byte) ((x >> 8 * i) & (int) Math.pow(2, 8) - 1);
-	}
+	return resultData;
 
-	return result;
     }
 
     public static void main(final String[] main) {
@@ -199,13 +426,9 @@ public class AudioConverter {
 	// TODO: remove this later, this is solely used for debugging currently.
 
 	try {
-	    byte[] toWrite = generateWAVFile(
-		    Files.readAllBytes(
-			    Paths.get(SettingsProvider.getPath() + ProjectPaths.AUDIO_RECEIVE_PATH + "test.raw")),
-		    44800, 2, 16, EAudioType.PCM);
+	    convertRAWFile(Paths.get(SettingsProvider.getPath() + ProjectPaths.AUDIO_RECEIVE_PATH + "test.raw"),
+		    Paths.get(SettingsProvider.getPath() + ProjectPaths.AUDIO_RECEIVE_PATH + "test.wav"));
 
-	    Files.write(Paths.get(SettingsProvider.getPath() + ProjectPaths.AUDIO_RECEIVE_PATH + "test.wav"), toWrite,
-		    StandardOpenOption.CREATE);
 	} catch (IOException e) {
 	    // TODO Auto-generated catch block
 	    e.printStackTrace();
@@ -219,28 +442,30 @@ public class AudioConverter {
      * @param data The .wav data from which to get the headers.
      */
     public static void printWAVHeader(final byte[] data) {
+	final ByteBuffer header = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+
 	System.out.println("RIFF-Header:");
 	System.out.println("\tchunckID: " + (char) data[0] + (char) data[1] + (char) data[2] + (char) data[3]);
-	System.out.println("\tChunckSize: " + byteConcatenation4(data[7], data[6], data[5], data[4]));
+	System.out.println("\tChunckSize: " + header.getInt(4));
 	System.out.println("\triffType: " + (char) data[8] + (char) data[9] + (char) data[10] + (char) data[11]);
 
 	System.out.println();
 
 	System.out.println("Format-Header:");
 	System.out.println("\tsignature: " + (char) data[12] + (char) data[13] + (char) data[14] + (char) data[15]);
-	System.out.println("\tremaining header length: " + byteConcatenation4(data[19], data[18], data[17], data[16]));
-	System.out.println("\twFormatTag: " + byteConcatenation2(data[21], data[20]));
-	System.out.println("\twChannels: " + byteConcatenation2(data[23], data[22]));
-	System.out.println("\twSampleRate: " + byteConcatenation4(data[27], data[26], data[25], data[24]));
-	System.out.println("\tBytes/Second: " + byteConcatenation4(data[31], data[30], data[29], data[28]));
-	System.out.println("\tblock-align: " + byteConcatenation2(data[33], data[32]));
-	System.out.println("\tBits/Sample: " + byteConcatenation2(data[35], data[34]));
+	System.out.println("\tremaining header length: " + header.getInt(16));
+	System.out.println("\twFormatTag: " + header.getShort(20));
+	System.out.println("\twChannels: " + header.getShort(22));
+	System.out.println("\twSampleRate: " + header.getInt(24));
+	System.out.println("\tBytes/Second: " + header.getInt(28));
+	System.out.println("\tblock-align: " + header.getShort(32));
+	System.out.println("\tBits/Sample: " + header.getShort(34));
 
 	System.out.println();
 
 	System.out.println("Data-Header:");
 	System.out.println("\tsignature: " + (char) data[36] + (char) data[37] + (char) data[38] + (char) data[39]);
-	System.out.println("\tdata-length: " + byteConcatenation4(data[43], data[42], data[41], data[40]));
+	System.out.println("\tdata-length: " + header.getInt(40));
     }
 
     /**
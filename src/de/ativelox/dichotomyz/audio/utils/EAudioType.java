@@ -9,8 +9,43 @@ package de.ativelox.dichotomyz.audio.utils;
 public enum EAudioType {
     
     /**
-     * Describing the audio type known as Pulse Code Modulation (PCM).
+     * Describing the audio type known as Pulse Code Modulation (PCM), with
+     * integer samples.
      */
-    PCM;
+    PCM(1),
+
+    /**
+     * Describing Pulse Code Modulation (PCM) with IEEE 754 floating point
+     * samples.
+     */
+    PCM_FLOAT(3);
+
+    /**
+     * The value of the format tag identifying this type in the headers of a .wav
+     * file.
+     */
+    private final int mFormatTag;
+
+    /**
+     * Creates a new {@link EAudioType}.
+     * 
+     * @param formatTag The value of the format tag identifying this type in the
+     *                  headers of a .wav file.
+     */
+    private EAudioType(final int formatTag) {
+	mFormatTag = formatTag;
+
+    }
+
+    /**
+     * Gets the value of the format tag identifying this type in the headers of a
+     * .wav file.
+     * 
+     * @return The value mentioned.
+     */
+    public int getFormatTag() {
+	return mFormatTag;
+
+    }
 
 }
@@ -0,0 +1,272 @@
+package de.ativelox.dichotomyz.audio.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Provides a streaming sink for .wav files. Audio data is appended to the file
+ * through a {@link FileChannel} as it arrives, so the memory used is
+ * independent of the length of the recording. The headers are written with
+ * placeholder sizes first, and patched periodically while writing, so a
+ * partially written file (e.g. after a crash) stays playable up to the last
+ * patch. The sizes are finally patched when this writer gets closed.
+ * <p>
+ * The size fields of the headers are 32 bit wide, thus at most
+ * {@link WAVFileWriter#MAX_DATA_LENGTH} bytes of audio data can be written,
+ * after which this writer refuses to write any further data.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class WAVFileWriter implements Closeable {
+
+    /**
+     * The size of the buffer used to convert the byte order of the audio data.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The maximum number of bytes of audio data a .wav file can hold, such that
+     * the size of the riff-chunk still fits its unsigned 32 bit size field.
+     */
+    public static final long MAX_DATA_LENGTH = 0xFFFFFFFFL - (AudioConverter.WAV_HEADER_SIZE - 8);
+
+    /**
+     * The channel of the file written to.
+     */
+    private final FileChannel mChannel;
+
+    /**
+     * The reusable buffer used to convert the audio data before writing it.
+     */
+    private final ByteBuffer mBuffer;
+
+    /**
+     * The reusable buffer used to patch the size fields of the headers.
+     */
+    private final ByteBuffer mSizeBuffer;
+
+    /**
+     * The number of bytes used per sample.
+     */
+    private final int mBytesPerSample;
+
+    /**
+     * Whether the audio data passed to this writer is big-endian, in which case it
+     * gets converted to little-endian, as required by .wav files.
+     */
+    private final boolean mBigEndian;
+
+    /**
+     * The number of bytes of audio data written after which the headers get
+     * patched.
+     */
+    private final long mHeaderUpdateInterval;
+
+    /**
+     * The number of bytes of audio data written so far.
+     */
+    private long mDataLength;
+
+    /**
+     * The value of {@link WAVFileWriter#mDataLength} the last time the headers
+     * got patched.
+     */
+    private long mLastHeaderUpdate;
+
+    /**
+     * Creates a new {@link WAVFileWriter}, which patches its headers after every
+     * second of audio written.
+     * 
+     * @param path   The path to the file to write, an existing file gets
+     *               overwritten.
+     * @param format The format of the audio data passed to this writer.
+     * @throws IOException If an I/O error occurs.
+     */
+    public WAVFileWriter(final Path path, final AudioFormat format) throws IOException {
+	this(path, (int) format.getSampleRate(), format.getChannels(), format.getSampleSizeInBits(),
+		format.isBigEndian(), (long) format.getSampleRate() * format.getFrameSize(),
+		format.getEncoding() == AudioFormat.Encoding.PCM_FLOAT ? EAudioType.PCM_FLOAT : EAudioType.PCM);
+
+    }
+
+    /**
+     * Creates a new {@link WAVFileWriter} for integer PCM audio data.
+     * 
+     * @param path                 The path to the file to write, an existing file
+     *                             gets overwritten.
+     * @param sampleRate           The sample rate, given in Hertz.
+     * @param numOfChannels        The number of channels used in the audio data, 1
+     *                             for mono, 2 for stereo, etc.
+     * @param bitDepth             The number of bits used per sample.
+     * @param bigEndian            Whether the audio data passed is big-endian.
+     * @param headerUpdateInterval The number of bytes of audio data written after
+     *                             which the headers get patched.
+     * @throws IOException If an I/O error occurs.
+     */
+    public WAVFileWriter(final Path path, final int sampleRate, final int numOfChannels, final int bitDepth,
+	    final boolean bigEndian, final long headerUpdateInterval) throws IOException {
+	this(path, sampleRate, numOfChannels, bitDepth, bigEndian, headerUpdateInterval, EAudioType.PCM);
+
+    }
+
+    /**
+     * Creates a new {@link WAVFileWriter}.
+     * 
+     * @param path                 The path to the file to write, an existing file
+     *                             gets overwritten.
+     * @param sampleRate           The sample rate, given in Hertz.
+     * @param numOfChannels        The number of channels used in the audio data, 1
+     *                             for mono, 2 for stereo, etc.
+     * @param bitDepth             The number of bits used per sample.
+     * @param bigEndian            Whether the audio data passed is big-endian.
+     * @param headerUpdateInterval The number of bytes of audio data written after
+     *                             which the headers get patched.
+     * @param type                 The type of the audio data passed.
+     * @throws IOException If an I/O error occurs.
+     */
+    public WAVFileWriter(final Path path, final int sampleRate, final int numOfChannels, final int bitDepth,
+	    final boolean bigEndian, final long headerUpdateInterval, final EAudioType type) throws IOException {
+	mBytesPerSample = (bitDepth + 7) / 8;
+	mBigEndian = bigEndian;
+	mHeaderUpdateInterval = headerUpdateInterval;
+
+	mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE - BUFFER_SIZE % mBytesPerSample);
+	mSizeBuffer = ByteBuffer.allocate(4);
+
+	mChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		StandardOpenOption.TRUNCATE_EXISTING);
+
+	final ByteBuffer header = ByteBuffer.allocate(AudioConverter.WAV_HEADER_SIZE);
+	AudioConverter.writeWAVHeader(header, 0, sampleRate, numOfChannels, bitDepth, type);
+	header.flip();
+
+	while (header.hasRemaining()) {
+	    mChannel.write(header);
+
+	}
+
+	mDataLength = 0;
+	mLastHeaderUpdate = 0;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+	if (!mChannel.isOpen()) {
+	    return;
+
+	}
+
+	try {
+	    updateHeader();
+
+	} finally {
+	    mChannel.close();
+
+	}
+    }
+
+    /**
+     * Gets the number of bytes of audio data written so far.
+     * 
+     * @return The number mentioned.
+     */
+    public long getDataLength() {
+	return mDataLength;
+
+    }
+
+    /**
+     * Patches the size fields of the headers to match the audio data written so
+     * far.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    public void updateHeader() throws IOException {
+	writeSize(mDataLength + AudioConverter.WAV_HEADER_SIZE - 8, AudioConverter.WAV_CHUNK_SIZE_OFFSET);
+	writeSize(mDataLength, AudioConverter.WAV_DATA_LENGTH_OFFSET);
+
+	mLastHeaderUpdate = mDataLength;
+
+    }
+
+    /**
+     * Appends the remaining audio data of the given buffer to the file. The
+     * position of the buffer is advanced accordingly, only whole samples are
+     * consumed.
+     * 
+     * @param data The audio data to write.
+     * @throws IOException If an I/O error occurs, or if the data doesn't fit
+     *                     the file, since {@link WAVFileWriter#MAX_DATA_LENGTH}
+     *                     is reached. The data fitting got written and the
+     *                     headers patched in that case.
+     */
+    public void write(final ByteBuffer data) throws IOException {
+	while (data.remaining() >= mBytesPerSample) {
+	    final long free = MAX_DATA_LENGTH - mDataLength;
+
+	    if (free < mBytesPerSample) {
+		updateHeader();
+		throw new IOException("The maximum size of a .wav file has been reached.");
+
+	    }
+	    mBuffer.clear();
+	    mBuffer.limit((int) Math.min(mBuffer.capacity(), free - free % mBytesPerSample));
+
+	    if (mBigEndian) {
+		// convert to little-endian, by reversing the bytes of every sample.
+		AudioConverter.swapByteOrder(data, mBuffer, mBytesPerSample);
+
+	    } else {
+		final int limit = data.limit();
+		data.limit(data.position() + Math.min(mBuffer.remaining(), data.remaining()));
+		mBuffer.put(data);
+		data.limit(limit);
+
+	    }
+	    mBuffer.flip();
+	    mDataLength += mBuffer.remaining();
+
+	    while (mBuffer.hasRemaining()) {
+		mChannel.write(mBuffer);
+
+	    }
+	}
+
+	if (mDataLength - mLastHeaderUpdate >= mHeaderUpdateInterval) {
+	    updateHeader();
+
+	}
+    }
+
+    /**
+     * Writes the given size as unsigned 32 bit little-endian integer at the given
+     * position of the file, without changing the position of the channel.
+     * 
+     * @param size     The size to write.
+     * @param position The position in the file to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeSize(final long size, final long position) throws IOException {
+	mSizeBuffer.clear();
+	mSizeBuffer.put((byte) size).put((byte) (size >> 8)).put((byte) (size >> 16)).put((byte) (size >> 24));
+	mSizeBuffer.flip();
+
+	while (mSizeBuffer.hasRemaining()) {
+	    mChannel.write(mSizeBuffer, position + mSizeBuffer.position());
+
+	}
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.audio.utils.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.audio.AudioRecorder;
+import de.ativelox.dichotomyz.audio.utils.AudioConverter;
+import de.ativelox.dichotomyz.audio.utils.EAudioType;
+import de.ativelox.dichotomyz.audio.utils.WAVFileWriter;
+
+/**
+ * Provides Tests for {@link AudioConverter}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class AudioConverterTest {
+
+    /**
+     * Creates an array containing the bytes 1 to the given length.
+     * 
+     * @param length The length of the array.
+     * @return The array mentioned.
+     */
+    private static byte[] ascending(final int length) {
+	final byte[] result = new byte[length];
+
+	for (int i = 0; i < length; i++) {
+	    result[i] = (byte) (i + 1);
+
+	}
+	return result;
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.utils.AudioConverter#swapByteOrder(ByteBuffer, ByteBuffer, int)}.
+     */
+    @Test
+    public void testSwapIntoBuffer() {
+	final int[] depths = { 2, 3, 4, 8 };
+
+	for (final int bytesPerSample : depths) {
+	    final ByteBuffer src = ByteBuffer.wrap(ascending(bytesPerSample * 3 + 1));
+	    final ByteBuffer dst = ByteBuffer.allocateDirect(bytesPerSample * 4);
+
+	    Assert.assertEquals(3, AudioConverter.swapByteOrder(src, dst, bytesPerSample));
+	    Assert.assertEquals(1, src.remaining());
+	    Assert.assertEquals(bytesPerSample * 3, dst.position());
+	    Assert.assertEquals(ByteOrder.BIG_ENDIAN, dst.order());
+
+	    for (int sample = 0; sample < 3; sample++) {
+		for (int i = 0; i < bytesPerSample; i++) {
+		    Assert.assertEquals((byte) (sample * bytesPerSample + bytesPerSample - i),
+			    dst.get(sample * bytesPerSample + i));
+
+		}
+	    }
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.utils.AudioConverter#swapByteOrder(ByteBuffer, int)}.
+     */
+    @Test
+    public void testSwapInPlace() {
+	final ByteBuffer buffer = ByteBuffer.wrap(ascending(7));
+
+	AudioConverter.swapByteOrder(buffer, 3);
+	Assert.assertEquals(0, buffer.position());
+	Assert.assertArrayEquals(new byte[] { 3, 2, 1, 6, 5, 4, 7 }, buffer.array());
+
+	buffer.clear();
+	buffer.limit(4);
+	AudioConverter.swapByteOrder(buffer, 2);
+	Assert.assertArrayEquals(new byte[] { 2, 3, 6, 1, 5, 4, 7 }, buffer.array());
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.utils.AudioConverter#expandGaps(Path, Path)},
+     * where the gaps of a recording are written back as silence, ignoring the
+     * incomplete last record.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testExpandGaps() throws IOException {
+	final Path directory = Files.createTempDirectory("audioconvertertest");
+	final Path wav = directory.resolve("recording.wav");
+	final Path gaps = AudioRecorder.getGapPath(wav);
+	final Path expanded = directory.resolve("expanded.wav");
+
+	try {
+	    // 100 Hz, mono and 16 bit, thus a 20ms frame has 4 bytes.
+	    try (final WAVFileWriter writer = new WAVFileWriter(wav, 100, 1, 16, false, 4)) {
+		writer.write(ByteBuffer.wrap(ascending(8)));
+
+	    }
+
+	    final ByteBuffer records = ByteBuffer.allocate(2 * AudioRecorder.GAP_RECORD_SIZE + 5);
+	    records.putLong(4).putInt(2).putLong(8).putInt(1).put(new byte[] { 0, 0, 0, 0, 12 });
+	    Files.write(gaps, records.array());
+
+	    AudioConverter.expandGaps(wav, expanded);
+
+	    final byte[] result = Files.readAllBytes(expanded);
+	    final ByteBuffer header = ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN);
+
+	    Assert.assertEquals(AudioConverter.WAV_HEADER_SIZE + 20, result.length);
+	    Assert.assertEquals(20, header.getInt(AudioConverter.WAV_DATA_LENGTH_OFFSET));
+	    Assert.assertEquals(100, header.getInt(24));
+
+	    final byte[] data = new byte[20];
+	    System.arraycopy(result, AudioConverter.WAV_HEADER_SIZE, data, 0, data.length);
+	    Assert.assertArrayEquals(new byte[] { 1, 2, 3, 4, 0, 0, 0, 0, 0, 0, 0, 0, 5, 6, 7, 8, 0, 0, 0, 0 }, data);
+
+	    // without gaps, the audio is copied as is.
+	    Files.delete(gaps);
+	    AudioConverter.expandGaps(wav, expanded);
+	    Assert.assertArrayEquals(Files.readAllBytes(wav), Files.readAllBytes(expanded));
+
+	} finally {
+	    Files.deleteIfExists(wav);
+	    Files.deleteIfExists(gaps);
+	    Files.deleteIfExists(expanded);
+	    Files.delete(directory);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.utils.AudioConverter#generateWAVFile(byte[], int, int, int, EAudioType)}.
+     */
+    @Test
+    public void testGenerateWAVFile() {
+	final byte[] wav = AudioConverter.generateWAVFile(ascending(12), 48000, 2, 32, EAudioType.PCM_FLOAT);
+	final ByteBuffer header = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+
+	Assert.assertEquals(AudioConverter.WAV_HEADER_SIZE + 12, wav.length);
+	Assert.assertEquals(wav.length - 8, header.getInt(AudioConverter.WAV_CHUNK_SIZE_OFFSET));
+	Assert.assertEquals(3, header.getShort(20));
+	Assert.assertEquals(48000 * 8, header.getInt(28));
+	Assert.assertEquals(8, header.getShort(32));
+	Assert.assertEquals(12, header.getInt(AudioConverter.WAV_DATA_LENGTH_OFFSET));
+
+	Assert.assertEquals(4, wav[AudioConverter.WAV_HEADER_SIZE]);
+	Assert.assertEquals(1, wav[AudioConverter.WAV_HEADER_SIZE + 3]);
+	Assert.assertEquals(12, wav[AudioConverter.WAV_HEADER_SIZE + 8]);
+    }
+
+}
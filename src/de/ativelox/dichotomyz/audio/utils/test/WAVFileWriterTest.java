@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.audio.utils.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.audio.utils.AudioConverter;
+import de.ativelox.dichotomyz.audio.utils.WAVFileWriter;
+
+/**
+ * Provides Tests for {@link WAVFileWriter}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class WAVFileWriterTest {
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.audio.utils.WAVFileWriter#write(ByteBuffer)}.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testWriteConvertsAndPatchesHeader() throws IOException {
+	final Path path = Files.createTempFile("wavfilewritertest", ".wav");
+
+	try {
+	    try (final WAVFileWriter writer = new WAVFileWriter(path, 48000, 2, 16, true, 4)) {
+		writer.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 }));
+
+		// the headers got patched after 4 bytes, thus the file is already valid.
+		final ByteBuffer partial = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+		Assert.assertEquals(4, partial.getInt(AudioConverter.WAV_DATA_LENGTH_OFFSET));
+
+		writer.write(ByteBuffer.wrap(new byte[] { 5, 6 }));
+
+	    }
+
+	    final byte[] data = Files.readAllBytes(path);
+	    final ByteBuffer header = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+
+	    Assert.assertEquals(AudioConverter.WAV_HEADER_SIZE + 6, data.length);
+	    Assert.assertEquals(data.length - 8, header.getInt(AudioConverter.WAV_CHUNK_SIZE_OFFSET));
+	    Assert.assertEquals(6, header.getInt(AudioConverter.WAV_DATA_LENGTH_OFFSET));
+	    Assert.assertEquals(48000 * 4, header.getInt(28));
+
+	    final int offset = AudioConverter.WAV_HEADER_SIZE;
+	    Assert.assertEquals(2, data[offset]);
+	    Assert.assertEquals(1, data[offset + 1]);
+	    Assert.assertEquals(4, data[offset + 2]);
+	    Assert.assertEquals(3, data[offset + 3]);
+	    Assert.assertEquals(6, data[offset + 4]);
+	    Assert.assertEquals(5, data[offset + 5]);
+
+	} finally {
+	    Files.delete(path);
+
+	}
+    }
+
+}
@@ -9,9 +9,8 @@ package de.ativelox.dichotomyz.callbacks;
 public interface IIntervalCallback {
 
     /**
-     * Fires once when the time interval this instance was registered with has been
-     * passed. This is checked in an interval specified by {@link TimeObserver} and
-     * thus can result in precision loss.
+     * Fires once every time the time interval this instance was registered with
+     * has been passed, by the thread executing {@link TimeObserver#run()}.
      * 
      * @param intervalMs The interval this instance was registered with. This can be
      *                   used to distinguish the interval when registered with
@@ -1,11 +1,18 @@
 package de.ativelox.dichotomyz.callbacks;
 
 /**
+ * Provides a callback method for resources, which should be released after not
+ * being used for some time, see {@link IdleTimeoutReaper}.
+ * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
  */
 public interface ITimeOut {
 
+    /**
+     * Fires once the resource hasn't been used for the time it was registered
+     * with.
+     */
     void timeout();
 
 }
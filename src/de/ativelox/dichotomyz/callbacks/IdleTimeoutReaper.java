@@ -0,0 +1,215 @@
+package de.ativelox.dichotomyz.callbacks;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.Logger;
+
+/**
+ * Calls {@link ITimeOut#timeout()} on registered resources, once they haven't
+ * been used for their idle timeout. Every resource marks its use by
+ * {@link Registration#touch()}, which only writes a timestamp, while a single
+ * background thread checks every registration periodically. Thus timeouts fire
+ * up to one check interval late, but no thread is created or woken per use.
+ * The timeout of a resource fires once per idle period, i.e. again only after
+ * it got touched. This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class IdleTimeoutReaper implements Closeable {
+
+    /**
+     * The default time in ms between two checks of the registrations.
+     */
+    public static final long DEFAULT_CHECK_INTERVAL_MS = 1000;
+
+    /**
+     * The instance shared by every resource.
+     */
+    private static IdleTimeoutReaper sShared;
+
+    /**
+     * The registration of a resource with this reaper.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    public static final class Registration {
+
+	/**
+	 * The resource registered.
+	 */
+	private final ITimeOut mResource;
+
+	/**
+	 * The idle timeout in ns.
+	 */
+	private final long mTimeoutNanos;
+
+	/**
+	 * The time in ns the resource was last used, as given by
+	 * {@link System#nanoTime()}.
+	 */
+	private volatile long mLastUsed;
+
+	/**
+	 * The value of {@link Registration#mLastUsed} the timeout was last fired
+	 * for, only accessed by the thread of the reaper.
+	 */
+	private long mFiredFor;
+
+	/**
+	 * Whether the registration got cancelled or not.
+	 */
+	private volatile boolean mCancelled;
+
+	/**
+	 * Creates a new {@link Registration}.
+	 * 
+	 * @param resource      The resource registered.
+	 * @param idleTimeoutMs The idle timeout in ms.
+	 */
+	private Registration(final ITimeOut resource, final long idleTimeoutMs) {
+	    mResource = resource;
+	    mTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+	    mLastUsed = System.nanoTime();
+	    mFiredFor = mLastUsed - 1;
+	    mCancelled = false;
+
+	}
+
+	/**
+	 * Removes the resource from its reaper, such that its timeout doesn't fire
+	 * anymore.
+	 */
+	public void cancel() {
+	    mCancelled = true;
+
+	}
+
+	/**
+	 * Marks the resource as used just now.
+	 */
+	public void touch() {
+	    mLastUsed = System.nanoTime();
+
+	}
+    }
+
+    /**
+     * Every registration not yet cancelled.
+     */
+    private final Set<Registration> mRegistrations;
+
+    /**
+     * The thread checking the registrations.
+     */
+    private final ScheduledExecutorService mExecutor;
+
+    /**
+     * Creates a new {@link IdleTimeoutReaper}, starting its background thread.
+     * 
+     * @param checkIntervalMs The time in ms between two checks of the
+     *                        registrations.
+     */
+    public IdleTimeoutReaper(final long checkIntervalMs) {
+	mRegistrations = ConcurrentHashMap.newKeySet();
+	mExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+	    final Thread thread = new Thread(runnable, "IdleTimeoutReaper");
+	    thread.setDaemon(true);
+	    return thread;
+
+	});
+	mExecutor.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Gets the reaper shared by every resource, creating it on first use.
+     * 
+     * @return The reaper mentioned.
+     */
+    public static synchronized IdleTimeoutReaper Get() {
+	if (sShared == null) {
+	    sShared = new IdleTimeoutReaper(DEFAULT_CHECK_INTERVAL_MS);
+
+	}
+	return sShared;
+
+    }
+
+    /**
+     * Fires the timeout of every resource idle for its timeout, and forgets
+     * every registration cancelled.
+     */
+    private void check() {
+	final long now = System.nanoTime();
+
+	for (final Registration registration : mRegistrations) {
+	    if (registration.mCancelled) {
+		mRegistrations.remove(registration);
+		continue;
+
+	    }
+	    final long lastUsed = registration.mLastUsed;
+
+	    if (lastUsed == registration.mFiredFor || now - lastUsed < registration.mTimeoutNanos) {
+		continue;
+
+	    }
+	    registration.mFiredFor = lastUsed;
+
+	    try {
+		registration.mResource.timeout();
+
+	    } catch (final RuntimeException e) {
+		Logger.Get().log(ELogType.WARNING, "A timeout of the IdleTimeoutReaper failed: " + e);
+
+	    }
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+	mExecutor.shutdownNow();
+	mRegistrations.clear();
+
+    }
+
+    /**
+     * Gets the number of registrations not yet cancelled, or cancelled since the
+     * last check.
+     * 
+     * @return The number mentioned.
+     */
+    public int getRegistrationCount() {
+	return mRegistrations.size();
+
+    }
+
+    /**
+     * Registers the given resource, which is considered used just now.
+     * 
+     * @param resource      The resource.
+     * @param idleTimeoutMs The time in ms after which the timeout of the resource
+     *                      fires, if it isn't touched meanwhile.
+     * @return The registration, used to touch and cancel it.
+     */
+    public Registration register(final ITimeOut resource, final long idleTimeoutMs) {
+	final Registration registration = new Registration(resource, idleTimeoutMs);
+	mRegistrations.add(registration);
+	return registration;
+
+    }
+}
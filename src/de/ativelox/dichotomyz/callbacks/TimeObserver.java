@@ -3,11 +3,19 @@
  */
 package de.ativelox.dichotomyz.callbacks;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import de.ativelox.dichotomyz.logging.ELogType;
 import de.ativelox.dichotomyz.logging.Logger;
@@ -15,9 +23,15 @@ import de.ativelox.dichotomyz.utils.Timestamp;
 
 /**
  * Fires callbacks for instances of {@link IDayCallback} and
- * {@link IIntervalCallback} when registered to this instance. Checks every
- * {@link TimeObserver#WAIT_TIME_MS} if any callback should be fired and does so
- * if true.
+ * {@link IIntervalCallback} when registered to this instance. The deadline of
+ * every interval is kept in a priority queue, and the next midnight is
+ * computed in the zone of {@link Timestamp#getZoneOffset()}, thus the thread
+ * executing {@link TimeObserver#run()} sleeps until the earliest deadline and
+ * fires every callback exactly once per deadline. Deadlines missed, e.g. while
+ * the system was suspended, are fired once and not repeated. The clock of
+ * {@link Timestamp#getClock()} is ticked before the day callbacks are fired,
+ * such that they see the new date, even if its own tick is still due.
+ * Registering and removing callbacks is thread-safe and takes logarithmic time.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
@@ -25,39 +39,93 @@ import de.ativelox.dichotomyz.utils.Timestamp;
 public class TimeObserver implements Runnable {
 
     /**
-     * The frequency in which to check whether callbacks should be fired in
-     * milliseconds.
+     * The next deadline of an interval a callback has been registered with.
      * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
      */
-    private static final int WAIT_TIME_MS = 1000;
+    private static final class Deadline implements Comparable<Deadline> {
+
+	/**
+	 * The callback to fire.
+	 */
+	private final IIntervalCallback mCallback;
+
+	/**
+	 * The interval in ms.
+	 */
+	private final long mInterval;
+
+	/**
+	 * The time in ms the callback is due.
+	 */
+	private long mDue;
+
+	/**
+	 * Whether the callback has been removed or not.
+	 */
+	private volatile boolean mCancelled;
+
+	/**
+	 * Creates a new {@link Deadline}.
+	 * 
+	 * @param callback The callback to fire.
+	 * @param interval The interval in ms.
+	 * @param due      The time in ms the callback is due.
+	 */
+	private Deadline(final IIntervalCallback callback, final long interval, final long due) {
+	    mCallback = callback;
+	    mInterval = interval;
+	    mDue = due;
+	    mCancelled = false;
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int compareTo(final Deadline other) {
+	    return Long.compare(mDue, other.mDue);
+
+	}
+    }
 
     /**
-     * The maximum amount of difference between registered intervals and the current
-     * value to check against. This should never exceed
-     * {@link TimeObserver#WAIT_TIME_MS}.
+     * The clock deadlines are compared to.
      */
-    private static final int DELTA_MS = 900;
+    private final Clock mClock;
 
     /**
-     * The date that was present the last {@link TimeObserver#run} call.
+     * The lock guarding the deadlines.
      */
-    private String mOldDate;
+    private final ReentrantLock mLock;
 
     /**
-     * The time in ms specified by {@link System#currentTimeMillis()} when
-     * {@link TimeObserver#run()} was called.
+     * Signaled whenever the earliest deadline may have changed, or this observer
+     * got stopped.
      */
-    private long mRunnableStart;
+    private final Condition mChanged;
 
     /**
-     * Whether {@link TimeObserver#run()} is currently being executed or not.
+     * The deadlines of every registered interval, ordered by the time they are
+     * due. Deadlines of removed callbacks are dropped lazily.
      */
-    private boolean running;
+    private final PriorityQueue<Deadline> mDeadlines;
 
     /**
-     * A mapping from each registered {@link IIntervalCallback} to its intervals.
+     * A mapping from each registered {@link IIntervalCallback} to the deadlines
+     * of its intervals.
      */
-    private final Map<IIntervalCallback, long[]> mCallbacks;
+    private final Map<IIntervalCallback, List<Deadline>> mCallbacks;
+
+    /**
+     * The number of deadlines in {@link TimeObserver#mDeadlines} of removed
+     * callbacks.
+     */
+    private int mCancelled;
 
     /**
      * A list for each registered {@link IDayCallback}.
@@ -65,26 +133,71 @@ public class TimeObserver implements Runnable {
     private final List<IDayCallback> mDayCallbacks;
 
     /**
-     * Creates a new {@link TimeObserver} instance.
+     * Whether {@link TimeObserver#run()} is currently being executed or not.
+     */
+    private volatile boolean mRunning;
+
+    /**
+     * Creates a new {@link TimeObserver} instance on the system time.
      */
     public TimeObserver() {
-	mDayCallbacks = new ArrayList<>();
+	this(Clock.systemUTC());
+
+    }
+
+    /**
+     * Creates a new {@link TimeObserver} instance, e.g. on a clock set manually by
+     * tests. Deadlines are waited for in real time, thus the given clock should
+     * never be ahead of the system time.
+     * 
+     * @param clock The clock deadlines are compared to.
+     */
+    public TimeObserver(final Clock clock) {
+	mClock = clock;
+	mLock = new ReentrantLock();
+	mChanged = mLock.newCondition();
+	mDeadlines = new PriorityQueue<>();
 	mCallbacks = new HashMap<>();
-	running = true;
+	mCancelled = 0;
+	mDayCallbacks = new CopyOnWriteArrayList<>();
+	mRunning = true;
 
     }
 
     /**
      * Adds the given {@link IIntervalCallback} instance to this
-     * {@link TimeObserver} with its given intervals.
+     * {@link TimeObserver} with its given intervals. The first deadline of every
+     * interval is one interval from now on.
      * 
      * @param cb        The instance for which to fire its callbacks specified by
      *                  {@link IIntervalCallback}.
-     * @param intervals The intervals in which to fire the associated callback.
+     * @param intervals The intervals in ms in which to fire the associated
+     *                  callback, must be positive.
      */
     public void add(final IIntervalCallback cb, final long... intervals) {
-	mCallbacks.put(cb, intervals);
+	final long now = mClock.millis();
+
+	mLock.lock();
+	try {
+	    final List<Deadline> deadlines = mCallbacks.computeIfAbsent(cb, c -> new ArrayList<>());
 
+	    for (final long interval : intervals) {
+		if (interval <= 0) {
+		    throw new IllegalArgumentException("The interval must be positive: " + interval);
+
+		}
+		final Deadline deadline = new Deadline(cb, interval, now + interval);
+
+		deadlines.add(deadline);
+		mDeadlines.add(deadline);
+
+	    }
+	    mChanged.signal();
+
+	} finally {
+	    mLock.unlock();
+
+	}
     }
 
     /**
@@ -93,8 +206,31 @@ public class TimeObserver implements Runnable {
      * @param cb The instance to remove.
      */
     public void remove(final IIntervalCallback cb) {
-	mCallbacks.remove(cb);
+	mLock.lock();
+	try {
+	    final List<Deadline> deadlines = mCallbacks.remove(cb);
+
+	    if (deadlines == null) {
+		return;
+
+	    }
 
+	    for (final Deadline deadline : deadlines) {
+		deadline.mCancelled = true;
+
+	    }
+	    mCancelled += deadlines.size();
+
+	    // compact once most deadlines are removed, such that the queue doesn't grow with churn.
+	    if (mCancelled > mDeadlines.size() / 2) {
+		mDeadlines.removeIf(deadline -> deadline.mCancelled);
+		mCancelled = 0;
+
+	    }
+	} finally {
+	    mLock.unlock();
+
+	}
     }
 
     /**
@@ -119,13 +255,36 @@ public class TimeObserver implements Runnable {
 
     }
 
+    /**
+     * Gets the start of the day following the given time, in the zone of
+     * {@link Timestamp#getZoneOffset()}.
+     * 
+     * @param now The time in ms.
+     * @return The time mentioned in ms.
+     */
+    public static long getNextMidnight(final long now) {
+	final ZoneOffset zone = Timestamp.getZoneOffset();
+	return LocalDateTime.ofInstant(Instant.ofEpochMilli(now), zone).toLocalDate().plusDays(1).atStartOfDay()
+		.toInstant(zone).toEpochMilli();
+
+    }
+
     /**
      * Stops this instance to execute its {@link TimeObserver#run()} method. Safely
      * stops this runnable.
      * 
      */
     public void stop() {
-	running = false;
+	mRunning = false;
+
+	mLock.lock();
+	try {
+	    mChanged.signal();
+
+	} finally {
+	    mLock.unlock();
+
+	}
     }
 
     /*
@@ -135,41 +294,97 @@ public class TimeObserver implements Runnable {
      */
     @Override
     public void run() {
-	mRunnableStart = System.currentTimeMillis();
-	mOldDate = Timestamp.getCurrentDate();
+	long nextDay = getNextMidnight(mClock.millis());
+	final List<Deadline> due = new ArrayList<>();
 
-	while (running) {
+	while (mRunning) {
+	    boolean dayPassed = false;
 
-	    final String newDate = Timestamp.getCurrentDate();
+	    mLock.lock();
+	    try {
+		final long now = mClock.millis();
+		long next = nextDay;
 
-	    if (!newDate.equals(mOldDate)) {
-		for (final IDayCallback callback : mDayCallbacks) {
-		    callback.onDayPassed();
+		while (!mDeadlines.isEmpty() && mDeadlines.peek().mCancelled) {
+		    mDeadlines.poll();
+		    mCancelled--;
 
 		}
-	    }
 
-	    mOldDate = newDate;
+		if (!mDeadlines.isEmpty()) {
+		    next = Math.min(next, mDeadlines.peek().mDue);
 
-	    for (final Entry<IIntervalCallback, long[]> entry : mCallbacks.entrySet()) {
-		for (final long interval : entry.getValue()) {
-		    System.out.println("checking against: " + interval);
+		}
 
-		    if ((System.currentTimeMillis() - mRunnableStart) % interval <= DELTA_MS) {
-			System.out.println((System.currentTimeMillis() - mRunnableStart) % DELTA_MS);
-			entry.getKey().onIntervalPassed(interval);
+		if (next > now) {
+		    mChanged.await(next - now, TimeUnit.MILLISECONDS);
+		    continue;
 
-		    }
 		}
-	    }
 
-	    try {
-		Thread.sleep(WAIT_TIME_MS);
+		if (now >= nextDay) {
+		    dayPassed = true;
+		    nextDay = getNextMidnight(now);
+
+		}
+
+		while (!mDeadlines.isEmpty() && mDeadlines.peek().mDue <= now) {
+		    final Deadline deadline = mDeadlines.poll();
+
+		    if (deadline.mCancelled) {
+			mCancelled--;
+			continue;
+
+		    }
+		    due.add(deadline);
+
+		    // skip deadlines missed, but stay aligned to the time of registration.
+		    deadline.mDue += ((now - deadline.mDue) / deadline.mInterval + 1) * deadline.mInterval;
+		    mDeadlines.add(deadline);
 
+		}
 	    } catch (final InterruptedException e) {
 		Logger.Get().log(ELogType.WARNING, "Current TimeObserver Thread got interrupted: " + e.getMessage());
 
+	    } finally {
+		mLock.unlock();
+
 	    }
+
+	    if (dayPassed) {
+		// the clock ticks on its own timer, which may lag behind midnight.
+		Timestamp.getClock().tick();
+
+		for (final IDayCallback callback : mDayCallbacks) {
+		    fire(() -> callback.onDayPassed());
+
+		}
+	    }
+
+	    for (final Deadline deadline : due) {
+		if (!deadline.mCancelled) {
+		    fire(() -> deadline.mCallback.onIntervalPassed(deadline.mInterval));
+
+		}
+	    }
+	    due.clear();
+
+	}
+    }
+
+    /**
+     * Fires the given callback, such that a failing callback doesn't stop every
+     * other callback from being fired.
+     * 
+     * @param callback The callback to fire.
+     */
+    private static void fire(final Runnable callback) {
+	try {
+	    callback.run();
+
+	} catch (final RuntimeException e) {
+	    Logger.Get().log(ELogType.WARNING, "A callback of the TimeObserver failed: " + e);
+
 	}
     }
 }
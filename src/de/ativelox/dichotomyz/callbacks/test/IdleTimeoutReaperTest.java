@@ -0,0 +1,59 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.callbacks.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.callbacks.IdleTimeoutReaper;
+
+/**
+ * Provides Tests for {@link IdleTimeoutReaper}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class IdleTimeoutReaperTest {
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.callbacks.IdleTimeoutReaper#register(de.ativelox.dichotomyz.callbacks.ITimeOut, long)},
+     * where the timeout fires once per idle period, and never while touched or
+     * after being cancelled.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Test
+    public void testTimeoutFiresOncePerIdlePeriod() throws InterruptedException {
+	final AtomicInteger timeouts = new AtomicInteger();
+
+	try (final IdleTimeoutReaper reaper = new IdleTimeoutReaper(5)) {
+	    final IdleTimeoutReaper.Registration registration = reaper.register(timeouts::incrementAndGet, 100);
+
+	    for (int i = 0; i < 30; i++) {
+		registration.touch();
+		Thread.sleep(10);
+
+	    }
+	    Assert.assertEquals(0, timeouts.get());
+
+	    Thread.sleep(300);
+	    Assert.assertEquals(1, timeouts.get());
+
+	    registration.touch();
+	    Thread.sleep(300);
+	    Assert.assertEquals(2, timeouts.get());
+
+	    registration.cancel();
+	    registration.touch();
+	    Thread.sleep(300);
+	    Assert.assertEquals(2, timeouts.get());
+	    Assert.assertEquals(0, reaper.getRegistrationCount());
+
+	}
+    }
+
+}
@@ -0,0 +1,189 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.callbacks.test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.callbacks.IIntervalCallback;
+import de.ativelox.dichotomyz.callbacks.TimeObserver;
+import de.ativelox.dichotomyz.utils.CachedClock;
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Provides Tests for {@link TimeObserver}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class TimeObserverTest {
+
+    /**
+     * A clock which is set manually, and may be read by several threads.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class ManualClock extends Clock {
+
+	/**
+	 * The current time in ms since the epoch.
+	 */
+	private volatile long mMillis;
+
+	/**
+	 * Creates a new {@link ManualClock}.
+	 * 
+	 * @param millis The current time in ms since the epoch.
+	 */
+	private ManualClock(final long millis) {
+	    mMillis = millis;
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.time.Clock#getZone()
+	 */
+	@Override
+	public ZoneId getZone() {
+	    return ZoneOffset.ofHours(1);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.time.Clock#instant()
+	 */
+	@Override
+	public Instant instant() {
+	    return Instant.ofEpochMilli(mMillis);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.time.Clock#withZone(java.time.ZoneId)
+	 */
+	@Override
+	public Clock withZone(final ZoneId zone) {
+	    throw new UnsupportedOperationException();
+
+	}
+    }
+
+    /**
+     * Test method for {@link de.ativelox.dichotomyz.callbacks.TimeObserver#run()},
+     * where the day passes before the clock of {@link Timestamp} ticks. The day
+     * callbacks have to see the new date nonetheless.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Test
+    public void testDayPassedBeforeClockTicks() throws InterruptedException {
+	final long midnight = LocalDate.of(2018, 3, 2).atStartOfDay().toInstant(ZoneOffset.ofHours(1))
+		.toEpochMilli();
+	final ManualClock source = new ManualClock(midnight - 50);
+	final CachedClock old = Timestamp.setClock(new CachedClock(source, 0));
+
+	final TimeObserver observer = new TimeObserver(source);
+	final AtomicReference<String> date = new AtomicReference<>();
+	final CountDownLatch passed = new CountDownLatch(1);
+
+	observer.add(() -> {
+	    date.set(Timestamp.getCurrentDate());
+	    passed.countDown();
+
+	});
+
+	final Thread thread = new Thread(observer, "TimeObserver");
+
+	try {
+	    thread.start();
+	    Thread.sleep(100);
+	    Assert.assertEquals("01.03.2018", Timestamp.getCurrentDate());
+
+	    // the day passes, but the clock isn't ticked.
+	    source.mMillis = midnight + 1;
+
+	    Assert.assertTrue(passed.await(2, TimeUnit.SECONDS));
+	    Assert.assertEquals("02.03.2018", date.get());
+
+	} finally {
+	    observer.stop();
+	    thread.join(1000);
+	    Timestamp.setClock(old);
+
+	}
+	Assert.assertFalse(thread.isAlive());
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.callbacks.TimeObserver#getNextMidnight(long)}.
+     */
+    @Test
+    public void testGetNextMidnight() {
+	final long midnight = LocalDate.of(2018, 3, 2).atStartOfDay().toInstant(Timestamp.getZoneOffset()).toEpochMilli();
+
+	Assert.assertEquals(midnight, TimeObserver.getNextMidnight(midnight - 1));
+	Assert.assertEquals(midnight + 24 * 60 * 60 * 1000, TimeObserver.getNextMidnight(midnight));
+
+    }
+
+    /**
+     * Test method for {@link de.ativelox.dichotomyz.callbacks.TimeObserver#run()},
+     * where every interval is fired once per deadline, until removed.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Test
+    public void testIntervalsFireOncePerDeadline() throws InterruptedException {
+	final TimeObserver observer = new TimeObserver();
+	final AtomicInteger shortFired = new AtomicInteger();
+	final AtomicInteger longFired = new AtomicInteger();
+	final AtomicInteger removedFired = new AtomicInteger();
+
+	final IIntervalCallback callback = interval -> (interval == 50 ? shortFired : longFired).incrementAndGet();
+	final IIntervalCallback removed = interval -> removedFired.incrementAndGet();
+
+	observer.add(callback, 50, 60000);
+	observer.add(removed, 50);
+	observer.remove(removed);
+
+	final Thread thread = new Thread(observer, "TimeObserver");
+	thread.start();
+	Thread.sleep(520);
+
+	observer.remove(callback);
+	final int fired = shortFired.get();
+	Thread.sleep(150);
+
+	observer.stop();
+	thread.join(1000);
+
+	Assert.assertFalse(thread.isAlive());
+	Assert.assertTrue("fired " + fired + " times", fired >= 5 && fired <= 10);
+	// a callback may have been due just when it got removed.
+	Assert.assertTrue(shortFired.get() <= fired + 1);
+	Assert.assertEquals(0, longFired.get());
+	Assert.assertEquals(0, removedFired.get());
+
+    }
+
+}
@@ -0,0 +1,563 @@
+package de.ativelox.dichotomyz.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import de.ativelox.dichotomyz.logging.ActivityAccumulator;
+import de.ativelox.dichotomyz.utils.LongHashMap;
+import de.ativelox.dichotomyz.utils.Timestamp;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides queries over the activity recorded in an {@link EventJournal}, e.g.
+ * how long a member played a game last month, or who was online at a given
+ * time. The journal is indexed by {@link ActivityIndex#update()} into one
+ * {@link DayIndex} per guild and day, holding the time spent in each status
+ * and game per hour, and a posting list of the members per game. Only days
+ * already ended are indexed, the position in the journal indexing continues
+ * from is remembered in a state file, thus every event is read once. Queries
+ * only read the days and entries they need, and the most recently used days
+ * stay mapped, such that a query over a year of a guild with thousands of
+ * members is answered in milliseconds. Times are resolved to whole hours, in
+ * the zone of {@link Timestamp#getZoneOffset()}. This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityIndex {
+
+    /**
+     * The name of the file holding the position to continue indexing from.
+     */
+    static final String STATE_NAME = "index.state";
+
+    /**
+     * The suffix of the files of the days indexed.
+     */
+    static final String INDEX_SUFFIX = ".index";
+
+    /**
+     * The number of days kept mapped.
+     */
+    private static final int CACHED_DAYS = 1024;
+
+    /**
+     * The value of the state file for journals nothing has been indexed of yet.
+     */
+    private static final long NO_DAY = Long.MIN_VALUE;
+
+    /**
+     * The directory the index is stored in.
+     */
+    private final Path mDirectory;
+
+    /**
+     * The directory of the journal indexed.
+     */
+    private final Path mJournal;
+
+    /**
+     * The days most recently used, guarded by itself.
+     */
+    private final LinkedHashMap<Path, DayIndex> mDays;
+
+    /**
+     * A mapping from the names of the games to their codes in the dictionary of
+     * the journal.
+     */
+    private volatile Map<String, Integer> mCodes;
+
+    /**
+     * Creates a new {@link ActivityIndex}.
+     * 
+     * @param directory The directory the index is stored in.
+     * @param journal   The directory of the journal to index.
+     * @throws IOException If an I/O error occurs.
+     */
+    public ActivityIndex(final Path directory, final Path journal) throws IOException {
+	Files.createDirectories(directory);
+
+	mDirectory = directory;
+	mJournal = journal;
+	mDays = new LinkedHashMap<Path, DayIndex>(16, 0.75f, true) {
+
+	    private static final long serialVersionUID = 1L;
+
+	    @Override
+	    protected boolean removeEldestEntry(final Map.Entry<Path, DayIndex> eldest) {
+		return size() > CACHED_DAYS;
+
+	    }
+	};
+	mCodes = new HashMap<>();
+
+    }
+
+    /**
+     * Finishes the given day for every guild, writing its index, and creates the
+     * builders of the following day for the guilds with any status or game
+     * carried over.
+     * 
+     * @param builders A mapping from the ids of the guilds to their builders.
+     * @param day      The day to finish.
+     * @param codes    A mapping from the names of the games to their codes.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void finishDay(final LongHashMap<DayIndexBuilder> builders, final LocalDate day,
+	    final Map<String, Integer> codes) throws IOException {
+	for (final DayIndexBuilder builder : builders.values()) {
+	    final long guildId = builder.getGuildId();
+
+	    if (builder.isEmpty()) {
+		builders.remove(guildId);
+		continue;
+
+	    }
+	    final ActivityAccumulator next = builder.write(getDayFile(guildId, day), codes);
+
+	    if (next.getMemberCount() == 0) {
+		builders.remove(guildId);
+
+	    } else {
+		builders.put(guildId, new DayIndexBuilder(guildId, day.plusDays(1), next));
+
+	    }
+	}
+    }
+
+    /**
+     * Gets the code of the given game, reading the dictionary of the journal
+     * again, if the game is unknown.
+     * 
+     * @param game The name of the game.
+     * @return The code mentioned, or {@link EventJournal#NO_CODE} if the game has
+     *         never been played.
+     * @throws IOException If an I/O error occurs.
+     */
+    private int getCode(final String game) throws IOException {
+	Integer code = mCodes.get(game);
+
+	if (code == null) {
+	    mCodes = toCodes(EventJournal.readDictionary(mJournal.resolve(EventJournal.DICTIONARY_NAME)));
+	    code = mCodes.get(game);
+
+	}
+	return code == null ? EventJournal.NO_CODE : code;
+
+    }
+
+    /**
+     * Gets the index of the given guild on the given day.
+     * 
+     * @param guildId The id of the guild.
+     * @param day     The day.
+     * @return The index mentioned, or <tt>null</tt> if nothing was tracked on
+     *         that day.
+     * @throws IOException If an I/O error occurs.
+     */
+    private DayIndex getDay(final long guildId, final LocalDate day) throws IOException {
+	final Path file = getDayFile(guildId, day);
+
+	synchronized (mDays) {
+	    final DayIndex cached = mDays.get(file);
+
+	    if (cached != null) {
+		return cached;
+
+	    }
+	}
+	final DayIndex index = DayIndex.open(file);
+
+	if (index != null) {
+	    synchronized (mDays) {
+		mDays.put(file, index);
+
+	    }
+	}
+	return index;
+
+    }
+
+    /**
+     * Gets the file of the index of the given guild on the given day.
+     * 
+     * @param guildId The id of the guild.
+     * @param day     The day.
+     * @return The file mentioned.
+     */
+    private Path getDayFile(final long guildId, final LocalDate day) {
+	return mDirectory.resolve(Long.toString(guildId)).resolve(day + INDEX_SUFFIX);
+
+    }
+
+    /**
+     * Gets the first hour of the given day within the given range.
+     * 
+     * @param day  The day.
+     * @param from The start of the range.
+     * @return The hour mentioned.
+     */
+    private static int getFromHour(final LocalDate day, final LocalDateTime from) {
+	return day.equals(from.toLocalDate()) ? from.getHour() : 0;
+
+    }
+
+    /**
+     * Gets the ids of the members of the given guild, who had the given status at
+     * the start of the hour of the given time.
+     * 
+     * @param guildId The id of the guild.
+     * @param time    The time.
+     * @param status  The status.
+     * @return The ids mentioned, sorted ascending.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<Long> getMembersWithStatus(final long guildId, final LocalDateTime time, final OnlineStatus status)
+	    throws IOException {
+	final List<Long> members = new ArrayList<>();
+	final DayIndex index = getDay(guildId, time.toLocalDate());
+
+	if (index == null) {
+	    return members;
+
+	}
+
+	for (int member = 0; member < index.getMemberCount(); member++) {
+	    if (index.getHourStatus(member, time.getHour()) == status) {
+		members.add(index.getMemberId(member));
+
+	    }
+	}
+	return members;
+
+    }
+
+    /**
+     * Gets the time the given member of the given guild played the given game in
+     * the given range. The range is resolved to whole hours.
+     * 
+     * @param guildId  The id of the guild.
+     * @param memberId The id of the member.
+     * @param game     The name of the game.
+     * @param from     The start of the range, inclusive.
+     * @param to       The end of the range, exclusive.
+     * @return The time mentioned in ms.
+     * @throws IOException If an I/O error occurs.
+     */
+    public long getPlayTime(final long guildId, final long memberId, final String game, final LocalDateTime from,
+	    final LocalDateTime to) throws IOException {
+	final int code = getCode(game);
+	long time = 0;
+
+	if (code == EventJournal.NO_CODE) {
+	    return time;
+
+	}
+
+	for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+	    final DayIndex index = getDay(guildId, day);
+	    final int member = index == null ? -1 : index.findMember(memberId);
+
+	    if (member != -1) {
+		time += index.getPlayTime(member, code, getFromHour(day, from), getToHour(day, to));
+
+	    }
+	}
+	return time;
+
+    }
+
+    /**
+     * Gets the time every member of the given guild played the given game on the
+     * given days.
+     * 
+     * @param guildId The id of the guild.
+     * @param game    The name of the game.
+     * @param from    The first day, inclusive.
+     * @param to      The last day, inclusive.
+     * @return A mapping from the ids of the members who played the game to the
+     *         time mentioned in ms.
+     * @throws IOException If an I/O error occurs.
+     */
+    public Map<Long, Long> getPlayTimes(final long guildId, final String game, final LocalDate from,
+	    final LocalDate to) throws IOException {
+	final Map<Long, Long> times = new HashMap<>();
+	final int code = getCode(game);
+
+	if (code == EventJournal.NO_CODE) {
+	    return times;
+
+	}
+
+	for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+	    final DayIndex index = getDay(guildId, day);
+	    final int entry = index == null ? -1 : index.findGame(code);
+
+	    if (entry == -1) {
+		continue;
+
+	    }
+
+	    for (int posting = 0; posting < index.getPostingCount(entry); posting++) {
+		times.merge(index.getPostingMember(entry, posting), index.getPostingTime(entry, posting), Long::sum);
+
+	    }
+	}
+	return times;
+
+    }
+
+    /**
+     * Gets the time the given member of the given guild spent in the given
+     * status in the given range. The range is resolved to whole hours.
+     * 
+     * @param guildId  The id of the guild.
+     * @param memberId The id of the member.
+     * @param status   The status.
+     * @param from     The start of the range, inclusive.
+     * @param to       The end of the range, exclusive.
+     * @return The time mentioned in ms.
+     * @throws IOException If an I/O error occurs.
+     */
+    public long getStatusTime(final long guildId, final long memberId, final OnlineStatus status,
+	    final LocalDateTime from, final LocalDateTime to) throws IOException {
+	long time = 0;
+
+	for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+	    final DayIndex index = getDay(guildId, day);
+	    final int member = index == null ? -1 : index.findMember(memberId);
+
+	    if (member != -1) {
+		time += index.getStatusTime(member, status, getFromHour(day, from), getToHour(day, to));
+
+	    }
+	}
+	return time;
+
+    }
+
+    /**
+     * Gets the hour after the last hour of the given day within the given range.
+     * 
+     * @param day The day.
+     * @param to  The end of the range.
+     * @return The hour mentioned.
+     */
+    private static int getToHour(final LocalDate day, final LocalDateTime to) {
+	return day.equals(to.toLocalDate()) ? to.getHour() : 24;
+
+    }
+
+    /**
+     * Reads the position to continue indexing from.
+     * 
+     * @return The next day to index, or {@link ActivityIndex#NO_DAY}, followed
+     *         by the segment and record of the journal.
+     * @throws IOException If an I/O error occurs.
+     */
+    private long[] readState() throws IOException {
+	final Path file = mDirectory.resolve(STATE_NAME);
+
+	if (!Files.exists(file)) {
+	    return new long[] { NO_DAY, 0, 0 };
+
+	}
+	final ByteBuffer state = ByteBuffer.wrap(Files.readAllBytes(file));
+	return new long[] { state.getLong(), state.getLong(), state.getLong() };
+
+    }
+
+    /**
+     * Creates the builders of the given day for the guilds with any status or
+     * game carried over from the day before.
+     * 
+     * @param day   The day.
+     * @param games The names of the games, indexed by their codes.
+     * @return A mapping from the ids of the guilds to their builders.
+     * @throws IOException If an I/O error occurs.
+     */
+    private LongHashMap<DayIndexBuilder> restoreBuilders(final LocalDate day, final List<String> games)
+	    throws IOException {
+	final LongHashMap<DayIndexBuilder> builders = new LongHashMap<>();
+
+	try (final Stream<Path> guilds = Files.list(mDirectory)) {
+	    for (final Path guild : (Iterable<Path>) guilds::iterator) {
+		if (!Files.isDirectory(guild) || !guild.getFileName().toString().matches("\\d+")) {
+		    continue;
+
+		}
+		final long guildId = Long.parseLong(guild.getFileName().toString());
+		final DayIndex previous = DayIndex.open(getDayFile(guildId, day.minusDays(1)));
+
+		if (previous == null) {
+		    continue;
+
+		}
+		final ActivityAccumulator state = DayIndexBuilder.readEndState(previous, games);
+
+		if (state.getMemberCount() > 0) {
+		    builders.put(guildId, new DayIndexBuilder(guildId, day, state));
+
+		}
+	    }
+	}
+	return builders;
+
+    }
+
+    /**
+     * Creates a mapping from the names of the given games to their codes.
+     * 
+     * @param games The names of the games, indexed by their codes.
+     * @return The mapping mentioned.
+     */
+    private static Map<String, Integer> toCodes(final List<String> games) {
+	final Map<String, Integer> codes = new HashMap<>(games.size() * 2);
+
+	for (int code = 0; code < games.size(); code++) {
+	    codes.put(games.get(code), code);
+
+	}
+	return codes;
+
+    }
+
+    /**
+     * Gets the day of the given time.
+     * 
+     * @param time The time in ms.
+     * @return The day mentioned.
+     */
+    private static LocalDate toDay(final long time) {
+	return LocalDateTime.ofInstant(Instant.ofEpochMilli(time), Timestamp.getZoneOffset()).toLocalDate();
+
+    }
+
+    /**
+     * Indexes every day ended before the current day, see
+     * {@link ActivityIndex#update(LocalDate)}.
+     * 
+     * @return The number of days indexed.
+     * @throws IOException If an I/O error occurs.
+     */
+    public int update() throws IOException {
+	return update(Timestamp.getToday());
+
+    }
+
+    /**
+     * Indexes the events of the journal recorded since the last update, up to,
+     * but excluding, the given day. The journal should be flushed beforehand.
+     * 
+     * @param today The first day not to index, since it isn't over yet.
+     * @return The number of days indexed.
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized int update(final LocalDate today) throws IOException {
+	final long[] state = readState();
+	final List<String> games = EventJournal.readDictionary(mJournal.resolve(EventJournal.DICTIONARY_NAME));
+	final Map<String, Integer> codes = toCodes(games);
+
+	LocalDate day = state[0] == NO_DAY ? null : LocalDate.ofEpochDay(state[0]);
+	final LongHashMap<DayIndexBuilder> builders = day == null ? new LongHashMap<>()
+		: restoreBuilders(day, games);
+	long last = day == null ? Long.MIN_VALUE : DayIndexBuilder.getDayStart(day);
+	int days = 0;
+
+	try (final EventJournalReader reader = new EventJournalReader(mJournal, state[1], state[2])) {
+	    while (reader.next()) {
+		// events are applied in order, even if the clock went backwards.
+		final long time = Math.max(reader.getTime(), last);
+		final LocalDate recordDay = toDay(time);
+
+		if (!recordDay.isBefore(today)) {
+		    break;
+
+		}
+
+		if (day == null) {
+		    day = recordDay;
+
+		}
+
+		while (day.isBefore(recordDay)) {
+		    finishDay(builders, day, codes);
+		    day = day.plusDays(1);
+		    days++;
+
+		}
+		last = time;
+
+		DayIndexBuilder builder = builders.get(reader.getGuildId());
+
+		if (builder == null) {
+		    builder = new DayIndexBuilder(reader.getGuildId(), day, new ActivityAccumulator(16));
+		    builders.put(reader.getGuildId(), builder);
+
+		}
+
+		if (reader.getType() == EJournalEventType.STATUS) {
+		    final OnlineStatus status = EventJournalReader.getStatus(reader.getNewCode());
+
+		    if (status != null) {
+			builder.changeStatus(time, reader.getMemberId(), status);
+
+		    }
+		} else {
+		    builder.changeGame(time, reader.getMemberId(), reader.getGame(reader.getOldCode()),
+			    reader.getGame(reader.getNewCode()));
+
+		}
+	    }
+
+	    if (day != null) {
+		while (day.isBefore(today)) {
+		    finishDay(builders, day, codes);
+		    day = day.plusDays(1);
+		    days++;
+
+		}
+	    }
+	    writeState(day == null ? NO_DAY : day.toEpochDay(), reader.getSegment(), reader.getRecord());
+
+	}
+
+	synchronized (mDays) {
+	    mDays.clear();
+
+	}
+	mCodes = codes;
+	return days;
+
+    }
+
+    /**
+     * Writes the position to continue indexing from, replacing the state file
+     * atomically.
+     * 
+     * @param day     The next day to index, or {@link ActivityIndex#NO_DAY}.
+     * @param segment The segment of the journal to continue from.
+     * @param record  The record of the segment to continue from.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeState(final long day, final long segment, final long record) throws IOException {
+	final Path file = mDirectory.resolve(STATE_NAME);
+	final Path temporary = file.resolveSibling(STATE_NAME + ".tmp");
+
+	Files.write(temporary, ByteBuffer.allocate(24).putLong(day).putLong(segment).putLong(record).array());
+	Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    }
+}
@@ -0,0 +1,462 @@
+package de.ativelox.dichotomyz.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import de.ativelox.dichotomyz.utils.StatusCodes;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides read access to the index of the activity of a single guild on a
+ * single day, as written by an {@link ActivityIndex}. The file is
+ * memory-mapped and consists of fixed-width entries only:
+ * <ul>
+ * <li>the members, sorted by their ids, each with its status at the start of
+ * every hour and at the end of the day,</li>
+ * <li>the posting list of every member, holding the time per hour spent in
+ * each status, merging consecutive hours spent in a status entirely, and the
+ * time per hour spent playing each game,</li>
+ * <li>the games, sorted by their codes in the dictionary of the journal, each
+ * with a posting list of the members who played it and for how long.</li>
+ * </ul>
+ * Thus members and games are found by binary search, and every query only
+ * touches the entries it needs. Statuses are stored by their code given by
+ * {@link StatusCodes}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class DayIndex {
+
+    /**
+     * The value every index starts with.
+     */
+    static final int MAGIC = 0x445A4458;
+
+    /**
+     * The version of the format of the index.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes, consisting of the magic value, the
+     * version, the day, and the number of members, buckets, plays, games and
+     * postings.
+     */
+    static final int HEADER_SIZE = 40;
+
+    /**
+     * The size of a member in bytes, consisting of its id, the first bucket and
+     * number of buckets, the first play and number of plays, its status at the
+     * start of every hour and its status at the end of the day.
+     */
+    static final int MEMBER_SIZE = 52;
+
+    /**
+     * The size of a bucket in bytes, consisting of the first hour, the number of
+     * hours, the status and the time spent in the status. Buckets of several
+     * hours are spent in the status entirely.
+     */
+    static final int BUCKET_SIZE = 8;
+
+    /**
+     * The size of a play in bytes, consisting of the code of the game, the hour,
+     * whether the game is played at the end of the day, and the time played.
+     */
+    static final int PLAY_SIZE = 12;
+
+    /**
+     * The size of a game in bytes, consisting of its code, the first posting and
+     * the number of postings.
+     */
+    static final int GAME_SIZE = 12;
+
+    /**
+     * The size of a posting in bytes, consisting of the index of the member and
+     * the time played on the whole day.
+     */
+    static final int POSTING_SIZE = 8;
+
+    /**
+     * The value of statuses not known.
+     */
+    static final byte NO_STATUS = -1;
+
+    /**
+     * The content of the index.
+     */
+    private final ByteBuffer mBuffer;
+
+    /**
+     * The number of members.
+     */
+    private final int mMemberCount;
+
+    /**
+     * The number of games.
+     */
+    private final int mGameCount;
+
+    /**
+     * The offset of the buckets.
+     */
+    private final int mBuckets;
+
+    /**
+     * The offset of the plays.
+     */
+    private final int mPlays;
+
+    /**
+     * The offset of the games.
+     */
+    private final int mGames;
+
+    /**
+     * The offset of the postings.
+     */
+    private final int mPostings;
+
+    /**
+     * Creates a new {@link DayIndex}.
+     * 
+     * @param buffer The content of the index.
+     * @throws IOException If the content isn't a valid index.
+     */
+    private DayIndex(final ByteBuffer buffer) throws IOException {
+	if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+	    throw new IOException("Not a valid index.");
+
+	}
+	mBuffer = buffer;
+	mMemberCount = buffer.getInt(16);
+	mGameCount = buffer.getInt(28);
+	mBuckets = HEADER_SIZE + mMemberCount * MEMBER_SIZE;
+	mPlays = mBuckets + buffer.getInt(20) * BUCKET_SIZE;
+	mGames = mPlays + buffer.getInt(24) * PLAY_SIZE;
+	mPostings = mGames + mGameCount * GAME_SIZE;
+
+	if (mPostings + (long) buffer.getInt(32) * POSTING_SIZE != buffer.limit()) {
+	    throw new IOException("The index is truncated.");
+
+	}
+    }
+
+    /**
+     * Maps the given file into memory.
+     * 
+     * @param file The file of the index.
+     * @return The index, or <tt>null</tt> if the file doesn't exist.
+     * @throws IOException If an I/O error occurs, or the file isn't a valid
+     *                     index.
+     */
+    public static DayIndex open(final Path file) throws IOException {
+	if (!Files.exists(file)) {
+	    return null;
+
+	}
+
+	try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+	    return new DayIndex(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+
+	}
+    }
+
+    /**
+     * Finds the given game.
+     * 
+     * @param code The code of the game in the dictionary of the journal.
+     * @return The index of the game, or -1 if it wasn't played.
+     */
+    public int findGame(final int code) {
+	int low = 0;
+	int high = mGameCount - 1;
+
+	while (low <= high) {
+	    final int mid = (low + high) >>> 1;
+	    final int midCode = mBuffer.getInt(mGames + mid * GAME_SIZE);
+
+	    if (midCode < code) {
+		low = mid + 1;
+
+	    } else if (midCode > code) {
+		high = mid - 1;
+
+	    } else {
+		return mid;
+
+	    }
+	}
+	return -1;
+
+    }
+
+    /**
+     * Finds the given member.
+     * 
+     * @param memberId The id of the member.
+     * @return The index of the member, or -1 if it wasn't tracked.
+     */
+    public int findMember(final long memberId) {
+	int low = 0;
+	int high = mMemberCount - 1;
+
+	while (low <= high) {
+	    final int mid = (low + high) >>> 1;
+	    final long midId = getMemberId(mid);
+
+	    if (midId < memberId) {
+		low = mid + 1;
+
+	    } else if (midId > memberId) {
+		high = mid - 1;
+
+	    } else {
+		return mid;
+
+	    }
+	}
+	return -1;
+
+    }
+
+    /**
+     * Gets the day of this index.
+     * 
+     * @return The day mentioned, as counted by
+     *         {@link java.time.LocalDate#toEpochDay()}.
+     */
+    public long getEpochDay() {
+	return mBuffer.getLong(8);
+
+    }
+
+    /**
+     * Gets the status of the given member at the end of the day.
+     * 
+     * @param member The index of the member.
+     * @return The status mentioned, or <tt>null</tt> if unknown.
+     */
+    public OnlineStatus getEndStatus(final int member) {
+	return toStatus(mBuffer.get(HEADER_SIZE + member * MEMBER_SIZE + 48));
+
+    }
+
+    /**
+     * Gets the number of games played.
+     * 
+     * @return The number mentioned.
+     */
+    public int getGameCount() {
+	return mGameCount;
+
+    }
+
+    /**
+     * Gets the status of the given member at the start of the given hour.
+     * 
+     * @param member The index of the member.
+     * @param hour   The hour of the day.
+     * @return The status mentioned, or <tt>null</tt> if unknown.
+     */
+    public OnlineStatus getHourStatus(final int member, final int hour) {
+	return toStatus(mBuffer.get(HEADER_SIZE + member * MEMBER_SIZE + 24 + hour));
+
+    }
+
+    /**
+     * Gets the number of members tracked.
+     * 
+     * @return The number mentioned.
+     */
+    public int getMemberCount() {
+	return mMemberCount;
+
+    }
+
+    /**
+     * Gets the id of the given member.
+     * 
+     * @param member The index of the member.
+     * @return The id mentioned.
+     */
+    public long getMemberId(final int member) {
+	return mBuffer.getLong(HEADER_SIZE + member * MEMBER_SIZE);
+
+    }
+
+    /**
+     * Gets the code of the game of the given play of the given member.
+     * 
+     * @param member The index of the member.
+     * @param play   The index of the play of the member.
+     * @return The code mentioned.
+     */
+    public int getPlayGame(final int member, final int play) {
+	return mBuffer.getInt(playOffset(member, play));
+
+    }
+
+    /**
+     * Gets the number of plays of the given member, i.e. pairs of a game and an
+     * hour it was played in.
+     * 
+     * @param member The index of the member.
+     * @return The number mentioned.
+     */
+    public int getPlayCount(final int member) {
+	return mBuffer.getInt(HEADER_SIZE + member * MEMBER_SIZE + 20);
+
+    }
+
+    /**
+     * Gets the time the given member played the given game in the given hours.
+     * 
+     * @param member   The index of the member.
+     * @param code     The code of the game.
+     * @param fromHour The first hour, inclusive.
+     * @param toHour   The last hour, exclusive.
+     * @return The time mentioned in ms.
+     */
+    public long getPlayTime(final int member, final int code, final int fromHour, final int toHour) {
+	long time = 0;
+
+	for (int play = 0; play < getPlayCount(member); play++) {
+	    final int offset = playOffset(member, play);
+	    final int hour = mBuffer.get(offset + 4);
+
+	    if (mBuffer.getInt(offset) == code && hour >= fromHour && hour < toHour) {
+		time += mBuffer.getInt(offset + 8);
+
+	    }
+	}
+	return time;
+
+    }
+
+    /**
+     * Gets the number of members who played the given game.
+     * 
+     * @param game The index of the game.
+     * @return The number mentioned.
+     */
+    public int getPostingCount(final int game) {
+	return mBuffer.getInt(mGames + game * GAME_SIZE + 8);
+
+    }
+
+    /**
+     * Gets the id of the member of the given posting of the given game.
+     * 
+     * @param game    The index of the game.
+     * @param posting The index of the posting of the game.
+     * @return The id mentioned.
+     */
+    public long getPostingMember(final int game, final int posting) {
+	return getMemberId(mBuffer.getInt(postingOffset(game, posting)));
+
+    }
+
+    /**
+     * Gets the time the member of the given posting played the given game on the
+     * whole day.
+     * 
+     * @param game    The index of the game.
+     * @param posting The index of the posting of the game.
+     * @return The time mentioned in ms.
+     */
+    public long getPostingTime(final int game, final int posting) {
+	return mBuffer.getInt(postingOffset(game, posting) + 4);
+
+    }
+
+    /**
+     * Gets the time the given member spent in the given status in the given
+     * hours.
+     * 
+     * @param member   The index of the member.
+     * @param status   The status.
+     * @param fromHour The first hour, inclusive.
+     * @param toHour   The last hour, exclusive.
+     * @return The time mentioned in ms.
+     */
+    public long getStatusTime(final int member, final OnlineStatus status, final int fromHour, final int toHour) {
+	final int entry = HEADER_SIZE + member * MEMBER_SIZE;
+	final int first = mBuffer.getInt(entry + 8);
+	final int count = mBuffer.getInt(entry + 12);
+	long time = 0;
+
+	for (int bucket = first; bucket < first + count; bucket++) {
+	    final int offset = mBuckets + bucket * BUCKET_SIZE;
+	    final int hour = mBuffer.get(offset);
+	    final int hours = mBuffer.get(offset + 1);
+
+	    if (mBuffer.get(offset + 2) != StatusCodes.getCode(status)) {
+		continue;
+
+	    }
+	    final int overlap = Math.min(hour + hours, toHour) - Math.max(hour, fromHour);
+
+	    if (overlap > 0) {
+		time += (long) mBuffer.getInt(offset + 4) / hours * overlap;
+
+	    }
+	}
+	return time;
+
+    }
+
+    /**
+     * Whether the game of the given play of the given member is played at the
+     * end of the day or not.
+     * 
+     * @param member The index of the member.
+     * @param play   The index of the play of the member.
+     * @return <tt>true</tt> if the game is played, <tt>false</tt> otherwise.
+     */
+    public boolean isPlayRunning(final int member, final int play) {
+	return mBuffer.get(playOffset(member, play) + 5) != 0;
+
+    }
+
+    /**
+     * Gets the offset of the given play of the given member.
+     * 
+     * @param member The index of the member.
+     * @param play   The index of the play of the member.
+     * @return The offset mentioned.
+     */
+    private int playOffset(final int member, final int play) {
+	return mPlays + (mBuffer.getInt(HEADER_SIZE + member * MEMBER_SIZE + 16) + play) * PLAY_SIZE;
+
+    }
+
+    /**
+     * Gets the offset of the given posting of the given game.
+     * 
+     * @param game    The index of the game.
+     * @param posting The index of the posting of the game.
+     * @return The offset mentioned.
+     */
+    private int postingOffset(final int game, final int posting) {
+	return mPostings + (mBuffer.getInt(mGames + game * GAME_SIZE + 4) + posting) * POSTING_SIZE;
+
+    }
+
+    /**
+     * Converts the given stored status.
+     * 
+     * @param status The code of the status given by {@link StatusCodes}, or
+     *               {@link DayIndex#NO_STATUS}.
+     * @return The status, or <tt>null</tt> if unknown.
+     */
+    private static OnlineStatus toStatus(final byte status) {
+	return StatusCodes.getStatus(status);
+
+    }
+}
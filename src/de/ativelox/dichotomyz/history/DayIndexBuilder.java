@@ -0,0 +1,595 @@
+package de.ativelox.dichotomyz.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.ativelox.dichotomyz.logging.ActivityAccumulator;
+import de.ativelox.dichotomyz.utils.LongHashMap;
+import de.ativelox.dichotomyz.utils.LongIntHashMap;
+import de.ativelox.dichotomyz.utils.StatusCodes;
+import de.ativelox.dichotomyz.utils.Timestamp;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Builds the {@link DayIndex} of a single guild on a single day from the events
+ * of the journal. Events are replayed into an {@link ActivityAccumulator},
+ * which is rolled over at the end of every hour, thus every hour gets its own
+ * accumulator holding the times of exactly that hour. The status and games
+ * running at the end of the day are carried over to the builder of the next
+ * day.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+final class DayIndexBuilder {
+
+    /**
+     * The number of ms in an hour.
+     */
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
+    /**
+     * The number of hours in a day.
+     */
+    private static final int HOURS = 24;
+
+    /**
+     * The id of the guild.
+     */
+    private final long mGuildId;
+
+    /**
+     * The day built.
+     */
+    private final LocalDate mDay;
+
+    /**
+     * The start of the day in ms.
+     */
+    private final long mDayStart;
+
+    /**
+     * The accumulators of the hours already ended.
+     */
+    private final ActivityAccumulator[] mHours;
+
+    /**
+     * A mapping from the ids of the members to their status at the start of
+     * every hour, holding the code of the status or
+     * {@link DayIndex#NO_STATUS}.
+     */
+    private final LongHashMap<byte[]> mHourStatus;
+
+    /**
+     * The accumulator of the current hour, or of the following day, once the day
+     * is ended.
+     */
+    private ActivityAccumulator mCurrent;
+
+    /**
+     * The current hour of the day.
+     */
+    private int mHour;
+
+    /**
+     * Creates a new {@link DayIndexBuilder}.
+     * 
+     * @param guildId The id of the guild.
+     * @param day     The day to build.
+     * @param start   The accumulator holding the status and games running at the
+     *                start of the day, since the start of the day.
+     */
+    DayIndexBuilder(final long guildId, final LocalDate day, final ActivityAccumulator start) {
+	mGuildId = guildId;
+	mDay = day;
+	mDayStart = getDayStart(day);
+	mHours = new ActivityAccumulator[HOURS];
+	mHourStatus = new LongHashMap<>();
+	mCurrent = start;
+	mHour = 0;
+
+	captureHourStatus();
+
+    }
+
+    /**
+     * Creates the accumulator holding the status and games running at the end of
+     * the day of the given index.
+     * 
+     * @param index The index.
+     * @param games The names of the games, indexed by their codes.
+     * @return The accumulator mentioned, with every period running since the
+     *         start of the following day.
+     */
+    static ActivityAccumulator readEndState(final DayIndex index, final List<String> games) {
+	final long start = getDayStart(LocalDate.ofEpochDay(index.getEpochDay() + 1));
+	final ActivityAccumulator state = new ActivityAccumulator(index.getMemberCount());
+
+	for (int member = 0; member < index.getMemberCount(); member++) {
+	    final OnlineStatus status = index.getEndStatus(member);
+	    int id = -1;
+
+	    if (status != null) {
+		id = state.addMember(index.getMemberId(member));
+		state.changeStatus(id, status, start);
+
+	    }
+
+	    for (int play = 0; play < index.getPlayCount(member); play++) {
+		final int code = index.getPlayGame(member, play);
+
+		if (index.isPlayRunning(member, play) && code < games.size()) {
+		    if (id == -1) {
+			id = state.addMember(index.getMemberId(member));
+
+		    }
+		    state.startActivity(id, games.get(code), start);
+
+		}
+	    }
+	}
+	return state;
+
+    }
+
+    /**
+     * Gets the start of the given day.
+     * 
+     * @param day The day.
+     * @return The time mentioned in ms.
+     */
+    static long getDayStart(final LocalDate day) {
+	return day.atStartOfDay().toInstant(Timestamp.getZoneOffset()).toEpochMilli();
+
+    }
+
+    /**
+     * Ends every hour ended at the given time.
+     * 
+     * @param time The time in ms.
+     */
+    private void advance(final long time) {
+	while (mHour < HOURS && time >= mDayStart + (mHour + 1) * HOUR_MS) {
+	    mHours[mHour] = mCurrent;
+	    mCurrent = mCurrent.rollover(mDayStart + (mHour + 1) * HOUR_MS);
+	    mHour++;
+
+	    if (mHour < HOURS) {
+		captureHourStatus();
+
+	    }
+	}
+    }
+
+    /**
+     * Remembers the current status of every member as the status at the start of
+     * the current hour.
+     */
+    private void captureHourStatus() {
+	for (int member = 0; member < mCurrent.getMemberCount(); member++) {
+	    final OnlineStatus status = mCurrent.getCurrentStatus(member);
+
+	    if (status != null) {
+		getHourStatus(mCurrent.getMemberId(member))[mHour] = (byte) StatusCodes.getCode(status);
+
+	    }
+	}
+    }
+
+    /**
+     * Applies the change of the game of the given member.
+     * 
+     * @param time     The time of the change in ms.
+     * @param memberId The id of the member.
+     * @param oldGame  The game played before, or <tt>null</tt> if none.
+     * @param newGame  The game played now, or <tt>null</tt> if none.
+     */
+    void changeGame(final long time, final long memberId, final String oldGame, final String newGame) {
+	advance(time);
+	final int member = mCurrent.addMember(memberId);
+
+	if (oldGame != null) {
+	    mCurrent.stopActivity(member, oldGame, time);
+
+	}
+
+	if (newGame != null) {
+	    mCurrent.startActivity(member, newGame, time);
+
+	}
+    }
+
+    /**
+     * Applies the change of the status of the given member.
+     * 
+     * @param time     The time of the change in ms.
+     * @param memberId The id of the member.
+     * @param status   The new status of the member.
+     */
+    void changeStatus(final long time, final long memberId, final OnlineStatus status) {
+	advance(time);
+	mCurrent.changeStatus(mCurrent.addMember(memberId), status, time);
+
+    }
+
+    /**
+     * Ends the day, such that every period still running continues in the
+     * accumulator returned.
+     * 
+     * @return The accumulator holding the status and games running at the start
+     *         of the following day.
+     */
+    ActivityAccumulator finish() {
+	advance(mDayStart + HOURS * HOUR_MS);
+	return mCurrent;
+
+    }
+
+    /**
+     * Gets the id of the guild.
+     * 
+     * @return The id mentioned.
+     */
+    long getGuildId() {
+	return mGuildId;
+
+    }
+
+    /**
+     * Gets the status of the given member at the start of every hour, adding it
+     * if needed.
+     * 
+     * @param memberId The id of the member.
+     * @return The status mentioned.
+     */
+    private byte[] getHourStatus(final long memberId) {
+	byte[] statuses = mHourStatus.get(memberId);
+
+	if (statuses == null) {
+	    statuses = new byte[HOURS];
+	    Arrays.fill(statuses, DayIndex.NO_STATUS);
+	    mHourStatus.put(memberId, statuses);
+
+	}
+	return statuses;
+
+    }
+
+    /**
+     * Whether any member was tracked on the day or not.
+     * 
+     * @return <tt>true</tt> if no member was tracked, <tt>false</tt> otherwise.
+     */
+    boolean isEmpty() {
+	if (mHourStatus.size() > 0 || mCurrent.getMemberCount() > 0) {
+	    return false;
+
+	}
+
+	for (int hour = 0; hour < mHour; hour++) {
+	    if (mHours[hour].getMemberCount() > 0) {
+		return false;
+
+	    }
+	}
+	return true;
+
+    }
+
+    /**
+     * Gets the sorted ids of every member tracked on the day.
+     * 
+     * @return The ids mentioned.
+     */
+    private long[] getMemberIds() {
+	long[] ids = new long[mCurrent.getMemberCount()];
+	int count = 0;
+
+	for (final ActivityAccumulator accumulator : mHours) {
+	    if (accumulator == null) {
+		continue;
+
+	    }
+
+	    for (int member = 0; member < accumulator.getMemberCount(); member++) {
+		if (count == ids.length) {
+		    ids = Arrays.copyOf(ids, Math.max(16, count * 2));
+
+		}
+		ids[count++] = accumulator.getMemberId(member);
+
+	    }
+	}
+	ids = Arrays.copyOf(ids, count + mCurrent.getMemberCount());
+
+	for (int member = 0; member < mCurrent.getMemberCount(); member++) {
+	    ids[count++] = mCurrent.getMemberId(member);
+
+	}
+	Arrays.sort(ids);
+
+	// drop the duplicates, since most members are known in several hours.
+	int unique = 0;
+	for (int i = 0; i < count; i++) {
+	    if (unique == 0 || ids[unique - 1] != ids[i]) {
+		ids[unique++] = ids[i];
+
+	    }
+	}
+	return Arrays.copyOf(ids, unique);
+
+    }
+
+    /**
+     * Ends the day and writes its index to the given file, replacing it
+     * atomically.
+     * 
+     * @param file  The file of the index.
+     * @param codes A mapping from the names of the games to their codes.
+     * @return The accumulator holding the status and games running at the start
+     *         of the following day.
+     * @throws IOException If an I/O error occurs.
+     */
+    ActivityAccumulator write(final Path file, final Map<String, Integer> codes) throws IOException {
+	final ActivityAccumulator next = finish();
+	final long[] ids = getMemberIds();
+	final LongIntHashMap indices = new LongIntHashMap(ids.length);
+
+	for (int i = 0; i < ids.length; i++) {
+	    indices.put(ids[i], i);
+
+	}
+
+	// gather the time per member, hour and status, and per member, game and hour.
+	final long[][] statusTimes = new long[ids.length][];
+	final List<TreeMap<Integer, long[]>> playTimes = new ArrayList<>(ids.length);
+
+	for (int i = 0; i < ids.length; i++) {
+	    playTimes.add(new TreeMap<>());
+
+	}
+
+	for (int hour = 0; hour < HOURS; hour++) {
+	    final ActivityAccumulator accumulator = mHours[hour];
+
+	    for (int member = 0; member < accumulator.getMemberCount(); member++) {
+		final int index = indices.get(accumulator.getMemberId(member));
+
+		for (int status = 0; status < StatusCodes.COUNT; status++) {
+		    final long time = accumulator.getStatusTime(member, StatusCodes.getStatus(status));
+
+		    if (time > 0) {
+			if (statusTimes[index] == null) {
+			    statusTimes[index] = new long[HOURS * StatusCodes.COUNT];
+
+			}
+			statusTimes[index][hour * StatusCodes.COUNT + status] += time;
+
+		    }
+		}
+	    }
+
+	    for (int activity = 0; activity < accumulator.getActivityCount(); activity++) {
+		final long time = accumulator.getActivityTime(activity);
+		final Integer code = codes.get(accumulator.getActivityGame(activity));
+
+		if (time > 0 && code != null) {
+		    final int index = indices.get(accumulator.getMemberId(accumulator.getActivityMember(activity)));
+		    playTimes.get(index).computeIfAbsent(code, c -> new long[HOURS + 1])[hour] += time;
+
+		}
+	    }
+	}
+
+	// the last slot of the plays marks the games still played at the end of the day.
+	final byte[] endStatus = new byte[ids.length];
+	Arrays.fill(endStatus, DayIndex.NO_STATUS);
+
+	for (int member = 0; member < next.getMemberCount(); member++) {
+	    final int index = indices.get(next.getMemberId(member));
+	    final OnlineStatus status = next.getCurrentStatus(member);
+
+	    if (status != null) {
+		endStatus[index] = (byte) StatusCodes.getCode(status);
+
+	    }
+	}
+
+	for (int activity = 0; activity < next.getActivityCount(); activity++) {
+	    final Integer code = codes.get(next.getActivityGame(activity));
+
+	    if (next.isActivityRunning(activity) && code != null) {
+		final int index = indices.get(next.getMemberId(next.getActivityMember(activity)));
+		playTimes.get(index).computeIfAbsent(code, c -> new long[HOURS + 1])[HOURS] = 1;
+
+	    }
+	}
+
+	// count the entries, such that the index can be written in one pass.
+	int bucketCount = 0;
+	int playCount = 0;
+	final List<List<int[]>> buckets = new ArrayList<>(ids.length);
+	final TreeMap<Integer, List<long[]>> postings = new TreeMap<>();
+
+	for (int index = 0; index < ids.length; index++) {
+	    buckets.add(toBuckets(statusTimes[index]));
+	    bucketCount += buckets.get(index).size();
+
+	    for (final Map.Entry<Integer, long[]> entry : playTimes.get(index).entrySet()) {
+		final long[] times = entry.getValue();
+		long total = 0;
+
+		for (int hour = 0; hour < HOURS; hour++) {
+		    total += times[hour];
+
+		}
+		playCount += countPlays(times);
+		postings.computeIfAbsent(entry.getKey(), c -> new ArrayList<>()).add(new long[] { index, total });
+
+	    }
+	}
+	int postingCount = 0;
+
+	for (final List<long[]> list : postings.values()) {
+	    postingCount += list.size();
+
+	}
+
+	final ByteBuffer out = ByteBuffer.allocate(DayIndex.HEADER_SIZE + ids.length * DayIndex.MEMBER_SIZE
+		+ bucketCount * DayIndex.BUCKET_SIZE + playCount * DayIndex.PLAY_SIZE
+		+ postings.size() * DayIndex.GAME_SIZE + postingCount * DayIndex.POSTING_SIZE);
+
+	out.putInt(DayIndex.MAGIC).putInt(DayIndex.VERSION).putLong(mDay.toEpochDay());
+	out.putInt(ids.length).putInt(bucketCount).putInt(playCount).putInt(postings.size()).putInt(postingCount)
+		.putInt(0);
+
+	int bucket = 0;
+	int play = 0;
+
+	for (int index = 0; index < ids.length; index++) {
+	    final int memberBuckets = buckets.get(index).size();
+	    int plays = 0;
+
+	    for (final long[] times : playTimes.get(index).values()) {
+		plays += countPlays(times);
+
+	    }
+	    out.putLong(ids[index]).putInt(bucket).putInt(memberBuckets).putInt(play).putInt(plays);
+
+	    final byte[] hourStatus = mHourStatus.get(ids[index]);
+	    if (hourStatus == null) {
+		for (int hour = 0; hour < HOURS; hour++) {
+		    out.put(DayIndex.NO_STATUS);
+
+		}
+	    } else {
+		out.put(hourStatus);
+
+	    }
+	    out.put(endStatus[index]).put((byte) 0).putShort((short) 0);
+
+	    bucket += memberBuckets;
+	    play += plays;
+
+	}
+
+	for (final List<int[]> memberBuckets : buckets) {
+	    for (final int[] entry : memberBuckets) {
+		out.put((byte) entry[0]).put((byte) entry[1]).put((byte) entry[2]).put((byte) 0).putInt(entry[3]);
+
+	    }
+	}
+
+	for (int index = 0; index < ids.length; index++) {
+	    for (final Map.Entry<Integer, long[]> entry : playTimes.get(index).entrySet()) {
+		final long[] times = entry.getValue();
+		final boolean running = times[HOURS] != 0;
+		boolean written = false;
+
+		for (int hour = 0; hour < HOURS; hour++) {
+		    // games running at the end of the day need a play, even if not played in any hour.
+		    if (times[hour] > 0 || hour == HOURS - 1 && !written) {
+			out.putInt(entry.getKey()).put((byte) hour).put((byte) (running ? 1 : 0)).putShort((short) 0);
+			out.putInt((int) times[hour]);
+			written = true;
+
+		    }
+		}
+	    }
+	}
+	int posting = 0;
+
+	for (final Map.Entry<Integer, List<long[]>> entry : postings.entrySet()) {
+	    out.putInt(entry.getKey()).putInt(posting).putInt(entry.getValue().size());
+	    posting += entry.getValue().size();
+
+	}
+
+	for (final List<long[]> list : postings.values()) {
+	    for (final long[] entry : list) {
+		out.putInt((int) entry[0]).putInt((int) entry[1]);
+
+	    }
+	}
+
+	Files.createDirectories(file.getParent());
+	final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+	Files.write(temporary, out.array());
+	Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+	return next;
+
+    }
+
+    /**
+     * Merges the given times into buckets. Consecutive hours spent in a status
+     * entirely share a single bucket, since most members stay in one status for
+     * hours, e.g. while offline.
+     * 
+     * @param times The time per hour and status, or <tt>null</tt> if none.
+     * @return The buckets, each holding the first hour, the number of hours, the
+     *         code of the status and the time.
+     */
+    private static List<int[]> toBuckets(final long[] times) {
+	final List<int[]> buckets = new ArrayList<>();
+
+	if (times == null) {
+	    return buckets;
+
+	}
+
+	for (int status = 0; status < StatusCodes.COUNT; status++) {
+	    int hour = 0;
+
+	    while (hour < HOURS) {
+		final long time = times[hour * StatusCodes.COUNT + status];
+		int end = hour + 1;
+
+		if (time == HOUR_MS) {
+		    while (end < HOURS && times[end * StatusCodes.COUNT + status] == HOUR_MS) {
+			end++;
+
+		    }
+		}
+
+		if (time > 0) {
+		    buckets.add(new int[] { hour, end - hour, status, (int) (time * (end - hour)) });
+
+		}
+		hour = end;
+
+	    }
+	}
+	return buckets;
+
+    }
+
+    /**
+     * Counts the plays of the given times.
+     * 
+     * @param times The time per hour of a game, followed by whether the game is
+     *              played at the end of the day.
+     * @return The number of plays, i.e. hours with time, but at least one.
+     */
+    private static int countPlays(final long[] times) {
+	int count = 0;
+
+	for (int hour = 0; hour < HOURS; hour++) {
+	    if (times[hour] > 0) {
+		count++;
+
+	    }
+	}
+	return Math.max(count, 1);
+
+    }
+}
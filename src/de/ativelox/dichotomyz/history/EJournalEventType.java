@@ -0,0 +1,23 @@
+package de.ativelox.dichotomyz.history;
+
+/**
+ * Provides the types of events recorded by an {@link EventJournal}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public enum EJournalEventType {
+
+    /**
+     * A member changed its online status. The codes of the event are the
+     * ordinals of the old and new {@link net.dv8tion.jda.core.OnlineStatus}.
+     */
+    STATUS,
+
+    /**
+     * A member changed the game it plays. The codes of the event are the ids of
+     * the old and new game in the dictionary of the journal.
+     */
+    GAME;
+
+}
@@ -0,0 +1,489 @@
+package de.ativelox.dichotomyz.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.Logger;
+import de.ativelox.dichotomyz.utils.StatusCodes;
+import de.ativelox.dichotomyz.utils.StringDictionary;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Records every change in the online status and game of members in an
+ * append-only binary journal, which can be replayed by an
+ * {@link EventJournalReader}. Every event is a record of
+ * {@link EventJournal#RECORD_SIZE} bytes, holding the time, the ids of the
+ * guild and member, the {@link EJournalEventType type}, and the old and new
+ * code, where statuses are coded by {@link StatusCodes} and games by their id
+ * in a dictionary stored alongside.
+ * Records are collected in a buffer, which is written once full or at the
+ * latest after the flush interval, by a background thread. The journal is
+ * split into segments of a fixed number of records, named by their index.
+ * This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class EventJournal implements Closeable {
+
+    /**
+     * The size of a single record in bytes.
+     */
+    public static final int RECORD_SIZE = 36;
+
+    /**
+     * The code of a status or game that isn't known, e.g. if a member started
+     * playing a game.
+     */
+    public static final int NO_CODE = -1;
+
+    /**
+     * The default number of records per segment, i.e. segments of about 36 MB.
+     */
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+
+    /**
+     * The default time in ms after which buffered records are written.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    /**
+     * The suffix of the files of segments.
+     */
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * The name of the file of the dictionary.
+     */
+    static final String DICTIONARY_NAME = "games.dictionary";
+
+    /**
+     * The number of records buffered before they are written.
+     */
+    private static final int BUFFERED_RECORDS = 1024;
+
+    /**
+     * The time in ms to wait for the background thread when closing.
+     */
+    private static final long CLOSE_TIMEOUT_MS = 30000;
+
+    /**
+     * The directory the journal is stored in.
+     */
+    private final Path mDirectory;
+
+    /**
+     * The number of records per segment.
+     */
+    private final int mSegmentRecords;
+
+    /**
+     * The records not yet written.
+     */
+    private final ByteBuffer mRecords;
+
+    /**
+     * The dictionary entries not yet written.
+     */
+    private ByteBuffer mEntries;
+
+    /**
+     * The dictionary of the names of the games.
+     */
+    private final StringDictionary mGames;
+
+    /**
+     * The channel of the dictionary.
+     */
+    private final FileChannel mDictionary;
+
+    /**
+     * The channel of the current segment.
+     */
+    private FileChannel mSegment;
+
+    /**
+     * The index of the current segment.
+     */
+    private long mSegmentIndex;
+
+    /**
+     * The number of records in the current segment, including those buffered.
+     */
+    private long mSegmentSize;
+
+    /**
+     * The thread writing the buffered records periodically.
+     */
+    private final ScheduledExecutorService mFlusher;
+
+    /**
+     * Whether this journal has been closed.
+     */
+    private boolean mClosed;
+
+    /**
+     * Opens the journal in the given directory with
+     * {@link EventJournal#DEFAULT_SEGMENT_RECORDS} records per segment and
+     * {@link EventJournal#DEFAULT_FLUSH_INTERVAL_MS} as flush interval.
+     * 
+     * @param directory The directory mentioned, which is created if needed.
+     * @throws IOException If an I/O error occurs.
+     */
+    public EventJournal(final Path directory) throws IOException {
+	this(directory, DEFAULT_SEGMENT_RECORDS, DEFAULT_FLUSH_INTERVAL_MS);
+
+    }
+
+    /**
+     * Opens the journal in the given directory, continuing the last segment.
+     * Records and dictionary entries only partially written, e.g. due to a
+     * crash, are cut off.
+     * 
+     * @param directory       The directory mentioned, which is created if
+     *                        needed.
+     * @param segmentRecords  The number of records per segment, must be
+     *                        positive.
+     * @param flushIntervalMs The time in ms after which buffered records are
+     *                        written.
+     * @throws IOException If an I/O error occurs.
+     */
+    public EventJournal(final Path directory, final int segmentRecords, final long flushIntervalMs)
+	    throws IOException {
+	if (segmentRecords <= 0) {
+	    throw new IllegalArgumentException("The number of records per segment must be positive: " + segmentRecords);
+
+	}
+	Files.createDirectories(directory);
+
+	mDirectory = directory;
+	mSegmentRecords = segmentRecords;
+	mRecords = ByteBuffer.allocateDirect(BUFFERED_RECORDS * RECORD_SIZE);
+	mEntries = ByteBuffer.allocate(256);
+	mGames = new StringDictionary(64);
+
+	final Path dictionary = directory.resolve(DICTIONARY_NAME);
+	long dictionarySize = 0;
+
+	for (final String game : readDictionary(dictionary)) {
+	    mGames.intern(game);
+	    dictionarySize += 2 + game.getBytes(StandardCharsets.UTF_8).length;
+
+	}
+	mDictionary = FileChannel.open(dictionary, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+	mDictionary.truncate(dictionarySize);
+	mDictionary.position(dictionarySize);
+
+	final List<Path> segments = listSegments(directory);
+	mSegmentIndex = segments.isEmpty() ? 0 : getSegmentIndex(segments.get(segments.size() - 1));
+	openSegment();
+
+	mClosed = false;
+	mFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+	    final Thread thread = new Thread(runnable, "EventJournal");
+	    thread.setDaemon(true);
+	    return thread;
+
+	});
+	mFlusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Buffers a single record, writing the buffer if full.
+     * 
+     * @param time     The time of the event in ms.
+     * @param guildId  The id of the guild.
+     * @param memberId The id of the member.
+     * @param type     The type of the event.
+     * @param oldCode  The old code.
+     * @param newCode  The new code.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void append(final long time, final long guildId, final long memberId, final EJournalEventType type,
+	    final int oldCode, final int newCode) throws IOException {
+	if (mSegmentSize == mSegmentRecords) {
+	    flush();
+	    mSegment.force(false);
+	    mSegment.close();
+
+	    mSegmentIndex++;
+	    openSegment();
+
+	}
+	mRecords.putLong(time).putLong(guildId).putLong(memberId).putInt(type.ordinal()).putInt(oldCode)
+		.putInt(newCode);
+	mSegmentSize++;
+
+	if (!mRecords.hasRemaining()) {
+	    flush();
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+	mFlusher.shutdown();
+
+	try {
+	    mFlusher.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+
+	}
+
+	synchronized (this) {
+	    if (mClosed) {
+		return;
+
+	    }
+	    mClosed = true;
+
+	    try {
+		flush();
+		mSegment.force(false);
+
+	    } finally {
+		mSegment.close();
+		mDictionary.close();
+
+	    }
+	}
+    }
+
+    /**
+     * Encodes the given game, adding it to the dictionary if needed.
+     * 
+     * @param game The name of the game, may be <tt>null</tt>.
+     * @return The code of the game, or {@link EventJournal#NO_CODE} if
+     *         <tt>null</tt>.
+     */
+    private int encodeGame(final String game) {
+	if (game == null) {
+	    return NO_CODE;
+
+	}
+	final int known = mGames.lookup(game);
+
+	if (known != StringDictionary.MISSING) {
+	    return known;
+
+	}
+	final byte[] name = game.getBytes(StandardCharsets.UTF_8);
+	final int length = Math.min(name.length, 0xFFFF);
+
+	if (mEntries.remaining() < 2 + length) {
+	    final ByteBuffer grown = ByteBuffer.allocate(Math.max(mEntries.capacity() * 2, mEntries.position() + 2 + length));
+	    mEntries.flip();
+	    mEntries = grown.put(mEntries);
+
+	}
+	mEntries.putShort((short) length).put(name, 0, length);
+	return mGames.intern(length == name.length ? game : new String(name, 0, length, StandardCharsets.UTF_8));
+
+    }
+
+    /**
+     * Writes every buffered record and dictionary entry. The dictionary is
+     * written first, thus every game recorded is always known.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void flush() throws IOException {
+	if (mEntries.position() > 0) {
+	    mEntries.flip();
+
+	    while (mEntries.hasRemaining()) {
+		mDictionary.write(mEntries);
+
+	    }
+	    mEntries.clear();
+
+	}
+
+	if (mRecords.position() > 0) {
+	    mRecords.flip();
+
+	    while (mRecords.hasRemaining()) {
+		mSegment.write(mRecords);
+
+	    }
+	    mRecords.clear();
+
+	}
+    }
+
+    /**
+     * Writes every buffered record, logging failures, as done periodically.
+     */
+    private void flushQuietly() {
+	try {
+	    synchronized (this) {
+		if (!mClosed) {
+		    flush();
+
+		}
+	    }
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when writing the journal, " + e.getMessage());
+
+	}
+    }
+
+    /**
+     * Gets the index of the given segment.
+     * 
+     * @param segment The file of the segment.
+     * @return The index mentioned.
+     */
+    static long getSegmentIndex(final Path segment) {
+	final String name = segment.getFileName().toString();
+	return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+
+    }
+
+    /**
+     * Gets the name of the file of the given segment.
+     * 
+     * @param index The index of the segment.
+     * @return The name mentioned.
+     */
+    static String getSegmentName(final long index) {
+	return String.format("%010d", index) + SEGMENT_SUFFIX;
+
+    }
+
+    /**
+     * Gets the files of every segment in the given directory, ordered by their
+     * index.
+     * 
+     * @param directory The directory mentioned.
+     * @return The files mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    static List<Path> listSegments(final Path directory) throws IOException {
+	final List<Path> segments = new ArrayList<>();
+
+	try (final Stream<Path> files = Files.list(directory)) {
+	    files.filter(file -> file.getFileName().toString().matches("\\d+" + "\\" + SEGMENT_SUFFIX))
+		    .sorted((a, b) -> Long.compare(getSegmentIndex(a), getSegmentIndex(b))).forEach(segments::add);
+
+	}
+	return segments;
+
+    }
+
+    /**
+     * Opens the segment with the current index, cutting off a record only
+     * partially written, and starts a new segment if it is full.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    private void openSegment() throws IOException {
+	mSegment = FileChannel.open(mDirectory.resolve(getSegmentName(mSegmentIndex)), StandardOpenOption.CREATE,
+		StandardOpenOption.WRITE);
+	mSegmentSize = mSegment.size() / RECORD_SIZE;
+	mSegment.truncate(mSegmentSize * RECORD_SIZE);
+	mSegment.position(mSegmentSize * RECORD_SIZE);
+
+	if (mSegmentSize >= mSegmentRecords) {
+	    mSegment.close();
+	    mSegmentIndex++;
+	    openSegment();
+
+	}
+    }
+
+    /**
+     * Reads every complete entry of the given dictionary file, in the order of
+     * their ids.
+     * 
+     * @param dictionary The file mentioned.
+     * @return The names of the games mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    static List<String> readDictionary(final Path dictionary) throws IOException {
+	final List<String> games = new ArrayList<>();
+
+	if (!Files.exists(dictionary)) {
+	    return games;
+
+	}
+	final ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(dictionary));
+
+	while (entries.remaining() >= 2) {
+	    final int length = entries.getShort() & 0xFFFF;
+
+	    if (entries.remaining() < length) {
+		break;
+
+	    }
+	    games.add(new String(entries.array(), entries.position(), length, StandardCharsets.UTF_8));
+	    entries.position(entries.position() + length);
+
+	}
+	return games;
+
+    }
+
+    /**
+     * Records that the given member changed the game it plays.
+     * 
+     * @param time     The time of the change in ms.
+     * @param guildId  The id of the guild.
+     * @param memberId The id of the member.
+     * @param oldGame  The name of the game played before, or <tt>null</tt>.
+     * @param newGame  The name of the game played now, or <tt>null</tt>.
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void recordGame(final long time, final long guildId, final long memberId,
+	    final String oldGame, final String newGame) throws IOException {
+	if (mClosed) {
+	    return;
+
+	}
+	append(time, guildId, memberId, EJournalEventType.GAME, encodeGame(oldGame), encodeGame(newGame));
+
+    }
+
+    /**
+     * Records that the given member changed its online status.
+     * 
+     * @param time      The time of the change in ms.
+     * @param guildId   The id of the guild.
+     * @param memberId  The id of the member.
+     * @param oldStatus The status before, or <tt>null</tt> if unknown.
+     * @param newStatus The status now, or <tt>null</tt> if unknown.
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void recordStatus(final long time, final long guildId, final long memberId,
+	    final OnlineStatus oldStatus, final OnlineStatus newStatus) throws IOException {
+	if (mClosed) {
+	    return;
+
+	}
+	append(time, guildId, memberId, EJournalEventType.STATUS,
+		oldStatus == null ? NO_CODE : StatusCodes.getCode(oldStatus),
+		newStatus == null ? NO_CODE : StatusCodes.getCode(newStatus));
+
+    }
+}
@@ -0,0 +1,260 @@
+package de.ativelox.dichotomyz.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import de.ativelox.dichotomyz.utils.StatusCodes;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Replays the records of an {@link EventJournal} in the order they were
+ * written. The reader is a cursor, i.e. {@link EventJournalReader#next()}
+ * moves on to the next record, whose fields are then available by the getters
+ * of this reader, thus reading doesn't allocate per record. Segments are
+ * memory-mapped one after another. Records written after the reader was
+ * created may or may not be read. This class is not thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class EventJournalReader implements Closeable {
+
+    /**
+     * Every type of event, indexed by its ordinal.
+     */
+    private static final EJournalEventType[] TYPES = EJournalEventType.values();
+
+    /**
+     * The names of the games, indexed by their code.
+     */
+    private final List<String> mGames;
+
+    /**
+     * The files of the segments.
+     */
+    private final List<Path> mSegments;
+
+    /**
+     * The index of the next segment to map in {@link EventJournalReader#mSegments}.
+     */
+    private int mNextSegment;
+
+    /**
+     * The index of the current segment.
+     */
+    private long mSegmentIndex;
+
+    /**
+     * The number of records to skip in the first segment.
+     */
+    private long mSkip;
+
+    /**
+     * The records of the current segment.
+     */
+    private ByteBuffer mRecords;
+
+    /**
+     * The offset of the current record in {@link EventJournalReader#mRecords}.
+     */
+    private int mOffset;
+
+    /**
+     * Creates a new {@link EventJournalReader}, positioned before the first
+     * record.
+     * 
+     * @param directory The directory of the journal.
+     * @throws IOException If an I/O error occurs.
+     */
+    public EventJournalReader(final Path directory) throws IOException {
+	this(directory, 0, 0);
+
+    }
+
+    /**
+     * Creates a new {@link EventJournalReader}, positioned before the given
+     * record of the given segment, e.g. as returned by
+     * {@link EventJournalReader#getSegment()} and
+     * {@link EventJournalReader#getRecord()} when reading stopped.
+     * 
+     * @param directory    The directory of the journal.
+     * @param firstSegment The index of the first segment to read.
+     * @param firstRecord  The index of the first record to read in the first
+     *                     segment, if it exists.
+     * @throws IOException If an I/O error occurs.
+     */
+    public EventJournalReader(final Path directory, final long firstSegment, final long firstRecord)
+	    throws IOException {
+	mSegments = EventJournal.listSegments(directory);
+	mSegments.removeIf(segment -> EventJournal.getSegmentIndex(segment) < firstSegment);
+	mGames = EventJournal.readDictionary(directory.resolve(EventJournal.DICTIONARY_NAME));
+	mNextSegment = 0;
+	mSegmentIndex = firstSegment;
+	mSkip = mSegments.isEmpty() || EventJournal.getSegmentIndex(mSegments.get(0)) != firstSegment ? 0
+		: firstRecord;
+	mRecords = ByteBuffer.allocate(0);
+	mOffset = -EventJournal.RECORD_SIZE;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+	mRecords = ByteBuffer.allocate(0);
+	mNextSegment = mSegments.size();
+
+    }
+
+    /**
+     * Gets the name of the game with the given code.
+     * 
+     * @param code The code mentioned.
+     * @return The name mentioned, or <tt>null</tt> if the code is
+     *         {@link EventJournal#NO_CODE}.
+     */
+    public String getGame(final int code) {
+	if (code == EventJournal.NO_CODE) {
+	    return null;
+
+	}
+	return mGames.get(code);
+
+    }
+
+    /**
+     * Gets the id of the guild of the current record.
+     * 
+     * @return The id mentioned.
+     */
+    public long getGuildId() {
+	return mRecords.getLong(mOffset + 8);
+
+    }
+
+    /**
+     * Gets the id of the member of the current record.
+     * 
+     * @return The id mentioned.
+     */
+    public long getMemberId() {
+	return mRecords.getLong(mOffset + 16);
+
+    }
+
+    /**
+     * Gets the code of the status or game after the event of the current
+     * record.
+     * 
+     * @return The code mentioned, or {@link EventJournal#NO_CODE} if unknown.
+     */
+    public int getNewCode() {
+	return mRecords.getInt(mOffset + 32);
+
+    }
+
+    /**
+     * Gets the code of the status or game before the event of the current
+     * record.
+     * 
+     * @return The code mentioned, or {@link EventJournal#NO_CODE} if unknown.
+     */
+    public int getOldCode() {
+	return mRecords.getInt(mOffset + 28);
+
+    }
+
+    /**
+     * Gets the online status with the given code.
+     * 
+     * @param code The code mentioned.
+     * @return The status mentioned, or <tt>null</tt> if the code is
+     *         {@link EventJournal#NO_CODE}.
+     */
+    public static OnlineStatus getStatus(final int code) {
+	return StatusCodes.getStatus(code);
+
+    }
+
+    /**
+     * Gets the index of the current record in its segment. After every record
+     * has been read, this is the number of records in the last segment.
+     * 
+     * @return The index mentioned.
+     */
+    public long getRecord() {
+	return mOffset / EventJournal.RECORD_SIZE;
+
+    }
+
+    /**
+     * Gets the index of the segment of the current record.
+     * 
+     * @return The index mentioned.
+     */
+    public long getSegment() {
+	return mSegmentIndex;
+
+    }
+
+    /**
+     * Gets the time in ms of the current record.
+     * 
+     * @return The time mentioned.
+     */
+    public long getTime() {
+	return mRecords.getLong(mOffset);
+
+    }
+
+    /**
+     * Gets the type of the event of the current record.
+     * 
+     * @return The type mentioned.
+     */
+    public EJournalEventType getType() {
+	return TYPES[mRecords.getInt(mOffset + 24)];
+
+    }
+
+    /**
+     * Moves on to the next record.
+     * 
+     * @return <tt>true</tt> if there is a next record, <tt>false</tt> if every
+     *         record has been read.
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean next() throws IOException {
+	mOffset += EventJournal.RECORD_SIZE;
+
+	while (mOffset + EventJournal.RECORD_SIZE > mRecords.limit()) {
+	    if (mNextSegment == mSegments.size()) {
+		mOffset = mRecords.limit();
+		return false;
+
+	    }
+
+	    final Path segment = mSegments.get(mNextSegment++);
+
+	    try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+		mRecords = channel.map(MapMode.READ_ONLY, 0, channel.size());
+
+	    }
+	    mSegmentIndex = EventJournal.getSegmentIndex(segment);
+	    mOffset = (int) (mSkip * EventJournal.RECORD_SIZE);
+	    mSkip = 0;
+
+	}
+	return true;
+
+    }
+}
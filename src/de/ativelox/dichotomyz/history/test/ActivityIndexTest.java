@@ -0,0 +1,171 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.history.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.history.ActivityIndex;
+import de.ativelox.dichotomyz.history.EventJournal;
+import de.ativelox.dichotomyz.utils.Timestamp;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides Tests for {@link ActivityIndex}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityIndexTest {
+
+    /**
+     * The id of the guild.
+     */
+    private static final long GUILD_ID = 301234567890000000L;
+
+    /**
+     * The id of the first member.
+     */
+    private static final long FIRST_ID = 301234567890123456L;
+
+    /**
+     * The id of the second member.
+     */
+    private static final long SECOND_ID = 301234567890654321L;
+
+    /**
+     * The first day recorded.
+     */
+    private static final LocalDate DAY = LocalDate.of(2018, 3, 1);
+
+    /**
+     * Gets the time of the given minute of the given day after
+     * {@link ActivityIndexTest#DAY}.
+     * 
+     * @param day    The number of days after the first day.
+     * @param hour   The hour of the day.
+     * @param minute The minute of the hour.
+     * @return The time mentioned in ms.
+     */
+    private static long at(final int day, final int hour, final int minute) {
+	return DAY.plusDays(day).atTime(hour, minute).toInstant(Timestamp.getZoneOffset()).toEpochMilli();
+
+    }
+
+    /**
+     * Deletes the given directory and everything in it.
+     * 
+     * @param directory The directory mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void deleteDirectory(final Path directory) throws IOException {
+	final List<Path> files;
+
+	try (final Stream<Path> walk = Files.walk(directory)) {
+	    files = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+
+	}
+
+	for (final Path file : files) {
+	    Files.delete(file);
+
+	}
+    }
+
+    /**
+     * Gets the given hours of the given day after {@link ActivityIndexTest#DAY}.
+     * 
+     * @param day  The number of days after the first day.
+     * @param hour The hour of the day.
+     * @return The time mentioned.
+     */
+    private static LocalDateTime hour(final int day, final int hour) {
+	return DAY.plusDays(day).atTime(hour, 0);
+
+    }
+
+    /**
+     * Test method for {@link de.ativelox.dichotomyz.history.ActivityIndex#update(LocalDate)}
+     * and the queries, where the status and games running at midnight carry over
+     * to the following day, and indexing continues where the last update
+     * stopped.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testUpdateAndQuery() throws IOException {
+	final Path directory = Files.createTempDirectory("activityindextest");
+	final Path journalDirectory = directory.resolve("journal");
+	final long minute = TimeUnit.MINUTES.toMillis(1);
+	final long hour = TimeUnit.HOURS.toMillis(1);
+
+	try {
+	    try (final EventJournal journal = new EventJournal(journalDirectory)) {
+		journal.recordStatus(at(0, 10, 0), GUILD_ID, FIRST_ID, null, OnlineStatus.ONLINE);
+		journal.recordGame(at(0, 10, 30), GUILD_ID, FIRST_ID, null, "Chess");
+		journal.recordGame(at(0, 12, 15), GUILD_ID, FIRST_ID, "Chess", null);
+		journal.recordStatus(at(0, 13, 0), GUILD_ID, FIRST_ID, OnlineStatus.ONLINE, OnlineStatus.OFFLINE);
+
+		journal.recordStatus(at(0, 23, 0), GUILD_ID, SECOND_ID, null, OnlineStatus.IDLE);
+		journal.recordGame(at(0, 23, 30), GUILD_ID, SECOND_ID, null, "Go");
+		journal.recordGame(at(1, 1, 0), GUILD_ID, SECOND_ID, "Go", null);
+		journal.recordStatus(at(1, 2, 0), GUILD_ID, SECOND_ID, OnlineStatus.IDLE, OnlineStatus.ONLINE);
+
+		journal.recordStatus(at(2, 5, 0), GUILD_ID, FIRST_ID, OnlineStatus.OFFLINE,
+			OnlineStatus.DO_NOT_DISTURB);
+
+	    }
+
+	    final ActivityIndex index = new ActivityIndex(directory.resolve("index"), journalDirectory);
+	    Assert.assertEquals(2, index.update(DAY.plusDays(2)));
+
+	    Assert.assertEquals(90 * minute, index.getPlayTime(GUILD_ID, FIRST_ID, "Chess", hour(0, 10), hour(0, 12)));
+	    Assert.assertEquals(105 * minute, index.getPlayTime(GUILD_ID, FIRST_ID, "Chess", hour(0, 0), hour(1, 0)));
+	    Assert.assertEquals(0, index.getPlayTime(GUILD_ID, FIRST_ID, "Unknown", hour(0, 0), hour(1, 0)));
+	    Assert.assertEquals(3 * hour,
+		    index.getStatusTime(GUILD_ID, FIRST_ID, OnlineStatus.ONLINE, hour(0, 0), hour(2, 0)));
+	    Assert.assertEquals(hour,
+		    index.getStatusTime(GUILD_ID, FIRST_ID, OnlineStatus.ONLINE, hour(0, 11), hour(0, 12)));
+	    Assert.assertEquals(3 * hour,
+		    index.getStatusTime(GUILD_ID, SECOND_ID, OnlineStatus.IDLE, hour(0, 0), hour(2, 0)));
+
+	    final Map<Long, Long> times = index.getPlayTimes(GUILD_ID, "Go", DAY, DAY.plusDays(1));
+	    Assert.assertEquals(Collections.singletonMap(SECOND_ID, 90 * minute), times);
+
+	    Assert.assertEquals(Arrays.asList(FIRST_ID),
+		    index.getMembersWithStatus(GUILD_ID, hour(0, 11), OnlineStatus.ONLINE));
+	    Assert.assertEquals(Arrays.asList(SECOND_ID),
+		    index.getMembersWithStatus(GUILD_ID, hour(1, 1), OnlineStatus.IDLE));
+
+	    // the third day isn't indexed until it ended, the status carried over fills the whole day.
+	    Assert.assertEquals(0,
+		    index.getStatusTime(GUILD_ID, SECOND_ID, OnlineStatus.ONLINE, hour(2, 0), hour(3, 0)));
+	    Assert.assertEquals(1, index.update(DAY.plusDays(3)));
+	    Assert.assertEquals(24 * hour,
+		    index.getStatusTime(GUILD_ID, SECOND_ID, OnlineStatus.ONLINE, hour(2, 0), hour(3, 0)));
+	    Assert.assertEquals(Arrays.asList(FIRST_ID),
+		    index.getMembersWithStatus(GUILD_ID, hour(2, 6), OnlineStatus.DO_NOT_DISTURB));
+	    Assert.assertEquals(0, index.update(DAY.plusDays(3)));
+
+	} finally {
+	    deleteDirectory(directory);
+
+	}
+    }
+
+}
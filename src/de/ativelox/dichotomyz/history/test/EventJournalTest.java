@@ -0,0 +1,143 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.history.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.history.EJournalEventType;
+import de.ativelox.dichotomyz.history.EventJournal;
+import de.ativelox.dichotomyz.history.EventJournalReader;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides Tests for {@link EventJournal} and {@link EventJournalReader}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class EventJournalTest {
+
+    /**
+     * The id of the guild.
+     */
+    private static final long GUILD_ID = 301234567890000000L;
+
+    /**
+     * The id of the user.
+     */
+    private static final long USER_ID = 301234567890123456L;
+
+    /**
+     * Deletes the given directory and every file in it.
+     * 
+     * @param directory The directory mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void deleteDirectory(final Path directory) throws IOException {
+	try (final Stream<Path> files = Files.list(directory)) {
+	    for (final Path file : (Iterable<Path>) files::iterator) {
+		Files.delete(file);
+
+	    }
+	}
+	Files.delete(directory);
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.history.EventJournal#recordGame(long, long, long, String, String)}
+     * and
+     * {@link de.ativelox.dichotomyz.history.EventJournal#recordStatus(long, long, long, OnlineStatus, OnlineStatus)},
+     * where the journal is reopened after a record was only partially written.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testRecordAndReplay() throws IOException {
+	final Path directory = Files.createTempDirectory("eventjournaltest");
+
+	try {
+	    try (final EventJournal journal = new EventJournal(directory, 3, 60000)) {
+		journal.recordStatus(1, GUILD_ID, USER_ID, OnlineStatus.OFFLINE, OnlineStatus.ONLINE);
+		journal.recordGame(2, GUILD_ID, USER_ID, null, "Game");
+		journal.recordGame(3, GUILD_ID, USER_ID, "Game", "Other");
+		journal.recordGame(4, GUILD_ID, USER_ID, "Other", null);
+
+	    }
+
+	    // the first segment is full, the second holds a single record.
+	    final Path second = directory.resolve("0000000001.journal");
+	    Assert.assertEquals(3 * EventJournal.RECORD_SIZE, Files.size(directory.resolve("0000000000.journal")));
+	    Assert.assertEquals(EventJournal.RECORD_SIZE, Files.size(second));
+
+	    // a crash while writing a record.
+	    Files.write(second, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+
+	    try (final EventJournal journal = new EventJournal(directory, 3, 60000)) {
+		journal.recordGame(5, GUILD_ID, USER_ID, null, "Game");
+		journal.flush();
+
+		Assert.assertEquals(2 * EventJournal.RECORD_SIZE, Files.size(second));
+
+	    }
+
+	    try (final EventJournalReader reader = new EventJournalReader(directory)) {
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(1, reader.getTime());
+		Assert.assertEquals(GUILD_ID, reader.getGuildId());
+		Assert.assertEquals(USER_ID, reader.getMemberId());
+		Assert.assertEquals(EJournalEventType.STATUS, reader.getType());
+		Assert.assertEquals(OnlineStatus.OFFLINE, EventJournalReader.getStatus(reader.getOldCode()));
+		Assert.assertEquals(OnlineStatus.ONLINE, EventJournalReader.getStatus(reader.getNewCode()));
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(EJournalEventType.GAME, reader.getType());
+		Assert.assertEquals(EventJournal.NO_CODE, reader.getOldCode());
+		Assert.assertNull(reader.getGame(reader.getOldCode()));
+		Assert.assertEquals("Game", reader.getGame(reader.getNewCode()));
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("Other", reader.getGame(reader.getNewCode()));
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(4, reader.getTime());
+
+		// the dictionary got restored when reopening.
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(5, reader.getTime());
+		Assert.assertEquals(0, reader.getNewCode());
+
+		Assert.assertFalse(reader.next());
+		Assert.assertFalse(reader.next());
+
+	    }
+
+	    // resume reading at the third record.
+	    try (final EventJournalReader reader = new EventJournalReader(directory, 0, 2)) {
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(3, reader.getTime());
+		Assert.assertEquals(0, reader.getSegment());
+		Assert.assertEquals(2, reader.getRecord());
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(4, reader.getTime());
+		Assert.assertEquals(1, reader.getSegment());
+		Assert.assertEquals(0, reader.getRecord());
+
+	    }
+	} finally {
+	    deleteDirectory(directory);
+
+	}
+    }
+
+}
@@ -0,0 +1,704 @@
+package de.ativelox.dichotomyz.logging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import de.ativelox.dichotomyz.utils.LongIntHashMap;
+import de.ativelox.dichotomyz.utils.StatusCodes;
+import de.ativelox.dichotomyz.utils.StringDictionary;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Accumulates the time members spent in each {@link OnlineStatus} and playing
+ * each game. Members, identified by their snowflake ids, and games are
+ * interned to dense ids, and the accumulated time is stored in <tt>long</tt>
+ * arrays, one slot per member and status, and one slot per member and game
+ * played. The current status of every member and the games currently played
+ * are running until changed, or until {@link ActivityAccumulator#rollover(long)}
+ * ends them. Updating a member or game already known thus never allocates,
+ * only arrays grow once new members or games appear. Members and activities
+ * changed are remembered, such that only these have to be written by
+ * {@link ActivityAccumulator#writeChanges(ByteBuffer, boolean)}, see
+ * {@link ActivityCheckpoint}. This class is not thread-safe, see
+ * {@link ActivityTracker}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityAccumulator {
+
+    /**
+     * The type of records holding the status of a member.
+     */
+    private static final byte MEMBER_RECORD = 1;
+
+    /**
+     * The type of records holding an activity.
+     */
+    private static final byte ACTIVITY_RECORD = 2;
+
+    /**
+     * The value of {@link ActivityAccumulator#mCurrentStatus} for members whose
+     * status is unknown.
+     */
+    private static final byte NO_STATUS = -1;
+
+    /**
+     * The default number of games this accumulator can hold before growing.
+     */
+    private static final int DEFAULT_EXPECTED_GAMES = 64;
+
+    /**
+     * A mapping from the snowflake ids of the members to their dense ids.
+     */
+    private final LongIntHashMap mMembers;
+
+    /**
+     * The dictionary of the names of the games.
+     */
+    private final StringDictionary mGames;
+
+    /**
+     * A mapping from a member and game, packed by
+     * {@link ActivityAccumulator#pack(int, int)}, to the slot of the activity.
+     */
+    private final LongIntHashMap mActivitySlots;
+
+    /**
+     * The snowflake ids of the members, indexed by their dense ids.
+     */
+    private long[] mMemberIds;
+
+    /**
+     * The code of the current status per member, given by {@link StatusCodes},
+     * or {@link ActivityAccumulator#NO_STATUS} if unknown.
+     */
+    private byte[] mCurrentStatus;
+
+    /**
+     * The time in ms the current status started per member.
+     */
+    private long[] mStatusSince;
+
+    /**
+     * The time in ms accumulated per member and status, indexed by
+     * {@link ActivityAccumulator#statusSlot(int, int)}.
+     */
+    private long[] mStatusTotals;
+
+    /**
+     * The member of every activity.
+     */
+    private int[] mActivityMembers;
+
+    /**
+     * The game of every activity.
+     */
+    private int[] mActivityGames;
+
+    /**
+     * Whether the game of every activity is currently played.
+     */
+    private boolean[] mActivityRunning;
+
+    /**
+     * The time in ms accumulated per activity.
+     */
+    private long[] mActivityTotals;
+
+    /**
+     * The time in ms the current period started per activity.
+     */
+    private long[] mActivitySince;
+
+    /**
+     * The number of activities.
+     */
+    private int mActivityCount;
+
+    /**
+     * Whether every member has changed since the changes were written last.
+     */
+    private boolean[] mMemberChanged;
+
+    /**
+     * The dense ids of the members changed, in the order of their first change.
+     */
+    private int[] mChangedMembers;
+
+    /**
+     * The number of members changed.
+     */
+    private int mChangedMemberCount;
+
+    /**
+     * Whether every activity has changed since the changes were written last.
+     */
+    private boolean[] mActivityChanged;
+
+    /**
+     * The slots of the activities changed, in the order of their first change.
+     */
+    private int[] mChangedActivities;
+
+    /**
+     * The number of activities changed.
+     */
+    private int mChangedActivityCount;
+
+    /**
+     * Creates a new {@link ActivityAccumulator}.
+     * 
+     * @param expectedMembers The number of members this accumulator can hold
+     *                        before growing.
+     */
+    public ActivityAccumulator(final int expectedMembers) {
+	final int members = Math.max(expectedMembers, 1);
+
+	mMembers = new LongIntHashMap(members);
+	mGames = new StringDictionary(DEFAULT_EXPECTED_GAMES);
+	mActivitySlots = new LongIntHashMap(members);
+
+	mMemberIds = new long[members];
+	mCurrentStatus = new byte[members];
+	mStatusSince = new long[members];
+	mStatusTotals = new long[members * StatusCodes.COUNT];
+
+	mActivityMembers = new int[members];
+	mActivityGames = new int[members];
+	mActivityRunning = new boolean[members];
+	mActivityTotals = new long[members];
+	mActivitySince = new long[members];
+	mActivityCount = 0;
+
+	mMemberChanged = new boolean[members];
+	mChangedMembers = new int[members];
+	mChangedMemberCount = 0;
+	mActivityChanged = new boolean[members];
+	mChangedActivities = new int[members];
+	mChangedActivityCount = 0;
+
+    }
+
+    /**
+     * Gets the dense id of the given member, adding it if needed.
+     * 
+     * @param memberId The snowflake id of the member.
+     * @return The id mentioned.
+     */
+    public int addMember(final long memberId) {
+	final int known = mMembers.get(memberId);
+
+	if (known != LongIntHashMap.MISSING) {
+	    return known;
+
+	}
+	final int member = mMembers.size();
+
+	if (member == mMemberIds.length) {
+	    mMemberIds = Arrays.copyOf(mMemberIds, member * 2);
+	    mCurrentStatus = Arrays.copyOf(mCurrentStatus, member * 2);
+	    mStatusSince = Arrays.copyOf(mStatusSince, member * 2);
+	    mStatusTotals = Arrays.copyOf(mStatusTotals, member * 2 * StatusCodes.COUNT);
+	    mMemberChanged = Arrays.copyOf(mMemberChanged, member * 2);
+	    mChangedMembers = Arrays.copyOf(mChangedMembers, member * 2);
+
+	}
+	mMemberIds[member] = memberId;
+	mCurrentStatus[member] = NO_STATUS;
+	mMembers.put(memberId, member);
+	return member;
+
+    }
+
+    /**
+     * Finds the slot of the activity of the given member and game, adding it if
+     * needed.
+     * 
+     * @param member The dense id of the member.
+     * @param game   The id of the game.
+     * @return The slot mentioned.
+     */
+    private int addActivity(final int member, final int game) {
+	final long key = pack(member, game);
+	final int slot = mActivitySlots.get(key);
+
+	if (slot != LongIntHashMap.MISSING) {
+	    return slot;
+
+	}
+
+	if (mActivityCount == mActivityTotals.length) {
+	    final int length = mActivityCount * 2;
+	    mActivityMembers = Arrays.copyOf(mActivityMembers, length);
+	    mActivityGames = Arrays.copyOf(mActivityGames, length);
+	    mActivityRunning = Arrays.copyOf(mActivityRunning, length);
+	    mActivityTotals = Arrays.copyOf(mActivityTotals, length);
+	    mActivitySince = Arrays.copyOf(mActivitySince, length);
+	    mActivityChanged = Arrays.copyOf(mActivityChanged, length);
+	    mChangedActivities = Arrays.copyOf(mChangedActivities, length);
+
+	}
+	mActivityMembers[mActivityCount] = member;
+	mActivityGames[mActivityCount] = game;
+	mActivityRunning[mActivityCount] = false;
+	mActivityTotals[mActivityCount] = 0;
+	mActivitySlots.put(key, mActivityCount);
+
+	return mActivityCount++;
+
+    }
+
+    /**
+     * Adds the given time to the time accumulated for the given member and game.
+     * 
+     * @param member The dense id of the member.
+     * @param game   The name of the game, not <tt>null</tt>.
+     * @param time   The time in ms to add.
+     */
+    public void addActivityTime(final int member, final String game, final long time) {
+	final int slot = addActivity(member, mGames.intern(game));
+
+	mActivityTotals[slot] += time;
+	markActivity(slot);
+
+    }
+
+    /**
+     * Adds the given time to the time accumulated for the given member and
+     * status.
+     * 
+     * @param member The dense id of the member.
+     * @param status The status.
+     * @param time   The time in ms to add.
+     */
+    public void addStatusTime(final int member, final OnlineStatus status, final long time) {
+	mStatusTotals[statusSlot(member, StatusCodes.getCode(status))] += time;
+	markMember(member);
+
+    }
+
+    /**
+     * Ends the period of the current status of the given member, if known, and
+     * starts a period of the given status.
+     * 
+     * @param member The dense id of the member.
+     * @param status The new status of the member.
+     * @param now    The current time in ms.
+     */
+    public void changeStatus(final int member, final OnlineStatus status, final long now) {
+	final byte current = mCurrentStatus[member];
+
+	if (current != NO_STATUS) {
+	    mStatusTotals[statusSlot(member, current)] += now - mStatusSince[member];
+
+	}
+	mCurrentStatus[member] = (byte) StatusCodes.getCode(status);
+	mStatusSince[member] = now;
+	markMember(member);
+
+    }
+
+    /**
+     * Makes sure the given buffer has at least the given number of bytes
+     * remaining, by replacing it with a larger one holding the same content.
+     * 
+     * @param buffer The buffer mentioned.
+     * @param needed The number of bytes needed.
+     * @return The given buffer, or the larger one.
+     */
+    private static ByteBuffer ensureRemaining(final ByteBuffer buffer, final int needed) {
+	if (buffer.remaining() >= needed) {
+	    return buffer;
+
+	}
+	final ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+	buffer.flip();
+	return grown.put(buffer);
+
+    }
+
+    /**
+     * Gets the current status of the given member.
+     * 
+     * @param member The dense id of the member.
+     * @return The status mentioned, or <tt>null</tt> if unknown.
+     */
+    public OnlineStatus getCurrentStatus(final int member) {
+	final byte current = mCurrentStatus[member];
+
+	if (current == NO_STATUS) {
+	    return null;
+
+	}
+	return StatusCodes.getStatus(current);
+
+    }
+
+    /**
+     * Gets the number of activities, i.e. pairs of a member and a game played.
+     * 
+     * @return The number mentioned.
+     */
+    public int getActivityCount() {
+	return mActivityCount;
+
+    }
+
+    /**
+     * Gets the name of the game of the given activity.
+     * 
+     * @param activity The index of the activity.
+     * @return The name mentioned.
+     */
+    public String getActivityGame(final int activity) {
+	return mGames.get(mActivityGames[activity]);
+
+    }
+
+    /**
+     * Gets the dense id of the member of the given activity.
+     * 
+     * @param activity The index of the activity.
+     * @return The id mentioned.
+     */
+    public int getActivityMember(final int activity) {
+	return mActivityMembers[activity];
+
+    }
+
+    /**
+     * Gets the time in ms accumulated for the given activity, excluding the
+     * current period.
+     * 
+     * @param activity The index of the activity.
+     * @return The time mentioned.
+     */
+    public long getActivityTime(final int activity) {
+	return mActivityTotals[activity];
+
+    }
+
+    /**
+     * Gets the number of members.
+     * 
+     * @return The number mentioned.
+     */
+    public int getMemberCount() {
+	return mMembers.size();
+
+    }
+
+    /**
+     * Gets the snowflake id of the given member.
+     * 
+     * @param member The dense id of the member.
+     * @return The id mentioned.
+     */
+    public long getMemberId(final int member) {
+	return mMemberIds[member];
+
+    }
+
+    /**
+     * Gets the time in ms accumulated for the given member and status, excluding
+     * the current period.
+     * 
+     * @param member The dense id of the member.
+     * @param status The status.
+     * @return The time mentioned.
+     */
+    public long getStatusTime(final int member, final OnlineStatus status) {
+	return mStatusTotals[statusSlot(member, StatusCodes.getCode(status))];
+
+    }
+
+    /**
+     * Remembers the given activity as changed.
+     * 
+     * @param slot The slot of the activity.
+     */
+    private void markActivity(final int slot) {
+	if (!mActivityChanged[slot]) {
+	    mActivityChanged[slot] = true;
+	    mChangedActivities[mChangedActivityCount++] = slot;
+
+	}
+    }
+
+    /**
+     * Remembers the given member as changed.
+     * 
+     * @param member The dense id of the member.
+     */
+    private void markMember(final int member) {
+	if (!mMemberChanged[member]) {
+	    mMemberChanged[member] = true;
+	    mChangedMembers[mChangedMemberCount++] = member;
+
+	}
+    }
+
+    /**
+     * Whether the game of the given activity is currently played or not.
+     * 
+     * @param activity The index of the activity.
+     * @return <tt>true</tt> if the game is played, <tt>false</tt> otherwise.
+     */
+    public boolean isActivityRunning(final int activity) {
+	return mActivityRunning[activity];
+
+    }
+
+    /**
+     * Packs the given member and game into a single key.
+     * 
+     * @param member The dense id of the member.
+     * @param game   The id of the game.
+     * @return The key mentioned.
+     */
+    private static long pack(final int member, final int game) {
+	return ((long) member << 32) | (game & 0xFFFFFFFFL);
+
+    }
+
+    /**
+     * Reads a single record, as written by
+     * {@link ActivityAccumulator#writeChanges(ByteBuffer, boolean)}, from the
+     * given buffer and replaces the state of the respective member or activity
+     * by it.
+     * 
+     * @param in The buffer to read from.
+     * @throws IllegalArgumentException If the buffer doesn't start with a valid
+     *                                  record.
+     */
+    public void readRecord(final ByteBuffer in) {
+	final byte type = in.get();
+	final int member = addMember(in.getLong());
+
+	if (type == MEMBER_RECORD) {
+	    final byte status = in.get();
+	    final long since = in.getLong();
+	    final int count = in.get();
+
+	    for (int i = 0; i < count; i++) {
+		final long total = in.getLong();
+
+		if (i < StatusCodes.COUNT) {
+		    mStatusTotals[statusSlot(member, i)] = total;
+
+		}
+	    }
+	    mCurrentStatus[member] = status < StatusCodes.COUNT ? status : NO_STATUS;
+	    mStatusSince[member] = since;
+
+	} else if (type == ACTIVITY_RECORD) {
+	    final byte[] game = new byte[in.getShort() & 0xFFFF];
+	    in.get(game);
+
+	    final int slot = addActivity(member, mGames.intern(new String(game, StandardCharsets.UTF_8)));
+	    mActivityRunning[slot] = in.get() != 0;
+	    mActivitySince[slot] = in.getLong();
+	    mActivityTotals[slot] = in.getLong();
+
+	} else {
+	    throw new IllegalArgumentException("Unknown type of record: " + type);
+
+	}
+    }
+
+    /**
+     * Ends every current period at the given time, and creates a new accumulator,
+     * in which these periods continue from the given time on. Afterwards this
+     * accumulator holds the final times up to the given time, and shouldn't be
+     * changed anymore. Periods started after the given time, since they changed
+     * while other accumulators were rolled over at the same time, are carried
+     * over as they are.
+     * 
+     * @param now The current time in ms.
+     * @return The accumulator mentioned.
+     */
+    public ActivityAccumulator rollover(final long now) {
+	final ActivityAccumulator next = new ActivityAccumulator(getMemberCount());
+
+	for (int member = 0; member < getMemberCount(); member++) {
+	    final byte current = mCurrentStatus[member];
+
+	    if (current != NO_STATUS) {
+		final long since = Math.max(now, mStatusSince[member]);
+		mStatusTotals[statusSlot(member, current)] += since - mStatusSince[member];
+		mStatusSince[member] = since;
+
+		next.changeStatus(next.addMember(mMemberIds[member]), StatusCodes.getStatus(current), since);
+
+	    }
+	}
+
+	for (int activity = 0; activity < mActivityCount; activity++) {
+	    if (mActivityRunning[activity]) {
+		final long since = Math.max(now, mActivitySince[activity]);
+		mActivityTotals[activity] += since - mActivitySince[activity];
+		mActivitySince[activity] = since;
+
+		next.startActivity(next.addMember(mMemberIds[mActivityMembers[activity]]),
+			mGames.get(mActivityGames[activity]), since);
+
+	    }
+	}
+	return next;
+
+    }
+
+    /**
+     * Starts a period of the given member playing the given game, unless the
+     * game is played already.
+     * 
+     * @param member The dense id of the member.
+     * @param game   The name of the game, not <tt>null</tt>.
+     * @param now    The current time in ms.
+     */
+    public void startActivity(final int member, final String game, final long now) {
+	final int slot = addActivity(member, mGames.intern(game));
+
+	if (!mActivityRunning[slot]) {
+	    mActivityRunning[slot] = true;
+	    mActivitySince[slot] = now;
+	    markActivity(slot);
+
+	}
+    }
+
+    /**
+     * Gets the slot of the given member and status.
+     * 
+     * @param member The dense id of the member.
+     * @param status The code of the status.
+     * @return The slot mentioned.
+     */
+    private static int statusSlot(final int member, final int status) {
+	return member * StatusCodes.COUNT + status;
+
+    }
+
+    /**
+     * Ends the period of the given member playing the given game. Does nothing,
+     * if the game isn't played.
+     * 
+     * @param member The dense id of the member.
+     * @param game   The name of the game, not <tt>null</tt>.
+     * @param now    The current time in ms.
+     */
+    public void stopActivity(final int member, final String game, final long now) {
+	final int id = mGames.lookup(game);
+
+	if (id == StringDictionary.MISSING) {
+	    return;
+
+	}
+	final int slot = mActivitySlots.get(pack(member, id));
+
+	if (slot == LongIntHashMap.MISSING || !mActivityRunning[slot]) {
+	    return;
+
+	}
+	mActivityTotals[slot] += now - mActivitySince[slot];
+	mActivityRunning[slot] = false;
+	markActivity(slot);
+
+    }
+
+    /**
+     * Writes the state of the given activity to the given buffer.
+     * 
+     * @param out  The buffer to write to.
+     * @param slot The slot of the activity.
+     * @return The given buffer, or a larger one if it was full.
+     */
+    private ByteBuffer writeActivity(final ByteBuffer out, final int slot) {
+	final byte[] game = mGames.get(mActivityGames[slot]).getBytes(StandardCharsets.UTF_8);
+	final int length = Math.min(game.length, 0xFFFF);
+	final ByteBuffer target = ensureRemaining(out, 28 + length);
+
+	target.put(ACTIVITY_RECORD).putLong(mMemberIds[mActivityMembers[slot]]);
+	target.putShort((short) length).put(game, 0, length);
+	target.put((byte) (mActivityRunning[slot] ? 1 : 0)).putLong(mActivitySince[slot])
+		.putLong(mActivityTotals[slot]);
+	return target;
+
+    }
+
+    /**
+     * Writes the state of the members and activities changed since the last
+     * call, or of every member and activity, to the given buffer. Every member
+     * and activity is written as a single record, which is read by
+     * {@link ActivityAccumulator#readRecord(ByteBuffer)}. Afterwards no member
+     * and no activity is considered changed.
+     * 
+     * @param out The buffer to write to.
+     * @param all Whether to write every member and activity, or only those
+     *            changed.
+     * @return The given buffer, or a larger one holding the same content, if it
+     *         was full.
+     */
+    public ByteBuffer writeChanges(final ByteBuffer out, final boolean all) {
+	ByteBuffer target = out;
+
+	if (all) {
+	    for (int member = 0; member < getMemberCount(); member++) {
+		target = writeMember(target, member);
+
+	    }
+
+	    for (int slot = 0; slot < mActivityCount; slot++) {
+		target = writeActivity(target, slot);
+
+	    }
+	} else {
+	    for (int i = 0; i < mChangedMemberCount; i++) {
+		target = writeMember(target, mChangedMembers[i]);
+
+	    }
+
+	    for (int i = 0; i < mChangedActivityCount; i++) {
+		target = writeActivity(target, mChangedActivities[i]);
+
+	    }
+	}
+
+	for (int i = 0; i < mChangedMemberCount; i++) {
+	    mMemberChanged[mChangedMembers[i]] = false;
+
+	}
+
+	for (int i = 0; i < mChangedActivityCount; i++) {
+	    mActivityChanged[mChangedActivities[i]] = false;
+
+	}
+	mChangedMemberCount = 0;
+	mChangedActivityCount = 0;
+	return target;
+
+    }
+
+    /**
+     * Writes the state of the given member to the given buffer.
+     * 
+     * @param out    The buffer to write to.
+     * @param member The dense id of the member.
+     * @return The given buffer, or a larger one if it was full.
+     */
+    private ByteBuffer writeMember(final ByteBuffer out, final int member) {
+	final ByteBuffer target = ensureRemaining(out, 19 + 8 * StatusCodes.COUNT);
+
+	target.put(MEMBER_RECORD).putLong(mMemberIds[member]).put(mCurrentStatus[member])
+		.putLong(mStatusSince[member]).put((byte) StatusCodes.COUNT);
+
+	for (int status = 0; status < StatusCodes.COUNT; status++) {
+	    target.putLong(mStatusTotals[statusSlot(member, status)]);
+
+	}
+	return target;
+
+    }
+}
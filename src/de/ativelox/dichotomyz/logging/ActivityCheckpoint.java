@@ -0,0 +1,467 @@
+package de.ativelox.dichotomyz.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Persists the times tracked by an {@link ActivityTracker} for a single guild,
+ * such that they survive a crash of the bot. A checkpoint consists of a
+ * snapshot of the whole state, written through a memory-mapped file, and a
+ * write-ahead log of the members and activities changed since, which is
+ * appended to by every further call of
+ * {@link ActivityCheckpoint#checkpoint(ActivityTracker)}. Thus the cost of a
+ * checkpoint scales with the number of members changed, not with the size of
+ * the guild. Once the log has grown larger than the snapshot, or the tracker
+ * has moved on to a new day, a new snapshot is written and the log is
+ * truncated. Snapshots alternate between two files, and every snapshot and
+ * every batch of the log is protected by a checksum and numbered, such that a
+ * crash while writing loses at most the batch written. This class is
+ * thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityCheckpoint implements Closeable {
+
+    /**
+     * The value every snapshot starts with.
+     */
+    private static final int MAGIC = 0x445A4350;
+
+    /**
+     * The version of the format of the files.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header of a snapshot in bytes, consisting of the magic
+     * value, the version, the day, the number, the time, the length and the
+     * checksum of the snapshot.
+     */
+    private static final int SNAPSHOT_HEADER_SIZE = 40;
+
+    /**
+     * The size of the header of a batch of the log in bytes, consisting of the
+     * number, the time, the length and the checksum of the batch.
+     */
+    private static final int BATCH_HEADER_SIZE = 24;
+
+    /**
+     * The minimum size of the log in bytes, before a new snapshot is written.
+     */
+    private static final long MIN_LOG_SIZE = 1 << 20;
+
+    /**
+     * The initial capacity of the buffer records are written to.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 1 << 12;
+
+    /**
+     * The files the snapshots are written to in turns.
+     */
+    private final Path[] mSnapshots;
+
+    /**
+     * The file of the log.
+     */
+    private final Path mLog;
+
+    /**
+     * The channel the log is appended to, opened with the first batch.
+     */
+    private FileChannel mLogChannel;
+
+    /**
+     * The buffer records are written to, reused for every checkpoint.
+     */
+    private ByteBuffer mBuffer;
+
+    /**
+     * The number of the next snapshot or batch.
+     */
+    private long mSequence;
+
+    /**
+     * The index of the file the next snapshot is written to.
+     */
+    private int mNextSnapshot;
+
+    /**
+     * The size of the last snapshot in bytes.
+     */
+    private long mSnapshotSize;
+
+    /**
+     * The generation of the tracker when the last snapshot was written, or -1 if
+     * the next checkpoint has to write a snapshot.
+     */
+    private int mGeneration;
+
+    /**
+     * Whether this checkpoint has been closed.
+     */
+    private boolean mClosed;
+
+    /**
+     * Creates a new {@link ActivityCheckpoint}. No file is touched until the
+     * checkpoint is restored or written.
+     * 
+     * @param directory The directory the files are stored in.
+     * @param guildId   The id of the guild, naming the files.
+     */
+    public ActivityCheckpoint(final Path directory, final long guildId) {
+	mSnapshots = new Path[] { directory.resolve(guildId + ".0.snapshot"),
+		directory.resolve(guildId + ".1.snapshot") };
+	mLog = directory.resolve(guildId + ".wal");
+	mBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+	mSequence = 0;
+	mNextSnapshot = 0;
+	mSnapshotSize = 0;
+	mGeneration = -1;
+	mClosed = false;
+
+    }
+
+    /**
+     * Appends the changes of the given tracker as a single batch to the log.
+     * 
+     * @param tracker The tracker mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void appendBatch(final ActivityTracker tracker) throws IOException {
+	mBuffer.clear();
+	mBuffer.position(BATCH_HEADER_SIZE);
+	mBuffer = tracker.writeChanges(mBuffer, false);
+
+	final int length = mBuffer.position() - BATCH_HEADER_SIZE;
+	mBuffer.putLong(0, mSequence).putLong(8, tracker.getTime()).putInt(16, length).putInt(20,
+		checksum(mBuffer, BATCH_HEADER_SIZE, length));
+	mBuffer.flip();
+
+	while (mBuffer.hasRemaining()) {
+	    mLogChannel.write(mBuffer);
+
+	}
+	mLogChannel.force(false);
+	mSequence++;
+
+    }
+
+    /**
+     * Writes the changes of the given tracker since the last checkpoint, or a
+     * new snapshot, if due.
+     * 
+     * @param tracker The tracker to persist.
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void checkpoint(final ActivityTracker tracker) throws IOException {
+	if (mClosed) {
+	    return;
+
+	}
+	final int generation = tracker.getGeneration();
+
+	if (mLogChannel == null || generation != mGeneration
+		|| mLogChannel.size() > Math.max(mSnapshotSize, MIN_LOG_SIZE)) {
+	    writeSnapshot(tracker);
+	    mGeneration = generation;
+
+	} else {
+	    appendBatch(tracker);
+
+	}
+    }
+
+    /**
+     * Computes the checksum of the given part of the given buffer.
+     * 
+     * @param buffer The buffer mentioned.
+     * @param offset The offset of the part.
+     * @param length The length of the part.
+     * @return The checksum mentioned.
+     */
+    private static int checksum(final ByteBuffer buffer, final int offset, final int length) {
+	final ByteBuffer part = buffer.duplicate();
+	part.limit(offset + length).position(offset);
+
+	final CRC32 crc = new CRC32();
+	crc.update(part);
+	return (int) crc.getValue();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public synchronized void close() throws IOException {
+	mClosed = true;
+
+	if (mLogChannel != null) {
+	    mLogChannel.close();
+	    mLogChannel = null;
+
+	}
+    }
+
+    /**
+     * Closes this checkpoint and deletes its files, e.g. once the times have
+     * been logged.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void delete() throws IOException {
+	close();
+	deleteFiles();
+
+    }
+
+    /**
+     * Deletes the files of this checkpoint.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    private void deleteFiles() throws IOException {
+	for (final Path snapshot : mSnapshots) {
+	    Files.deleteIfExists(snapshot);
+
+	}
+	Files.deleteIfExists(mLog);
+
+    }
+
+    /**
+     * Gets the day the times of the given tracker belong to, i.e. the day its
+     * last snapshot was taken at. Unlike the current date, this doesn't depend
+     * on whether the day has been rolled over yet.
+     * 
+     * @param tracker The tracker mentioned.
+     * @return The day mentioned, as number of days since the epoch.
+     */
+    private static long getDay(final ActivityTracker tracker) {
+	return Instant.ofEpochMilli(tracker.getStartTime()).atOffset(Timestamp.getZoneOffset()).toLocalDate()
+		.toEpochDay();
+
+    }
+
+    /**
+     * Reads the given file into the buffer reused for every checkpoint, growing
+     * it if necessary. The file is read rather than mapped, since a mapping
+     * can't be released explicitly, and a file still mapped can neither be
+     * deleted nor truncated on some platforms.
+     * 
+     * @param path The file mentioned.
+     * @return The buffer holding the content of the file, or <tt>null</tt> if it
+     *         doesn't exist. Only valid until the buffer is used again.
+     * @throws IOException If an I/O error occurs.
+     */
+    private ByteBuffer read(final Path path) throws IOException {
+	if (!Files.exists(path)) {
+	    return null;
+
+	}
+
+	try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+	    final long size = channel.size();
+
+	    if (size > Integer.MAX_VALUE) {
+		throw new IOException("The checkpoint " + path + " is too large: " + size);
+
+	    }
+
+	    if (mBuffer.capacity() < size) {
+		mBuffer = ByteBuffer.allocate((int) size);
+
+	    }
+	    mBuffer.clear();
+	    mBuffer.limit((int) size);
+
+	    while (mBuffer.hasRemaining()) {
+		if (channel.read(mBuffer) == -1) {
+		    break;
+
+		}
+	    }
+	    mBuffer.flip();
+	    return mBuffer;
+
+	}
+    }
+
+    /**
+     * Restores the times persisted by this checkpoint, adding them to the given
+     * tracker. Periods running when the checkpoint was written last are ended
+     * at that time. Checkpoints of another day than the one of the given tracker
+     * are deleted, since their times have been logged already or belong to a
+     * report of a former day. The next checkpoint writes a new snapshot.
+     * 
+     * @param tracker The tracker mentioned.
+     * @return <tt>true</tt> if times were restored, <tt>false</tt> otherwise.
+     * @throws IOException If an I/O error occurs, or the checkpoint is
+     *                     corrupted.
+     */
+    public synchronized boolean restore(final ActivityTracker tracker) throws IOException {
+	mGeneration = -1;
+
+	int latest = -1;
+	long latestSequence = -1;
+	for (int i = 0; i < mSnapshots.length; i++) {
+	    final ByteBuffer candidate = read(mSnapshots[i]);
+
+	    if (isValidSnapshot(candidate) && candidate.getLong(16) > latestSequence) {
+		latest = i;
+		latestSequence = candidate.getLong(16);
+
+	    }
+	}
+
+	if (latest == -1) {
+	    return false;
+
+	}
+	mNextSnapshot = 1 - latest;
+
+	// the buffer got reused by the candidates read after the latest snapshot.
+	final ByteBuffer snapshot = latest == mSnapshots.length - 1 ? mBuffer : read(mSnapshots[latest]);
+	mSequence = latestSequence + 1;
+
+	if (snapshot.getLong(8) != getDay(tracker)) {
+	    deleteFiles();
+	    return false;
+
+	}
+	final ActivityAccumulator restored = new ActivityAccumulator(0);
+	long time = snapshot.getLong(24);
+
+	try {
+	    readRecords(restored, snapshot, SNAPSHOT_HEADER_SIZE, snapshot.getInt(32));
+
+	    // the snapshot has been read completely, thus the buffer can be reused.
+	    final ByteBuffer log = read(mLog);
+	    int position = 0;
+
+	    // replay every complete batch written after the snapshot.
+	    while (log != null && log.limit() - position >= BATCH_HEADER_SIZE) {
+		final long sequence = log.getLong(position);
+		final int length = log.getInt(position + 16);
+
+		if (length < 0 || length > log.limit() - position - BATCH_HEADER_SIZE
+			|| checksum(log, position + BATCH_HEADER_SIZE, length) != log.getInt(position + 20)) {
+		    break;
+
+		}
+
+		if (sequence >= mSequence) {
+		    readRecords(restored, log, position + BATCH_HEADER_SIZE, length);
+		    time = log.getLong(position + 8);
+		    mSequence = sequence + 1;
+
+		}
+		position += BATCH_HEADER_SIZE + length;
+
+	    }
+	} catch (final BufferUnderflowException | IllegalArgumentException e) {
+	    throw new IOException("The checkpoint " + mLog + " is corrupted: " + e.getMessage(), e);
+
+	}
+	restored.rollover(time);
+	tracker.restore(restored);
+	return true;
+
+    }
+
+    /**
+     * Whether the given buffer holds a valid snapshot or not.
+     * 
+     * @param snapshot The buffer mentioned, may be <tt>null</tt>.
+     * @return <tt>true</tt> if the snapshot is valid, <tt>false</tt> otherwise.
+     */
+    private static boolean isValidSnapshot(final ByteBuffer snapshot) {
+	if (snapshot == null || snapshot.limit() < SNAPSHOT_HEADER_SIZE || snapshot.getInt(0) != MAGIC
+		|| snapshot.getInt(4) != VERSION) {
+	    return false;
+
+	}
+	final int length = snapshot.getInt(32);
+
+	return length >= 0 && length <= snapshot.limit() - SNAPSHOT_HEADER_SIZE
+		&& checksum(snapshot, SNAPSHOT_HEADER_SIZE, length) == snapshot.getInt(36);
+
+    }
+
+    /**
+     * Reads every record in the given part of the given buffer into the given
+     * accumulator.
+     * 
+     * @param target The accumulator mentioned.
+     * @param buffer The buffer mentioned.
+     * @param offset The offset of the part.
+     * @param length The length of the part.
+     */
+    private static void readRecords(final ActivityAccumulator target, final ByteBuffer buffer, final int offset,
+	    final int length) {
+	final ByteBuffer records = buffer.duplicate();
+	records.limit(offset + length).position(offset);
+
+	while (records.hasRemaining()) {
+	    target.readRecord(records);
+
+	}
+    }
+
+    /**
+     * Writes the whole state of the given tracker to the next snapshot file, and
+     * truncates the log afterwards.
+     * 
+     * @param tracker The tracker mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeSnapshot(final ActivityTracker tracker) throws IOException {
+	mBuffer.clear();
+	mBuffer.position(SNAPSHOT_HEADER_SIZE);
+	mBuffer = tracker.writeChanges(mBuffer, true);
+
+	final int length = mBuffer.position() - SNAPSHOT_HEADER_SIZE;
+	mBuffer.putInt(0, MAGIC).putInt(4, VERSION)
+		.putLong(8, getDay(tracker)).putLong(16, mSequence)
+		.putLong(24, tracker.getTime()).putInt(32, length)
+		.putInt(36, checksum(mBuffer, SNAPSHOT_HEADER_SIZE, length));
+	mBuffer.flip();
+
+	Files.createDirectories(mLog.toAbsolutePath().getParent());
+
+	try (final FileChannel channel = FileChannel.open(mSnapshots[mNextSnapshot], StandardOpenOption.CREATE,
+		StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+	    final MappedByteBuffer mapped = channel.map(MapMode.READ_WRITE, 0, mBuffer.remaining());
+	    mapped.put(mBuffer);
+	    mapped.force();
+
+	}
+	mSnapshotSize = mBuffer.limit();
+	mNextSnapshot = 1 - mNextSnapshot;
+	mSequence++;
+
+	if (mLogChannel == null) {
+	    mLogChannel = FileChannel.open(mLog, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		    StandardOpenOption.APPEND);
+
+	}
+	// every batch of the log precedes the snapshot.
+	mLogChannel.truncate(0);
+
+    }
+}
@@ -0,0 +1,279 @@
+package de.ativelox.dichotomyz.logging;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongSupplier;
+
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Tracks the statuses and games of members, which may be changed concurrently
+ * by several threads. Members are split into stripes by their ids, every stripe
+ * has its own {@link ActivityAccumulator} guarded by its own lock, thus changes
+ * of members in different stripes never contend. The current time is read while
+ * holding the lock of the stripe, such that the periods of a member never
+ * overlap. {@link ActivityTracker#snapshot()} swaps the accumulator of every
+ * stripe for a new one, continuing the running periods, and returns the former
+ * accumulators, which are no longer changed and can be read without locking.
+ * The changes since the last call of
+ * {@link ActivityTracker#writeChanges(ByteBuffer, boolean)} can be written for
+ * checkpointing, see {@link ActivityCheckpoint}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityTracker {
+
+    /**
+     * The default number of stripes.
+     */
+    public static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * The locks of every stripe.
+     */
+    private final Object[] mLocks;
+
+    /**
+     * The accumulators of every stripe, each guarded by its lock.
+     */
+    private final ActivityAccumulator[] mStripes;
+
+    /**
+     * The clock providing the current time in ms.
+     */
+    private final LongSupplier mClock;
+
+    /**
+     * The number of snapshots taken so far.
+     */
+    private volatile int mGeneration;
+
+    /**
+     * The time in ms the times tracked since started at, i.e. the time of the
+     * last snapshot, or the creation of this tracker.
+     */
+    private volatile long mStart;
+
+    /**
+     * Creates a new {@link ActivityTracker} with
+     * {@link ActivityTracker#DEFAULT_STRIPES} stripes, using the system clock.
+     * 
+     * @param expectedMembers The number of members this tracker can hold before
+     *                        growing.
+     */
+    public ActivityTracker(final int expectedMembers) {
+	this(expectedMembers, DEFAULT_STRIPES, System::currentTimeMillis);
+
+    }
+
+    /**
+     * Creates a new {@link ActivityTracker}.
+     * 
+     * @param expectedMembers The number of members this tracker can hold before
+     *                        growing.
+     * @param stripes         The number of stripes, must be a power of two.
+     * @param clock           The clock providing the current time in ms, which
+     *                        must never go backwards.
+     */
+    public ActivityTracker(final int expectedMembers, final int stripes, final LongSupplier clock) {
+	if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+	    throw new IllegalArgumentException("The number of stripes must be a power of two: " + stripes);
+
+	}
+	mLocks = new Object[stripes];
+	mStripes = new ActivityAccumulator[stripes];
+	mClock = clock;
+	mGeneration = 0;
+	mStart = clock.getAsLong();
+
+	for (int i = 0; i < stripes; i++) {
+	    mLocks[i] = new Object();
+	    mStripes[i] = new ActivityAccumulator(expectedMembers / stripes);
+
+	}
+    }
+
+    /**
+     * Changes the status of the given member.
+     * 
+     * @param memberId The id of the member.
+     * @param status   The new status of the member.
+     */
+    public void changeStatus(final long memberId, final OnlineStatus status) {
+	final int stripe = stripe(memberId);
+
+	synchronized (mLocks[stripe]) {
+	    final ActivityAccumulator accumulator = mStripes[stripe];
+	    accumulator.changeStatus(accumulator.addMember(memberId), status, mClock.getAsLong());
+
+	}
+    }
+
+    /**
+     * Ends every running period, and starts tracking anew, continuing the
+     * running periods. Every stripe is cut at the same time, read once from the
+     * clock. Stripes are swapped one after another, every member is thus
+     * contained in exactly one of the snapshots taken.
+     * 
+     * @return The accumulators of every stripe up to now, which are not changed
+     *         anymore.
+     */
+    public synchronized ActivityAccumulator[] snapshot() {
+	final ActivityAccumulator[] snapshots = new ActivityAccumulator[mStripes.length];
+	final long now = mClock.getAsLong();
+
+	for (int stripe = 0; stripe < mStripes.length; stripe++) {
+	    synchronized (mLocks[stripe]) {
+		snapshots[stripe] = mStripes[stripe];
+		mStripes[stripe] = snapshots[stripe].rollover(now);
+
+	    }
+	}
+	mStart = now;
+	mGeneration++;
+	return snapshots;
+
+    }
+
+    /**
+     * Gets the number of snapshots taken so far, which tells whether the
+     * accumulators have been swapped since the changes were written last.
+     * 
+     * @return The number mentioned.
+     */
+    public int getGeneration() {
+	return mGeneration;
+
+    }
+
+    /**
+     * Gets the time the times tracked since started at, i.e. the time of the
+     * last snapshot, or the creation of this tracker.
+     * 
+     * @return The time in ms.
+     */
+    public long getStartTime() {
+	return mStart;
+
+    }
+
+    /**
+     * Gets the current time of the clock of this tracker.
+     * 
+     * @return The time in ms.
+     */
+    public long getTime() {
+	return mClock.getAsLong();
+
+    }
+
+    /**
+     * Adds the times accumulated by the given accumulator, e.g. restored from a
+     * checkpoint, to the times of this tracker. Periods still running in the
+     * given accumulator are ignored.
+     * 
+     * @param restored The accumulator mentioned, which mustn't be changed
+     *                 concurrently.
+     */
+    public void restore(final ActivityAccumulator restored) {
+	for (int member = 0; member < restored.getMemberCount(); member++) {
+	    final long memberId = restored.getMemberId(member);
+	    final int stripe = stripe(memberId);
+
+	    synchronized (mLocks[stripe]) {
+		final ActivityAccumulator accumulator = mStripes[stripe];
+		final int target = accumulator.addMember(memberId);
+
+		for (final OnlineStatus status : OnlineStatus.values()) {
+		    final long time = restored.getStatusTime(member, status);
+
+		    if (time > 0) {
+			accumulator.addStatusTime(target, status, time);
+
+		    }
+		}
+	    }
+	}
+
+	for (int activity = 0; activity < restored.getActivityCount(); activity++) {
+	    final long memberId = restored.getMemberId(restored.getActivityMember(activity));
+	    final int stripe = stripe(memberId);
+
+	    synchronized (mLocks[stripe]) {
+		final ActivityAccumulator accumulator = mStripes[stripe];
+		accumulator.addActivityTime(accumulator.addMember(memberId), restored.getActivityGame(activity),
+			restored.getActivityTime(activity));
+
+	    }
+	}
+    }
+
+    /**
+     * Starts a period of the given member playing the given game.
+     * 
+     * @param memberId The id of the member.
+     * @param game     The name of the game, not <tt>null</tt>.
+     */
+    public void startActivity(final long memberId, final String game) {
+	final int stripe = stripe(memberId);
+
+	synchronized (mLocks[stripe]) {
+	    final ActivityAccumulator accumulator = mStripes[stripe];
+	    accumulator.startActivity(accumulator.addMember(memberId), game, mClock.getAsLong());
+
+	}
+    }
+
+    /**
+     * Ends the period of the given member playing the given game.
+     * 
+     * @param memberId The id of the member.
+     * @param game     The name of the game, not <tt>null</tt>.
+     */
+    public void stopActivity(final long memberId, final String game) {
+	final int stripe = stripe(memberId);
+
+	synchronized (mLocks[stripe]) {
+	    final ActivityAccumulator accumulator = mStripes[stripe];
+	    accumulator.stopActivity(accumulator.addMember(memberId), game, mClock.getAsLong());
+
+	}
+    }
+
+    /**
+     * Writes the changes of every stripe since the last call, or the whole state
+     * of every stripe, to the given buffer, see
+     * {@link ActivityAccumulator#writeChanges(ByteBuffer, boolean)}. Stripes are
+     * written one after another, each while holding its lock.
+     * 
+     * @param out The buffer to write to.
+     * @param all Whether to write the whole state, or only the changes.
+     * @return The given buffer, or a larger one holding the same content, if it
+     *         was full.
+     */
+    public synchronized ByteBuffer writeChanges(final ByteBuffer out, final boolean all) {
+	ByteBuffer target = out;
+
+	for (int stripe = 0; stripe < mStripes.length; stripe++) {
+	    synchronized (mLocks[stripe]) {
+		target = mStripes[stripe].writeChanges(target, all);
+
+	    }
+	}
+	return target;
+
+    }
+
+    /**
+     * Gets the stripe of the given member, spreading snowflake ids, which only
+     * differ in their lower bits, evenly.
+     * 
+     * @param memberId The id of the member.
+     * @return The index of the stripe.
+     */
+    private int stripe(final long memberId) {
+	final long h = memberId * 0x9E3779B97F4A7C15L;
+	return (int) (h >>> 32) & (mStripes.length - 1);
+
+    }
+}
@@ -0,0 +1,488 @@
+package de.ativelox.dichotomyz.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import de.ativelox.dichotomyz.metrics.Counter;
+import de.ativelox.dichotomyz.utils.BoundedMPMCQueue;
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Decorates an {@link ILogger}, such that logging never waits for the
+ * underlying logger, e.g. for an upload to a FTP server. Logs are put onto a
+ * bounded, lock-free queue and passed to the underlying logger one by one by a
+ * dedicated writer thread, along with the time they were logged at, see
+ * {@link ILogger#log(ELogType, String, String)}. The underlying logger gets
+ * flushed after every batch taken from the queue, e.g. to commit the batch at
+ * once. What happens if the queue is full is
+ * decided by the given {@link EBackpressurePolicy}. The depth of the queue,
+ * the number of dropped logs and the time from logging a message until the
+ * underlying logger finished logging it are available as metrics.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class AsyncLogger implements ILogger {
+
+    /**
+     * The default number of logs the queue is able to hold.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The maximum number of logs taken from the queue at once.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * The time in ms the writer thread waits if the queue is empty.
+     */
+    private static final long IDLE_WAIT_MS = 10;
+
+    /**
+     * The time in ms a waiting thread waits before checking the queue again.
+     */
+    private static final long BLOCK_WAIT_MS = 1;
+
+    /**
+     * The number of logs the underlying logger failed to log.
+     */
+    private static final Counter FAILURES = MeteredLogger.getFailures("async");
+
+    /**
+     * A single log put onto the queue.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class LogRecord {
+
+	/**
+	 * The type of the log.
+	 */
+	private final ELogType mType;
+
+	/**
+	 * The message to log.
+	 */
+	private final String mMessage;
+
+	/**
+	 * The value of {@link System#nanoTime()} when the message was logged.
+	 */
+	private final long mTimestamp;
+
+	/**
+	 * The time the message was logged at, in the format HH:mm:ss.
+	 */
+	private final String mTime;
+
+	/**
+	 * Creates a new {@link LogRecord}.
+	 * 
+	 * @param type      The type of the log.
+	 * @param message   The message to log.
+	 * @param timestamp The value of {@link System#nanoTime()} when the message
+	 *                  was logged.
+	 * @param time      The time the message was logged at, in the format
+	 *                  HH:mm:ss.
+	 */
+	private LogRecord(final ELogType type, final String message, final long timestamp, final String time) {
+	    mType = type;
+	    mMessage = message;
+	    mTimestamp = timestamp;
+	    mTime = time;
+
+	}
+    }
+
+    /**
+     * The underlying logger.
+     */
+    private final ILogger mDelegate;
+
+    /**
+     * The queue of logs not yet passed to the underlying logger.
+     */
+    private final BoundedMPMCQueue<LogRecord> mQueue;
+
+    /**
+     * The way logs are handled while the queue is full.
+     */
+    private final EBackpressurePolicy mPolicy;
+
+    /**
+     * The thread passing the queued logs to the underlying logger.
+     */
+    private final Thread mWriter;
+
+    /**
+     * The logs taken from the queue, only accessed by the writer thread.
+     */
+    private final LogRecord[] mBatch;
+
+    /**
+     * Whether the writer thread should keep on waiting for logs or not.
+     */
+    private volatile boolean mRunning;
+
+    /**
+     * Whether the writer thread has terminated, after which logs queued
+     * concurrently to {@link AsyncLogger#close()} are written by the thread
+     * logging them.
+     */
+    private volatile boolean mClosed;
+
+    /**
+     * The number of logs put onto the queue.
+     */
+    private final AtomicLong mEnqueued;
+
+    /**
+     * The number of logs taken from the queue, either logged or dropped.
+     */
+    private final AtomicLong mCompleted;
+
+    /**
+     * The number of logs passed to the underlying logger.
+     */
+    private final AtomicLong mLogged;
+
+    /**
+     * The number of logs dropped, indexed by the ordinal of their type.
+     */
+    private final AtomicLongArray mDropped;
+
+    /**
+     * The sum of the latencies of every log passed to the underlying logger in ns.
+     */
+    private final AtomicLong mLatencySum;
+
+    /**
+     * The maximum latency of a log passed to the underlying logger in ns.
+     */
+    private final AtomicLong mLatencyMax;
+
+    /**
+     * Creates a new {@link AsyncLogger} and starts its writer thread.
+     * 
+     * @param delegate The underlying logger, only called by the writer thread.
+     * @param capacity The number of logs the queue is able to hold, rounded up
+     *                 to the next power of two.
+     * @param policy   The way logs are handled while the queue is full.
+     */
+    public AsyncLogger(final ILogger delegate, final int capacity, final EBackpressurePolicy policy) {
+	mDelegate = delegate;
+	mQueue = new BoundedMPMCQueue<>(capacity);
+	mPolicy = policy;
+
+	mBatch = new LogRecord[BATCH_SIZE];
+
+	mEnqueued = new AtomicLong();
+	mCompleted = new AtomicLong();
+	mLogged = new AtomicLong();
+	mDropped = new AtomicLongArray(ELogType.values().length);
+	mLatencySum = new AtomicLong();
+	mLatencyMax = new AtomicLong();
+
+	mRunning = true;
+	mClosed = false;
+	mWriter = new Thread(this::drain, "AsyncLogger");
+	mWriter.setDaemon(true);
+	mWriter.start();
+
+    }
+
+    /**
+     * Stops the writer thread after every queued log got passed to the
+     * underlying logger, and closes the underlying logger. Logs logged
+     * afterwards are passed to the underlying logger directly.
+     */
+    @Override
+    public void close() {
+	mRunning = false;
+
+	try {
+	    mWriter.join();
+
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+
+	}
+
+	// logs which passed the check of mRunning while the writer finished are written here.
+	synchronized (this) {
+	    mClosed = true;
+	    writeRemaining();
+
+	}
+	mDelegate.close();
+
+    }
+
+    /**
+     * Passes the queued logs to the underlying logger, until stopped by
+     * {@link AsyncLogger#close()}.
+     */
+    private void drain() {
+	while (mRunning) {
+	    if (writeBatch() == 0) {
+		LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT_MS));
+
+	    }
+	}
+
+	writeRemaining();
+
+    }
+
+    /**
+     * Counts the given log as dropped.
+     * 
+     * @param type The type of the log.
+     */
+    private void drop(final ELogType type) {
+	mDropped.incrementAndGet(type.ordinal());
+
+    }
+
+    /**
+     * Waits until every log queued before calling this method got passed to the
+     * underlying logger or dropped.
+     */
+    @Override
+    public void flush() {
+	final long target = mEnqueued.get();
+
+	while (mCompleted.get() < target && mWriter.isAlive() && Thread.currentThread() != mWriter) {
+	    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(BLOCK_WAIT_MS));
+
+	}
+    }
+
+    /**
+     * Gets the average time from logging a message until the underlying logger
+     * finished logging it.
+     * 
+     * @return The time mentioned in ns, or 0 if nothing got logged yet.
+     */
+    public long getAverageLatencyNanos() {
+	final long logged = mLogged.get();
+	return logged == 0 ? 0 : mLatencySum.get() / logged;
+
+    }
+
+    /**
+     * Gets the underlying logger.
+     * 
+     * @return The logger mentioned.
+     */
+    public ILogger getDelegate() {
+	return mDelegate;
+
+    }
+
+    /**
+     * Gets the number of dropped logs of the given type.
+     * 
+     * @param type The type mentioned.
+     * @return The number mentioned.
+     */
+    public long getDroppedCount(final ELogType type) {
+	return mDropped.get(type.ordinal());
+
+    }
+
+    /**
+     * Gets the number of dropped logs.
+     * 
+     * @return The number mentioned.
+     */
+    public long getDroppedCount() {
+	long dropped = 0;
+
+	for (int i = 0; i < mDropped.length(); i++) {
+	    dropped += mDropped.get(i);
+
+	}
+	return dropped;
+
+    }
+
+    /**
+     * Gets the number of logs passed to the underlying logger.
+     * 
+     * @return The number mentioned.
+     */
+    public long getLoggedCount() {
+	return mLogged.get();
+
+    }
+
+    /**
+     * Gets the maximum time from logging a message until the underlying logger
+     * finished logging it.
+     * 
+     * @return The time mentioned in ns.
+     */
+    public long getMaxLatencyNanos() {
+	return mLatencyMax.get();
+
+    }
+
+    /**
+     * Gets the number of logs currently queued.
+     * 
+     * @return The number mentioned.
+     */
+    public int getQueueDepth() {
+	return mQueue.size();
+
+    }
+
+    /**
+     * Gets the depth of the queue from which on logs of the given type are
+     * dropped, if the policy is {@link EBackpressurePolicy#DROP_BY_TYPE}.
+     * 
+     * @param type The type of the log.
+     * @return The depth mentioned, or -1 if logs of the type are only dropped if
+     *         the queue is full.
+     */
+    private int getShedDepth(final ELogType type) {
+	switch (type) {
+	case DEBUG:
+	    return mQueue.getCapacity() / 2;
+
+	case INFO:
+	case PM:
+	    return mQueue.getCapacity() / 4 * 3;
+
+	default:
+	    return -1;
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+     * ELogType, java.lang.String)
+     */
+    @Override
+    public void log(final ELogType type, final String message) {
+	if (!mRunning) {
+	    mDelegate.log(type, message);
+	    return;
+
+	}
+
+	if (mPolicy == EBackpressurePolicy.DROP_BY_TYPE) {
+	    final int shedDepth = getShedDepth(type);
+
+	    if (shedDepth >= 0 && mQueue.size() >= shedDepth) {
+		drop(type);
+		return;
+
+	    }
+	}
+	final LogRecord record = new LogRecord(type, message, System.nanoTime(), Timestamp.getCurrentTime());
+
+	while (!mQueue.offer(record)) {
+	    if (mPolicy == EBackpressurePolicy.BLOCK) {
+		// the writer thread must never wait for itself.
+		if (!mRunning || Thread.currentThread() == mWriter) {
+		    drop(type);
+		    return;
+
+		}
+		LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(BLOCK_WAIT_MS));
+
+	    } else {
+		final LogRecord oldest = mQueue.poll();
+
+		if (oldest != null) {
+		    drop(oldest.mType);
+		    mCompleted.incrementAndGet();
+
+		}
+	    }
+	}
+	mEnqueued.incrementAndGet();
+
+	if (mClosed) {
+	    synchronized (this) {
+		writeRemaining();
+
+	    }
+	}
+    }
+
+    /**
+     * Takes up to {@link AsyncLogger#BATCH_SIZE} logs from the queue and passes
+     * them to the underlying logger one by one. Only called by the writer thread,
+     * or by threads holding the lock of this logger once the writer thread has
+     * terminated.
+     * 
+     * @return The number of logs taken from the queue.
+     */
+    private int writeBatch() {
+	int count = 0;
+	LogRecord record;
+
+	while (count < BATCH_SIZE && (record = mQueue.poll()) != null) {
+	    mBatch[count++] = record;
+
+	}
+
+	for (int i = 0; i < count; i++) {
+	    final LogRecord current = mBatch[i];
+
+	    try {
+		mDelegate.log(current.mType, current.mMessage, current.mTime);
+
+	    } catch (final RuntimeException e) {
+		FAILURES.increment();
+		e.printStackTrace();
+
+	    }
+	    final long latency = System.nanoTime() - current.mTimestamp;
+	    mLatencySum.addAndGet(latency);
+
+	    long max = mLatencyMax.get();
+	    while (latency > max && !mLatencyMax.compareAndSet(max, latency)) {
+		max = mLatencyMax.get();
+
+	    }
+	    mBatch[i] = null;
+
+	}
+	mLogged.addAndGet(count);
+
+	if (count > 0) {
+	    try {
+		mDelegate.flush();
+
+	    } catch (final RuntimeException e) {
+		e.printStackTrace();
+
+	    }
+	    mCompleted.addAndGet(count);
+
+	}
+	return count;
+
+    }
+
+    /**
+     * Passes every log currently queued to the underlying logger.
+     */
+    private void writeRemaining() {
+	while (writeBatch() > 0) {
+	    // write the remaining logs.
+	}
+    }
+}
@@ -1,14 +1,10 @@
 package de.ativelox.dichotomyz.logging;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.io.IOException;
 
-import de.ativelox.dichotomyz.utils.Timestamp;
-import de.ativelox.dichotomyz.utils.TimestampedEntry;
 import de.ativelox.dichotomyz.utils.UserUtils;
 import net.dv8tion.jda.core.OnlineStatus;
+import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.Member;
 
 /**
@@ -17,7 +13,14 @@ import net.dv8tion.jda.core.entities.Member;
  * user to change its online-status and then proceeds to log the time the user
  * had the former status. All logging should be passed to this formatter, which
  * in turn then forwards its buffered logs to the underlying {@link ILogger} by
- * calling {@link BufferedLogFormatter#log}.
+ * calling {@link BufferedLogFormatter#log}. The times are accumulated by an
+ * {@link ActivityTracker}, thus changes may be added by several threads at
+ * once, and changes of members and games already known don't allocate. Users
+ * are identified by their ids, and their display names are only resolved when
+ * logging, thus renaming doesn't split their times and users sharing a name are
+ * kept apart. Every formatter tracks the members of a single guild, see
+ * {@link FormatterShards}, and may persist the tracked times to an
+ * {@link ActivityCheckpoint}.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
@@ -25,177 +28,279 @@ import net.dv8tion.jda.core.entities.Member;
 public class BufferedLogFormatter {
 
     /**
-     * A mapping from user names to each of their online statuses associated with
-     * their current active time, which is stored in its respective
-     * {@link TimestampedEntry#getEntry()}.
+     * Every online status.
      */
-    private final Map<String, Map<OnlineStatus, TimestampedEntry<Long>>> mStatusMap;
+    private static final OnlineStatus[] STATUSES = OnlineStatus.values();
 
     /**
-     * A mapping from user names to each of their played games associated with their
-     * current active time, which is stored in its respective
-     * {@link TimestampedEntry#getEntry()}.
+     * The writer of the reports of every thread, which is reused for every guild
+     * logged by the thread.
      */
-    private final Map<String, Map<String, TimestampedEntry<Long>>> mActivityMap;
+    private static final ThreadLocal<ReportWriter> WRITERS = ThreadLocal
+	    .withInitial(() -> new ReportWriter(ReportWriter.DEFAULT_CHUNK_SIZE));
 
     /**
-     * A list of all the members in the guild.
+     * The tracker of the time of every user in each of their online statuses and
+     * played games.
      */
-    private List<Member> mMembers;
+    private final ActivityTracker mTracker;
+
+    /**
+     * The guild tracked.
+     */
+    private volatile Guild mGuild;
+
+    /**
+     * The checkpoint the tracked times are persisted to, or <tt>null</tt> if
+     * they aren't persisted.
+     */
+    private volatile ActivityCheckpoint mCheckpoint;
 
     /**
      * Creates a new {@link BufferedLogFormatter}.
      */
     public BufferedLogFormatter() {
-	mStatusMap = new HashMap<>();
-	mActivityMap = new HashMap<>();
+	mTracker = new ActivityTracker(0);
 
     }
 
     /**
      * Adds a change in the activity of a user to this buffer.
      * 
-     * @param affectedName The name of the affected user, not <tt>null</tt>
-     * @param oldGameName  The name of the game this user has stopped playing, if
-     *                     <tt>null</tt> the user has started playing a game.
-     * @param newGameName  The name of the game this user has started playing, if
-     *                     <tt>null</tt> the user has stopped playing a game.
+     * @param affectedId  The id of the affected user.
+     * @param oldGameName The name of the game this user has stopped playing, if
+     *                    <tt>null</tt> the user has started playing a game.
+     * @param newGameName The name of the game this user has started playing, if
+     *                    <tt>null</tt> the user has stopped playing a game.
      */
-    public void addActivityChange(final String affectedName, final String oldGameName, final String newGameName) {
-	final Map<String, TimestampedEntry<Long>> toUpdate = mActivityMap.get(affectedName);
-
-	if (oldGameName == null && newGameName == null) {
+    public void addActivityChange(final long affectedId, final String oldGameName, final String newGameName) {
+	if (oldGameName != null && oldGameName.equals(newGameName)) {
 	    return;
-	}
 
-	if (oldGameName == null) {
-	    // user has started playing newGameName
-
-	    if (toUpdate.get(newGameName) == null) {
-		// the game was not played before in this session.
-		toUpdate.put(newGameName, new TimestampedEntry<Long>(0L));
+	}
 
-	    }
-	    // update the current associated timestamp, so it starts with the game start.
-	    final TimestampedEntry<Long> oldEntry = toUpdate.get(newGameName);
-	    toUpdate.put(newGameName, new TimestampedEntry<Long>(oldEntry.getEntry()));
+	if (oldGameName != null) {
+	    // user has stopped playing oldGameName
+	    mTracker.stopActivity(affectedId, oldGameName);
 
-	} else if (oldGameName.equals(newGameName)) {
-	    return;
+	}
 
-	} else if (newGameName == null) {
-	    // user has stopped playing oldGameName
-	    final TimestampedEntry<Long> oldEntry = toUpdate.get(oldGameName);
-	    toUpdate.put(oldGameName, new TimestampedEntry<Long>(oldEntry.getEntry() + oldEntry.getDifference()));
+	if (newGameName != null) {
+	    // user has started playing newGameName, continuing the time already played.
+	    mTracker.startActivity(affectedId, newGameName);
 
 	}
+    }
+
+    /**
+     * Adds a change in the online status of a user to this buffer.
+     * 
+     * @param affectedId The id of the affected user.
+     * @param newStatus  The new online status of the user, not <tt>null</tt>
+     */
+    public void addStatusChange(final long affectedId, final OnlineStatus newStatus) {
+	mTracker.changeStatus(affectedId, newStatus);
 
     }
 
     /**
-     * Updates the date of the underlying logger, if supported.
+     * Persists the times tracked so far to the checkpoint of this formatter, if
+     * any, see {@link BufferedLogFormatter#restore(ActivityCheckpoint)}.
      */
-    public void updateDate() {
-	ILogger logger = Logger.Get();
-	if (logger instanceof CombinedLogger) {
-	    ((CombinedLogger) logger).updateDate();
+    public void checkpoint() {
+	final ActivityCheckpoint checkpoint = mCheckpoint;
+
+	if (checkpoint == null) {
+	    return;
+
+	}
+
+	try {
+	    checkpoint.checkpoint(mTracker);
+
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING,
+		    "Encountered an IO Exception, when checkpointing " + mGuild.getName() + ", " + e.getMessage());
+
 	}
     }
 
     /**
-     * Adds a change in the online status of a user to this buffer.
+     * Stops persisting the tracked times, deleting the checkpoint of this
+     * formatter if desired.
      * 
-     * @param affectedName The name of the affected user, not <tt>null</tt>
-     * @param oldStatus    The old online status of the user, not <tt>null</tt>.
-     * @param newStatus    The new online status of the user, not <tt>null</tt>
+     * @param delete Whether to delete the checkpoint, e.g. since the times have
+     *               been logged.
      */
-    public void addStatusChange(final String affectedName, final OnlineStatus oldStatus, final OnlineStatus newStatus) {
-	final Map<OnlineStatus, TimestampedEntry<Long>> toUpdate = mStatusMap.get(affectedName);
+    public void closeCheckpoint(final boolean delete) {
+	final ActivityCheckpoint checkpoint = mCheckpoint;
 
-	if (oldStatus.equals(OnlineStatus.UNKNOWN)) {
-	    toUpdate.put(newStatus, new TimestampedEntry<Long>(0L));
+	if (checkpoint == null) {
 	    return;
 
 	}
+	mCheckpoint = null;
 
-	// here we assume that the toUpdate map has an entry for every OnlineStatus.
-	// This is done by this class' init method.
+	try {
+	    if (delete) {
+		checkpoint.delete();
 
-	// this method got called with two valid parameters, thus the user status has
-	// changed -> update values.
+	    } else {
+		checkpoint.close();
 
-	final TimestampedEntry<Long> oldStatusTimestamp = toUpdate.get(oldStatus);
-	toUpdate.put(oldStatus,
-		new TimestampedEntry<Long>(oldStatusTimestamp.getDifference() + oldStatusTimestamp.getEntry()));
+	    }
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when closing the checkpoint of "
+		    + mGuild.getName() + ", " + e.getMessage());
 
-	toUpdate.put(newStatus, new TimestampedEntry<Long>(toUpdate.get(newStatus).getEntry()));
+	}
+    }
+
+    /**
+     * Gets the guild tracked by this formatter.
+     * 
+     * @return The guild mentioned, or <tt>null</tt> if this formatter wasn't
+     *         initialized yet.
+     */
+    public Guild getGuild() {
+	return mGuild;
 
     }
 
     /**
-     * Initializes this buffer, by passing a list of every member in the guild and
-     * internally fetching their initial online statuses and their initial activity.
+     * Initializes this buffer, by fetching every member in the given guild and
+     * their initial online statuses and their initial activity.
      * 
-     * @param members A list of all the members in the guild.
+     * @param guild The guild to track.
      */
-    public void init(final List<Member> members) {
-	this.mMembers = members;
+    public void init(final Guild guild) {
+	mGuild = guild;
 
-	for (final Member member : members) {
-	    mActivityMap.put(member.getEffectiveName(), new HashMap<>());
-	    mStatusMap.put(member.getEffectiveName(), new HashMap<>());
+	for (final Member member : guild.getMembers()) {
+	    final long id = member.getUser().getIdLong();
 
-	    this.addActivityChange(member.getEffectiveName(), null, UserUtils.getUniformGameName(member.getGame()));
+	    this.addStatusChange(id, member.getOnlineStatus());
+	    this.addActivityChange(id, null, UserUtils.getUniformGameName(member.getGame()));
 
-	    // set values for every online status.
-	    for (final OnlineStatus status : OnlineStatus.values()) {
-		this.addStatusChange(member.getEffectiveName(), OnlineStatus.UNKNOWN, status);
+	}
+    }
+
+    /**
+     * Appends the current display name of the given user to the given writer.
+     * 
+     * @param writer The writer to append to.
+     * @param guild  The guild tracked.
+     * @param id     The id of the user.
+     * @return The given writer.
+     */
+    private static ReportWriter appendName(final ReportWriter writer, final Guild guild, final long id) {
+	final Member member = guild.getMemberById(id);
+
+	if (member == null) {
+	    // the user isn't in the guild anymore.
+	    return writer.append(id);
 
-	    }
 	}
+	return writer.append(member.getEffectiveName());
+
     }
 
     /**
      * Logs everything that has been added to this buffer using the underlying
-     * {@link ILogger} from {@link Logger#Get()}.
+     * {@link ILogger} from {@link Logger#Get()}, see
+     * {@link BufferedLogFormatter#log(ILogger)}.
      */
     public void log() {
+	log(Logger.Get());
 
-	final StringBuilder activityLog = new StringBuilder();
-	final StringBuilder statusLog = new StringBuilder();
-
-	// make sure to log the current ongoing statuses and activities aswell.
-	for (final Member member : mMembers) {
-	    this.addActivityChange(member.getEffectiveName(), UserUtils.getUniformGameName(member.getGame()), null);
-	    this.addStatusChange(member.getEffectiveName(), member.getOnlineStatus(), OnlineStatus.UNKNOWN);
+    }
 
-	}
+    /**
+     * Logs everything that has been added to this buffer using the given
+     * {@link ILogger}. The reports are streamed in chunks by a
+     * {@link ReportWriter} reused by the calling thread.
+     * 
+     * @param logger The logger to log the reports to.
+     */
+    public void log(final ILogger logger) {
+	final Guild guild = mGuild;
+	final String header = "Guild: " + guild.getName();
+	final ActivityAccumulator[] snapshots = mTracker.snapshot();
+	final ReportWriter writer = WRITERS.get();
 
 	// generate the logs for the activity.
-	for (final Entry<String, Map<String, TimestampedEntry<Long>>> entry : this.mActivityMap.entrySet()) {
-	    for (final Entry<String, TimestampedEntry<Long>> secondEntry : entry.getValue().entrySet()) {
-		activityLog.append(entry.getKey() + " played " + secondEntry.getKey() + " for "
-			+ Timestamp.msToReadable(secondEntry.getValue().getEntry()) + "\r\n");
+	writer.begin(logger, ELogType.ACTIVITY, header);
 
-	    }
+	for (final ActivityAccumulator snapshot : snapshots) {
+	    for (int activity = 0; activity < snapshot.getActivityCount(); activity++) {
+		final long time = snapshot.getActivityTime(activity);
 
+		if (time > 0) {
+		    appendName(writer, guild, snapshot.getMemberId(snapshot.getActivityMember(activity)))
+			    .append(" played ").append(snapshot.getActivityGame(activity)).append(" for ")
+			    .appendDuration(time).endLine();
+		}
+	    }
 	}
+	writer.finish();
 
 	// generate the logs for the statuses.
-	for (final Entry<String, Map<OnlineStatus, TimestampedEntry<Long>>> entry : this.mStatusMap.entrySet()) {
-	    for (final Entry<OnlineStatus, TimestampedEntry<Long>> secondEntry : entry.getValue().entrySet()) {
-		if (secondEntry.getValue().getEntry() > 0) {
-		    statusLog.append(entry.getKey() + " was " + secondEntry.getKey() + " for "
-			    + Timestamp.msToReadable(secondEntry.getValue().getEntry()) + "\r\n");
+	writer.begin(logger, ELogType.STATUS, header);
+
+	for (final ActivityAccumulator snapshot : snapshots) {
+	    for (int member = 0; member < snapshot.getMemberCount(); member++) {
+		for (final OnlineStatus status : STATUSES) {
+		    final long time = snapshot.getStatusTime(member, status);
+
+		    if (time > 0) {
+			appendName(writer, guild, snapshot.getMemberId(member)).append(" was ")
+				.append(status.toString()).append(" for ").appendDuration(time).endLine();
+		    }
 		}
 	    }
+	}
+	writer.finish();
+
+    }
+
+    /**
+     * Restores the times persisted by the given checkpoint, e.g. after a crash,
+     * and persists the times tracked to it from now on, whenever
+     * {@link BufferedLogFormatter#checkpoint()} is called. Should be called
+     * right after {@link BufferedLogFormatter#init(Guild)}.
+     * 
+     * @param checkpoint The checkpoint mentioned.
+     */
+    public void restore(final ActivityCheckpoint checkpoint) {
+	try {
+	    if (checkpoint.restore(mTracker)) {
+		Logger.Get().log(ELogType.INFO, "Restored the activity of " + mGuild.getName() + " of today.");
+
+	    }
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when restoring the checkpoint of "
+		    + mGuild.getName() + ", " + e.getMessage());
 
 	}
+	mCheckpoint = checkpoint;
 
-	final ILogger logger = Logger.Get();
+    }
 
-	logger.log(ELogType.ACTIVITY, activityLog.toString());
-	logger.log(ELogType.STATUS, statusLog.toString());
+    /**
+     * Updates the date of the underlying logger, if supported. Messages still
+     * queued are logged with the former date first.
+     */
+    public static void updateDate() {
+	ILogger logger = Logger.Get();
+	logger.flush();
 
+	if (logger instanceof AsyncLogger) {
+	    logger = ((AsyncLogger) logger).getDelegate();
+
+	}
+
+	if (logger instanceof CombinedLogger) {
+	    ((CombinedLogger) logger).updateDate();
+	}
     }
 }
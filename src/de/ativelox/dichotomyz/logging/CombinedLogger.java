@@ -33,15 +33,53 @@ public class CombinedLogger implements ILogger {
 
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logging.ILogger#close()
+     */
+    @Override
+    public void close() {
+	mFirst.close();
+	mSecond.close();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logging.ILogger#flush()
+     */
+    @Override
+    public void flush() {
+	mFirst.flush();
+	mSecond.flush();
+
+    }
+
     /**
      * Updates the date of the underlying loggers, if supported.
      */
     public void updateDate() {
-	if (mFirst instanceof FTPLogger) {
-	    ((FTPLogger) mFirst).updateDate();
+	updateDate(mFirst);
+	updateDate(mSecond);
+
+    }
+
+    /**
+     * Updates the date of the given logger, if supported.
+     * 
+     * @param logger The logger mentioned.
+     */
+    private static void updateDate(final ILogger logger) {
+	if (logger instanceof MeteredLogger) {
+	    updateDate(((MeteredLogger) logger).getDelegate());
 
-	} else if (mSecond instanceof FTPLogger) {
-	    ((FTPLogger) mSecond).updateDate();
+	} else if (logger instanceof FTPLogger) {
+	    ((FTPLogger) logger).updateDate();
+
+	} else if (logger instanceof LocalFileLogger) {
+	    ((LocalFileLogger) logger).updateDate();
 
 	}
     }
@@ -55,36 +93,61 @@ public class CombinedLogger implements ILogger {
      */
     @Override
     public void log(ELogType type, String message) {
+	final ILogger logger = getLogger(type);
+
+	if (logger != null) {
+	    logger.log(type, message);
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+     * ELogType, java.lang.String, java.lang.String)
+     */
+    @Override
+    public void log(final ELogType type, final String message, final String time) {
+	final ILogger logger = getLogger(type);
+
+	if (logger != null) {
+	    logger.log(type, message, time);
+
+	}
+    }
+
+    /**
+     * Gets the logger logs of the given type are passed to.
+     * 
+     * @param type The type of the log.
+     * @return The logger mentioned, or <tt>null</tt> if there's none.
+     */
+    private ILogger getLogger(final ELogType type) {
 	switch (type) {
 	case ACTIVITY:
-	    mSecond.log(type, message);
-	    break;
+	    return mSecond;
 
 	case DEBUG:
-	    mFirst.log(type, message);
-	    break;
+	    return mFirst;
 
 	case INFO:
-	    mFirst.log(type, message);
-	    break;
+	    return mFirst;
 
 	case PM:
-	    mFirst.log(type, message);
-	    break;
+	    return mFirst;
 
 	case STATUS:
-	    mSecond.log(type, message);
-	    break;
+	    return mSecond;
 
 	case WARNING:
-	    mFirst.log(type, message);
-	    break;
+	    return mFirst;
 
 	default:
-	    break;
+	    return null;
 
 	}
-
     }
 
 }
@@ -0,0 +1,31 @@
+package de.ativelox.dichotomyz.logging;
+
+/**
+ * Provides the ways an {@link AsyncLogger} handles logs while its queue is
+ * full.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public enum EBackpressurePolicy {
+
+    /**
+     * The logging thread waits until there's space in the queue again, thus no
+     * log gets lost.
+     */
+    BLOCK,
+
+    /**
+     * The oldest queued log gets dropped in favor of the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Logs of less important types are dropped as the queue fills up, starting
+     * with {@link ELogType#DEBUG} at half the capacity, followed by
+     * {@link ELogType#INFO} and {@link ELogType#PM} at three quarters. If the
+     * queue is full anyway, the oldest queued log gets dropped.
+     */
+    DROP_BY_TYPE;
+
+}
@@ -0,0 +1,29 @@
+package de.ativelox.dichotomyz.logging;
+
+/**
+ * Provides the ways a {@link LocalFileLogger} forces written logs to the
+ * storage device.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public enum EFsyncPolicy {
+
+    /**
+     * Logs are never forced explicitly, but left to the operating system. Logs
+     * written shortly before a crash of the system may get lost.
+     */
+    NONE,
+
+    /**
+     * Logs are forced at most once per second, limiting the loss in case of a
+     * crash of the system.
+     */
+    INTERVAL,
+
+    /**
+     * Logs are forced on every commit, thus no committed log gets lost.
+     */
+    COMMIT;
+
+}
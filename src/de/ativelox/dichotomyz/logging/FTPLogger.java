@@ -1,72 +1,170 @@
 package de.ativelox.dichotomyz.logging;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import de.ativelox.dichotomyz.ProjectPaths;
-import de.ativelox.dichotomyz.callbacks.FTPConnectionTerminator;
-import de.ativelox.dichotomyz.callbacks.ITimeOut;
+import de.ativelox.dichotomyz.metrics.Counter;
+import de.ativelox.dichotomyz.utils.FTPConnection;
+import de.ativelox.dichotomyz.utils.FTPConnectionPool;
 import de.ativelox.dichotomyz.utils.FTPUtils;
 import de.ativelox.dichotomyz.utils.Timestamp;
 import it.sauronsoftware.ftp4j.FTPAbortedException;
-import it.sauronsoftware.ftp4j.FTPClient;
 import it.sauronsoftware.ftp4j.FTPDataTransferException;
 import it.sauronsoftware.ftp4j.FTPException;
+import it.sauronsoftware.ftp4j.FTPFile;
 import it.sauronsoftware.ftp4j.FTPIllegalReplyException;
+import it.sauronsoftware.ftp4j.FTPListParseException;
 
 /**
- * Provides a logger that is able to log files to a given FTP host.
+ * Provides a logger that is able to log files to a given FTP host. Connections
+ * are taken from a {@link FTPConnectionPool}, and every log is appended to the
+ * file of its type, thus only the new message is transferred. Missing
+ * directories are created on first use, and the working directory is only
+ * changed if the type of the log demands another directory.
+ * <p>
+ * If a {@link LogRotator} is given, files exceeding the segment size of its
+ * policy are continued in a new segment, and the retention of its policy is
+ * enforced on the remote files every time the date changes, on the thread of
+ * the rotator. Remote files are never compressed.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
  */
-public class FTPLogger implements ILogger, ITimeOut {
+public class FTPLogger implements ILogger {
 
     /**
-     * The time in milliseconds the client disconnects from the server.
+     * The maximum number of connections open at the same time.
      */
-    private static final long FTP_TIMEOUT = 5000;
+    private static final int POOL_SIZE = 2;
 
     /**
-     * The underlying ftp client.
+     * The time in ms after which an idle connection gets sent a NOOP.
      */
-    private final FTPClient mClient;
+    private static final long FTP_KEEP_ALIVE = 30000;
 
     /**
-     * The user name credentials used to log in to the given server.
+     * The time in milliseconds the client disconnects from the server, if it
+     * hasn't been used.
      */
-    private final String mUser;
+    private static final long FTP_TIMEOUT = 5 * 60000;
 
     /**
-     * The password credentials used to log in to the given server.
+     * The separator appended to every message.
      */
-    private final String mPassword;
+    private static final String SEPARATOR = "\r\n";
 
     /**
-     * The host of the server the ftp service is located on.
+     * The separator between the date and the rest of the name of a file.
      */
-    private final String mHost;
+    private static final String DATE_SEPARATOR = " - ";
 
     /**
-     * The thread used to timeout the FTP connection.
+     * The suffix of log files.
      */
-    private Thread mInterruptionThread;
+    private static final String LOG_SUFFIX = ".log";
 
     /**
-     * The current date.
+     * The number of logs which couldn't be appended to their file.
      */
-    private String mCurrentDate;
+    private static final Counter FAILURES = MeteredLogger.getFailures("ftp");
 
     /**
-     * Whether the underlying client is currently logged into the FTP service or
-     * not.
+     * A segment of a remote log file.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class Segment {
+
+	/**
+	 * The index of the segment, 0 for the log file itself.
+	 */
+	private int mIndex;
+
+	/**
+	 * The size of the segment.
+	 */
+	private long mSize;
+
+    }
+
+    /**
+     * A remote log file considered by the retention.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
      */
-    private boolean mLoggedIn;
+    private static final class RemoteFile {
+
+	/**
+	 * The name of the file.
+	 */
+	private final String mName;
+
+	/**
+	 * The date of the file.
+	 */
+	private final LocalDate mDate;
+
+	/**
+	 * The size of the file.
+	 */
+	private final long mSize;
+
+	/**
+	 * Creates a new {@link RemoteFile}.
+	 * 
+	 * @param name The name of the file.
+	 * @param date The date of the file.
+	 * @param size The size of the file.
+	 */
+	private RemoteFile(final String name, final LocalDate date, final long size) {
+	    mName = name;
+	    mDate = date;
+	    mSize = size;
+
+	}
+    }
+
+    /**
+     * The pool the connections are taken from.
+     */
+    private final FTPConnectionPool mPool;
+
+    /**
+     * The current date, or <tt>null</tt> if not read yet.
+     */
+    private volatile String mCurrentDate;
 
     /**
      * The top level path used for the files.
      */
     private final String mTopLevelPath;
 
+    /**
+     * The rotator of the log files, or <tt>null</tt> if they are not rotated.
+     */
+    private volatile LogRotator mRotator;
+
+    /**
+     * A mapping from the directory and name of a log file, without its suffix,
+     * to the segment currently written.
+     */
+    private final Map<String, Segment> mSegments;
+
+    /**
+     * The date the segments belong to, or <tt>null</tt> if there are none yet.
+     */
+    private String mSegmentsDate;
+
     /**
      * Creates a new {@link FTPLogger} for the given credentials.
      * 
@@ -76,27 +174,317 @@ public class FTPLogger implements ILogger, ITimeOut {
      * @param host     The host of the server the ftp service is located on.
      */
     public FTPLogger(final String topLevel, final String user, final String password, final String host) {
-	mClient = new FTPClient();
-	mPassword = password;
-	mUser = user;
-	mHost = host;
+	this(topLevel, new FTPConnectionPool(host, user, password, POOL_SIZE, FTP_KEEP_ALIVE, FTP_TIMEOUT));
+
+    }
+
+    /**
+     * Creates a new {@link FTPLogger}, taking its connections from the given pool.
+     * 
+     * @param topLevel The top level path used for the files.
+     * @param pool     The pool the connections are taken from.
+     */
+    public FTPLogger(final String topLevel, final FTPConnectionPool pool) {
+	this(topLevel, pool, null);
 
+    }
+
+    /**
+     * Creates a new {@link FTPLogger}, taking its connections from the given
+     * pool, which rotates its files with the given rotator. The rotator is closed
+     * once this logger is closed.
+     * 
+     * @param topLevel The top level path used for the files.
+     * @param pool     The pool the connections are taken from.
+     * @param rotator  The rotator of the log files, or <tt>null</tt> if they
+     *                 should not be rotated.
+     */
+    public FTPLogger(final String topLevel, final FTPConnectionPool pool, final LogRotator rotator) {
+	mPool = pool;
 	mTopLevelPath = topLevel;
+	mRotator = rotator;
+	mSegments = new HashMap<>();
 
-	mLoggedIn = false;
+	// read on first use, the clock of Timestamp may log through the logger this one is part of.
+	mCurrentDate = null;
+	mSegmentsDate = null;
 
-	mCurrentDate = Timestamp.getCurrentDate();
+    }
 
-	mInterruptionThread = new Thread(new FTPConnectionTerminator(FTP_TIMEOUT, this));
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logging.ILogger#close()
+     */
+    @Override
+    public void close() {
+	if (mRotator != null) {
+	    mRotator.close();
+
+	}
+	mPool.close();
+
+    }
+
+    /**
+     * Collects the log files of the given directory, which are not of the
+     * current date.
+     * 
+     * @param connection The connection used.
+     * @param path       The path of the directory.
+     * @param today      The current date.
+     * @param files      The list the files are added to.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     * @throws FTPDataTransferException If a I/O occurs in the data transfer
+     *                                  connection.
+     * @throws FTPAbortedException      If operation is aborted by another thread.
+     * @throws FTPListParseException    If none of the registered parsers can handle
+     *                                  the response sent by the server.
+     */
+    private static void collectLogFiles(final FTPConnection connection, final String path, final LocalDate today,
+	    final List<RemoteFile> files) throws IllegalStateException, IOException, FTPIllegalReplyException,
+	    FTPException, FTPDataTransferException, FTPAbortedException, FTPListParseException {
+	connection.changeDirectory(path, true);
+
+	for (final FTPFile file : connection.getClient().list()) {
+	    final String name = file.getName();
+	    final int separator = name.indexOf(DATE_SEPARATOR);
+
+	    if (file.getType() != FTPFile.TYPE_FILE || separator < 0 || !name.endsWith(LOG_SUFFIX)) {
+		continue;
 
+	    }
+
+	    try {
+		final LocalDate date = Timestamp.parseDate(name.substring(0, separator));
+
+		if (date.isBefore(today)) {
+		    files.add(new RemoteFile(name, date, file.getSize()));
+
+		}
+	    } catch (final DateTimeParseException e) {
+		// not a log file.
+
+	    }
+	}
     }
 
     /**
-     * Updates the current date for this logger.
+     * Deletes the remote log files, which exceed the age of the policy of the
+     * rotator, and afterwards the oldest ones, until every log file of a
+     * directory fits into the total size of the policy. The log files of the
+     * current date are never deleted.
+     */
+    private void enforceRetention() {
+	final LogRetentionPolicy policy = mRotator.getPolicy();
+
+	if (policy.getMaxAgeDays() <= 0 && policy.getMaxTotalBytes() <= 0) {
+	    return;
+
+	}
+	final FTPConnection connection;
+
+	try {
+	    connection = mPool.acquire();
+
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
+	    FAILURES.increment();
+	    e.printStackTrace();
+	    return;
+
+	}
+
+	try {
+	    final LocalDate today = Timestamp.parseDate(getCurrentDate());
+
+	    for (final String path : new String[] { mTopLevelPath + ProjectPaths.LOG_PATH,
+		    mTopLevelPath + ProjectPaths.DEBUG_PATH }) {
+		final List<RemoteFile> files = new ArrayList<>();
+		collectLogFiles(connection, path, today, files);
+		files.sort((first, second) -> first.mDate.compareTo(second.mDate));
+
+		long total = 0;
+		for (final RemoteFile file : files) {
+		    total += file.mSize;
+
+		}
+
+		for (final RemoteFile file : files) {
+		    final boolean expired = policy.getMaxAgeDays() > 0
+			    && ChronoUnit.DAYS.between(file.mDate, today) > policy.getMaxAgeDays();
+		    final boolean exceeding = policy.getMaxTotalBytes() > 0 && total > policy.getMaxTotalBytes();
+
+		    if (!expired && !exceeding) {
+			break;
+
+		    }
+		    connection.getClient().deleteFile(file.mName);
+		    total -= file.mSize;
+
+		}
+	    }
+	    mPool.release(connection);
+
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException
+		| FTPDataTransferException | FTPAbortedException | FTPListParseException e) {
+	    mPool.invalidate(connection);
+	    e.printStackTrace();
+
+	}
+    }
+
+    /**
+     * Adds the given length to the size of the segment of the given file, once a
+     * message has been appended to the given segment. Nothing is added if the
+     * file has been continued in another segment meanwhile.
+     * 
+     * @param path        The path of the directory of the file.
+     * @param baseName    The name of the file, without its suffix.
+     * @param segmentName The name of the segment appended to.
+     * @param length      The length of the message in bytes.
+     */
+    private synchronized void addToSegment(final String path, final String baseName, final String segmentName,
+	    final int length) {
+	final Segment segment = mSegments.get(path + baseName);
+
+	if (segment != null && LogRotator.getSegmentName(baseName, segment.mIndex).equals(segmentName)) {
+	    segment.mSize += length;
+
+	}
+    }
+
+    /**
+     * Gets the name of the segment the given message should be appended to,
+     * continuing in a new segment if the current one would exceed the segment
+     * size of the policy of the rotator. The size of the segment is only
+     * increased by {@link FTPLogger#addToSegment(String, String, String, int)}
+     * once the message has been appended.
+     * 
+     * @param connection The connection used.
+     * @param path       The path of the directory of the file.
+     * @param baseName   The name of the file, without its suffix.
+     * @param length     The length of the message in bytes.
+     * @return The name mentioned.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     */
+    private synchronized String getSegmentName(final FTPConnection connection, final String path,
+	    final String baseName, final int length)
+	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException {
+	final long maxSize = mRotator.getPolicy().getMaxSegmentBytes();
+
+	final String date = getCurrentDate();
+
+	if (!date.equals(mSegmentsDate)) {
+	    mSegments.clear();
+	    mSegmentsDate = date;
+
+	}
+	final String key = path + baseName;
+	Segment segment = mSegments.get(key);
+
+	if (segment == null) {
+	    // continue the segments written by a previous run.
+	    segment = new Segment();
+	    segment.mSize = getRemoteSize(connection, path, LogRotator.getSegmentName(baseName, 0));
+
+	    while (segment.mSize >= maxSize) {
+		segment.mIndex++;
+		segment.mSize = getRemoteSize(connection, path, LogRotator.getSegmentName(baseName, segment.mIndex));
+
+	    }
+	    mSegments.put(key, segment);
+
+	}
+
+	if (segment.mSize > 0 && segment.mSize + length > maxSize) {
+	    segment.mIndex++;
+	    segment.mSize = 0;
+
+	}
+	return LogRotator.getSegmentName(baseName, segment.mIndex);
+
+    }
+
+    /**
+     * Gets the size of the given remote file.
+     * 
+     * @param connection The connection used.
+     * @param path       The path of the directory of the file.
+     * @param filename   The name of the file.
+     * @return The size of the file, or 0 if it doesn't exist.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the directory can't be changed to.
+     */
+    private static long getRemoteSize(final FTPConnection connection, final String path, final String filename)
+	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException {
+	connection.changeDirectory(path, true);
+
+	try {
+	    return connection.getClient().fileSize(filename);
+
+	} catch (final FTPException e) {
+	    return 0;
+
+	}
+    }
+
+    /**
+     * Sets the rotator of the log files. The rotator is closed once this logger
+     * is closed.
+     * 
+     * @param rotator The rotator of the log files, or <tt>null</tt> if they
+     *                should not be rotated.
+     */
+    public void setRotator(final LogRotator rotator) {
+	mRotator = rotator;
+
+    }
+
+    /**
+     * Gets the current date of this logger, reading it on first use.
+     * 
+     * @return The date mentioned.
+     */
+    private String getCurrentDate() {
+	String date = mCurrentDate;
+
+	if (date == null) {
+	    date = Timestamp.getCurrentDate();
+	    mCurrentDate = date;
+
+	}
+	return date;
+
+    }
+
+    /**
+     * Updates the current date for this logger. If a {@link LogRotator} is
+     * given, the retention of its policy is enforced on the thread of the
+     * rotator.
      */
     public void updateDate() {
-	mCurrentDate = Timestamp.getCurrentDate();
+	final String date = Timestamp.getCurrentDate();
+	final String old = mCurrentDate;
+
+	if (!date.equals(old)) {
+	    mCurrentDate = date;
+
+	    if (old != null && mRotator != null) {
+		mRotator.execute(this::enforceRetention);
 
+	    }
+	}
     }
 
     /*
@@ -108,24 +496,9 @@ public class FTPLogger implements ILogger, ITimeOut {
      */
     @Override
     public void log(ELogType type, String message) {
-	mInterruptionThread.interrupt();
-	mInterruptionThread = new Thread(new FTPConnectionTerminator(FTP_TIMEOUT, this));
-
-	if (!mLoggedIn) {
-	    try {
-		mClient.connect(mHost);
-		mClient.login(mUser, mPassword);
-		mLoggedIn = true;
-
-	    } catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
-		e.printStackTrace();
-		return;
-
-	    }
-	}
 	// TODO: make sure file path is valid, and serve data
 	String path = mTopLevelPath;
-	String filename = mCurrentDate + " - ";
+	String filename = getCurrentDate() + DATE_SEPARATOR;
 
 	switch (type) {
 	case ACTIVITY:
@@ -163,35 +536,45 @@ public class FTPLogger implements ILogger, ITimeOut {
 
 	}
 
-	filename += ".log";
+	final FTPConnection connection;
 
 	try {
-	    FTPUtils.writeFile(mClient, path, filename, message.getBytes());
+	    connection = mPool.acquire();
 
-	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException
-		| FTPDataTransferException | FTPAbortedException e) {
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
+	    FAILURES.increment();
 	    e.printStackTrace();
+	    return;
 
 	}
 
-	mInterruptionThread.start();
-    }
-
-    /*
-     * (non-Javadoc)
-     * 
-     * @see de.ativelox.dichotomyz.callbacks.ITimeOut#timeout()
-     */
-    @Override
-    public void timeout() {
 	try {
-	    mClient.disconnect(true);
-	    mLoggedIn = false;
+	    final byte[] data = (message + SEPARATOR).getBytes(StandardCharsets.UTF_8);
+	    final String baseName = filename;
+	    final boolean segmented = mRotator != null && mRotator.getPolicy().getMaxSegmentBytes() > 0;
 
-	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
-	    Logger.Get().log(ELogType.WARNING, e.getMessage());
+	    if (segmented) {
+		filename = getSegmentName(connection, path, baseName, data.length);
 
-	}
+	    } else {
+		filename += LOG_SUFFIX;
+
+	    }
+	    FTPUtils.appendFile(connection, path, filename, data);
+	    mPool.release(connection);
+
+	    // a failed append doesn't count towards the size of the segment.
+	    if (segmented) {
+		addToSegment(path, baseName, filename, data.length);
+
+	    }
 
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException
+		| FTPDataTransferException | FTPAbortedException e) {
+	    FAILURES.increment();
+	    mPool.invalidate(connection);
+	    e.printStackTrace();
+
+	}
     }
 }
@@ -0,0 +1,236 @@
+package de.ativelox.dichotomyz.logging;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import de.ativelox.dichotomyz.utils.LongHashMap;
+import net.dv8tion.jda.core.entities.Guild;
+
+/**
+ * Holds one {@link BufferedLogFormatter} per guild, keyed by the id of the
+ * guild, such that events are routed to the formatter of their guild and no
+ * state is shared between guilds. The mapping is replaced as a whole whenever
+ * guilds are added or removed, thus looking up a formatter never locks. The
+ * reports of every guild are generated in parallel on a {@link ForkJoinPool},
+ * as are the checkpoints of every guild, if enabled. The checkpoint of a guild
+ * is restored once the guild is added, and deleted once it is removed, i.e.
+ * only checkpoints of a crashed bot are ever restored.
+ * This class is thread-safe, which allows a single instance to serve the
+ * guilds of several shards.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class FormatterShards implements Closeable {
+
+    /**
+     * The time in ms to wait for pending reports when closing.
+     */
+    private static final long CLOSE_TIMEOUT_MS = 30000;
+
+    /**
+     * A mapping from guild ids to their formatters, replaced on every change.
+     */
+    private volatile LongHashMap<BufferedLogFormatter> mShards;
+
+    /**
+     * The pool the reports are generated on.
+     */
+    private final ForkJoinPool mPool;
+
+    /**
+     * The directory the checkpoints are stored in, or <tt>null</tt> if
+     * checkpointing is disabled.
+     */
+    private final Path mCheckpoints;
+
+    /**
+     * Creates a new {@link FormatterShards} without checkpoints, generating
+     * reports with one thread per available processor.
+     */
+    public FormatterShards() {
+	this(Runtime.getRuntime().availableProcessors(), null);
+
+    }
+
+    /**
+     * Creates a new {@link FormatterShards}.
+     * 
+     * @param parallelism The number of threads the reports are generated on.
+     * @param checkpoints The directory the checkpoints are stored in, or
+     *                    <tt>null</tt> to disable checkpointing.
+     */
+    public FormatterShards(final int parallelism, final Path checkpoints) {
+	mShards = new LongHashMap<>();
+	mPool = new ForkJoinPool(parallelism);
+	mCheckpoints = checkpoints;
+
+    }
+
+    /**
+     * Starts tracking the given guild, replacing its formatter if present. The
+     * times of the guild are restored from its checkpoint, if any.
+     * 
+     * @param guild The guild to track.
+     */
+    public void addGuild(final Guild guild) {
+	final BufferedLogFormatter formatter = new BufferedLogFormatter();
+	final BufferedLogFormatter replaced;
+	formatter.init(guild);
+
+	if (mCheckpoints != null) {
+	    formatter.restore(new ActivityCheckpoint(mCheckpoints, guild.getIdLong()));
+
+	}
+
+	synchronized (this) {
+	    final LongHashMap<BufferedLogFormatter> shards = new LongHashMap<>(mShards);
+	    replaced = shards.put(guild.getIdLong(), formatter);
+	    mShards = shards;
+
+	}
+
+	if (replaced != null) {
+	    replaced.closeCheckpoint(false);
+
+	}
+    }
+
+    /**
+     * Persists the times of every guild to their checkpoints in parallel, if
+     * checkpointing is enabled.
+     */
+    public void checkpointAll() {
+	if (mCheckpoints == null) {
+	    return;
+
+	}
+	final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+	for (final BufferedLogFormatter formatter : mShards.values()) {
+	    tasks.add(mPool.submit(formatter::checkpoint));
+
+	}
+	join(tasks, "Checkpointing");
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+	for (final BufferedLogFormatter formatter : mShards.values()) {
+	    formatter.closeCheckpoint(false);
+
+	}
+	mPool.shutdown();
+
+	try {
+	    mPool.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+
+	}
+    }
+
+    /**
+     * Gets the formatter of the given guild.
+     * 
+     * @param guildId The id of the guild.
+     * @return The formatter mentioned, or <tt>null</tt> if the guild isn't
+     *         tracked.
+     */
+    public BufferedLogFormatter get(final long guildId) {
+	return mShards.get(guildId);
+
+    }
+
+    /**
+     * Logs the reports of every guild in parallel.
+     */
+    public void logAll() {
+	final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+	for (final BufferedLogFormatter formatter : mShards.values()) {
+	    tasks.add(mPool.submit(() -> formatter.log()));
+
+	}
+	join(tasks, "Generating the report");
+
+    }
+
+    /**
+     * Waits for the given tasks to complete.
+     * 
+     * @param tasks The tasks mentioned.
+     * @param name  The name of the tasks, used when logging failures.
+     */
+    private static void join(final List<? extends ForkJoinTask<?>> tasks, final String name) {
+	for (final ForkJoinTask<?> task : tasks) {
+	    try {
+		task.join();
+
+	    } catch (final RuntimeException e) {
+		Logger.Get().log(ELogType.WARNING, name + " of a guild failed: " + e.getMessage());
+
+	    }
+	}
+    }
+
+    /**
+     * Stops tracking the given guild, logging its report and deleting its
+     * checkpoint.
+     * 
+     * @param guildId The id of the guild.
+     */
+    public void removeGuild(final long guildId) {
+	final BufferedLogFormatter removed;
+
+	synchronized (this) {
+	    removed = mShards.get(guildId);
+
+	    if (removed == null) {
+		return;
+
+	    }
+	    final LongHashMap<BufferedLogFormatter> shards = new LongHashMap<>(mShards);
+	    shards.remove(guildId);
+	    mShards = shards;
+
+	}
+	removed.log();
+	removed.closeCheckpoint(true);
+
+    }
+
+    /**
+     * Logs the reports of every guild, as done once a day passed. Guilds are
+     * handled in parallel, each continuing to track its members from the time
+     * its report was generated on, and the underlying logger moves on to the new
+     * date afterwards.
+     */
+    public void rollover() {
+	logAll();
+	BufferedLogFormatter.updateDate();
+
+    }
+
+    /**
+     * Gets the number of guilds tracked.
+     * 
+     * @return The number mentioned.
+     */
+    public int size() {
+	return mShards.size();
+
+    }
+}
@@ -16,4 +16,34 @@ public interface ILogger {
      */
     void log(final ELogType type, final String message);
 
+    /**
+     * Logs the given message with the given type, which was logged at the given
+     * time, e.g. before it was queued by an {@link AsyncLogger}. Loggers stamping
+     * their messages with the current time should use the given time instead.
+     * 
+     * @param type    The type of the log
+     * @param message The message to log
+     * @param time    The time the message was logged at, in the format HH:mm:ss
+     */
+    default void log(final ELogType type, final String message, final String time) {
+	log(type, message);
+
+    }
+
+    /**
+     * Waits until every message logged so far is handled, if this logger handles
+     * messages asynchronously.
+     */
+    default void flush() {
+
+    }
+
+    /**
+     * Releases the resources held by this logger, after handling every message
+     * logged so far.
+     */
+    default void close() {
+
+    }
+
 }
@@ -1,25 +1,134 @@
 package de.ativelox.dichotomyz.logging;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import de.ativelox.dichotomyz.ProjectPaths;
+import de.ativelox.dichotomyz.metrics.Counter;
 import de.ativelox.dichotomyz.utils.Timestamp;
 
 /**
  * Handles logs by creating associated log files for the given {@link ELogType}
  * passed in the respective log method from {@link ILogger}.
+ * <p>
+ * Every log file is kept open, and logs are encoded into a direct buffer per
+ * file, which is written to the file on commit. With group commit, a commit
+ * happens if the buffer is full or {@link LocalFileLogger#flush()} is called,
+ * e.g. by an {@link AsyncLogger} after every batch, otherwise after every log.
+ * Whether committed logs are forced to the storage device is decided by the
+ * given {@link EFsyncPolicy}. The files are named by the current date, and
+ * rotated by {@link LocalFileLogger#updateDate()}. If a {@link LogRotator} is
+ * given, files exceeding the segment size of its policy are rolled over to a
+ * new segment, and the files of the previous date are archived on the day
+ * boundary.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
  */
 public class LocalFileLogger implements ILogger {
 
+    /**
+     * The size of the buffer of every log file.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The time in ms between two forces, if the policy is
+     * {@link EFsyncPolicy#INTERVAL}.
+     */
+    private static final long FSYNC_INTERVAL_MS = 1000;
+
+    /**
+     * The separator written in front of every log appended to a file.
+     */
+    private static final String SEPARATOR = "\r\n\r\n";
+
+    /**
+     * The number of logs which couldn't be written to their file.
+     */
+    private static final Counter FAILURES = MeteredLogger.getFailures("local");
+
+    /**
+     * An open log file.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class LogFile {
+
+	/**
+	 * The path of the file.
+	 */
+	private final Path mPath;
+
+	/**
+	 * The channel of the file.
+	 */
+	private final FileChannel mChannel;
+
+	/**
+	 * The buffer of the logs not yet committed.
+	 */
+	private final ByteBuffer mBuffer;
+
+	/**
+	 * Whether the file is empty.
+	 */
+	private boolean mEmpty;
+
+	/**
+	 * Whether this logger has written to the file yet.
+	 */
+	private boolean mWritten;
+
+	/**
+	 * Whether logs got committed since the file was last forced.
+	 */
+	private boolean mDirty;
+
+	/**
+	 * The size of the file, excluding the logs not yet committed.
+	 */
+	private long mSize;
+
+	/**
+	 * Opens the given log file for appending.
+	 * 
+	 * @param path The path of the file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private LogFile(final Path path) throws IOException {
+	    if (path.getParent() != null) {
+		Files.createDirectories(path.getParent());
+
+	    }
+	    mPath = path;
+	    mChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		    StandardOpenOption.APPEND);
+	    mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	    mSize = mChannel.size();
+	    mEmpty = mSize == 0;
+	    mWritten = false;
+	    mDirty = false;
+
+	}
+    }
+
     /**
      * The date this logger was created.
      */
@@ -31,38 +140,243 @@ public class LocalFileLogger implements ILogger {
     private final String mServiceStartTimeTimestamp;
 
     /**
-     * A mapping from filenames to boolean values, which indicates whether this
-     * logger has already written to said file.
+     * The top path of the log files.
      */
-    private final Map<String, Boolean> mHasWritten;
+    private final String mTopPath;
 
     /**
-     * The top path of the log files.
+     * Whether logs are committed in groups, or after every log.
      */
-    private final String mTopPath;
+    private final boolean mGroupCommit;
 
     /**
-     * Creates a new {@link LocalFileLogger}.
+     * The way committed logs are forced to the storage device.
+     */
+    private final EFsyncPolicy mFsyncPolicy;
+
+    /**
+     * The encoder used to encode the logs.
+     */
+    private final CharsetEncoder mEncoder;
+
+    /**
+     * A mapping from log types to their open files.
+     */
+    private final Map<ELogType, LogFile> mFilesByType;
+
+    /**
+     * A mapping from file names to their open files, as multiple types share a
+     * single file.
+     */
+    private final Map<String, LogFile> mFiles;
+
+    /**
+     * The rotator of the log files, or <tt>null</tt> if they are not rotated.
+     */
+    private final LogRotator mRotator;
+
+    /**
+     * The current date.
+     */
+    private String mCurrentDate;
+
+    /**
+     * The time in ms the files were last forced.
+     */
+    private long mLastFsync;
+
+    /**
+     * Creates a new {@link LocalFileLogger}, which commits every log and leaves
+     * forcing to the operating system.
      * 
      * @param topPath The top path for the log files.
      */
     public LocalFileLogger(final String topPath) {
+	this(topPath, false, EFsyncPolicy.NONE);
+
+    }
+
+    /**
+     * Creates a new {@link LocalFileLogger}.
+     * 
+     * @param topPath     The top path for the log files.
+     * @param groupCommit Whether logs are committed in groups, i.e. only if
+     *                    {@link LocalFileLogger#flush()} is called or a buffer is
+     *                    full, or after every log.
+     * @param fsyncPolicy The way committed logs are forced to the storage device.
+     */
+    public LocalFileLogger(final String topPath, final boolean groupCommit, final EFsyncPolicy fsyncPolicy) {
+	this(topPath, groupCommit, fsyncPolicy, null);
+
+    }
+
+    /**
+     * Creates a new {@link LocalFileLogger}, which rotates its files with the
+     * given rotator. The rotator is closed once this logger is closed.
+     * 
+     * @param topPath     The top path for the log files.
+     * @param groupCommit Whether logs are committed in groups, i.e. only if
+     *                    {@link LocalFileLogger#flush()} is called or a buffer is
+     *                    full, or after every log.
+     * @param fsyncPolicy The way committed logs are forced to the storage device.
+     * @param rotator     The rotator of the log files, or <tt>null</tt> if they
+     *                    should not be rotated.
+     */
+    public LocalFileLogger(final String topPath, final boolean groupCommit, final EFsyncPolicy fsyncPolicy,
+	    final LogRotator rotator) {
 	mTopPath = topPath;
+	mGroupCommit = groupCommit;
+	mFsyncPolicy = fsyncPolicy;
 	mServiceStartTimestamp = Timestamp.getCurrentDate();
 	mServiceStartTimeTimestamp = Timestamp.getCurrentTime();
-	mHasWritten = new HashMap<>();
+	mCurrentDate = mServiceStartTimestamp;
+
+	mEncoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+		.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	mFilesByType = new EnumMap<>(ELogType.class);
+	mFiles = new HashMap<>();
+	mRotator = rotator;
+	mLastFsync = System.currentTimeMillis();
+
+    }
+
+    /**
+     * Writes the buffer of every open file to the file and forces the files
+     * according to the policy.
+     * 
+     * @param force Whether the files should be forced regardless of the policy.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void commit(final boolean force) throws IOException {
+	for (final LogFile file : mFiles.values()) {
+	    write(file);
+
+	}
+	final long now = System.currentTimeMillis();
+
+	if (force || mFsyncPolicy == EFsyncPolicy.COMMIT
+		|| (mFsyncPolicy == EFsyncPolicy.INTERVAL && now - mLastFsync >= FSYNC_INTERVAL_MS)) {
+	    for (final LogFile file : mFiles.values()) {
+		if (file.mDirty) {
+		    file.mChannel.force(false);
+		    file.mDirty = false;
+
+		}
+	    }
+	    mLastFsync = now;
+
+	}
+    }
+
+    /**
+     * Commits and closes every open file.
+     * 
+     * @return The paths of the files closed.
+     */
+    private List<Path> closeFiles() {
+	try {
+	    commit(mFsyncPolicy != EFsyncPolicy.NONE);
+
+	} catch (final IOException e) {
+	    e.printStackTrace();
+
+	}
+
+	final List<Path> closed = new ArrayList<>(mFiles.size());
+
+	for (final LogFile file : mFiles.values()) {
+	    try {
+		file.mChannel.close();
+		closed.add(file.mPath);
+
+	    } catch (final IOException e) {
+		e.printStackTrace();
+
+	    }
+	}
+	mFiles.clear();
+	mFilesByType.clear();
+	return closed;
 
     }
 
     /*
      * (non-Javadoc)
      * 
-     * @see de.ativelox.dichotomyz.logger.ILogger#log(de.ativelox.dichotomyz.logger.
-     * ELogType, java.lang.String)
+     * @see de.ativelox.dichotomyz.logging.ILogger#close()
+     */
+    @Override
+    public synchronized void close() {
+	closeFiles();
+
+	if (mRotator != null) {
+	    mRotator.close();
+
+	}
+
+    }
+
+    /**
+     * Encodes the given text into the buffer of the given file, writing the
+     * buffer to the file whenever it is full.
+     * 
+     * @param file The file.
+     * @param text The text to encode.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void encode(final LogFile file, final String text) throws IOException {
+	final CharBuffer chars = CharBuffer.wrap(text);
+	mEncoder.reset();
+
+	while (true) {
+	    final CoderResult result = chars.hasRemaining() ? mEncoder.encode(chars, file.mBuffer, true)
+		    : mEncoder.flush(file.mBuffer);
+
+	    if (result.isOverflow()) {
+		write(file);
+
+	    } else if (result.isUnderflow()) {
+		if (!chars.hasRemaining() && mEncoder.flush(file.mBuffer).isUnderflow()) {
+		    return;
+
+		}
+
+	    } else {
+		result.throwException();
+
+	    }
+	}
+    }
+
+    /**
+     * Commits the logs not yet committed.
      */
     @Override
-    public void log(final ELogType type, final String message) {
-	String fileName = mServiceStartTimestamp + " - ";
+    public synchronized void flush() {
+	try {
+	    commit(false);
+
+	} catch (final IOException e) {
+	    e.printStackTrace();
+
+	}
+    }
+
+    /**
+     * Gets the open file for the given type, opening it if needed.
+     * 
+     * @param type The type of the log.
+     * @return The file mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    private LogFile getFile(final ELogType type) throws IOException {
+	final LogFile cached = mFilesByType.get(type);
+
+	if (cached != null) {
+	    return cached;
+
+	}
+	String fileName = mCurrentDate + " - ";
 	String relativePath = "";
 
 	switch (type) {
@@ -100,38 +414,121 @@ public class LocalFileLogger implements ILogger {
 
 	}
 
-	String timestampedMessage = message;
+	final String name = relativePath + fileName;
+	LogFile file = mFiles.get(name);
+
+	if (file == null) {
+	    file = new LogFile(Paths.get(mTopPath + name).toAbsolutePath());
+	    mFiles.put(name, file);
 
-	if (mHasWritten.get(fileName) == null || !mHasWritten.get(fileName)) {
-	    timestampedMessage = "System start on the " + mServiceStartTimestamp + " at " + mServiceStartTimeTimestamp
-		    + "\r\n" + message;
 	}
+	mFilesByType.put(type, file);
+	return file;
 
-	final File file = new File(mTopPath + relativePath + fileName);
+    }
 
-	if (!file.exists()) {
-	    try {
-		Files.write(Paths.get(file.getAbsolutePath()), timestampedMessage.getBytes(),
-			StandardOpenOption.CREATE);
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logger.ILogger#log(de.ativelox.dichotomyz.logger.
+     * ELogType, java.lang.String)
+     */
+    @Override
+    public synchronized void log(final ELogType type, final String message) {
+	try {
+	    final LogFile file = getFile(type);
 
-	    } catch (final IOException e) {
-		e.printStackTrace();
+	    if (!file.mEmpty) {
+		encode(file, SEPARATOR);
 
 	    }
 
-	} else {
-	    timestampedMessage = "\r\n\r\n" + timestampedMessage;
+	    if (!file.mWritten) {
+		encode(file, "System start on the " + mServiceStartTimestamp + " at " + mServiceStartTimeTimestamp
+			+ "\r\n");
+		file.mWritten = true;
 
-	    try {
-		Files.write(Paths.get(file.getAbsolutePath()), timestampedMessage.getBytes(),
-			StandardOpenOption.APPEND);
+	    }
+	    encode(file, message);
+	    file.mEmpty = false;
 
-	    } catch (final IOException e) {
-		e.printStackTrace();
+	    if (!mGroupCommit) {
+		commit(false);
+
+	    }
+
+	    if (mRotator != null && mRotator.getPolicy().getMaxSegmentBytes() > 0
+		    && file.mSize + file.mBuffer.position() >= mRotator.getPolicy().getMaxSegmentBytes()) {
+		rotate(file);
+
+	    }
+	} catch (final IOException e) {
+	    FAILURES.increment();
+	    e.printStackTrace();
+
+	}
+    }
+
+    /**
+     * Commits and closes the given file, and rolls it over to its next segment.
+     * Following logs of the same types are written to a new file.
+     * 
+     * @param file The file to rotate.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void rotate(final LogFile file) throws IOException {
+	write(file);
+
+	if (file.mDirty && mFsyncPolicy != EFsyncPolicy.NONE) {
+	    file.mChannel.force(false);
+
+	}
+	file.mChannel.close();
+
+	mFiles.values().remove(file);
+	mFilesByType.values().removeIf(cached -> cached == file);
+	mRotator.rotate(file.mPath);
+
+    }
+
+    /**
+     * Updates the current date for this logger. The open files are committed and
+     * closed, and following logs are written to the files of the new date. The
+     * closed files are archived if a {@link LogRotator} is given.
+     */
+    public synchronized void updateDate() {
+	final String date = Timestamp.getCurrentDate();
+
+	if (!date.equals(mCurrentDate)) {
+	    final List<Path> closed = closeFiles();
+	    mCurrentDate = date;
+
+	    if (mRotator != null) {
+		mRotator.archive(closed);
 
 	    }
 	}
-	mHasWritten.put(fileName, true);
+    }
+
+    /**
+     * Writes the buffer of the given file to the file.
+     * 
+     * @param file The file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void write(final LogFile file) throws IOException {
+	file.mBuffer.flip();
+
+	if (file.mBuffer.hasRemaining()) {
+	    file.mDirty = true;
+
+	}
+
+	while (file.mBuffer.hasRemaining()) {
+	    file.mSize += file.mChannel.write(file.mBuffer);
+
+	}
+	file.mBuffer.clear();
 
     }
 }
@@ -0,0 +1,96 @@
+package de.ativelox.dichotomyz.logging;
+
+/**
+ * Describes how log files are rotated and how long they are retained. A log
+ * file is closed as a segment once it exceeds the maximum segment size, or when
+ * a new day starts. Closed segments are compressed, if enabled, and deleted
+ * once they exceed the maximum age, or once every log file of a directory
+ * exceeds the maximum total size, oldest first.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class LogRetentionPolicy {
+
+    /**
+     * The size in bytes after which a log file is closed as a segment, 0 if
+     * unlimited.
+     */
+    private final long mMaxSegmentBytes;
+
+    /**
+     * The age in days after which a log file gets deleted, 0 if unlimited.
+     */
+    private final int mMaxAgeDays;
+
+    /**
+     * The size in bytes every log file of a directory may take at most, 0 if
+     * unlimited.
+     */
+    private final long mMaxTotalBytes;
+
+    /**
+     * Whether closed segments are compressed or not.
+     */
+    private final boolean mCompress;
+
+    /**
+     * Creates a new {@link LogRetentionPolicy}.
+     * 
+     * @param maxSegmentBytes The size in bytes after which a log file is closed as
+     *                        a segment, 0 if unlimited.
+     * @param maxAgeDays      The age in days after which a log file gets deleted,
+     *                        0 if unlimited.
+     * @param maxTotalBytes   The size in bytes every log file of a directory may
+     *                        take at most, 0 if unlimited.
+     * @param compress        Whether closed segments are compressed or not.
+     */
+    public LogRetentionPolicy(final long maxSegmentBytes, final int maxAgeDays, final long maxTotalBytes,
+	    final boolean compress) {
+	mMaxSegmentBytes = maxSegmentBytes;
+	mMaxAgeDays = maxAgeDays;
+	mMaxTotalBytes = maxTotalBytes;
+	mCompress = compress;
+
+    }
+
+    /**
+     * Gets the age in days after which a log file gets deleted.
+     * 
+     * @return The age mentioned, 0 if unlimited.
+     */
+    public int getMaxAgeDays() {
+	return mMaxAgeDays;
+
+    }
+
+    /**
+     * Gets the size in bytes after which a log file is closed as a segment.
+     * 
+     * @return The size mentioned, 0 if unlimited.
+     */
+    public long getMaxSegmentBytes() {
+	return mMaxSegmentBytes;
+
+    }
+
+    /**
+     * Gets the size in bytes every log file of a directory may take at most.
+     * 
+     * @return The size mentioned, 0 if unlimited.
+     */
+    public long getMaxTotalBytes() {
+	return mMaxTotalBytes;
+
+    }
+
+    /**
+     * Whether closed segments are compressed or not.
+     * 
+     * @return <tt>true</tt> if they are compressed, <tt>false</tt> otherwise.
+     */
+    public boolean isCompressing() {
+	return mCompress;
+
+    }
+}
@@ -0,0 +1,364 @@
+package de.ativelox.dichotomyz.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Rotates local log files as described by a {@link LogRetentionPolicy}.
+ * Renaming a log file to a segment is done right away, whereas compressing
+ * segments and enforcing the retention is done by a single background thread,
+ * such that neither the thread logging nor the thread writing logs is ever
+ * blocked by compression. Segments of a log file <tt>X.log</tt> are named
+ * <tt>X.1.log</tt>, <tt>X.2.log</tt> and so on, and get the suffix
+ * {@link LogRotator#COMPRESSED_SUFFIX} once compressed.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class LogRotator implements Closeable {
+
+    /**
+     * The suffix of compressed segments.
+     */
+    public static final String COMPRESSED_SUFFIX = ".gz";
+
+    /**
+     * The suffix of log files.
+     */
+    private static final String LOG_SUFFIX = ".log";
+
+    /**
+     * The suffix of segments being compressed.
+     */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * The size of the buffer used to compress segments.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The time in ms to wait for pending tasks when closing.
+     */
+    private static final long CLOSE_TIMEOUT_MS = 30000;
+
+    /**
+     * The number of ms in a day.
+     */
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * The policy followed.
+     */
+    private final LogRetentionPolicy mPolicy;
+
+    /**
+     * The thread compressing segments and enforcing the retention.
+     */
+    private final ExecutorService mExecutor;
+
+    /**
+     * The number of segments compressed.
+     */
+    private final AtomicLong mCompressed;
+
+    /**
+     * The number of log files deleted.
+     */
+    private final AtomicLong mDeleted;
+
+    /**
+     * Creates a new {@link LogRotator}.
+     * 
+     * @param policy The policy followed.
+     */
+    public LogRotator(final LogRetentionPolicy policy) {
+	mPolicy = policy;
+	mCompressed = new AtomicLong();
+	mDeleted = new AtomicLong();
+
+	mExecutor = Executors.newSingleThreadExecutor(runnable -> {
+	    final Thread thread = new Thread(runnable, "LogRotator");
+	    thread.setDaemon(true);
+	    thread.setPriority(Thread.MIN_PRIORITY);
+	    return thread;
+
+	});
+    }
+
+    /**
+     * Compresses the given closed log files, if enabled, and enforces the
+     * retention in their directories afterwards, on the background thread.
+     * 
+     * @param files The closed log files.
+     */
+    public void archive(final Collection<Path> files) {
+	final List<Path> closed = new ArrayList<>(files);
+
+	execute(() -> {
+	    final List<Path> directories = new ArrayList<>();
+
+	    for (final Path file : closed) {
+		if (mPolicy.isCompressing()) {
+		    compress(file);
+
+		}
+
+		if (file.getParent() != null && !directories.contains(file.getParent())) {
+		    directories.add(file.getParent());
+
+		}
+	    }
+
+	    for (final Path directory : directories) {
+		enforceRetention(directory);
+
+	    }
+	});
+    }
+
+    /**
+     * Waits for the pending tasks, and stops the background thread.
+     */
+    @Override
+    public void close() {
+	mExecutor.shutdown();
+
+	try {
+	    mExecutor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+
+	}
+    }
+
+    /**
+     * Compresses the given file, replacing it by a file with the suffix
+     * {@link LogRotator#COMPRESSED_SUFFIX}. Only called by the background thread.
+     * 
+     * @param file The file to compress.
+     */
+    private void compress(final Path file) {
+	if (!Files.exists(file)) {
+	    return;
+
+	}
+	final Path compressed = file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX);
+	final Path temporary = file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX + TEMPORARY_SUFFIX);
+	final byte[] buffer = new byte[BUFFER_SIZE];
+
+	try (final InputStream in = Files.newInputStream(file);
+		final OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE) {
+		    {
+			def.setLevel(Deflater.BEST_COMPRESSION);
+		    }
+		}) {
+	    int read;
+
+	    while ((read = in.read(buffer)) != -1) {
+		out.write(buffer, 0, read);
+
+	    }
+	} catch (final IOException e) {
+	    e.printStackTrace();
+	    return;
+
+	}
+
+	try {
+	    Files.move(temporary, compressed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	    Files.delete(file);
+	    mCompressed.incrementAndGet();
+
+	} catch (final IOException e) {
+	    e.printStackTrace();
+
+	}
+    }
+
+    /**
+     * Deletes the log files of the given directory, which exceed the age of the
+     * policy, and afterwards the oldest ones, until every log file of the
+     * directory fits into the total size of the policy. The log files of the
+     * current date, which are not yet closed, are never deleted. Only called by
+     * the background thread.
+     * 
+     * @param directory The directory.
+     */
+    private void enforceRetention(final Path directory) {
+	if (mPolicy.getMaxAgeDays() <= 0 && mPolicy.getMaxTotalBytes() <= 0) {
+	    return;
+
+	}
+	final String activePrefix = Timestamp.getCurrentDate() + " - ";
+	final List<Path> candidates = new ArrayList<>();
+	long total = 0;
+
+	try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+	    for (final Path file : files) {
+		final String name = file.getFileName().toString();
+
+		if (!name.endsWith(LOG_SUFFIX) && !name.endsWith(LOG_SUFFIX + COMPRESSED_SUFFIX)) {
+		    continue;
+
+		}
+		total += Files.size(file);
+
+		// the log files currently written to.
+		if (name.startsWith(activePrefix) && name.endsWith(LOG_SUFFIX)
+			&& name.indexOf('.', activePrefix.length()) == name.length() - LOG_SUFFIX.length()) {
+		    continue;
+
+		}
+		candidates.add(file);
+
+	    }
+
+	    candidates.sort((first, second) -> {
+		try {
+		    return Files.getLastModifiedTime(first).compareTo(Files.getLastModifiedTime(second));
+
+		} catch (final IOException e) {
+		    return 0;
+
+		}
+	    });
+
+	    final long oldest = System.currentTimeMillis() - mPolicy.getMaxAgeDays() * DAY_MS;
+
+	    for (final Path file : candidates) {
+		final boolean expired = mPolicy.getMaxAgeDays() > 0
+			&& Files.getLastModifiedTime(file).toMillis() < oldest;
+		final boolean exceeding = mPolicy.getMaxTotalBytes() > 0 && total > mPolicy.getMaxTotalBytes();
+
+		if (!expired && !exceeding) {
+		    break;
+
+		}
+		total -= Files.size(file);
+		Files.delete(file);
+		mDeleted.incrementAndGet();
+
+	    }
+	} catch (final IOException e) {
+	    e.printStackTrace();
+
+	}
+    }
+
+    /**
+     * Executes the given task on the background thread, e.g. to enforce the
+     * retention of remote log files.
+     * 
+     * @param task The task to execute.
+     */
+    public void execute(final Runnable task) {
+	mExecutor.execute(() -> {
+	    try {
+		task.run();
+
+	    } catch (final RuntimeException e) {
+		e.printStackTrace();
+
+	    }
+	});
+    }
+
+    /**
+     * Gets the number of segments compressed.
+     * 
+     * @return The number mentioned.
+     */
+    public long getCompressedCount() {
+	return mCompressed.get();
+
+    }
+
+    /**
+     * Gets the number of log files deleted.
+     * 
+     * @return The number mentioned.
+     */
+    public long getDeletedCount() {
+	return mDeleted.get();
+
+    }
+
+    /**
+     * Gets the policy followed.
+     * 
+     * @return The policy mentioned.
+     */
+    public LogRetentionPolicy getPolicy() {
+	return mPolicy;
+
+    }
+
+    /**
+     * Gets the name of the given segment of a log file.
+     * 
+     * @param baseName The name of the log file, without the suffix
+     *                 <tt>.log</tt>.
+     * @param index    The index of the segment, 0 for the log file itself.
+     * @return The name mentioned.
+     */
+    public static String getSegmentName(final String baseName, final int index) {
+	return index == 0 ? baseName + LOG_SUFFIX : baseName + "." + index + LOG_SUFFIX;
+
+    }
+
+    /**
+     * Renames the given closed log file to its next free segment, and compresses
+     * the segment and enforces the retention afterwards, on the background
+     * thread.
+     * 
+     * @param file The closed log file, ending with <tt>.log</tt>.
+     * @return The path of the segment.
+     * @throws IOException If an I/O error occurs.
+     */
+    public Path rotate(final Path file) throws IOException {
+	final String name = file.getFileName().toString();
+	final String baseName = name.endsWith(LOG_SUFFIX) ? name.substring(0, name.length() - LOG_SUFFIX.length())
+		: name;
+	int index = 1;
+	Path segment;
+
+	while (true) {
+	    segment = file.resolveSibling(getSegmentName(baseName, index));
+
+	    if (!Files.exists(segment)
+		    && !Files.exists(segment.resolveSibling(segment.getFileName() + COMPRESSED_SUFFIX))) {
+		break;
+
+	    }
+	    index++;
+
+	}
+	Files.move(file, segment);
+
+	final List<Path> segments = new ArrayList<>(1);
+	segments.add(segment);
+	archive(segments);
+
+	return segment;
+
+    }
+}
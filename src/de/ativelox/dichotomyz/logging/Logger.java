@@ -1,5 +1,6 @@
 package de.ativelox.dichotomyz.logging;
 
+import de.ativelox.dichotomyz.metrics.MetricsRegistry;
 import de.ativelox.dichotomyz.settings.SettingsProvider;
 
 /**
@@ -17,16 +18,55 @@ public class Logger {
 
     /**
      * Gets the current logger used for this project. This should be the only way a
-     * logger is accessed.
+     * logger is accessed. Logs are handled asynchronously by an
+     * {@link AsyncLogger}, configured by {@link SettingsProvider#getLogQueueCapacity()}
+     * and {@link SettingsProvider#getLogBackpressurePolicy()}. Activity and
+     * status logs are written to the ftp server, or to a {@link LocalFileLogger}
+     * if {@link SettingsProvider#isLocalLoggingEnabled()}. Either way, the log
+     * files are rotated as configured by
+     * {@link SettingsProvider#getLogRetentionPolicy()}, local ones get compressed.
+     * The loggers are instrumented by {@link MeteredLogger}s, the queue by the
+     * gauges named <tt>logger.async.*</tt>.
      * 
      * @return The current logger.
      */
-    public static ILogger Get() {
+    public static synchronized ILogger Get() {
 	if (INSTANCE == null) {
-	    INSTANCE = new CombinedLogger(
-		    new PMLogger(SettingsProvider.getPMUser(), SettingsProvider.getPMDiscriminator()),
-		    new FTPLogger(SettingsProvider.getPath(), SettingsProvider.getFTPUser(),
-			    SettingsProvider.getFTPPassword(), SettingsProvider.getFTPHost()));
+	    final ILogger fileLogger;
+	    FTPLogger ftpLogger = null;
+
+	    if (SettingsProvider.isLocalLoggingEnabled()) {
+		// the async logger below flushes after every batch, thus logs are committed in groups.
+		fileLogger = new MeteredLogger(new LocalFileLogger(SettingsProvider.getPath(), true,
+			EFsyncPolicy.INTERVAL, new LogRotator(SettingsProvider.getLogRetentionPolicy())), "local");
+
+	    } else {
+		ftpLogger = new FTPLogger(SettingsProvider.getPath(), SettingsProvider.getFTPUser(),
+			SettingsProvider.getFTPPassword(), SettingsProvider.getFTPHost());
+		fileLogger = new MeteredLogger(ftpLogger, "ftp");
+
+	    }
+	    INSTANCE = new CombinedLogger(new MeteredLogger(
+		    new PMLogger(SettingsProvider.getPMUser(), SettingsProvider.getPMDiscriminator()), "pm"),
+		    fileLogger);
+
+	    // invalid settings read below are logged synchronously by the instance above.
+	    SettingsProvider.reportInvalidZoneOffset();
+
+	    if (ftpLogger != null) {
+		ftpLogger.setRotator(new LogRotator(SettingsProvider.getLogRetentionPolicy()));
+
+	    }
+	    final AsyncLogger asyncLogger = new AsyncLogger(INSTANCE, SettingsProvider.getLogQueueCapacity(),
+		    SettingsProvider.getLogBackpressurePolicy());
+	    INSTANCE = asyncLogger;
+
+	    final MetricsRegistry metrics = MetricsRegistry.Get();
+	    metrics.gauge("logger.async.queue", asyncLogger::getQueueDepth);
+	    metrics.gauge("logger.async.logged", asyncLogger::getLoggedCount);
+	    metrics.gauge("logger.async.dropped", asyncLogger::getDroppedCount);
+	    metrics.gauge("logger.async.latency.mean", asyncLogger::getAverageLatencyNanos);
+	    metrics.gauge("logger.async.latency.max", asyncLogger::getMaxLatencyNanos);
 
 	}
 	return INSTANCE;
@@ -0,0 +1,339 @@
+package de.ativelox.dichotomyz.logging;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import de.ativelox.dichotomyz.utils.TokenBucket;
+
+/**
+ * Coalesces lines into messages of up to {@link MessageBatcher#MAX_MESSAGE_LENGTH}
+ * characters, such that a burst of lines results in a few messages, rather
+ * than one message per line. Pending lines are sent once they fill a message,
+ * or once the oldest of them waited for the flush delay. Every message takes a
+ * token of the given {@link TokenBucket}, if none is available the messages
+ * wait for the next token. Urgent lines, e.g. warnings, are always sent before
+ * any other line, and only other lines are dropped once too many are pending.
+ * Messages are sent by a single background thread. This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MessageBatcher implements Closeable {
+
+    /**
+     * The maximum length of a single message, as allowed by Discord.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
+    /**
+     * The default time in ms a line waits for further lines, before being sent.
+     */
+    public static final long DEFAULT_FLUSH_DELAY_MS = 1000;
+
+    /**
+     * The maximum number of characters of lines not urgent, which may be pending.
+     */
+    private static final int MAX_PENDING_CHARS = 1 << 16;
+
+    /**
+     * The time in ms {@link MessageBatcher#close()} waits for the last flush,
+     * which sends the pending lines as far as tokens are available.
+     */
+    private static final long CLOSE_TIMEOUT_MS = 10000;
+
+    /**
+     * The separator between two lines of a message.
+     */
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Sends a single message.
+     */
+    private final Consumer<String> mSender;
+
+    /**
+     * The bucket limiting the rate of messages, with the time in ms.
+     */
+    private final TokenBucket mBucket;
+
+    /**
+     * The time in ms a line waits for further lines, before being sent.
+     */
+    private final long mFlushDelayMs;
+
+    /**
+     * The urgent lines pending. Guarded by this batcher.
+     */
+    private final ArrayDeque<String> mUrgent;
+
+    /**
+     * The lines pending, which are not urgent. Guarded by this batcher.
+     */
+    private final ArrayDeque<String> mNormal;
+
+    /**
+     * The number of characters pending, including separators. Guarded by this
+     * batcher.
+     */
+    private int mPendingChars;
+
+    /**
+     * The number of characters of the lines not urgent pending. Guarded by this
+     * batcher.
+     */
+    private int mNormalChars;
+
+    /**
+     * The number of lines dropped since the last message. Guarded by this
+     * batcher.
+     */
+    private long mDropped;
+
+    /**
+     * The next flush scheduled, or <tt>null</tt> if none. Guarded by this
+     * batcher.
+     */
+    private ScheduledFuture<?> mScheduled;
+
+    /**
+     * The time in ms of the next flush scheduled. Guarded by this batcher.
+     */
+    private long mScheduledAt;
+
+    /**
+     * The number of messages sent.
+     */
+    private volatile long mSent;
+
+    /**
+     * The thread sending the messages.
+     */
+    private final ScheduledExecutorService mExecutor;
+
+    /**
+     * Creates a new {@link MessageBatcher}.
+     * 
+     * @param sender       Sends a single message, called by the thread of the
+     *                     batcher.
+     * @param bucket       The bucket limiting the rate of messages, with the time
+     *                     in ms as given by {@link System#currentTimeMillis()}.
+     * @param flushDelayMs The time in ms a line waits for further lines, before
+     *                     being sent.
+     */
+    public MessageBatcher(final Consumer<String> sender, final TokenBucket bucket, final long flushDelayMs) {
+	mSender = sender;
+	mBucket = bucket;
+	mFlushDelayMs = flushDelayMs;
+
+	mUrgent = new ArrayDeque<>();
+	mNormal = new ArrayDeque<>();
+	mPendingChars = 0;
+	mNormalChars = 0;
+	mDropped = 0;
+	mScheduled = null;
+	mSent = 0;
+
+	mExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+	    final Thread thread = new Thread(runnable, "MessageBatcher");
+	    thread.setDaemon(true);
+	    return thread;
+
+	});
+    }
+
+    /**
+     * Queues the given line. Lines longer than a message are split.
+     * 
+     * @param line   The line, without separator.
+     * @param urgent Whether the line is sent before every line not urgent.
+     */
+    public synchronized void add(final String line, final boolean urgent) {
+	for (int start = 0; start < line.length() || start == 0; start += MAX_MESSAGE_LENGTH) {
+	    final String part = line.substring(start, Math.min(line.length(), start + MAX_MESSAGE_LENGTH));
+
+	    if (urgent) {
+		mUrgent.add(part);
+
+	    } else if (mNormalChars + part.length() > MAX_PENDING_CHARS) {
+		mDropped++;
+		continue;
+
+	    } else {
+		mNormal.add(part);
+		mNormalChars += part.length() + 1;
+
+	    }
+	    mPendingChars += part.length() + 1;
+
+	}
+
+	if (mPendingChars > MAX_MESSAGE_LENGTH) {
+	    schedule(0);
+
+	} else {
+	    schedule(mFlushDelayMs);
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+	synchronized (this) {
+	    schedule(0);
+
+	}
+	mExecutor.shutdown();
+
+	try {
+	    mExecutor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+
+	}
+	mExecutor.shutdownNow();
+
+    }
+
+    /**
+     * Sends the pending lines, as long as tokens are available, and schedules
+     * the next flush otherwise.
+     */
+    private void flush() {
+	while (true) {
+	    final String message;
+
+	    synchronized (this) {
+		mScheduled = null;
+
+		if (mPendingChars == 0 && mDropped == 0) {
+		    return;
+
+		}
+		final long wait = mBucket.getWaitTime(System.currentTimeMillis());
+
+		if (wait > 0) {
+		    schedule(wait);
+		    return;
+
+		}
+		mBucket.tryAcquire(System.currentTimeMillis());
+		message = take();
+
+	    }
+
+	    try {
+		mSender.accept(message);
+		mSent++;
+
+	    } catch (final RuntimeException e) {
+		// logging the failure would only queue another message.
+		e.printStackTrace();
+
+	    }
+	}
+    }
+
+    /**
+     * Gets the number of messages sent.
+     * 
+     * @return The number mentioned.
+     */
+    public long getSentCount() {
+	return mSent;
+
+    }
+
+    /**
+     * Schedules a flush after the given delay, unless a flush is scheduled
+     * earlier already. Must be called while holding the lock of this batcher.
+     * 
+     * @param delayMs The delay in ms.
+     */
+    private void schedule(final long delayMs) {
+	final long at = System.currentTimeMillis() + delayMs;
+
+	if (mScheduled != null) {
+	    if (mScheduledAt <= at) {
+		return;
+
+	    }
+	    mScheduled.cancel(false);
+
+	}
+
+	if (!mExecutor.isShutdown()) {
+	    mScheduled = mExecutor.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+	    mScheduledAt = at;
+
+	}
+    }
+
+    /**
+     * Takes the lines of the next message, urgent lines first. Must be called
+     * while holding the lock of this batcher.
+     * 
+     * @return The message mentioned.
+     */
+    private String take() {
+	final StringBuilder message = new StringBuilder(Math.min(mPendingChars, MAX_MESSAGE_LENGTH));
+
+	if (mDropped > 0) {
+	    message.append("[").append(mDropped).append(" lines dropped]");
+	    mDropped = 0;
+
+	}
+
+	while (!mUrgent.isEmpty() && fits(message, mUrgent.peek())) {
+	    append(message, mUrgent.poll());
+
+	}
+
+	while (mUrgent.isEmpty() && !mNormal.isEmpty() && fits(message, mNormal.peek())) {
+	    final String line = mNormal.poll();
+	    mNormalChars -= line.length() + 1;
+	    append(message, line);
+
+	}
+	return message.toString();
+
+    }
+
+    /**
+     * Appends the given line to the given message.
+     * 
+     * @param message The message.
+     * @param line    The line, taken from the pending lines.
+     */
+    private void append(final StringBuilder message, final String line) {
+	if (message.length() > 0) {
+	    message.append(SEPARATOR);
+
+	}
+	message.append(line);
+	mPendingChars -= line.length() + 1;
+
+    }
+
+    /**
+     * Whether the given line fits into the given message or not.
+     * 
+     * @param message The message.
+     * @param line    The line.
+     * @return <tt>true</tt> if the line fits, <tt>false</tt> otherwise.
+     */
+    private static boolean fits(final StringBuilder message, final String line) {
+	return message.length() + (message.length() > 0 ? 1 : 0) + line.length() <= MAX_MESSAGE_LENGTH;
+
+    }
+}
@@ -0,0 +1,138 @@
+package de.ativelox.dichotomyz.logging;
+
+import de.ativelox.dichotomyz.metrics.Counter;
+import de.ativelox.dichotomyz.metrics.Histogram;
+import de.ativelox.dichotomyz.metrics.MetricsRegistry;
+
+/**
+ * Forwards every log to the given logger, recording the time taken by
+ * {@link ILogger#log(ELogType, String)} in the histogram
+ * <tt>logger.&lt;name&gt;.log</tt>, and counting the logs which failed in
+ * <tt>logger.&lt;name&gt;.failures</tt>. Loggers which handle their failures
+ * themselves count them in the counter given by
+ * {@link MeteredLogger#getFailures(String)}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MeteredLogger implements ILogger {
+
+    /**
+     * The logger the logs are forwarded to.
+     */
+    private final ILogger mLogger;
+
+    /**
+     * The time taken per log.
+     */
+    private final Histogram mLatency;
+
+    /**
+     * The number of logs failed.
+     */
+    private final Counter mFailures;
+
+    /**
+     * Creates a new {@link MeteredLogger}.
+     * 
+     * @param logger The logger to forward the logs to.
+     * @param name   The name of the logger within the metrics.
+     */
+    public MeteredLogger(final ILogger logger, final String name) {
+	mLogger = logger;
+	mLatency = MetricsRegistry.Get().histogram("logger." + name + ".log");
+	mFailures = getFailures(name);
+
+    }
+
+    /**
+     * Gets the underlying logger.
+     * 
+     * @return The logger mentioned.
+     */
+    public ILogger getDelegate() {
+	return mLogger;
+
+    }
+
+    /**
+     * Gets the counter of the logs failed of the logger with the given name.
+     * 
+     * @param name The name of the logger within the metrics.
+     * @return The counter mentioned.
+     */
+    public static Counter getFailures(final String name) {
+	return MetricsRegistry.Get().counter("logger." + name + ".failures");
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logging.ILogger#close()
+     */
+    @Override
+    public void close() {
+	mLogger.close();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logging.ILogger#flush()
+     */
+    @Override
+    public void flush() {
+	mLogger.flush();
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+     * ELogType, java.lang.String)
+     */
+    @Override
+    public void log(final ELogType type, final String message) {
+	final long start = System.nanoTime();
+
+	try {
+	    mLogger.log(type, message);
+
+	} catch (final RuntimeException e) {
+	    mFailures.increment();
+	    throw e;
+
+	} finally {
+	    mLatency.recordSince(start);
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+     * ELogType, java.lang.String, java.lang.String)
+     */
+    @Override
+    public void log(final ELogType type, final String message, final String time) {
+	final long start = System.nanoTime();
+
+	try {
+	    mLogger.log(type, message, time);
+
+	} catch (final RuntimeException e) {
+	    mFailures.increment();
+	    throw e;
+
+	} finally {
+	    mLatency.recordSince(start);
+
+	}
+    }
+}
@@ -1,21 +1,43 @@
 package de.ativelox.dichotomyz.logging;
 
+import java.util.concurrent.CompletableFuture;
+
 import de.ativelox.dichotomyz.consumer.AsynchroniousPCMessageSender;
 import de.ativelox.dichotomyz.exceptions.PrivateChannelNotFoundException;
+import de.ativelox.dichotomyz.metrics.Counter;
 import de.ativelox.dichotomyz.utils.Timestamp;
+import de.ativelox.dichotomyz.utils.TokenBucket;
 import de.ativelox.dichotomyz.utils.UserUtils;
 import net.dv8tion.jda.core.entities.PrivateChannel;
-import net.dv8tion.jda.core.requests.RestAction;
 
 /**
  * This logger provides the possibility to log its logs as private messages to
- * the given user.
+ * the given user. Logs are coalesced into few messages by a
+ * {@link MessageBatcher}, which stays within the rate limit of Discord of
+ * {@link PMLogger#RATE_LIMIT} messages per {@link PMLogger#RATE_LIMIT_PERIOD_MS}
+ * ms, and sends warnings before any other log.
  * 
  * @author Ativelox {@literal ativelox.dev@web.de}
  *
  */
 public class PMLogger implements ILogger {
 
+    /**
+     * The number of messages Discord allows per channel in
+     * {@link PMLogger#RATE_LIMIT_PERIOD_MS}.
+     */
+    private static final int RATE_LIMIT = 5;
+
+    /**
+     * The period of the rate limit in ms.
+     */
+    private static final long RATE_LIMIT_PERIOD_MS = 5000;
+
+    /**
+     * The number of messages which couldn't be sent.
+     */
+    private static final Counter FAILURES = MeteredLogger.getFailures("pm");
+
     /**
      * The name of the user.
      */
@@ -26,6 +48,11 @@ public class PMLogger implements ILogger {
      */
     private final String mDiscriminator;
 
+    /**
+     * Coalesces the logs into messages.
+     */
+    private final MessageBatcher mBatcher;
+
     /**
      * Creates a new {@link PMLogger}.
      * 
@@ -35,6 +62,19 @@ public class PMLogger implements ILogger {
     public PMLogger(final String name, final String discriminator) {
 	mName = name;
 	mDiscriminator = discriminator;
+	mBatcher = new MessageBatcher(this::send,
+		new TokenBucket(RATE_LIMIT, RATE_LIMIT_PERIOD_MS), MessageBatcher.DEFAULT_FLUSH_DELAY_MS);
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see de.ativelox.dichotomyz.logging.ILogger#close()
+     */
+    @Override
+    public void close() {
+	mBatcher.close();
 
     }
 
@@ -47,6 +87,19 @@ public class PMLogger implements ILogger {
      */
     @Override
     public void log(final ELogType type, final String message) {
+	log(type, message, Timestamp.getCurrentTime());
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+     * ELogType, java.lang.String, java.lang.String)
+     */
+    @Override
+    public void log(final ELogType type, final String message, final String time) {
 	if (type == ELogType.PM) {
 	    final String author = message.split(":")[0].trim().toLowerCase();
 
@@ -56,18 +109,30 @@ public class PMLogger implements ILogger {
 	    }
 	}
 
+	mBatcher.add("[" + time + " | " + type.toString() + "]: " + message,
+		type == ELogType.WARNING);
+
+    }
+
+    /**
+     * Sends the given message to the user.
+     * 
+     * @param message The message.
+     */
+    private void send(final String message) {
 	try {
-	    final RestAction<PrivateChannel> channel = UserUtils.getPrivateChannelFromName(mName, mDiscriminator);
+	    final CompletableFuture<PrivateChannel> channel = UserUtils.getPrivateChannelFromName(mName,
+		    mDiscriminator);
 	    if (channel == null) {
 		// bot is not yet fully logged in, thus we cannot send private messages
 		return;
 
 	    }
 
-	    channel.queue(new AsynchroniousPCMessageSender(
-		    "[" + Timestamp.getCurrentTime() + " | " + type.toString() + "]: " + message));
+	    channel.thenAccept(new AsynchroniousPCMessageSender(message));
 
 	} catch (final PrivateChannelNotFoundException e) {
+	    FAILURES.increment();
 	    e.printStackTrace();
 
 	}
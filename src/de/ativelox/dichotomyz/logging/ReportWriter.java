@@ -0,0 +1,207 @@
+package de.ativelox.dichotomyz.logging;
+
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Writes a report line by line into a reusable buffer, which is passed to an
+ * {@link ILogger} in chunks of whole lines, each starting with the header of
+ * the report. Thus the report is never materialized as a whole, and appending
+ * strings, numbers and durations doesn't allocate, only a single string per
+ * chunk is created. A chunk is passed on as soon as it has reached the chunk
+ * size, thus it exceeds the chunk size by at most one line. This class is not
+ * thread-safe, but may be reused for several reports one after another.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ReportWriter {
+
+    /**
+     * The default number of characters after which a chunk gets passed on.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The separator of lines.
+     */
+    private static final String SEPARATOR = "\r\n";
+
+    /**
+     * The buffer of the current chunk.
+     */
+    private final StringBuilder mBuffer;
+
+    /**
+     * The number of characters after which a chunk gets passed on.
+     */
+    private final int mChunkSize;
+
+    /**
+     * The logger the chunks of the current report are passed to.
+     */
+    private ILogger mLogger;
+
+    /**
+     * The type the chunks of the current report are logged with.
+     */
+    private ELogType mType;
+
+    /**
+     * The header every chunk of the current report starts with.
+     */
+    private String mHeader;
+
+    /**
+     * The number of lines in the current chunk, excluding the header.
+     */
+    private int mLines;
+
+    /**
+     * The number of chunks of the current report passed on so far.
+     */
+    private int mChunks;
+
+    /**
+     * Creates a new {@link ReportWriter}.
+     * 
+     * @param chunkSize The number of characters after which a chunk gets passed
+     *                  on, must be positive.
+     */
+    public ReportWriter(final int chunkSize) {
+	if (chunkSize <= 0) {
+	    throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+
+	}
+	mChunkSize = chunkSize;
+	mBuffer = new StringBuilder(chunkSize);
+
+    }
+
+    /**
+     * Appends the given character to the current line.
+     * 
+     * @param c The character to append.
+     * @return This writer.
+     */
+    public ReportWriter append(final char c) {
+	mBuffer.append(c);
+	return this;
+
+    }
+
+    /**
+     * Appends the given number to the current line.
+     * 
+     * @param value The number to append.
+     * @return This writer.
+     */
+    public ReportWriter append(final long value) {
+	mBuffer.append(value);
+	return this;
+
+    }
+
+    /**
+     * Appends the given string to the current line.
+     * 
+     * @param s The string to append.
+     * @return This writer.
+     */
+    public ReportWriter append(final String s) {
+	mBuffer.append(s);
+	return this;
+
+    }
+
+    /**
+     * Appends the given duration to the current line, formatted as by
+     * {@link Timestamp#msToReadable(long)}.
+     * 
+     * @param ms The duration in milliseconds.
+     * @return This writer.
+     */
+    public ReportWriter appendDuration(final long ms) {
+	Timestamp.appendReadable(mBuffer, ms);
+	return this;
+
+    }
+
+    /**
+     * Starts a new report. A report started before, but not finished, is
+     * discarded.
+     * 
+     * @param logger The logger to pass the chunks to.
+     * @param type   The type to log the chunks with.
+     * @param header The header every chunk starts with.
+     */
+    public void begin(final ILogger logger, final ELogType type, final String header) {
+	mLogger = logger;
+	mType = type;
+	mHeader = header;
+	mChunks = 0;
+	startChunk();
+
+    }
+
+    /**
+     * Ends the current line, passing on the current chunk if it has reached the
+     * chunk size.
+     * 
+     * @return This writer.
+     */
+    public ReportWriter endLine() {
+	mBuffer.append(SEPARATOR);
+	mLines++;
+
+	if (mBuffer.length() >= mChunkSize) {
+	    emit();
+	    startChunk();
+
+	}
+	return this;
+
+    }
+
+    /**
+     * Passes on the current chunk.
+     */
+    private void emit() {
+	mLogger.log(mType, mBuffer.toString());
+	mChunks++;
+
+    }
+
+    /**
+     * Finishes the current report, passing on the lines not passed on yet. A
+     * report without any line is passed on as its header only.
+     */
+    public void finish() {
+	if (mLines > 0 || mChunks == 0) {
+	    emit();
+
+	}
+	mBuffer.setLength(0);
+	mLogger = null;
+
+    }
+
+    /**
+     * Gets the number of chunks of the current report passed on so far.
+     * 
+     * @return The number mentioned.
+     */
+    public int getChunkCount() {
+	return mChunks;
+
+    }
+
+    /**
+     * Clears the buffer and writes the header of the current report.
+     */
+    private void startChunk() {
+	mBuffer.setLength(0);
+	mBuffer.append(mHeader).append(SEPARATOR);
+	mLines = 0;
+
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.logging.ActivityAccumulator;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides Tests for {@link ActivityAccumulator}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityAccumulatorTest {
+
+    /**
+     * The id of the first user.
+     */
+    private static final long FIRST_ID = 301234567890123456L;
+
+    /**
+     * The id of the second user.
+     */
+    private static final long SECOND_ID = 301234567890123457L;
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityAccumulator#changeStatus(int, OnlineStatus, long)}.
+     */
+    @Test
+    public void testChangeStatus() {
+	final ActivityAccumulator accumulator = new ActivityAccumulator(1);
+	final int first = accumulator.addMember(FIRST_ID);
+
+	accumulator.changeStatus(first, OnlineStatus.ONLINE, 1000);
+	accumulator.changeStatus(first, OnlineStatus.IDLE, 3000);
+	accumulator.changeStatus(first, OnlineStatus.ONLINE, 3500);
+	accumulator.changeStatus(first, OnlineStatus.OFFLINE, 4000);
+
+	// the second member grows the arrays.
+	final int second = accumulator.addMember(SECOND_ID);
+	accumulator.changeStatus(second, OnlineStatus.ONLINE, 4000);
+	accumulator.changeStatus(second, OnlineStatus.IDLE, 4100);
+
+	Assert.assertEquals(first, accumulator.addMember(FIRST_ID));
+	Assert.assertEquals(2, accumulator.getMemberCount());
+	Assert.assertEquals(SECOND_ID, accumulator.getMemberId(second));
+
+	Assert.assertEquals(2500, accumulator.getStatusTime(first, OnlineStatus.ONLINE));
+	Assert.assertEquals(500, accumulator.getStatusTime(first, OnlineStatus.IDLE));
+	Assert.assertEquals(0, accumulator.getStatusTime(first, OnlineStatus.OFFLINE));
+	Assert.assertEquals(100, accumulator.getStatusTime(second, OnlineStatus.ONLINE));
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityAccumulator#stopActivity(int, String, long)}.
+     */
+    @Test
+    public void testActivities() {
+	final ActivityAccumulator accumulator = new ActivityAccumulator(1);
+	final int first = accumulator.addMember(FIRST_ID);
+	final int second = accumulator.addMember(SECOND_ID);
+
+	accumulator.startActivity(first, "Game", 0);
+	accumulator.stopActivity(first, "Game", 100);
+	accumulator.startActivity(first, "Game", 1000);
+	// starting a game played already is ignored.
+	accumulator.startActivity(first, "Game", 1020);
+	accumulator.stopActivity(first, "Game", 1050);
+
+	accumulator.startActivity(second, "Game", 0);
+	accumulator.startActivity(second, "Other", 0);
+	accumulator.stopActivity(second, "Other", 10);
+
+	// stopping a game never started is ignored.
+	accumulator.stopActivity(first, "Other", 2000);
+	accumulator.stopActivity(first, "Unknown", 2000);
+
+	Assert.assertEquals(3, accumulator.getActivityCount());
+
+	Assert.assertEquals(first, accumulator.getActivityMember(0));
+	Assert.assertEquals("Game", accumulator.getActivityGame(0));
+	Assert.assertEquals(150, accumulator.getActivityTime(0));
+
+	Assert.assertEquals(second, accumulator.getActivityMember(1));
+	Assert.assertEquals(0, accumulator.getActivityTime(1));
+
+	Assert.assertEquals("Other", accumulator.getActivityGame(2));
+	Assert.assertEquals(10, accumulator.getActivityTime(2));
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityAccumulator#rollover(long)}.
+     */
+    @Test
+    public void testRolloverContinuesRunningPeriods() {
+	final ActivityAccumulator accumulator = new ActivityAccumulator(1);
+	final int first = accumulator.addMember(FIRST_ID);
+
+	accumulator.changeStatus(first, OnlineStatus.ONLINE, 0);
+	accumulator.startActivity(first, "Game", 100);
+	accumulator.startActivity(first, "Other", 100);
+	accumulator.stopActivity(first, "Other", 200);
+
+	final ActivityAccumulator next = accumulator.rollover(1000);
+
+	Assert.assertEquals(1000, accumulator.getStatusTime(first, OnlineStatus.ONLINE));
+	Assert.assertEquals(900, accumulator.getActivityTime(0));
+	Assert.assertEquals(100, accumulator.getActivityTime(1));
+
+	final int continued = next.addMember(FIRST_ID);
+	next.changeStatus(continued, OnlineStatus.IDLE, 1500);
+	next.stopActivity(continued, "Game", 1200);
+
+	Assert.assertEquals(1, next.getMemberCount());
+	Assert.assertEquals(500, next.getStatusTime(continued, OnlineStatus.ONLINE));
+	Assert.assertEquals(1, next.getActivityCount());
+	Assert.assertEquals("Game", next.getActivityGame(0));
+	Assert.assertEquals(200, next.getActivityTime(0));
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityAccumulator#rollover(long)},
+     * rolling over at a time before the latest changes.
+     */
+    @Test
+    public void testRolloverCarriesLaterPeriods() {
+	final ActivityAccumulator accumulator = new ActivityAccumulator(1);
+	final int first = accumulator.addMember(FIRST_ID);
+
+	accumulator.changeStatus(first, OnlineStatus.ONLINE, 0);
+	accumulator.changeStatus(first, OnlineStatus.IDLE, 1000);
+	accumulator.startActivity(first, "Game", 1000);
+
+	final ActivityAccumulator next = accumulator.rollover(900);
+
+	Assert.assertEquals(1000, accumulator.getStatusTime(first, OnlineStatus.ONLINE));
+	Assert.assertEquals(0, accumulator.getStatusTime(first, OnlineStatus.IDLE));
+	Assert.assertEquals(0, accumulator.getActivityTime(0));
+
+	final int continued = next.addMember(FIRST_ID);
+	next.changeStatus(continued, OnlineStatus.ONLINE, 1500);
+	next.stopActivity(continued, "Game", 1200);
+
+	Assert.assertEquals(500, next.getStatusTime(continued, OnlineStatus.IDLE));
+	Assert.assertEquals(200, next.getActivityTime(0));
+
+    }
+
+}
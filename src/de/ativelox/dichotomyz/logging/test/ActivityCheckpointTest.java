@@ -0,0 +1,309 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.logging.ActivityAccumulator;
+import de.ativelox.dichotomyz.logging.ActivityCheckpoint;
+import de.ativelox.dichotomyz.logging.ActivityTracker;
+import de.ativelox.dichotomyz.utils.Timestamp;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides Tests for {@link ActivityCheckpoint}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityCheckpointTest {
+
+    /**
+     * The id of the guild.
+     */
+    private static final long GUILD_ID = 301234567890000000L;
+
+    /**
+     * The id of the first user.
+     */
+    private static final long FIRST_ID = 301234567890123456L;
+
+    /**
+     * The id of the second user.
+     */
+    private static final long SECOND_ID = 301234567890123457L;
+
+    /**
+     * Deletes the given directory and every file in it.
+     * 
+     * @param directory The directory mentioned.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void deleteDirectory(final Path directory) throws IOException {
+	try (final Stream<Path> files = Files.list(directory)) {
+	    for (final Path file : (Iterable<Path>) files::iterator) {
+		Files.delete(file);
+
+	    }
+	}
+	Files.delete(directory);
+
+    }
+
+    /**
+     * Gets the time accumulated in the given snapshots for the given member and
+     * status.
+     * 
+     * @param snapshots The snapshots mentioned.
+     * @param memberId  The id of the member.
+     * @param status    The status.
+     * @return The time mentioned.
+     */
+    private static long getStatusTime(final ActivityAccumulator[] snapshots, final long memberId,
+	    final OnlineStatus status) {
+	long time = 0;
+
+	for (final ActivityAccumulator snapshot : snapshots) {
+	    for (int member = 0; member < snapshot.getMemberCount(); member++) {
+		if (snapshot.getMemberId(member) == memberId) {
+		    time += snapshot.getStatusTime(member, status);
+
+		}
+	    }
+	}
+	return time;
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityCheckpoint#restore(ActivityTracker)}
+     * after a crash, where the changes are spread over a snapshot and several
+     * batches of the log.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testRestoreAfterCrash() throws IOException {
+	final Path directory = Files.createTempDirectory("activitycheckpointtest");
+
+	try {
+	    final AtomicLong clock = new AtomicLong(1000);
+	    final ActivityTracker tracker = new ActivityTracker(2, 2, clock::get);
+	    final ActivityCheckpoint checkpoint = new ActivityCheckpoint(directory, GUILD_ID);
+
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.ONLINE);
+	    tracker.changeStatus(SECOND_ID, OnlineStatus.IDLE);
+	    tracker.startActivity(FIRST_ID, "Game");
+
+	    // the first checkpoint writes a snapshot.
+	    checkpoint.checkpoint(tracker);
+	    final long snapshotSize = Files.size(directory.resolve(GUILD_ID + ".0.snapshot"));
+
+	    clock.set(2000);
+	    tracker.stopActivity(FIRST_ID, "Game");
+	    checkpoint.checkpoint(tracker);
+	    final long firstBatch = Files.size(directory.resolve(GUILD_ID + ".wal"));
+
+	    // batches only hold the members changed.
+	    clock.set(3000);
+	    tracker.changeStatus(SECOND_ID, OnlineStatus.ONLINE);
+	    checkpoint.checkpoint(tracker);
+
+	    clock.set(4000);
+	    checkpoint.checkpoint(tracker);
+
+	    Assert.assertTrue(firstBatch < snapshotSize);
+
+	    // the crash: the tracker and checkpoint are abandoned.
+	    checkpoint.close();
+	    clock.set(10000);
+
+	    final ActivityTracker restarted = new ActivityTracker(2, 2, clock::get);
+	    final ActivityCheckpoint restored = new ActivityCheckpoint(directory, GUILD_ID);
+	    Assert.assertTrue(restored.restore(restarted));
+
+	    // periods running are ended at the last checkpoint.
+	    final ActivityAccumulator[] snapshots = restarted.snapshot();
+	    Assert.assertEquals(3000, getStatusTime(snapshots, FIRST_ID, OnlineStatus.ONLINE));
+	    Assert.assertEquals(2000, getStatusTime(snapshots, SECOND_ID, OnlineStatus.IDLE));
+	    Assert.assertEquals(1000, getStatusTime(snapshots, SECOND_ID, OnlineStatus.ONLINE));
+
+	    int activities = 0;
+	    for (final ActivityAccumulator snapshot : snapshots) {
+		for (int activity = 0; activity < snapshot.getActivityCount(); activity++) {
+		    Assert.assertEquals("Game", snapshot.getActivityGame(activity));
+		    Assert.assertEquals(1000, snapshot.getActivityTime(activity));
+		    activities++;
+
+		}
+	    }
+	    Assert.assertEquals(1, activities);
+
+	    restored.delete();
+	    Assert.assertFalse(Files.exists(directory.resolve(GUILD_ID + ".wal")));
+
+	} finally {
+	    deleteDirectory(directory);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityCheckpoint#restore(ActivityTracker)}
+     * after a crash shortly after midnight, where the snapshot written after the
+     * rollover of the tracker belongs to the new day.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testRestoreAfterRollover() throws IOException {
+	final Path directory = Files.createTempDirectory("activitycheckpointtest");
+
+	try {
+	    final long midnight = LocalDate.of(2018, 3, 2).atStartOfDay().toInstant(Timestamp.getZoneOffset())
+		    .toEpochMilli();
+	    final AtomicLong clock = new AtomicLong(midnight - 1000);
+	    final ActivityTracker tracker = new ActivityTracker(1, 1, clock::get);
+	    final ActivityCheckpoint checkpoint = new ActivityCheckpoint(directory, GUILD_ID);
+
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.ONLINE);
+	    checkpoint.checkpoint(tracker);
+
+	    // the day passes, the times of the former day get logged.
+	    clock.set(midnight + 10);
+	    tracker.snapshot();
+
+	    clock.set(midnight + 500);
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.IDLE);
+	    checkpoint.checkpoint(tracker);
+	    checkpoint.close();
+
+	    clock.set(midnight + 2000);
+	    final ActivityTracker restarted = new ActivityTracker(1, 1, clock::get);
+	    Assert.assertTrue(new ActivityCheckpoint(directory, GUILD_ID).restore(restarted));
+
+	    final ActivityAccumulator[] snapshots = restarted.snapshot();
+	    Assert.assertEquals(490, getStatusTime(snapshots, FIRST_ID, OnlineStatus.ONLINE));
+
+	} finally {
+	    deleteDirectory(directory);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityCheckpoint#restore(ActivityTracker)},
+     * where the latest snapshot is held by the first of the files the snapshots
+     * alternate between.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testRestoreLatestSnapshot() throws IOException {
+	final Path directory = Files.createTempDirectory("activitycheckpointtest");
+
+	try {
+	    final AtomicLong clock = new AtomicLong(0);
+	    final ActivityTracker tracker = new ActivityTracker(1, 1, clock::get);
+	    final ActivityCheckpoint checkpoint = new ActivityCheckpoint(directory, GUILD_ID);
+
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.ONLINE);
+	    checkpoint.checkpoint(tracker);
+
+	    // every snapshot of the tracker makes the next checkpoint write a snapshot.
+	    clock.set(100);
+	    tracker.snapshot();
+	    checkpoint.checkpoint(tracker);
+
+	    clock.set(200);
+	    tracker.snapshot();
+
+	    clock.set(300);
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.IDLE);
+	    checkpoint.checkpoint(tracker);
+	    checkpoint.close();
+
+	    clock.set(1000);
+	    final ActivityTracker restarted = new ActivityTracker(1, 1, clock::get);
+	    final ActivityCheckpoint restored = new ActivityCheckpoint(directory, GUILD_ID);
+	    Assert.assertTrue(restored.restore(restarted));
+
+	    final ActivityAccumulator[] snapshots = restarted.snapshot();
+	    Assert.assertEquals(100, getStatusTime(snapshots, FIRST_ID, OnlineStatus.ONLINE));
+
+	    // the files aren't held open by the restore.
+	    restored.delete();
+	    Assert.assertFalse(Files.exists(directory.resolve(GUILD_ID + ".0.snapshot")));
+
+	} finally {
+	    deleteDirectory(directory);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityCheckpoint#restore(ActivityTracker)},
+     * where the last batch of the log was only partially written.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testRestoreIgnoresTornBatch() throws IOException {
+	final Path directory = Files.createTempDirectory("activitycheckpointtest");
+
+	try {
+	    final AtomicLong clock = new AtomicLong(0);
+	    final ActivityTracker tracker = new ActivityTracker(1, 1, clock::get);
+	    final ActivityCheckpoint checkpoint = new ActivityCheckpoint(directory, GUILD_ID);
+
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.ONLINE);
+	    tracker.startActivity(FIRST_ID, "Game");
+	    checkpoint.checkpoint(tracker);
+
+	    clock.set(500);
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.IDLE);
+	    checkpoint.checkpoint(tracker);
+
+	    clock.set(900);
+	    tracker.changeStatus(FIRST_ID, OnlineStatus.ONLINE);
+	    checkpoint.checkpoint(tracker);
+	    checkpoint.close();
+
+	    // cut off the end of the last batch.
+	    final Path log = directory.resolve(GUILD_ID + ".wal");
+	    try (final FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+		channel.truncate(channel.size() - 3);
+
+	    }
+
+	    final ActivityTracker restarted = new ActivityTracker(1, 1, clock::get);
+	    Assert.assertTrue(new ActivityCheckpoint(directory, GUILD_ID).restore(restarted));
+
+	    final ActivityAccumulator snapshot = restarted.snapshot()[0];
+	    Assert.assertEquals(500, snapshot.getStatusTime(0, OnlineStatus.ONLINE));
+	    Assert.assertEquals(0, snapshot.getStatusTime(0, OnlineStatus.IDLE));
+	    Assert.assertEquals("Game", snapshot.getActivityGame(0));
+	    Assert.assertEquals(500, snapshot.getActivityTime(0));
+
+	} finally {
+	    deleteDirectory(directory);
+
+	}
+    }
+
+}
@@ -0,0 +1,201 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.logging.ActivityAccumulator;
+import de.ativelox.dichotomyz.logging.ActivityTracker;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides Tests for {@link ActivityTracker}, hammering a single tracker from
+ * several threads while snapshots are taken concurrently.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ActivityTrackerTest {
+
+    /**
+     * The number of threads changing statuses and games.
+     */
+    private static final int WRITERS = 8;
+
+    /**
+     * The number of members every writer changes.
+     */
+    private static final int MEMBERS_PER_WRITER = 64;
+
+    /**
+     * The number of changes every writer makes.
+     */
+    private static final int CHANGES_PER_WRITER = 200000;
+
+    /**
+     * The id of the first member.
+     */
+    private static final long FIRST_ID = 301234567890123456L;
+
+    /**
+     * The statuses members cycle through.
+     */
+    private static final OnlineStatus[] CYCLE = { OnlineStatus.ONLINE, OnlineStatus.IDLE,
+	    OnlineStatus.DO_NOT_DISTURB, OnlineStatus.OFFLINE };
+
+    /**
+     * Adds the times of the given snapshots per member.
+     * 
+     * @param snapshots  The snapshots to add.
+     * @param statusTime The time of every status per member, indexed by the
+     *                   members offset to {@link #FIRST_ID}.
+     * @param gameTime   The time of every game per member, indexed as above.
+     */
+    private static void add(final ActivityAccumulator[] snapshots, final long[] statusTime,
+	    final long[] gameTime) {
+	for (final ActivityAccumulator snapshot : snapshots) {
+	    for (int member = 0; member < snapshot.getMemberCount(); member++) {
+		final int index = (int) (snapshot.getMemberId(member) - FIRST_ID);
+
+		for (final OnlineStatus status : OnlineStatus.values()) {
+		    statusTime[index] += snapshot.getStatusTime(member, status);
+
+		}
+	    }
+
+	    for (int activity = 0; activity < snapshot.getActivityCount(); activity++) {
+		final long time = snapshot.getActivityTime(activity);
+
+		Assert.assertTrue("negative time: " + time, time >= 0);
+		gameTime[(int) (snapshot.getMemberId(snapshot.getActivityMember(activity)) - FIRST_ID)] += time;
+
+	    }
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ActivityTracker#snapshot()}, taking
+     * snapshots while members change concurrently. No time may get lost or be
+     * counted twice, i.e. the status times of a member sum up to the time between
+     * its first change and the last snapshot, and no member may play longer than
+     * it was tracked.
+     * 
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    @Test
+    public void testConcurrentChangesAndSnapshots() throws InterruptedException {
+	final AtomicLong clock = new AtomicLong();
+	final ActivityTracker tracker = new ActivityTracker(0, 4, clock::incrementAndGet);
+
+	final int members = WRITERS * MEMBERS_PER_WRITER;
+	final long[] firstChange = new long[members];
+	final long[] statusTime = new long[members];
+	final long[] gameTime = new long[members];
+
+	final CountDownLatch start = new CountDownLatch(1);
+	final AtomicBoolean writing = new AtomicBoolean(true);
+	final List<Throwable> failures = new ArrayList<>();
+	final List<Thread> writers = new ArrayList<>();
+
+	for (int w = 0; w < WRITERS; w++) {
+	    final int writer = w;
+
+	    writers.add(new Thread(() -> {
+		try {
+		    start.await();
+
+		    for (int i = 0; i < MEMBERS_PER_WRITER; i++) {
+			final int index = writer * MEMBERS_PER_WRITER + i;
+
+			// the clock never goes backwards, thus this is a lower bound of the start.
+			firstChange[index] = clock.get();
+			tracker.changeStatus(FIRST_ID + index, OnlineStatus.ONLINE);
+
+		    }
+
+		    for (int i = 0; i < CHANGES_PER_WRITER; i++) {
+			final long id = FIRST_ID + writer * MEMBERS_PER_WRITER + i % MEMBERS_PER_WRITER;
+			final int round = i / MEMBERS_PER_WRITER;
+
+			tracker.changeStatus(id, CYCLE[round % CYCLE.length]);
+
+			if (round % 2 == 0) {
+			    tracker.startActivity(id, "Game" + (round % 3));
+
+			} else {
+			    tracker.stopActivity(id, "Game" + ((round - 1) % 3));
+
+			}
+		    }
+		} catch (final Throwable e) {
+		    synchronized (failures) {
+			failures.add(e);
+
+		    }
+		}
+	    }, "writer-" + w));
+	}
+
+	final Thread snapshotter = new Thread(() -> {
+	    try {
+		start.await();
+
+		while (writing.get()) {
+		    add(tracker.snapshot(), statusTime, gameTime);
+
+		}
+	    } catch (final Throwable e) {
+		synchronized (failures) {
+		    failures.add(e);
+
+		}
+	    }
+	}, "snapshotter");
+
+	for (final Thread thread : writers) {
+	    thread.start();
+
+	}
+	snapshotter.start();
+	start.countDown();
+
+	for (final Thread thread : writers) {
+	    thread.join();
+
+	}
+	writing.set(false);
+	snapshotter.join();
+
+	Assert.assertTrue(failures.toString(), failures.isEmpty());
+
+	final ActivityAccumulator[] last = tracker.snapshot();
+	final long end = clock.get();
+	add(last, statusTime, gameTime);
+
+	int tracked = 0;
+	for (final ActivityAccumulator snapshot : last) {
+	    tracked += snapshot.getMemberCount();
+
+	}
+	Assert.assertEquals(members, tracked);
+
+	for (int index = 0; index < members; index++) {
+	    // every member was online from its first change on, until its stripe was swapped.
+	    Assert.assertTrue("member " + index + " lost time: " + statusTime[index],
+		    statusTime[index] > 0 && statusTime[index] <= end - firstChange[index]);
+	    Assert.assertTrue("member " + index + " played too long: " + gameTime[index],
+		    gameTime[index] <= statusTime[index]);
+
+	}
+    }
+
+}
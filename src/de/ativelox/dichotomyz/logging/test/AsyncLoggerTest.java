@@ -0,0 +1,167 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.logging.AsyncLogger;
+import de.ativelox.dichotomyz.logging.EBackpressurePolicy;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.ILogger;
+
+/**
+ * Provides Tests for {@link AsyncLogger}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class AsyncLoggerTest {
+
+    /**
+     * A logger recording every message, which blocks on its first message until
+     * released, such that logs pile up in the queue of the {@link AsyncLogger}.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class GatedLogger implements ILogger {
+
+	/**
+	 * The messages logged, prefixed by their type.
+	 */
+	private final List<String> mMessages = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * The times passed along with the messages queued.
+	 */
+	private final List<String> mTimes = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Counted down as soon as the first message arrives.
+	 */
+	private final CountDownLatch mEntered = new CountDownLatch(1);
+
+	/**
+	 * Counted down to release the first message.
+	 */
+	private final CountDownLatch mGate = new CountDownLatch(1);
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+	 * ELogType, java.lang.String)
+	 */
+	@Override
+	public void log(final ELogType type, final String message) {
+	    mEntered.countDown();
+
+	    try {
+		mGate.await();
+
+	    } catch (final InterruptedException e) {
+		Thread.currentThread().interrupt();
+
+	    }
+	    mMessages.add(type + ": " + message);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.ativelox.dichotomyz.logging.ILogger#log(de.ativelox.dichotomyz.logging.
+	 * ELogType, java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void log(final ELogType type, final String message, final String time) {
+	    mTimes.add(time);
+	    log(type, message);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.AsyncLogger#log(ELogType, String)}.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Test
+    public void testForwardsMessagesOneByOne() throws InterruptedException {
+	final GatedLogger delegate = new GatedLogger();
+	final AsyncLogger logger = new AsyncLogger(delegate, 16, EBackpressurePolicy.BLOCK);
+
+	logger.log(ELogType.INFO, "first");
+	delegate.mEntered.await();
+
+	logger.log(ELogType.INFO, "a");
+	logger.log(ELogType.INFO, "b");
+	logger.log(ELogType.PM, "c");
+	logger.log(ELogType.PM, "d");
+	logger.log(ELogType.WARNING, "e");
+	Assert.assertEquals(5, logger.getQueueDepth());
+
+	delegate.mGate.countDown();
+	logger.flush();
+
+	Assert.assertEquals(Arrays.asList("INFO: first", "INFO: a", "INFO: b", "PM: c", "PM: d", "WARNING: e"),
+		delegate.mMessages);
+	Assert.assertEquals(6, delegate.mTimes.size());
+	Assert.assertTrue(delegate.mTimes.get(5).matches("\\d{2}:\\d{2}:\\d{2}"));
+	Assert.assertEquals(6, logger.getLoggedCount());
+	Assert.assertEquals(0, logger.getDroppedCount());
+	Assert.assertTrue(logger.getMaxLatencyNanos() >= logger.getAverageLatencyNanos());
+
+	logger.close();
+	logger.log(ELogType.STATUS, "closed");
+	Assert.assertEquals("STATUS: closed", delegate.mMessages.get(6));
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.AsyncLogger#log(ELogType, String)}.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Test
+    public void testDropByType() throws InterruptedException {
+	final GatedLogger delegate = new GatedLogger();
+	final AsyncLogger logger = new AsyncLogger(delegate, 4, EBackpressurePolicy.DROP_BY_TYPE);
+
+	logger.log(ELogType.STATUS, "first");
+	delegate.mEntered.await();
+
+	// debug logs are dropped as soon as the queue is half full.
+	logger.log(ELogType.DEBUG, "1");
+	logger.log(ELogType.DEBUG, "2");
+	logger.log(ELogType.DEBUG, "3");
+	Assert.assertEquals(1, logger.getDroppedCount(ELogType.DEBUG));
+
+	logger.log(ELogType.WARNING, "a");
+	logger.log(ELogType.WARNING, "b");
+	Assert.assertEquals(4, logger.getQueueDepth());
+
+	// the queue is full, thus the oldest log gets dropped.
+	logger.log(ELogType.STATUS, "c");
+	Assert.assertEquals(2, logger.getDroppedCount(ELogType.DEBUG));
+	Assert.assertEquals(2, logger.getDroppedCount());
+
+	delegate.mGate.countDown();
+	logger.close();
+
+	Assert.assertEquals(Arrays.asList("STATUS: first", "DEBUG: 2", "WARNING: a", "WARNING: b", "STATUS: c"),
+		delegate.mMessages);
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.ProjectPaths;
+import de.ativelox.dichotomyz.logging.EFsyncPolicy;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.LocalFileLogger;
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Provides Tests for {@link LocalFileLogger}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class LocalFileLoggerTest {
+
+    /**
+     * Deletes the given directory and everything in it.
+     * 
+     * @param directory The directory to delete.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void delete(final Path directory) throws IOException {
+	try (final Stream<Path> files = Files.walk(directory)) {
+	    final Object[] paths = files.sorted((a, b) -> b.compareTo(a)).toArray();
+
+	    for (final Object path : paths) {
+		Files.delete((Path) path);
+
+	    }
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.LocalFileLogger#log(ELogType, String)}.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testGroupCommit() throws IOException {
+	final Path directory = Files.createTempDirectory("localfileloggertest");
+
+	try {
+	    final LocalFileLogger logger = new LocalFileLogger(directory.toString() + "/", true,
+		    EFsyncPolicy.COMMIT);
+	    final Path debug = directory.resolve(ProjectPaths.DEBUG_PATH + Timestamp.getCurrentDate() + " - Debug.log");
+
+	    logger.log(ELogType.INFO, "first");
+	    logger.log(ELogType.WARNING, "second");
+	    Assert.assertEquals(0, Files.size(debug));
+
+	    logger.flush();
+	    final String content = new String(Files.readAllBytes(debug), StandardCharsets.UTF_8);
+
+	    Assert.assertTrue(content.startsWith("System start on the "));
+	    Assert.assertTrue(content.endsWith("\r\nfirst\r\n\r\nsecond"));
+
+	    logger.close();
+
+	    // a new logger appends to the existing file.
+	    final LocalFileLogger next = new LocalFileLogger(directory.toString() + "/");
+	    next.log(ELogType.DEBUG, "third");
+
+	    final String appended = new String(Files.readAllBytes(debug), StandardCharsets.UTF_8);
+	    Assert.assertTrue(appended.startsWith(content + "\r\n\r\nSystem start on the "));
+	    Assert.assertTrue(appended.endsWith("\r\nthird"));
+
+	    next.close();
+
+	} finally {
+	    delete(directory);
+
+	}
+    }
+
+}
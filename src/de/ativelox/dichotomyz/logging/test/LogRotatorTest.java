@@ -0,0 +1,178 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.ProjectPaths;
+import de.ativelox.dichotomyz.logging.EFsyncPolicy;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.LocalFileLogger;
+import de.ativelox.dichotomyz.logging.LogRetentionPolicy;
+import de.ativelox.dichotomyz.logging.LogRotator;
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Provides Tests for {@link LogRotator}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class LogRotatorTest {
+
+    /**
+     * Deletes the given directory and everything in it.
+     * 
+     * @param directory The directory to delete.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void delete(final Path directory) throws IOException {
+	try (final Stream<Path> files = Files.walk(directory)) {
+	    final Object[] paths = files.sorted((a, b) -> b.compareTo(a)).toArray();
+
+	    for (final Object path : paths) {
+		Files.delete((Path) path);
+
+	    }
+	}
+    }
+
+    /**
+     * Reads the given compressed file.
+     * 
+     * @param file The file to read.
+     * @return The decompressed content of the file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static String decompress(final Path file) throws IOException {
+	try (final InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+	    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	    final byte[] buffer = new byte[1024];
+	    int read;
+
+	    while ((read = in.read(buffer)) != -1) {
+		out.write(buffer, 0, read);
+
+	    }
+	    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+	}
+    }
+
+    /**
+     * Creates a log file of the given size, last modified the given number of
+     * days ago.
+     * 
+     * @param file    The file to create.
+     * @param size    The size of the file.
+     * @param daysAgo The number of days since the file was last modified.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void createLogFile(final Path file, final int size, final int daysAgo) throws IOException {
+	Files.write(file, new byte[size]);
+	Files.setLastModifiedTime(file,
+		FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)));
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.LogRotator#rotate(Path)}.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testRotateCompressesSegments() throws IOException {
+	final Path directory = Files.createTempDirectory("logrotatortest");
+
+	try {
+	    final LocalFileLogger logger = new LocalFileLogger(directory.toString() + "/", false, EFsyncPolicy.NONE,
+		    new LogRotator(new LogRetentionPolicy(64, 0, 0, true)));
+	    final String base = ProjectPaths.DEBUG_PATH + Timestamp.getCurrentDate() + " - Debug";
+	    final char[] message = new char[100];
+	    Arrays.fill(message, 'a');
+
+	    logger.log(ELogType.DEBUG, new String(message));
+	    logger.log(ELogType.DEBUG, "second");
+	    Arrays.fill(message, 'b');
+	    logger.log(ELogType.DEBUG, new String(message));
+
+	    // closing waits for the compression.
+	    logger.close();
+
+	    Assert.assertFalse(Files.exists(directory.resolve(base + ".1.log")));
+	    Assert.assertFalse(Files.exists(directory.resolve(base + ".log")));
+
+	    final String first = decompress(directory.resolve(base + ".1.log" + LogRotator.COMPRESSED_SUFFIX));
+	    final String second = decompress(directory.resolve(base + ".2.log" + LogRotator.COMPRESSED_SUFFIX));
+
+	    Assert.assertTrue(first.startsWith("System start on the "));
+	    Assert.assertTrue(first.endsWith("\r\n" + new String(new char[100]).replace('\0', 'a')));
+	    Assert.assertTrue(second.startsWith("System start on the "));
+	    Assert.assertTrue(second.contains("\r\nsecond\r\n\r\n"));
+	    Assert.assertTrue(second.endsWith(new String(message)));
+
+	} finally {
+	    delete(directory);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.LogRotator#archive(java.util.Collection)}.
+     * 
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    public void testRetention() throws IOException {
+	final Path directory = Files.createTempDirectory("logrotatortest");
+
+	try {
+	    final Path active = directory.resolve(Timestamp.getCurrentDate() + " - Debug.log");
+	    final Path expired = directory.resolve("01.01.2018 - Debug.log.gz");
+	    final Path oldest = directory.resolve("02.01.2018 - Debug.log.gz");
+	    final Path older = directory.resolve("03.01.2018 - Debug.log");
+	    final Path recent = directory.resolve("04.01.2018 - Debug.log");
+	    final Path other = directory.resolve("notes.txt");
+
+	    createLogFile(active, 100, 10);
+	    createLogFile(expired, 100, 5);
+	    createLogFile(oldest, 100, 3);
+	    createLogFile(older, 100, 2);
+	    createLogFile(recent, 100, 0);
+	    createLogFile(other, 1000, 10);
+
+	    final LogRotator rotator = new LogRotator(new LogRetentionPolicy(0, 4, 350, false));
+	    rotator.archive(Arrays.asList(recent));
+	    rotator.close();
+
+	    Assert.assertTrue(Files.exists(active));
+	    Assert.assertFalse(Files.exists(expired));
+	    Assert.assertFalse(Files.exists(oldest));
+	    Assert.assertTrue(Files.exists(older));
+	    Assert.assertTrue(Files.exists(recent));
+	    Assert.assertTrue(Files.exists(other));
+	    Assert.assertEquals(2, rotator.getDeletedCount());
+
+	} finally {
+	    delete(directory);
+
+	}
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.logging.MessageBatcher;
+import de.ativelox.dichotomyz.utils.TokenBucket;
+
+/**
+ * Provides Tests for {@link MessageBatcher}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MessageBatcherTest {
+
+    /**
+     * The number of messages allowed per {@link MessageBatcherTest#PERIOD_MS}.
+     */
+    private static final int RATE_LIMIT = 2;
+
+    /**
+     * The period of the rate limit in ms.
+     */
+    private static final long PERIOD_MS = 200;
+
+    /**
+     * The format of the lines logged, completed by their index.
+     */
+    private static final String LINE_FORMAT = "[INFO]: line %03d of the burst, padded to fifty chars";
+
+    /**
+     * Stands in for the REST endpoint, recording every request.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class RecordingEndpoint {
+
+	/**
+	 * The messages received.
+	 */
+	private final List<String> mMessages = new ArrayList<>();
+
+	/**
+	 * The time in ms every message was received.
+	 */
+	private final List<Long> mTimes = new ArrayList<>();
+
+	/**
+	 * Receives the given message.
+	 * 
+	 * @param message The message.
+	 */
+	private synchronized void send(final String message) {
+	    mMessages.add(message);
+	    mTimes.add(System.currentTimeMillis());
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.MessageBatcher#add(String, boolean)},
+     * where a burst of lines is coalesced into few messages within the rate
+     * limit, and a warning is sent ahead of the earlier lines.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Test
+    public void testBurstIsCoalescedWithinRateLimit() throws InterruptedException {
+	final RecordingEndpoint endpoint = new RecordingEndpoint();
+	final int lines = 200;
+
+	try (final MessageBatcher batcher = new MessageBatcher(endpoint::send, new TokenBucket(RATE_LIMIT, PERIOD_MS),
+		50)) {
+	    for (int i = 0; i < lines; i++) {
+		batcher.add(String.format(LINE_FORMAT, i), false);
+
+	    }
+	    batcher.add("[WARNING]: something failed", true);
+
+	    final long deadline = System.currentTimeMillis() + 5000;
+	    while (System.currentTimeMillis() < deadline) {
+		synchronized (endpoint) {
+		    final String last = endpoint.mMessages.isEmpty() ? ""
+			    : endpoint.mMessages.get(endpoint.mMessages.size() - 1);
+
+		    if (last.contains(String.format("line %03d", lines - 1))) {
+			break;
+
+		    }
+		}
+		Thread.sleep(10);
+
+	    }
+	    Thread.sleep(100);
+
+	    synchronized (endpoint) {
+		final List<String> messages = endpoint.mMessages;
+		final List<Long> times = endpoint.mTimes;
+		int warning = -1;
+		int lastLine = -1;
+		int next = 0;
+
+		Assert.assertEquals(messages.size(), batcher.getSentCount());
+		Assert.assertTrue("sent " + messages.size() + " messages", messages.size() <= 8);
+
+		for (int i = 0; i < messages.size(); i++) {
+		    Assert.assertTrue(messages.get(i).length() <= MessageBatcher.MAX_MESSAGE_LENGTH);
+
+		    for (final String line : messages.get(i).split("\n")) {
+			if (line.startsWith("[WARNING]")) {
+			    Assert.assertEquals(-1, warning);
+			    warning = i;
+
+			} else {
+			    Assert.assertEquals(String.format(LINE_FORMAT, next++), line);
+			    lastLine = i;
+
+			}
+		    }
+
+		    // no window of the period holds more messages than the bucket allows.
+		    if (i >= RATE_LIMIT) {
+			Assert.assertTrue(times.get(i) - times.get(i - RATE_LIMIT) >= PERIOD_MS - 10);
+
+		    }
+		}
+		Assert.assertEquals(lines, next);
+		Assert.assertTrue(warning >= 0 && warning < lastLine);
+
+	    }
+	}
+    }
+
+}
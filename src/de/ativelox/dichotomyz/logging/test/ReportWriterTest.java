@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.logging.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.ReportWriter;
+
+/**
+ * Provides Tests for {@link ReportWriter}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class ReportWriterTest {
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ReportWriter#endLine()}.
+     */
+    @Test
+    public void testChunksAtWholeLines() {
+	final List<String> chunks = new ArrayList<>();
+	final ReportWriter writer = new ReportWriter(32);
+
+	writer.begin((type, message) -> chunks.add(type + "|" + message), ELogType.STATUS, "Guild: a");
+
+	for (int i = 0; i < 5; i++) {
+	    writer.append("user").append(i).append(' ').appendDuration(5323000).endLine();
+
+	}
+	writer.finish();
+
+	// every chunk is passed on once it has reached 32 characters.
+	Assert.assertEquals(3, chunks.size());
+	Assert.assertEquals("STATUS|Guild: a\r\nuser0 01:28:43\r\nuser1 01:28:43\r\n", chunks.get(0));
+	Assert.assertEquals("STATUS|Guild: a\r\nuser2 01:28:43\r\nuser3 01:28:43\r\n", chunks.get(1));
+	Assert.assertEquals("STATUS|Guild: a\r\nuser4 01:28:43\r\n", chunks.get(2));
+
+	// the writer can be reused, reports without lines consist of their header.
+	chunks.clear();
+	writer.begin((type, message) -> chunks.add(type + "|" + message), ELogType.ACTIVITY, "Guild: b");
+	writer.finish();
+
+	Assert.assertEquals(1, chunks.size());
+	Assert.assertEquals("ACTIVITY|Guild: b\r\n", chunks.get(0));
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.logging.ReportWriter#finish()}, where the
+     * last line has filled the last chunk exactly.
+     */
+    @Test
+    public void testFinishSkipsEmptyChunk() {
+	final List<String> chunks = new ArrayList<>();
+	final ReportWriter writer = new ReportWriter(8);
+
+	writer.begin((type, message) -> chunks.add(message), ELogType.STATUS, "h");
+	writer.append("line").endLine();
+	writer.finish();
+
+	Assert.assertEquals(1, chunks.size());
+	Assert.assertEquals(1, writer.getChunkCount());
+	Assert.assertEquals("h\r\nline\r\n", chunks.get(0));
+
+    }
+
+}
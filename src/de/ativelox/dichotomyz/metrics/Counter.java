@@ -0,0 +1,56 @@
+package de.ativelox.dichotomyz.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. of events handled or of failures.
+ * Backed by a {@link LongAdder}, thus concurrent increments are striped across
+ * cells instead of contending on a single value, and never allocate once the
+ * cells exist. This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class Counter {
+
+    /**
+     * The count.
+     */
+    private final LongAdder mCount;
+
+    /**
+     * Creates a new {@link Counter} starting at zero.
+     */
+    Counter() {
+	mCount = new LongAdder();
+
+    }
+
+    /**
+     * Adds the given amount to this counter.
+     * 
+     * @param amount The non-negative amount mentioned.
+     */
+    public void add(final long amount) {
+	mCount.add(amount);
+
+    }
+
+    /**
+     * Gets the current count.
+     * 
+     * @return The count mentioned.
+     */
+    public long get() {
+	return mCount.sum();
+
+    }
+
+    /**
+     * Increments this counter by one.
+     */
+    public void increment() {
+	mCount.increment();
+
+    }
+}
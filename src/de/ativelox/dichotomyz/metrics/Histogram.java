@@ -0,0 +1,187 @@
+package de.ativelox.dichotomyz.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of latencies in ns, counted in fixed buckets whose upper
+ * bounds are the powers of two, i.e. bucket <tt>i</tt> counts latencies below
+ * <tt>2^i</tt> ns. Percentiles are therefore reported as the upper bound of
+ * their bucket, at most twice the exact value. Every bucket is a
+ * {@link LongAdder}, thus recording is lock-free and doesn't allocate once the
+ * cells exist. This class is thread-safe, reading while recording yields
+ * values that may be off by the latencies recorded concurrently.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class Histogram {
+
+    /**
+     * The number of buckets, the last one counting every latency of 2^38 ns,
+     * i.e. roughly 4.6 minutes, or more.
+     */
+    public static final int BUCKETS = 40;
+
+    /**
+     * The number of latencies recorded per bucket.
+     */
+    private final LongAdder[] mBuckets;
+
+    /**
+     * The sum of the latencies recorded, in ns.
+     */
+    private final LongAdder mSum;
+
+    /**
+     * The largest latency recorded, in ns.
+     */
+    private final LongAccumulator mMax;
+
+    /**
+     * Creates a new, empty {@link Histogram}.
+     */
+    Histogram() {
+	mBuckets = new LongAdder[BUCKETS];
+
+	for (int i = 0; i < BUCKETS; i++) {
+	    mBuckets[i] = new LongAdder();
+
+	}
+	mSum = new LongAdder();
+	mMax = new LongAccumulator(Math::max, 0);
+
+    }
+
+    /**
+     * Gets the bucket counting the given latency.
+     * 
+     * @param nanos The latency in ns.
+     * @return The index of the bucket mentioned.
+     */
+    private static int bucketOf(final long nanos) {
+	return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)));
+
+    }
+
+    /**
+     * Gets the number of latencies recorded.
+     * 
+     * @return The number mentioned.
+     */
+    public long getCount() {
+	long count = 0;
+
+	for (final LongAdder bucket : mBuckets) {
+	    count += bucket.sum();
+
+	}
+	return count;
+
+    }
+
+    /**
+     * Gets the largest latency recorded.
+     * 
+     * @return The latency mentioned in ns.
+     */
+    public long getMax() {
+	return mMax.get();
+
+    }
+
+    /**
+     * Gets the mean of the latencies recorded.
+     * 
+     * @return The mean mentioned in ns, or 0 if none was recorded.
+     */
+    public long getMean() {
+	final long count = getCount();
+	return count == 0 ? 0 : mSum.sum() / count;
+
+    }
+
+    /**
+     * Gets the upper bound of the bucket the given percentile of the latencies
+     * recorded falls into, but at most the largest latency recorded.
+     * 
+     * @param percentile The percentile, between 0 and 1.
+     * @return The latency mentioned in ns, or 0 if none was recorded.
+     */
+    public long getPercentile(final double percentile) {
+	final long[] counts = new long[BUCKETS];
+	long count = 0;
+
+	for (int i = 0; i < BUCKETS; i++) {
+	    counts[i] = mBuckets[i].sum();
+	    count += counts[i];
+
+	}
+
+	if (count == 0) {
+	    return 0;
+
+	}
+	final long rank = Math.max(1, (long) Math.ceil(percentile * count));
+	long seen = 0;
+
+	for (int i = 0; i < BUCKETS - 1; i++) {
+	    seen += counts[i];
+
+	    if (seen >= rank) {
+		return Math.min((1L << i) - 1, getMax());
+
+	    }
+	}
+	return getMax();
+
+    }
+
+    /**
+     * Records the given latency.
+     * 
+     * @param nanos The latency in ns.
+     */
+    public void record(final long nanos) {
+	mBuckets[bucketOf(nanos)].increment();
+	mSum.add(nanos);
+	mMax.accumulate(nanos);
+
+    }
+
+    /**
+     * Records the time passed since the given start.
+     * 
+     * @param startNanos The start, as given by {@link System#nanoTime()}.
+     */
+    public void recordSince(final long startNanos) {
+	record(System.nanoTime() - startNanos);
+
+    }
+
+    /**
+     * Appends a summary of this histogram to the given builder, giving the
+     * latencies in us.
+     * 
+     * @param target The builder to append to.
+     * @return The given builder.
+     */
+    public StringBuilder appendSummary(final StringBuilder target) {
+	return target.append("count=").append(getCount()).append(" mean=").append(toMicros(getMean()))
+		.append("us p50=").append(toMicros(getPercentile(0.5))).append("us p99=")
+		.append(toMicros(getPercentile(0.99))).append("us max=").append(toMicros(getMax())).append("us");
+
+    }
+
+    /**
+     * Converts the given latency to us.
+     * 
+     * @param nanos The latency in ns.
+     * @return The latency mentioned in us.
+     */
+    private static long toMicros(final long nanos) {
+	return TimeUnit.NANOSECONDS.toMicros(nanos);
+
+    }
+}
@@ -0,0 +1,21 @@
+package de.ativelox.dichotomyz.metrics;
+
+/**
+ * A value sampled whenever the metrics are read, e.g. the size of a queue or a
+ * count already kept by another class.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+@FunctionalInterface
+public interface IGauge {
+
+    /**
+     * Gets the current value of this gauge. Called by the thread reading the
+     * metrics, thus has to be thread-safe.
+     * 
+     * @return The value mentioned.
+     */
+    long getValue();
+
+}
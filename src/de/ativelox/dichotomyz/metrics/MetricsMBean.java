@@ -0,0 +1,211 @@
+package de.ativelox.dichotomyz.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.Logger;
+
+/**
+ * Exposes the metrics of a {@link MetricsRegistry} as read-only attributes of
+ * a single MBean, e.g. to be watched in JConsole. Counters and gauges are
+ * exposed by their names, histograms by their names followed by
+ * {@link MetricsMBean#HISTOGRAM_ATTRIBUTES}, e.g. <tt>logger.ftp.log.p99</tt>,
+ * giving latencies in ns. The attributes are read from the registry on every
+ * request, thus metrics registered later show up as well.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MetricsMBean implements DynamicMBean {
+
+    /**
+     * The name the MBean of the shared registry is registered under.
+     */
+    public static final String OBJECT_NAME = "de.ativelox.dichotomyz:type=Metrics";
+
+    /**
+     * The suffixes of the attributes of every histogram.
+     */
+    public static final String[] HISTOGRAM_ATTRIBUTES = { "count", "mean", "p50", "p99", "max" };
+
+    /**
+     * The registry exposed.
+     */
+    private final MetricsRegistry mRegistry;
+
+    /**
+     * Creates a new {@link MetricsMBean}.
+     * 
+     * @param registry The registry to expose.
+     */
+    public MetricsMBean(final MetricsRegistry registry) {
+	mRegistry = registry;
+
+    }
+
+    /**
+     * Registers the MBean of the shared registry with the platform MBean server
+     * under {@link MetricsMBean#OBJECT_NAME}, unless already registered.
+     */
+    public static void register() {
+	try {
+	    ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(MetricsRegistry.Get()),
+		    new ObjectName(OBJECT_NAME));
+
+	} catch (final InstanceAlreadyExistsException e) {
+	    // registered by a former instance already.
+
+	} catch (final JMException e) {
+	    Logger.Get().log(ELogType.WARNING, "Couldn't register the metrics with JMX: " + e.getMessage());
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.management.DynamicMBean#getAttribute(java.lang.String)
+     */
+    @Override
+    public Object getAttribute(final String attribute) throws AttributeNotFoundException {
+	final Map<String, Object> metrics = mRegistry.getMetrics();
+	final Object metric = metrics.get(attribute);
+
+	if (metric instanceof Counter) {
+	    return ((Counter) metric).get();
+
+	}
+	if (metric instanceof IGauge) {
+	    return MetricsRegistry.getValue((IGauge) metric);
+
+	}
+
+	final int separator = attribute.lastIndexOf('.');
+
+	if (separator > 0 && metrics.get(attribute.substring(0, separator)) instanceof Histogram) {
+	    final Histogram histogram = (Histogram) metrics.get(attribute.substring(0, separator));
+
+	    switch (attribute.substring(separator + 1)) {
+	    case "count":
+		return histogram.getCount();
+
+	    case "mean":
+		return histogram.getMean();
+
+	    case "p50":
+		return histogram.getPercentile(0.5);
+
+	    case "p99":
+		return histogram.getPercentile(0.99);
+
+	    case "max":
+		return histogram.getMax();
+
+	    default:
+		break;
+
+	    }
+	}
+	throw new AttributeNotFoundException("There's no metric " + attribute + ".");
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.management.DynamicMBean#getAttributes(java.lang.String[])
+     */
+    @Override
+    public AttributeList getAttributes(final String[] attributes) {
+	final AttributeList list = new AttributeList();
+
+	for (final String attribute : attributes) {
+	    try {
+		list.add(new Attribute(attribute, getAttribute(attribute)));
+
+	    } catch (final AttributeNotFoundException e) {
+		// attributes not found are left out, as specified.
+
+	    }
+	}
+	return list;
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.management.DynamicMBean#getMBeanInfo()
+     */
+    @Override
+    public MBeanInfo getMBeanInfo() {
+	final List<MBeanAttributeInfo> attributes = new ArrayList<>();
+
+	for (final Map.Entry<String, Object> entry : mRegistry.getMetrics().entrySet()) {
+	    if (entry.getValue() instanceof Histogram) {
+		for (final String suffix : HISTOGRAM_ATTRIBUTES) {
+		    attributes.add(new MBeanAttributeInfo(entry.getKey() + "." + suffix, "long",
+			    "The " + suffix + " of the latencies in ns.", true, false, false));
+
+		}
+	    } else {
+		attributes.add(new MBeanAttributeInfo(entry.getKey(), "long",
+			entry.getValue() instanceof Counter ? "A counter." : "A gauge.", true, false, false));
+
+	    }
+	}
+	return new MBeanInfo(getClass().getName(), "The metrics of DichotomyZ.",
+		attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, null, null);
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.management.DynamicMBean#invoke(java.lang.String,
+     * java.lang.Object[], java.lang.String[])
+     */
+    @Override
+    public Object invoke(final String actionName, final Object[] params, final String[] signature)
+	    throws ReflectionException {
+	throw new ReflectionException(new NoSuchMethodException(actionName), "The metrics don't provide operations.");
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.management.DynamicMBean#setAttribute(javax.management.Attribute)
+     */
+    @Override
+    public void setAttribute(final Attribute attribute) throws AttributeNotFoundException {
+	throw new AttributeNotFoundException("The metrics are read-only.");
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.management.DynamicMBean#setAttributes(javax.management.
+     * AttributeList)
+     */
+    @Override
+    public AttributeList setAttributes(final AttributeList attributes) {
+	return new AttributeList();
+
+    }
+}
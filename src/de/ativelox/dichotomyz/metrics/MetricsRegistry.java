@@ -0,0 +1,182 @@
+package de.ativelox.dichotomyz.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds every metric of this project by its name. Metrics are meant to be
+ * looked up once, e.g. when initializing a static field, and updated through
+ * the reference afterwards, thus updating them never touches the registry.
+ * Names are dot-separated, starting with the component they belong to, e.g.
+ * <tt>logger.ftp.log</tt>. This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MetricsRegistry {
+
+    /**
+     * The registry shared by the whole project.
+     */
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    /**
+     * A mapping from names to their metrics, either a {@link Counter}, a
+     * {@link Histogram} or an {@link IGauge}.
+     */
+    private final ConcurrentHashMap<String, Object> mMetrics;
+
+    /**
+     * Creates a new, empty {@link MetricsRegistry}.
+     */
+    public MetricsRegistry() {
+	mMetrics = new ConcurrentHashMap<>();
+
+    }
+
+    /**
+     * Gets the registry shared by the whole project.
+     * 
+     * @return The registry mentioned.
+     */
+    public static MetricsRegistry Get() {
+	return INSTANCE;
+
+    }
+
+    /**
+     * Appends every metric to the given builder, one per line and sorted by
+     * their names.
+     * 
+     * @param target The builder to append to.
+     * @return The given builder.
+     */
+    public StringBuilder appendTo(final StringBuilder target) {
+	for (final Map.Entry<String, Object> entry : getMetrics().entrySet()) {
+	    target.append(entry.getKey()).append(' ');
+	    final Object metric = entry.getValue();
+
+	    if (metric instanceof Counter) {
+		target.append(((Counter) metric).get());
+
+	    } else if (metric instanceof Histogram) {
+		((Histogram) metric).appendSummary(target);
+
+	    } else {
+		target.append(getValue((IGauge) metric));
+
+	    }
+	    target.append('\n');
+
+	}
+	return target;
+
+    }
+
+    /**
+     * Gets the counter with the given name, creating it if there's none.
+     * 
+     * @param name The name mentioned.
+     * @return The counter mentioned.
+     * @throws IllegalArgumentException If the name is taken by another type of
+     *                                  metric.
+     */
+    public Counter counter(final String name) throws IllegalArgumentException {
+	return get(name, Counter.class);
+
+    }
+
+    /**
+     * Registers the given gauge under the given name, replacing the gauge
+     * registered before, e.g. by a former instance of the component.
+     * 
+     * @param name  The name mentioned.
+     * @param gauge The gauge to register.
+     * @throws IllegalArgumentException If the name is taken by another type of
+     *                                  metric.
+     */
+    public void gauge(final String name, final IGauge gauge) throws IllegalArgumentException {
+	mMetrics.compute(name, (key, old) -> {
+	    if (old != null && !(old instanceof IGauge)) {
+		throw new IllegalArgumentException("The metric " + name + " is not a gauge.");
+
+	    }
+	    return gauge;
+
+	});
+    }
+
+    /**
+     * Gets the metric with the given name and type, creating it if there's none.
+     * 
+     * @param <T>  The type of the metric.
+     * @param name The name of the metric.
+     * @param type The type of the metric.
+     * @return The metric mentioned.
+     * @throws IllegalArgumentException If the name is taken by another type of
+     *                                  metric.
+     */
+    private <T> T get(final String name, final Class<T> type) throws IllegalArgumentException {
+	final Object metric = mMetrics.computeIfAbsent(name,
+		key -> type == Counter.class ? new Counter() : new Histogram());
+
+	if (!type.isInstance(metric)) {
+	    throw new IllegalArgumentException("The metric " + name + " is not a " + type.getSimpleName() + ".");
+
+	}
+	return type.cast(metric);
+
+    }
+
+    /**
+     * Gets every metric, sorted by their names.
+     * 
+     * @return A new map from the names to their metrics, either a
+     *         {@link Counter}, a {@link Histogram} or an {@link IGauge}.
+     */
+    public Map<String, Object> getMetrics() {
+	return new TreeMap<>(mMetrics);
+
+    }
+
+    /**
+     * Reads the given gauge, which must not fail the caller reading every
+     * metric.
+     * 
+     * @param gauge The gauge to read.
+     * @return The value of the gauge, or -1 if reading it failed.
+     */
+    static long getValue(final IGauge gauge) {
+	try {
+	    return gauge.getValue();
+
+	} catch (final RuntimeException e) {
+	    return -1;
+
+	}
+    }
+
+    /**
+     * Gets the histogram with the given name, creating it if there's none.
+     * 
+     * @param name The name mentioned.
+     * @return The histogram mentioned.
+     * @throws IllegalArgumentException If the name is taken by another type of
+     *                                  metric.
+     */
+    public Histogram histogram(final String name) throws IllegalArgumentException {
+	return get(name, Histogram.class);
+
+    }
+
+    /**
+     * Removes the metric with the given name, if present.
+     * 
+     * @param name The name mentioned.
+     */
+    public void remove(final String name) {
+	mMetrics.remove(name);
+
+    }
+}
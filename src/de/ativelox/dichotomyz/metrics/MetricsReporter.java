@@ -0,0 +1,120 @@
+package de.ativelox.dichotomyz.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.Logger;
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Periodically writes every metric of a {@link MetricsRegistry} as text to a
+ * file per day, named <tt>dd.MM.yyyy - Metrics.txt</tt>. Every dump replaces
+ * the former one of the same day, which is safe since the metrics only
+ * accumulate, thus the file of a day holds the state at the end of it. Files
+ * are replaced atomically, such that readers never see a partial dump.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MetricsReporter implements Closeable {
+
+    /**
+     * The suffix of the names of the files written.
+     */
+    private static final String FILE_SUFFIX = " - Metrics.txt";
+
+    /**
+     * The registry to write.
+     */
+    private final MetricsRegistry mRegistry;
+
+    /**
+     * The directory the files are written to.
+     */
+    private final Path mDirectory;
+
+    /**
+     * The thread writing the metrics.
+     */
+    private final ScheduledExecutorService mExecutor;
+
+    /**
+     * Creates a new {@link MetricsReporter}, starting its background thread.
+     * 
+     * @param registry   The registry to write.
+     * @param directory  The directory to write the files to, created if needed.
+     * @param intervalMs The time in ms between two dumps.
+     */
+    public MetricsReporter(final MetricsRegistry registry, final Path directory, final long intervalMs) {
+	mRegistry = registry;
+	mDirectory = directory;
+	mExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+	    final Thread thread = new Thread(runnable, "MetricsReporter");
+	    thread.setDaemon(true);
+	    return thread;
+
+	});
+	mExecutor.scheduleWithFixedDelay(this::report, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Stops writing the metrics periodically and writes them a last time.
+     */
+    @Override
+    public void close() {
+	mExecutor.shutdownNow();
+
+	try {
+	    mExecutor.awaitTermination(1, TimeUnit.SECONDS);
+
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+
+	}
+	report();
+
+    }
+
+    /**
+     * Writes the metrics to the file of the current day.
+     */
+    private void report() {
+	final String date = Timestamp.getCurrentDate();
+	final StringBuilder dump = new StringBuilder(4096);
+	dump.append("Metrics of ").append(date).append(' ').append(Timestamp.getCurrentTime()).append('\n');
+	mRegistry.appendTo(dump);
+
+	try {
+	    write(mDirectory.resolve(date + FILE_SUFFIX), dump);
+
+	} catch (final IOException e) {
+	    Logger.Get().log(ELogType.WARNING, "Encountered an IO Exception, when writing the metrics, " + e.getMessage());
+
+	}
+    }
+
+    /**
+     * Writes the given text to the given file, replacing it atomically.
+     * 
+     * @param file The file to write.
+     * @param text The text to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void write(final Path file, final CharSequence text) throws IOException {
+	Files.createDirectories(file.getParent());
+	final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+	Files.write(temporary, text.toString().getBytes(StandardCharsets.UTF_8));
+	Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.metrics.test;
+
+import javax.management.AttributeNotFoundException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.metrics.Histogram;
+import de.ativelox.dichotomyz.metrics.MetricsMBean;
+import de.ativelox.dichotomyz.metrics.MetricsRegistry;
+
+/**
+ * Provides Tests for {@link MetricsRegistry}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class MetricsRegistryTest {
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.metrics.MetricsRegistry#counter(String)}.
+     */
+    @Test
+    public void testCounterIsShared() {
+	final MetricsRegistry registry = new MetricsRegistry();
+	registry.counter("a").increment();
+	registry.counter("a").add(2);
+
+	Assert.assertEquals(3, registry.counter("a").get());
+	Assert.assertSame(registry.counter("a"), registry.counter("a"));
+
+	try {
+	    registry.histogram("a");
+	    Assert.fail("The name of a counter must not be taken by a histogram.");
+
+	} catch (final IllegalArgumentException e) {
+	    // expected.
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.metrics.MetricsRegistry#histogram(String)}.
+     */
+    @Test
+    public void testHistogram() {
+	final Histogram histogram = new MetricsRegistry().histogram("x");
+	Assert.assertEquals(0, histogram.getPercentile(0.99));
+
+	for (int i = 0; i < 100; i++) {
+	    histogram.record(1000);
+
+	}
+	histogram.record(1_000_000);
+
+	Assert.assertEquals(101, histogram.getCount());
+	Assert.assertEquals((100 * 1000 + 1_000_000) / 101, histogram.getMean());
+	Assert.assertEquals(1_000_000, histogram.getMax());
+
+	// the percentiles are given by the upper bound of the power of two bucket.
+	Assert.assertEquals(1023, histogram.getPercentile(0.5));
+	Assert.assertEquals(1023, histogram.getPercentile(0.99));
+	Assert.assertEquals(1_000_000, histogram.getPercentile(1));
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.metrics.MetricsRegistry#appendTo(StringBuilder)}.
+     */
+    @Test
+    public void testAppendTo() {
+	final MetricsRegistry registry = new MetricsRegistry();
+	registry.counter("b").increment();
+	registry.gauge("a", () -> 42);
+	registry.gauge("c", () -> {
+	    throw new IllegalStateException();
+
+	});
+
+	Assert.assertEquals("a 42\nb 1\nc -1\n", registry.appendTo(new StringBuilder()).toString());
+
+	registry.gauge("a", () -> 7);
+	registry.remove("c");
+	Assert.assertEquals("a 7\nb 1\n", registry.appendTo(new StringBuilder()).toString());
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.metrics.MetricsMBean#getAttribute(String)}.
+     * 
+     * @throws AttributeNotFoundException If the attribute could not be found.
+     */
+    @Test
+    public void testMBeanAttributes() throws AttributeNotFoundException {
+	final MetricsRegistry registry = new MetricsRegistry();
+	registry.counter("c").add(5);
+	registry.histogram("x").record(3000);
+
+	final MetricsMBean bean = new MetricsMBean(registry);
+	Assert.assertEquals(Long.valueOf(5), bean.getAttribute("c"));
+	Assert.assertEquals(Long.valueOf(1), bean.getAttribute("x.count"));
+	Assert.assertEquals(Long.valueOf(3000), bean.getAttribute("x.p99"));
+	Assert.assertEquals(registry.getMetrics().size() - 1 + MetricsMBean.HISTOGRAM_ATTRIBUTES.length,
+		bean.getMBeanInfo().getAttributes().length);
+
+	try {
+	    bean.getAttribute("x.p42");
+	    Assert.fail("Unknown attributes must not be found.");
+
+	} catch (final AttributeNotFoundException e) {
+	    // expected.
+
+	}
+    }
+}
@@ -5,13 +5,22 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
+import de.ativelox.dichotomyz.audio.EAudioCaptureMode;
+import de.ativelox.dichotomyz.audio.EnergyVoiceActivityDetector;
+import de.ativelox.dichotomyz.audio.utils.AudioConverter;
+import de.ativelox.dichotomyz.logging.AsyncLogger;
+import de.ativelox.dichotomyz.logging.EBackpressurePolicy;
 import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.LogRetentionPolicy;
 import de.ativelox.dichotomyz.logging.Logger;
+import de.ativelox.dichotomyz.utils.Timestamp;
 
 /**
  * A utility class which is used to read settings from a file, and if not
@@ -65,6 +74,138 @@ public class SettingsProvider {
      */
     private static final String LOG_FOLDER = "path";
 
+    /**
+     * The identifier used within the config file to identify the amount of
+     * received audio buffered in memory, in seconds.
+     */
+    private static final String AUDIO_BUFFER_IDENTIFIER = "audiobuffer";
+
+    /**
+     * The default amount of received audio buffered in memory, in seconds.
+     */
+    private static final int DEFAULT_AUDIO_BUFFER_SECONDS = 60;
+
+    /**
+     * The identifier used within the config file to identify the way received
+     * audio is captured, see {@link EAudioCaptureMode}.
+     */
+    private static final String AUDIO_MODE_IDENTIFIER = "audiomode";
+
+    /**
+     * The identifier used within the config file to identify the number of logs
+     * queued until they are handled.
+     */
+    private static final String LOG_QUEUE_IDENTIFIER = "logqueue";
+
+    /**
+     * The identifier used within the config file to identify the way logs are
+     * handled while the queue of logs is full.
+     */
+    private static final String LOG_POLICY_IDENTIFIER = "logpolicy";
+
+    /**
+     * The identifier used within the config file to identify whether silent audio
+     * is dropped before it is stored.
+     */
+    private static final String VAD_IDENTIFIER = "vad";
+
+    /**
+     * The identifier used within the config file to identify the threshold in
+     * dBFS below which audio is considered silent.
+     */
+    private static final String VAD_THRESHOLD_IDENTIFIER = "vadthreshold";
+
+    /**
+     * The identifier used within the config file to identify the size in MB a
+     * log file is continued in a new segment at.
+     */
+    private static final String LOG_SEGMENT_SIZE_IDENTIFIER = "logsegmentsize";
+
+    /**
+     * The default size in MB a log file is continued in a new segment at.
+     */
+    private static final int DEFAULT_LOG_SEGMENT_SIZE_MB = 16;
+
+    /**
+     * The identifier used within the config file to identify the number of days
+     * log files are kept.
+     */
+    private static final String LOG_RETENTION_DAYS_IDENTIFIER = "logretentiondays";
+
+    /**
+     * The default number of days log files are kept.
+     */
+    private static final int DEFAULT_LOG_RETENTION_DAYS = 30;
+
+    /**
+     * The identifier used within the config file to identify the total size in MB
+     * of the log files kept.
+     */
+    private static final String LOG_RETENTION_SIZE_IDENTIFIER = "logretentionsize";
+
+    /**
+     * The default total size in MB of the log files kept.
+     */
+    private static final int DEFAULT_LOG_RETENTION_SIZE_MB = 1024;
+
+    /**
+     * The identifier used within the config file to identify whether closed local
+     * log files are compressed.
+     */
+    private static final String LOG_COMPRESS_IDENTIFIER = "logcompress";
+
+    /**
+     * The identifier used within the config file to identify whether the
+     * activity and status logs are written to local files instead of the ftp
+     * server.
+     */
+    private static final String LOCAL_LOGS_IDENTIFIER = "locallogs";
+
+    /**
+     * The identifier used within the config file to identify the number of
+     * shards the bot is split into.
+     */
+    private static final String SHARDS_IDENTIFIER = "shards";
+
+    /**
+     * The identifier used within the config file to identify the interval in
+     * seconds the tracked activity is checkpointed in.
+     */
+    private static final String CHECKPOINT_INTERVAL_IDENTIFIER = "checkpointinterval";
+
+    /**
+     * The default interval in seconds the tracked activity is checkpointed in.
+     */
+    private static final int DEFAULT_CHECKPOINT_INTERVAL_SECONDS = 60;
+
+    /**
+     * The identifier used within the config file to identify whether every
+     * change in status and game is recorded in the journal.
+     */
+    private static final String JOURNAL_IDENTIFIER = "journal";
+
+    /**
+     * The identifier used within the config file to identify the offset of the
+     * time zone dates and times are given in.
+     */
+    private static final String TIME_ZONE_IDENTIFIER = "timezone";
+
+    /**
+     * The identifier used within the config file to identify the interval in
+     * seconds the metrics are written to disk in.
+     */
+    private static final String METRICS_INTERVAL_IDENTIFIER = "metricsinterval";
+
+    /**
+     * The default interval in seconds the metrics are written to disk in.
+     */
+    private static final int DEFAULT_METRICS_INTERVAL_SECONDS = 60;
+
+    /**
+     * The number of bytes in a MB.
+     */
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
     /**
      * The map, which represents the settings file as structure.
      */
@@ -121,6 +262,46 @@ public class SettingsProvider {
 
     }
 
+    /**
+     * Gets the value for the given key in the settings file as an integer.
+     * 
+     * @param key          The key for which to fetch its value.
+     * @param defaultValue The value to return if the key is not present or its
+     *                     value is not a valid integer.
+     * @return The value associated with the key, or the default value.
+     */
+    private static int getInt(final String key, final int defaultValue) {
+	if (_Settings == null || get(key) == null) {
+	    return defaultValue;
+
+	}
+
+	try {
+	    return Integer.parseInt(get(key).trim());
+
+	} catch (final NumberFormatException e) {
+	    Logger.Get().log(ELogType.WARNING, "Invalid value for the setting " + key + ": " + get(key));
+	    return defaultValue;
+
+	}
+    }
+
+    /**
+     * Gets the value for the given key in the settings file as a boolean.
+     * 
+     * @param key          The key for which to fetch its value.
+     * @param defaultValue The value to return if the key is not present.
+     * @return The value associated with the key, or the default value.
+     */
+    private static boolean getBoolean(final String key, final boolean defaultValue) {
+	if (_Settings == null || get(key) == null) {
+	    return defaultValue;
+
+	}
+	return Boolean.parseBoolean(get(key).trim());
+
+    }
+
     /**
      * Gets the default path from the settings file.
      * 
@@ -184,6 +365,206 @@ public class SettingsProvider {
 	return get(PM_DISCRIMINATOR_IDENTIFIER);
     }
 
+    /**
+     * Gets the number of shards the bot is split into, defaults to 1.
+     * 
+     * @return The number mentioned, at least 1.
+     */
+    public static int getShardCount() {
+	return Math.max(1, getInt(SHARDS_IDENTIFIER, 1));
+    }
+
+    /**
+     * Gets the interval in seconds the tracked activity is checkpointed in,
+     * defaults to 60. A value of 0 disables checkpointing.
+     * 
+     * @return The interval mentioned.
+     */
+    public static int getCheckpointInterval() {
+	return Math.max(0, getInt(CHECKPOINT_INTERVAL_IDENTIFIER, DEFAULT_CHECKPOINT_INTERVAL_SECONDS));
+    }
+
+    /**
+     * Gets the interval in seconds the metrics are written to disk in, defaults
+     * to 60. A value of 0 disables writing the metrics.
+     * 
+     * @return The interval mentioned.
+     */
+    public static int getMetricsInterval() {
+	return Math.max(0, getInt(METRICS_INTERVAL_IDENTIFIER, DEFAULT_METRICS_INTERVAL_SECONDS));
+    }
+
+    /**
+     * Gets whether every change in the status and game of members is recorded
+     * in the journal, defaults to <tt>true</tt>.
+     * 
+     * @return The value mentioned.
+     */
+    public static boolean isJournalEnabled() {
+	return getBoolean(JOURNAL_IDENTIFIER, true);
+    }
+
+    /**
+     * Gets the offset of the time zone dates and times are given in, e.g.
+     * <tt>+02:00</tt>, defaults to {@link Timestamp#DEFAULT_ZONE_OFFSET}. Only
+     * fixed offsets are supported, since every day indexed is 24 hours long. An
+     * invalid value falls back to the default silently, since the clock reading
+     * this setting is needed by the {@link Logger} itself, it is reported by
+     * {@link SettingsProvider#reportInvalidZoneOffset()} instead.
+     * 
+     * @return The offset mentioned.
+     */
+    public static ZoneOffset getZoneOffset() {
+	final ZoneOffset offset = parseZoneOffset();
+	return offset == null ? Timestamp.DEFAULT_ZONE_OFFSET : offset;
+
+    }
+
+    /**
+     * Gets the amount of received audio to buffer in memory, in seconds.
+     * 
+     * @return The amount mentioned.
+     */
+    public static int getAudioBufferSeconds() {
+	return getInt(AUDIO_BUFFER_IDENTIFIER, DEFAULT_AUDIO_BUFFER_SECONDS);
+    }
+
+    /**
+     * Gets whether silent audio should be dropped before it is stored, defaults
+     * to <tt>false</tt>. If enabled, the silence is only recorded in the
+     * <tt>.gaps</tt> file next to the .wav file of a recording, which is
+     * expanded back into silence by
+     * {@link AudioConverter#expandGaps(Path, Path)}.
+     * 
+     * @return The value mentioned.
+     */
+    public static boolean isVADEnabled() {
+	return getBoolean(VAD_IDENTIFIER, false);
+    }
+
+    /**
+     * Gets the threshold in dBFS below which audio is considered silent.
+     * 
+     * @return The threshold mentioned.
+     */
+    public static int getVADThreshold() {
+	return getInt(VAD_THRESHOLD_IDENTIFIER, EnergyVoiceActivityDetector.DEFAULT_THRESHOLD_DBFS);
+    }
+
+    /**
+     * Gets the number of logs queued until they are handled.
+     * 
+     * @return The number mentioned.
+     */
+    public static int getLogQueueCapacity() {
+	return getInt(LOG_QUEUE_IDENTIFIER, AsyncLogger.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Gets the way log files are rotated, defaults to segments of 16 MB, which
+     * are compressed and kept for 30 days or up to 1024 MB in total. A value of 0
+     * disables the respective limit.
+     * 
+     * @return The policy mentioned.
+     */
+    public static LogRetentionPolicy getLogRetentionPolicy() {
+	return new LogRetentionPolicy(getInt(LOG_SEGMENT_SIZE_IDENTIFIER, DEFAULT_LOG_SEGMENT_SIZE_MB) * BYTES_PER_MB,
+		getInt(LOG_RETENTION_DAYS_IDENTIFIER, DEFAULT_LOG_RETENTION_DAYS),
+		getInt(LOG_RETENTION_SIZE_IDENTIFIER, DEFAULT_LOG_RETENTION_SIZE_MB) * BYTES_PER_MB,
+		getBoolean(LOG_COMPRESS_IDENTIFIER, true));
+    }
+
+    /**
+     * Gets whether the activity and status logs are written to local files below
+     * {@link SettingsProvider#getPath()} instead of the ftp server, defaults to
+     * <tt>false</tt>. Local log files are rotated, and compressed if configured,
+     * as described by {@link SettingsProvider#getLogRetentionPolicy()}.
+     * 
+     * @return The value mentioned.
+     */
+    public static boolean isLocalLoggingEnabled() {
+	return getBoolean(LOCAL_LOGS_IDENTIFIER, false);
+    }
+
+    /**
+     * Gets the way logs are handled while the queue of logs is full, defaults to
+     * {@link EBackpressurePolicy#DROP_BY_TYPE}.
+     * 
+     * @return The policy mentioned.
+     */
+    public static EBackpressurePolicy getLogBackpressurePolicy() {
+	if (_Settings == null || get(LOG_POLICY_IDENTIFIER) == null) {
+	    return EBackpressurePolicy.DROP_BY_TYPE;
+
+	}
+
+	try {
+	    return EBackpressurePolicy.valueOf(get(LOG_POLICY_IDENTIFIER).trim().toUpperCase());
+
+	} catch (final IllegalArgumentException e) {
+	    Logger.Get().log(ELogType.WARNING, "Invalid value for the setting " + LOG_POLICY_IDENTIFIER + ": "
+		    + get(LOG_POLICY_IDENTIFIER));
+	    return EBackpressurePolicy.DROP_BY_TYPE;
+
+	}
+    }
+
+    /**
+     * Gets the way received audio is captured, defaults to
+     * {@link EAudioCaptureMode#COMBINED}.
+     * 
+     * @return The mode mentioned.
+     */
+    public static EAudioCaptureMode getAudioCaptureMode() {
+	if (_Settings == null || get(AUDIO_MODE_IDENTIFIER) == null) {
+	    return EAudioCaptureMode.COMBINED;
+
+	}
+
+	try {
+	    return EAudioCaptureMode.valueOf(get(AUDIO_MODE_IDENTIFIER).trim().toUpperCase());
+
+	} catch (final IllegalArgumentException e) {
+	    Logger.Get().log(ELogType.WARNING, "Invalid value for the setting " + AUDIO_MODE_IDENTIFIER + ": "
+		    + get(AUDIO_MODE_IDENTIFIER));
+	    return EAudioCaptureMode.COMBINED;
+
+	}
+    }
+
+    /**
+     * Parses the offset of the time zone given in the settings file.
+     * 
+     * @return The offset mentioned, {@link Timestamp#DEFAULT_ZONE_OFFSET} if
+     *         there's none, or <tt>null</tt> if the value is invalid.
+     */
+    private static ZoneOffset parseZoneOffset() {
+	if (_Settings == null || get(TIME_ZONE_IDENTIFIER) == null) {
+	    return Timestamp.DEFAULT_ZONE_OFFSET;
+
+	}
+
+	try {
+	    return ZoneOffset.of(get(TIME_ZONE_IDENTIFIER).trim());
+
+	} catch (final DateTimeException e) {
+	    return null;
+
+	}
+    }
+
+    /**
+     * Logs a warning if the offset of the time zone given in the settings file is
+     * invalid. Should be called once the {@link Logger} exists.
+     */
+    public static void reportInvalidZoneOffset() {
+	if (parseZoneOffset() == null) {
+	    Logger.Get().log(ELogType.WARNING, "Invalid value for the setting " + TIME_ZONE_IDENTIFIER + ": "
+		    + get(TIME_ZONE_IDENTIFIER));
+
+	}
+    }
+
     /**
      * Initializes this {@link SettingsProvider}. Checks whether the config file is
      * present, and if it isn't it creates one by prompting the user for needed
@@ -0,0 +1,148 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Provides a bounded, lock-free queue, supporting multiple producer and
+ * multiple consumer threads. Every slot carries a sequence number telling
+ * whether it is ready to be written or read in the current lap, thus producers
+ * and consumers only contend on a single compare-and-set each and never block.
+ * If the queue is full, {@link BoundedMPMCQueue#offer(Object)} fails instead of
+ * waiting.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ * @param <E> The type of the elements.
+ */
+public class BoundedMPMCQueue<E> {
+
+    /**
+     * The elements of every slot.
+     */
+    private final AtomicReferenceArray<E> mElements;
+
+    /**
+     * The sequence number of every slot.
+     */
+    private final AtomicLongArray mSequences;
+
+    /**
+     * The mask used to map positions to slots.
+     */
+    private final int mMask;
+
+    /**
+     * The position the next element gets written to.
+     */
+    private final AtomicLong mEnqueuePosition;
+
+    /**
+     * The position the next element gets read from.
+     */
+    private final AtomicLong mDequeuePosition;
+
+    /**
+     * Creates a new, empty {@link BoundedMPMCQueue}.
+     * 
+     * @param capacity The number of elements this queue is able to hold, rounded
+     *                 up to the next power of two.
+     */
+    public BoundedMPMCQueue(final int capacity) {
+	if (capacity <= 0) {
+	    throw new IllegalArgumentException("The capacity of the queue must be positive: " + capacity);
+
+	}
+	final int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+
+	mElements = new AtomicReferenceArray<>(size);
+	mSequences = new AtomicLongArray(size);
+	mMask = size - 1;
+
+	for (int i = 0; i < size; i++) {
+	    mSequences.set(i, i);
+
+	}
+	mEnqueuePosition = new AtomicLong();
+	mDequeuePosition = new AtomicLong();
+
+    }
+
+    /**
+     * Gets the number of elements this queue is able to hold.
+     * 
+     * @return The number mentioned.
+     */
+    public int getCapacity() {
+	return mMask + 1;
+
+    }
+
+    /**
+     * Appends the given element to this queue, if there's space left.
+     * 
+     * @param element The element, not <tt>null</tt>.
+     * @return <tt>true</tt> if the element got appended, <tt>false</tt> if this
+     *         queue is full.
+     */
+    public boolean offer(final E element) {
+	while (true) {
+	    final long position = mEnqueuePosition.get();
+	    final int slot = (int) position & mMask;
+	    final long difference = mSequences.get(slot) - position;
+
+	    if (difference == 0) {
+		if (mEnqueuePosition.compareAndSet(position, position + 1)) {
+		    mElements.lazySet(slot, element);
+		    mSequences.set(slot, position + 1);
+		    return true;
+
+		}
+
+	    } else if (difference < 0) {
+		return false;
+
+	    }
+	}
+    }
+
+    /**
+     * Removes the head of this queue.
+     * 
+     * @return The element removed, or <tt>null</tt> if this queue is empty.
+     */
+    public E poll() {
+	while (true) {
+	    final long position = mDequeuePosition.get();
+	    final int slot = (int) position & mMask;
+	    final long difference = mSequences.get(slot) - (position + 1);
+
+	    if (difference == 0) {
+		if (mDequeuePosition.compareAndSet(position, position + 1)) {
+		    final E element = mElements.get(slot);
+		    mElements.lazySet(slot, null);
+		    mSequences.set(slot, position + mMask + 1);
+		    return element;
+
+		}
+
+	    } else if (difference < 0) {
+		return null;
+
+	    }
+	}
+    }
+
+    /**
+     * Gets the number of elements in this queue. As other threads may modify the
+     * queue concurrently, the result is only an estimate.
+     * 
+     * @return The number mentioned.
+     */
+    public int size() {
+	final long size = mEnqueuePosition.get() - mDequeuePosition.get();
+	return (int) Math.max(0, Math.min(size, mMask + 1));
+
+    }
+}
@@ -0,0 +1,234 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the current time, date and their formatted representations, which
+ * are computed once per tick by a background thread instead of on every call.
+ * Every tick publishes an immutable snapshot through a single volatile field,
+ * thus reading is lock-free and the values read always belong to the same
+ * tick. The date is only formatted again once the day changes. Values are up
+ * to one tick old. The source of the time is a {@link Clock}, whose zone has to
+ * be a fixed {@link ZoneOffset}, such that every day has 24 hours. Clocks
+ * without a background thread are ticked manually by
+ * {@link CachedClock#tick()}, e.g. by tests. Clocks may also be ticked manually
+ * in addition to their background thread, e.g. once a day has passed. This
+ * class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class CachedClock implements Closeable {
+
+    /**
+     * The default time in ms between two ticks.
+     */
+    public static final long DEFAULT_TICK_MS = 1000;
+
+    /**
+     * The number of ms per day.
+     */
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * The values of a single tick.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class Tick {
+
+	/**
+	 * The time of the tick in ms since the epoch.
+	 */
+	private final long mMillis;
+
+	/**
+	 * The day of the tick, as number of days since the epoch in the zone of
+	 * the clock.
+	 */
+	private final long mEpochDay;
+
+	/**
+	 * The date, formatted by {@link Timestamp#formatDate(LocalDate)}.
+	 */
+	private final String mDate;
+
+	/**
+	 * The time of the day, formatted as HH:mm:ss.
+	 */
+	private final String mTime;
+
+	/**
+	 * Creates a new {@link Tick}.
+	 * 
+	 * @param millis   The time of the tick in ms since the epoch.
+	 * @param epochDay The day of the tick.
+	 * @param date     The formatted date.
+	 * @param time     The formatted time of the day.
+	 */
+	private Tick(final long millis, final long epochDay, final String date, final String time) {
+	    mMillis = millis;
+	    mEpochDay = epochDay;
+	    mDate = date;
+	    mTime = time;
+
+	}
+    }
+
+    /**
+     * The source of the time.
+     */
+    private final Clock mSource;
+
+    /**
+     * The zone the date and time are given in.
+     */
+    private final ZoneOffset mZone;
+
+    /**
+     * The values of the last tick.
+     */
+    private volatile Tick mTick;
+
+    /**
+     * The thread ticking this clock, or <tt>null</tt> if ticked manually.
+     */
+    private final ScheduledExecutorService mExecutor;
+
+    /**
+     * Creates a new {@link CachedClock} on the system time, ticking in the
+     * given interval.
+     * 
+     * @param zone   The zone the date and time are given in.
+     * @param tickMs The time in ms between two ticks.
+     */
+    public CachedClock(final ZoneOffset zone, final long tickMs) {
+	this(Clock.system(zone), tickMs);
+
+    }
+
+    /**
+     * Creates a new {@link CachedClock}. If the interval is positive, a
+     * background thread ticks this clock at every multiple of the interval,
+     * otherwise the clock only ticks on calls to {@link CachedClock#tick()}.
+     * 
+     * @param source The source of the time, its zone has to be a
+     *               {@link ZoneOffset}.
+     * @param tickMs The time in ms between two ticks.
+     */
+    public CachedClock(final Clock source, final long tickMs) {
+	if (!(source.getZone() instanceof ZoneOffset)) {
+	    throw new IllegalArgumentException("The zone of the clock has to be a fixed offset: " + source.getZone());
+
+	}
+	mSource = source;
+	mZone = (ZoneOffset) source.getZone();
+	tick();
+
+	if (tickMs <= 0) {
+	    mExecutor = null;
+	    return;
+
+	}
+	mExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+	    final Thread thread = new Thread(runnable, "CachedClock");
+	    thread.setDaemon(true);
+	    return thread;
+
+	});
+
+	// align the ticks with the intervals, such that the seconds shown change in time.
+	mExecutor.scheduleAtFixedRate(this::tick, tickMs - Math.floorMod(source.millis(), tickMs), tickMs,
+		TimeUnit.MILLISECONDS);
+
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+	if (mExecutor != null) {
+	    mExecutor.shutdownNow();
+
+	}
+    }
+
+    /**
+     * Gets the date of the last tick, formatted as dd.MM.yyyy.
+     * 
+     * @return The date mentioned.
+     */
+    public String getDate() {
+	return mTick.mDate;
+
+    }
+
+    /**
+     * Gets the time of the last tick in ms since the epoch.
+     * 
+     * @return The time mentioned.
+     */
+    public long getMillis() {
+	return mTick.mMillis;
+
+    }
+
+    /**
+     * Gets the time of the day of the last tick, formatted as HH:mm:ss.
+     * 
+     * @return The time mentioned.
+     */
+    public String getTime() {
+	return mTick.mTime;
+
+    }
+
+    /**
+     * Gets the day of the last tick.
+     * 
+     * @return The day mentioned.
+     */
+    public LocalDate getToday() {
+	return LocalDate.ofEpochDay(mTick.mEpochDay);
+
+    }
+
+    /**
+     * Gets the zone the date and time are given in.
+     * 
+     * @return The zone mentioned.
+     */
+    public ZoneOffset getZone() {
+	return mZone;
+
+    }
+
+    /**
+     * Reads the current time from the source and publishes its values. Ticks are
+     * serialized, such that a tick never publishes values older than the ones of
+     * a concurrent tick.
+     */
+    public synchronized void tick() {
+	final long millis = mSource.millis();
+	final long local = millis + mZone.getTotalSeconds() * 1000L;
+	final long epochDay = Math.floorDiv(local, DAY_MS);
+	final Tick last = mTick;
+
+	final String date = last != null && last.mEpochDay == epochDay ? last.mDate
+		: Timestamp.formatDate(LocalDate.ofEpochDay(epochDay));
+	final String time = Timestamp.appendReadable(new StringBuilder(8), Math.floorMod(local, DAY_MS)).toString();
+
+	mTick = new Tick(millis, epochDay, date, time);
+
+    }
+}
@@ -0,0 +1,286 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import it.sauronsoftware.ftp4j.FTPAbortedException;
+import it.sauronsoftware.ftp4j.FTPClient;
+import it.sauronsoftware.ftp4j.FTPDataTransferException;
+import it.sauronsoftware.ftp4j.FTPException;
+import it.sauronsoftware.ftp4j.FTPFile;
+import it.sauronsoftware.ftp4j.FTPIllegalReplyException;
+import it.sauronsoftware.ftp4j.FTPListParseException;
+
+/**
+ * Provides a logged in connection to a FTP server, handed out by a
+ * {@link FTPConnectionPool}. A connection must only be used by the thread that
+ * acquired it, until it is given back to the pool.
+ * <p>
+ * The connection tracks its working directory, such that changing to the
+ * directory already in use costs no round-trip, and caches the listings of
+ * directories for {@link FTPConnection#LISTING_TTL_MS}, such that checking for
+ * the existence of a file is a lookup. Every path is treated as absolute, see
+ * {@link FTPUtils#toAbsolutePath(String)}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class FTPConnection {
+
+    /**
+     * The time in ms a listing of a directory is cached.
+     */
+    public static final long LISTING_TTL_MS = 30000;
+
+    /**
+     * The listing of a directory.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class Listing {
+
+	/**
+	 * The names of every entry of the directory.
+	 */
+	private final Set<String> mNames;
+
+	/**
+	 * The time in ms this listing expires.
+	 */
+	private final long mExpires;
+
+	/**
+	 * Creates a new {@link Listing}.
+	 * 
+	 * @param names   The names of every entry of the directory.
+	 * @param expires The time in ms this listing expires.
+	 */
+	private Listing(final Set<String> names, final long expires) {
+	    mNames = names;
+	    mExpires = expires;
+
+	}
+    }
+
+    /**
+     * The underlying ftp client, already logged in.
+     */
+    private final FTPClient mClient;
+
+    /**
+     * The time in ms this connection was last given back to its pool.
+     */
+    private volatile long mLastUsed;
+
+    /**
+     * The absolute path of the current working directory, or <tt>null</tt> if
+     * unknown.
+     */
+    private String mWorkingDirectory;
+
+    /**
+     * The absolute paths of the directories known to exist.
+     */
+    private final Set<String> mDirectories;
+
+    /**
+     * A mapping from absolute paths of directories to their cached listings.
+     */
+    private final Map<String, Listing> mListings;
+
+    /**
+     * Creates a new {@link FTPConnection}.
+     * 
+     * @param client The underlying ftp client, already logged in.
+     */
+    FTPConnection(final FTPClient client) {
+	mClient = client;
+	mLastUsed = System.currentTimeMillis();
+
+	mWorkingDirectory = null;
+	mDirectories = new HashSet<>();
+	mListings = new HashMap<>();
+
+    }
+
+    /**
+     * Changes the working directory to the given directory, unless it is in use
+     * already.
+     * 
+     * @param path          The path of the directory.
+     * @param createMissing Whether the directory and its parents should be
+     *                      created first, if not known to exist.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     */
+    public void changeDirectory(final String path, final boolean createMissing)
+	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException {
+	final String absolute = FTPUtils.toAbsolutePath(path);
+
+	if (absolute.equals(mWorkingDirectory)) {
+	    return;
+
+	}
+
+	if (createMissing) {
+	    createDirectories(absolute);
+
+	}
+	// forget the directory first, in case changing fails.
+	mWorkingDirectory = null;
+	FTPUtils.changeDir(mClient, absolute);
+	mWorkingDirectory = absolute;
+	mDirectories.add(absolute);
+
+    }
+
+    /**
+     * Creates the given directory and every parent directory not known to exist,
+     * in a single pass from the root. Directories which exist already are
+     * skipped.
+     * 
+     * @param path The path of the directory.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     */
+    public void createDirectories(final String path)
+	    throws IllegalStateException, IOException, FTPIllegalReplyException {
+	final String absolute = FTPUtils.toAbsolutePath(path);
+
+	if (mDirectories.contains(absolute)) {
+	    return;
+
+	}
+
+	int end = absolute.indexOf('/', 1);
+	while (true) {
+	    final String directory = end == -1 ? absolute : absolute.substring(0, end);
+
+	    if (!mDirectories.contains(directory)) {
+		try {
+		    mClient.createDirectory(directory);
+
+		} catch (final FTPException e) {
+		    // the directory exists already.
+		}
+		mDirectories.add(directory);
+
+	    }
+
+	    if (end == -1) {
+		break;
+
+	    }
+	    end = absolute.indexOf('/', end + 1);
+
+	}
+    }
+
+    /**
+     * Checks whether the given file exists in the given directory, using the
+     * cached listing of the directory if present.
+     * 
+     * @param path     The path of the directory.
+     * @param filename The name of the file.
+     * @return <tt>true</tt> if the file exists in the given path, <tt>false</tt>
+     *         otherwise.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     * @throws FTPDataTransferException If a I/O occurs in the data transfer
+     *                                  connection.
+     * @throws FTPAbortedException      If operation is aborted by another thread.
+     * @throws FTPListParseException    If none of the registered parsers can handle
+     *                                  the response sent by the server.
+     */
+    public boolean fileExists(final String path, final String filename)
+	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException,
+	    FTPDataTransferException, FTPAbortedException, FTPListParseException {
+	final String absolute = FTPUtils.toAbsolutePath(path);
+	final long now = System.currentTimeMillis();
+	Listing listing = mListings.get(absolute);
+
+	if (listing == null || listing.mExpires <= now) {
+	    changeDirectory(absolute, false);
+
+	    final FTPFile[] files = FTPUtils.list(mClient);
+	    final Set<String> names = new HashSet<>(files.length * 2);
+
+	    for (final FTPFile file : files) {
+		names.add(file.getName());
+
+	    }
+	    listing = new Listing(names, now + LISTING_TTL_MS);
+	    mListings.put(absolute, listing);
+
+	}
+	return listing.mNames.contains(filename);
+
+    }
+
+    /**
+     * Notes that the given file got written, updating the cached listing of its
+     * directory.
+     * 
+     * @param path     The path of the directory.
+     * @param filename The name of the file.
+     */
+    void fileWritten(final String path, final String filename) {
+	final Listing listing = mListings.get(FTPUtils.toAbsolutePath(path));
+
+	if (listing != null) {
+	    listing.mNames.add(filename);
+
+	}
+    }
+
+    /**
+     * Gets the underlying ftp client.
+     * 
+     * @return The client mentioned.
+     */
+    public FTPClient getClient() {
+	return mClient;
+
+    }
+
+    /**
+     * Gets the time in ms this connection was last given back to its pool.
+     * 
+     * @return The time mentioned.
+     */
+    long getLastUsed() {
+	return mLastUsed;
+
+    }
+
+    /**
+     * Gets the absolute path of the current working directory, as tracked by this
+     * connection.
+     * 
+     * @return The path mentioned, or <tt>null</tt> if unknown.
+     */
+    public String getWorkingDirectory() {
+	return mWorkingDirectory;
+
+    }
+
+    /**
+     * Marks this connection as used just now.
+     */
+    void touch() {
+	mLastUsed = System.currentTimeMillis();
+
+    }
+}
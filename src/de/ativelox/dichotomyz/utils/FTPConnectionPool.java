@@ -0,0 +1,465 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import de.ativelox.dichotomyz.callbacks.IdleTimeoutReaper;
+import de.ativelox.dichotomyz.logging.ELogType;
+import de.ativelox.dichotomyz.logging.Logger;
+import it.sauronsoftware.ftp4j.FTPClient;
+import it.sauronsoftware.ftp4j.FTPConnector;
+import it.sauronsoftware.ftp4j.FTPException;
+import it.sauronsoftware.ftp4j.FTPIllegalReplyException;
+
+/**
+ * Provides a small pool of logged in connections to a single FTP server, such
+ * that consecutive operations don't have to connect and log in again. Idle
+ * connections are kept alive by sending a NOOP periodically, and are
+ * disconnected once they haven't been used for the given idle timeout. Both is
+ * done by an {@link IdleTimeoutReaper}, whose single background thread is
+ * shared by every pool. Every blocking operation of a client times out after
+ * {@link FTPConnectionPool#CLIENT_TIMEOUT_SECONDS}, such that a server not
+ * responding can't stall the reaper indefinitely. This class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class FTPConnectionPool implements Closeable {
+
+    /**
+     * The time in seconds connecting, reading a reply and closing the
+     * connection of a client may take, before the operation fails.
+     */
+    public static final int CLIENT_TIMEOUT_SECONDS = 10;
+
+    /**
+     * The host of the server the ftp service is located on.
+     */
+    private final String mHost;
+
+    /**
+     * The user name credentials used to log in to the given server.
+     */
+    private final String mUser;
+
+    /**
+     * The password credentials used to log in to the given server.
+     */
+    private final String mPassword;
+
+    /**
+     * Creates the clients of new connections.
+     */
+    private final Supplier<FTPClient> mClientFactory;
+
+    /**
+     * The maximum number of connections open at the same time.
+     */
+    private final int mMaxSize;
+
+    /**
+     * The time in ms after which an idle connection gets sent a NOOP.
+     */
+    private final long mKeepAliveMs;
+
+    /**
+     * The time in ms after which an idle connection gets disconnected.
+     */
+    private final long mIdleTimeoutMs;
+
+    /**
+     * The connections currently not in use, the most recently used first.
+     * Guarded by this pool.
+     */
+    private final ArrayDeque<FTPConnection> mIdle;
+
+    /**
+     * The number of connections open or being opened. Guarded by this pool.
+     */
+    private int mSize;
+
+    /**
+     * Whether this pool got closed. Guarded by this pool.
+     */
+    private boolean mClosed;
+
+    /**
+     * The number of times a connection got opened.
+     */
+    private final AtomicLong mConnects;
+
+    /**
+     * The reaper keeping the idle connections alive.
+     */
+    private final IdleTimeoutReaper mReaper;
+
+    /**
+     * A mapping from every open connection to its registration with the reaper,
+     * which fires once the connection is idle for the keep alive time. Guarded
+     * by this pool.
+     */
+    private final Map<FTPConnection, IdleTimeoutReaper.Registration> mRegistrations;
+
+    /**
+     * Creates a new {@link FTPConnectionPool} for the given credentials.
+     * 
+     * @param host          The host of the server the ftp service is located on.
+     * @param user          The user name used for credentials.
+     * @param password      The password used for credentials.
+     * @param maxSize       The maximum number of connections open at the same
+     *                      time.
+     * @param keepAliveMs   The time in ms after which an idle connection gets sent
+     *                      a NOOP.
+     * @param idleTimeoutMs The time in ms after which an idle connection gets
+     *                      disconnected.
+     */
+    public FTPConnectionPool(final String host, final String user, final String password, final int maxSize,
+	    final long keepAliveMs, final long idleTimeoutMs) {
+	this(host, user, password, maxSize, keepAliveMs, idleTimeoutMs, FTPClient::new);
+
+    }
+
+    /**
+     * Creates a new {@link FTPConnectionPool} for the given credentials.
+     * 
+     * @param host          The host of the server the ftp service is located on.
+     * @param user          The user name used for credentials.
+     * @param password      The password used for credentials.
+     * @param maxSize       The maximum number of connections open at the same
+     *                      time.
+     * @param keepAliveMs   The time in ms after which an idle connection gets sent
+     *                      a NOOP.
+     * @param idleTimeoutMs The time in ms after which an idle connection gets
+     *                      disconnected.
+     * @param clientFactory Creates the clients of new connections.
+     */
+    public FTPConnectionPool(final String host, final String user, final String password, final int maxSize,
+	    final long keepAliveMs, final long idleTimeoutMs, final Supplier<FTPClient> clientFactory) {
+	this(host, user, password, maxSize, keepAliveMs, idleTimeoutMs, clientFactory, IdleTimeoutReaper.Get());
+
+    }
+
+    /**
+     * Creates a new {@link FTPConnectionPool} for the given credentials.
+     * 
+     * @param host          The host of the server the ftp service is located on.
+     * @param user          The user name used for credentials.
+     * @param password      The password used for credentials.
+     * @param maxSize       The maximum number of connections open at the same
+     *                      time.
+     * @param keepAliveMs   The time in ms after which an idle connection gets sent
+     *                      a NOOP.
+     * @param idleTimeoutMs The time in ms after which an idle connection gets
+     *                      disconnected.
+     * @param clientFactory Creates the clients of new connections.
+     * @param reaper        The reaper keeping the idle connections alive.
+     */
+    public FTPConnectionPool(final String host, final String user, final String password, final int maxSize,
+	    final long keepAliveMs, final long idleTimeoutMs, final Supplier<FTPClient> clientFactory,
+	    final IdleTimeoutReaper reaper) {
+	if (maxSize <= 0) {
+	    throw new IllegalArgumentException("The size of the pool must be positive: " + maxSize);
+
+	}
+	mHost = host;
+	mUser = user;
+	mPassword = password;
+	mClientFactory = clientFactory;
+	mMaxSize = maxSize;
+	mKeepAliveMs = keepAliveMs;
+	mIdleTimeoutMs = idleTimeoutMs;
+
+	mIdle = new ArrayDeque<>(maxSize);
+	mSize = 0;
+	mClosed = false;
+	mConnects = new AtomicLong();
+	mReaper = reaper;
+	mRegistrations = new HashMap<>();
+
+    }
+
+    /**
+     * Takes a connection from this pool, opening a new one if none is idle.
+     * Waits if the maximum number of connections is in use. The connection must
+     * be given back by either {@link FTPConnectionPool#release(FTPConnection)} or
+     * {@link FTPConnectionPool#invalidate(FTPConnection)}.
+     * 
+     * @return The connection mentioned.
+     * @throws IllegalStateException    If this pool is closed.
+     * @throws IOException              If an I/O error occurs, or if interrupted
+     *                                  while waiting.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If connecting or logging in fails.
+     */
+    public FTPConnection acquire()
+	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException {
+	FTPConnection connection;
+
+	synchronized (this) {
+	    while (true) {
+		if (mClosed) {
+		    throw new IllegalStateException("The connection pool is closed.");
+
+		}
+		connection = mIdle.pollFirst();
+
+		if (connection != null) {
+		    break;
+
+		}
+
+		if (mSize < mMaxSize) {
+		    mSize++;
+		    break;
+
+		}
+
+		try {
+		    wait();
+
+		} catch (final InterruptedException e) {
+		    Thread.currentThread().interrupt();
+		    throw new InterruptedIOException("Interrupted while waiting for a connection to " + mHost);
+
+		}
+	    }
+	}
+
+	if (connection != null) {
+	    if (connection.getClient().isConnected()) {
+		return connection;
+
+	    }
+	    disconnect(connection);
+
+	}
+
+	try {
+	    final FTPClient client = mClientFactory.get();
+	    final FTPConnector connector = client.getConnector();
+	    connector.setConnectionTimeout(CLIENT_TIMEOUT_SECONDS);
+	    connector.setReadTimeout(CLIENT_TIMEOUT_SECONDS);
+	    connector.setCloseTimeout(CLIENT_TIMEOUT_SECONDS);
+
+	    client.connect(mHost);
+	    client.login(mUser, mPassword);
+	    mConnects.incrementAndGet();
+
+	    final FTPConnection opened = new FTPConnection(client);
+
+	    synchronized (this) {
+		mRegistrations.put(opened, mReaper.register(() -> keepAlive(opened), mKeepAliveMs));
+
+	    }
+	    return opened;
+
+	} catch (final IOException | FTPIllegalReplyException | FTPException | RuntimeException e) {
+	    synchronized (this) {
+		mSize--;
+		notifyAll();
+
+	    }
+	    throw e;
+
+	}
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+	final List<FTPConnection> idle;
+
+	synchronized (this) {
+	    mClosed = true;
+	    idle = new ArrayList<>(mIdle);
+	    mSize -= mIdle.size();
+	    mIdle.clear();
+	    notifyAll();
+
+	}
+
+	for (final FTPConnection connection : idle) {
+	    disconnect(connection);
+
+	}
+    }
+
+    /**
+     * Disconnects the given connection, ignoring any failure, and cancels its
+     * registration with the reaper.
+     * 
+     * @param connection The connection to disconnect.
+     */
+    private void disconnect(final FTPConnection connection) {
+	final IdleTimeoutReaper.Registration registration;
+
+	synchronized (this) {
+	    registration = mRegistrations.remove(connection);
+
+	}
+
+	if (registration != null) {
+	    registration.cancel();
+
+	}
+
+	try {
+	    if (connection.getClient().isConnected()) {
+		connection.getClient().disconnect(true);
+
+	    }
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
+	    Logger.Get().log(ELogType.WARNING, "Failed to disconnect from " + mHost + ", " + e.getMessage());
+
+	}
+    }
+
+    /**
+     * Gets the number of times a connection got opened, i.e. connected and
+     * logged in.
+     * 
+     * @return The number mentioned.
+     */
+    public long getConnectCount() {
+	return mConnects.get();
+
+    }
+
+    /**
+     * Gets the number of connections currently open.
+     * 
+     * @return The number mentioned.
+     */
+    public synchronized int getSize() {
+	return mSize;
+
+    }
+
+    /**
+     * Gives the given connection back to this pool, after it failed, e.g. due to
+     * an I/O error. The connection gets disconnected.
+     * 
+     * @param connection The connection previously taken by
+     *                   {@link FTPConnectionPool#acquire()}.
+     */
+    public void invalidate(final FTPConnection connection) {
+	disconnect(connection);
+
+	synchronized (this) {
+	    mSize--;
+	    notifyAll();
+
+	}
+    }
+
+    /**
+     * Sends a NOOP to the given connection, once it has been idle for
+     * {@link FTPConnectionPool#mKeepAliveMs}, or disconnects it, if it has been
+     * idle for {@link FTPConnectionPool#mIdleTimeoutMs}. Does nothing, if the
+     * connection is in use, since it gets touched once given back.
+     * 
+     * @param connection The connection.
+     */
+    private void keepAlive(final FTPConnection connection) {
+	final IdleTimeoutReaper.Registration registration;
+
+	synchronized (this) {
+	    // taken out, so no other thread uses it meanwhile.
+	    if (!mIdle.remove(connection)) {
+		return;
+
+	    }
+
+	    if (System.currentTimeMillis() - connection.getLastUsed() >= mIdleTimeoutMs) {
+		mSize--;
+		notifyAll();
+		registration = null;
+
+	    } else {
+		registration = mRegistrations.get(connection);
+
+	    }
+	}
+
+	if (registration == null) {
+	    disconnect(connection);
+	    return;
+
+	}
+
+	try {
+	    connection.getClient().noop();
+	    registration.touch();
+	    giveBack(connection, false);
+
+	} catch (IllegalStateException | IOException | FTPIllegalReplyException | FTPException e) {
+	    invalidate(connection);
+
+	}
+    }
+
+    /**
+     * Gives the given connection back to this pool, after it got used
+     * successfully.
+     * 
+     * @param connection The connection previously taken by
+     *                   {@link FTPConnectionPool#acquire()}.
+     */
+    public void release(final FTPConnection connection) {
+	final IdleTimeoutReaper.Registration registration;
+
+	synchronized (this) {
+	    registration = mRegistrations.get(connection);
+
+	}
+
+	if (registration != null) {
+	    registration.touch();
+
+	}
+	connection.touch();
+	giveBack(connection, true);
+
+    }
+
+    /**
+     * Puts the given connection back into the idle connections, or disconnects it
+     * if this pool is closed.
+     * 
+     * @param connection The connection.
+     * @param first      Whether the connection should be handed out next, or
+     *                   after every other idle connection.
+     */
+    private void giveBack(final FTPConnection connection, final boolean first) {
+	synchronized (this) {
+	    if (!mClosed) {
+		if (first) {
+		    mIdle.addFirst(connection);
+
+		} else {
+		    mIdle.addLast(connection);
+
+		}
+		notifyAll();
+		return;
+
+	    }
+	    mSize--;
+
+	}
+	disconnect(connection);
+
+    }
+}
@@ -3,6 +3,9 @@ package de.ativelox.dichotomyz.utils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
+import de.ativelox.dichotomyz.metrics.Counter;
+import de.ativelox.dichotomyz.metrics.Histogram;
+import de.ativelox.dichotomyz.metrics.MetricsRegistry;
 import it.sauronsoftware.ftp4j.FTPAbortedException;
 import it.sauronsoftware.ftp4j.FTPClient;
 import it.sauronsoftware.ftp4j.FTPDataTransferException;
@@ -13,17 +16,170 @@ import it.sauronsoftware.ftp4j.FTPListParseException;
 
 /**
  * Provides simplification for the most basic file operations, on underlying FTP
- * clients.
+ * clients. The time taken by every operation is recorded in the histograms
+ * named <tt>ftp.*</tt>, the operations failed are counted in
+ * <tt>ftp.failures</tt>.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
  */
 public class FTPUtils {
 
+    /**
+     * The time taken to append to a file.
+     */
+    private static final Histogram APPEND = MetricsRegistry.Get().histogram("ftp.append");
+
+    /**
+     * The time taken to change the working directory.
+     */
+    private static final Histogram CHANGE_DIR = MetricsRegistry.Get().histogram("ftp.cwd");
+
+    /**
+     * The time taken to list a directory.
+     */
+    private static final Histogram LIST = MetricsRegistry.Get().histogram("ftp.list");
+
+    /**
+     * The time taken to upload a file.
+     */
+    private static final Histogram UPLOAD = MetricsRegistry.Get().histogram("ftp.upload");
+
+    /**
+     * The number of operations failed.
+     */
+    private static final Counter FAILURES = MetricsRegistry.Get().counter("ftp.failures");
+
     private FTPUtils() {
 
     }
 
+    /**
+     * Records the time taken by an operation.
+     * 
+     * @param histogram  The histogram of the operation.
+     * @param startNanos The start of the operation, as given by
+     *                   {@link System#nanoTime()}.
+     * @param succeeded  Whether the operation succeeded or not.
+     */
+    private static void record(final Histogram histogram, final long startNanos, final boolean succeeded) {
+	histogram.recordSince(startNanos);
+
+	if (!succeeded) {
+	    FAILURES.increment();
+
+	}
+    }
+
+    /**
+     * Appends the given data to the file with the given filename in the given
+     * path, creating the file if it doesn't exist yet. Only the given data is
+     * transferred, regardless of the size of the file. Assumes that the client is
+     * already logged in, the behavior is unspecified if otherwise.
+     * 
+     * @param client   The currently logged in client.
+     * @param path     The path to the directoy the file is in.
+     * @param filename The name of the file.
+     * @param data     The data to append.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     * @throws FTPDataTransferException If a I/O occurs in the data transfer
+     *                                  connection. If you receive this exception
+     *                                  the transfer failed, but the main connection
+     *                                  with the remote FTP server is in theory
+     *                                  still working.
+     * @throws FTPAbortedException      If operation is aborted by another thread.
+     */
+    public static void appendFile(final FTPClient client, final String path, final String filename,
+	    final byte[] data) throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException,
+	    FTPDataTransferException, FTPAbortedException {
+	FTPUtils.changeDir(client, path);
+
+	final long start = System.nanoTime();
+	boolean succeeded = false;
+
+	try {
+	    client.append(filename, new ByteArrayInputStream(data), 0, null);
+	    succeeded = true;
+
+	} finally {
+	    record(APPEND, start, succeeded);
+
+	}
+    }
+
+    /**
+     * Appends the given data to the file with the given filename in the given
+     * path, creating the file, as well as the directories not known to exist, if
+     * needed. The working directory is only changed if it differs from the given
+     * path.
+     * 
+     * @param connection The connection to use.
+     * @param path       The path to the directoy the file is in.
+     * @param filename   The name of the file.
+     * @param data       The data to append.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     * @throws FTPDataTransferException If a I/O occurs in the data transfer
+     *                                  connection. If you receive this exception
+     *                                  the transfer failed, but the main connection
+     *                                  with the remote FTP server is in theory
+     *                                  still working.
+     * @throws FTPAbortedException      If operation is aborted by another thread.
+     */
+    public static void appendFile(final FTPConnection connection, final String path, final String filename,
+	    final byte[] data) throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException,
+	    FTPDataTransferException, FTPAbortedException {
+	connection.changeDirectory(path, true);
+
+	final long start = System.nanoTime();
+	boolean succeeded = false;
+
+	try {
+	    connection.getClient().append(filename, new ByteArrayInputStream(data), 0, null);
+	    succeeded = true;
+
+	} finally {
+	    record(APPEND, start, succeeded);
+
+	}
+	connection.fileWritten(path, filename);
+
+    }
+
+    /**
+     * Checks whether the given file under the path given does exist, using the
+     * cached directory listings of the given connection.
+     * 
+     * @param connection The connection to use.
+     * @param path       The path to the directory the file is in.
+     * @param filename   The filename of the file.
+     * @return <tt>true</tt> if the file exists in the given path, <tt>false</tt>
+     *         otherwise.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     * @throws FTPDataTransferException If a I/O occurs in the data transfer
+     *                                  connection.
+     * @throws FTPAbortedException      If operation is aborted by another thread.
+     * @throws FTPListParseException    If none of the registered parsers can handle
+     *                                  the response sent by the server.
+     */
+    public static boolean fileExists(final FTPConnection connection, final String path, final String filename)
+	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException, FTPDataTransferException,
+	    FTPAbortedException, FTPListParseException {
+	return connection.fileExists(path, filename);
+
+    }
+
     /**
      * Checks whether the given file under the path given does exist. Assumes that
      * the client is logged in, otherwise the behavior is undefined.
@@ -52,7 +208,7 @@ public class FTPUtils {
 	    FTPAbortedException, FTPListParseException {
 	FTPUtils.changeDir(client, path);
 
-	for (final FTPFile file : client.list()) {
+	for (final FTPFile file : list(client)) {
 	    if (file.getName().equals(filename)) {
 		return true;
 
@@ -63,8 +219,11 @@ public class FTPUtils {
     }
 
     /**
-     * Changes the directory of the given client to the given directoy. Assumes that
-     * the given client is already logged in, behavior is unspecified if not.
+     * Changes the directory of the given client to the given directoy, using a
+     * single command. Assumes that the given client is already logged in,
+     * behavior is unspecified if not. Prefer
+     * {@link FTPConnection#changeDirectory(String, boolean)}, which skips the
+     * command if the directory is in use already.
      * 
      * @param client The currently logged in client.
      * @param dir    The directory to switch to.
@@ -76,29 +235,76 @@ public class FTPUtils {
      */
     public static void changeDir(final FTPClient client, final String dir)
 	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException {
-	String curDir = client.currentDirectory();
-
-	while (true) {
-	    client.changeDirectoryUp();
+	final long start = System.nanoTime();
+	boolean succeeded = false;
 
-	    if (curDir.equals(client.currentDirectory())) {
-		break;
+	try {
+	    client.changeDirectory(toAbsolutePath(dir));
+	    succeeded = true;
 
-	    }
-	    curDir = client.currentDirectory();
+	} finally {
+	    record(CHANGE_DIR, start, succeeded);
 
 	}
 
-	// the client is currently at the top level.
+    }
+
+    /**
+     * Lists the working directory of the given client. Assumes that the given
+     * client is already logged in, behavior is unspecified if not.
+     * 
+     * @param client The currently logged in client.
+     * @return The files in the working directory.
+     * @throws IllegalStateException    If the client is not connected or not
+     *                                  authenticated.
+     * @throws IOException              If an I/O error occurs.
+     * @throws FTPIllegalReplyException If the server replies in an illegal way.
+     * @throws FTPException             If the operation fails.
+     * @throws FTPDataTransferException If a I/O occurs in the data transfer
+     *                                  connection.
+     * @throws FTPAbortedException      If operation is aborted by another thread.
+     * @throws FTPListParseException    If none of the registered parsers can handle
+     *                                  the response sent by the server.
+     */
+    public static FTPFile[] list(final FTPClient client) throws IllegalStateException, IOException,
+	    FTPIllegalReplyException, FTPException, FTPDataTransferException, FTPAbortedException, FTPListParseException {
+	final long start = System.nanoTime();
+	boolean succeeded = false;
 
-	final String[] dirs = dir.split("//");
+	try {
+	    final FTPFile[] files = client.list();
+	    succeeded = true;
+	    return files;
 
-	for (int i = 0; i < dirs.length; i++) {
-	    client.changeDirectory(dirs[i] + "/");
+	} finally {
+	    record(LIST, start, succeeded);
 
 	}
     }
 
+    /**
+     * Converts the given path, relative to the root directory of the server, to
+     * an absolute path. Repeated separators, such as used by
+     * {@link de.ativelox.dichotomyz.ProjectPaths ProjectPaths}, are collapsed and
+     * trailing separators are removed, e.g. <tt>Logs//</tt> becomes
+     * <tt>/Logs</tt>.
+     * 
+     * @param path The path to convert.
+     * @return The absolute path mentioned.
+     */
+    public static String toAbsolutePath(final String path) {
+	final StringBuilder builder = new StringBuilder(path.length() + 1);
+
+	for (final String segment : path.split("/+")) {
+	    if (!segment.isEmpty()) {
+		builder.append('/').append(segment);
+
+	    }
+	}
+	return builder.length() == 0 ? "/" : builder.toString();
+
+    }
+
     /**
      * Writes the given data under the given filename into the given path. Assumes
      * that the client is already logged in, the behavior is unspecified if
@@ -124,7 +330,18 @@ public class FTPUtils {
 	    throws IllegalStateException, IOException, FTPIllegalReplyException, FTPException, FTPDataTransferException,
 	    FTPAbortedException {
 	FTPUtils.changeDir(client, path);
-	client.upload(filename, new ByteArrayInputStream(data), 0, 0, null);
+
+	final long start = System.nanoTime();
+	boolean succeeded = false;
+
+	try {
+	    client.upload(filename, new ByteArrayInputStream(data), 0, 0, null);
+	    succeeded = true;
+
+	} finally {
+	    record(UPLOAD, start, succeeded);
+
+	}
 
     }
 }
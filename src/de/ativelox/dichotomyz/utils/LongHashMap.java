@@ -0,0 +1,267 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Provides a hash map from primitive <tt>long</tt> keys to values, using open
+ * addressing with linear probing. In contrast to a {@link java.util.HashMap}
+ * no key gets boxed, thus lookups and updates of existing keys never allocate.
+ * This map is not thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ * @param <V> The type of the values.
+ */
+public class LongHashMap<V> {
+
+    /**
+     * The default number of entries this map can hold before growing.
+     */
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * The maximum ratio of used slots to the table size.
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * The keys of every slot.
+     */
+    private long[] mKeys;
+
+    /**
+     * The values of every slot, a slot is free if its value is <tt>null</tt>.
+     */
+    private Object[] mValues;
+
+    /**
+     * The number of entries in this map.
+     */
+    private int mSize;
+
+    /**
+     * Creates a new, empty {@link LongHashMap}.
+     */
+    public LongHashMap() {
+	this(DEFAULT_EXPECTED_SIZE);
+
+    }
+
+    /**
+     * Creates a new, empty {@link LongHashMap}, which is able to hold the given
+     * number of entries without growing.
+     * 
+     * @param expectedSize The number of entries mentioned.
+     */
+    public LongHashMap(final int expectedSize) {
+	final int capacity = tableSizeFor((int) (Math.max(expectedSize, 1) / LOAD_FACTOR));
+	mKeys = new long[capacity];
+	mValues = new Object[capacity];
+	mSize = 0;
+
+    }
+
+    /**
+     * Creates a new {@link LongHashMap}, containing every entry of the given map.
+     * 
+     * @param other The map to copy.
+     */
+    public LongHashMap(final LongHashMap<V> other) {
+	mKeys = Arrays.copyOf(other.mKeys, other.mKeys.length);
+	mValues = Arrays.copyOf(other.mValues, other.mValues.length);
+	mSize = other.mSize;
+
+    }
+
+    /**
+     * Gets the smallest power of two greater than or equal to the given value.
+     * 
+     * @param value The value mentioned.
+     * @return The power of two mentioned.
+     */
+    private static int tableSizeFor(final int value) {
+	return Math.max(2, Integer.highestOneBit(value - 1) << 1);
+
+    }
+
+    /**
+     * Spreads the bits of the given key, such that snowflake ids, which only
+     * differ in their lower bits, are distributed evenly.
+     * 
+     * @param key The key to hash.
+     * @return The hash of the key.
+     */
+    private static int hash(final long key) {
+	final long h = key * 0x9E3779B97F4A7C15L;
+	return (int) (h ^ (h >>> 32));
+
+    }
+
+    /**
+     * Removes every entry of this map.
+     */
+    public void clear() {
+	Arrays.fill(mValues, null);
+	mSize = 0;
+
+    }
+
+    /**
+     * Whether this map contains an entry for the given key or not.
+     * 
+     * @param key The key to look up.
+     * @return <tt>true</tt> if there's an entry, <tt>false</tt> otherwise.
+     */
+    public boolean containsKey(final long key) {
+	return get(key) != null;
+
+    }
+
+    /**
+     * Finds the slot of the given key, or the free slot it would be put into.
+     * 
+     * @param key The key to look up.
+     * @return The index of the slot mentioned.
+     */
+    private int find(final long key) {
+	final int mask = mKeys.length - 1;
+	int index = hash(key) & mask;
+
+	while (mValues[index] != null && mKeys[index] != key) {
+	    index = (index + 1) & mask;
+
+	}
+	return index;
+
+    }
+
+    /**
+     * Gets the value associated with the given key.
+     * 
+     * @param key The key to look up.
+     * @return The value mentioned, or <tt>null</tt> if there's none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+	return (V) mValues[find(key)];
+
+    }
+
+    /**
+     * Associates the given value with the given key, replacing the value present.
+     * 
+     * @param key   The key.
+     * @param value The value, not <tt>null</tt>.
+     * @return The value previously associated with the key, or <tt>null</tt> if
+     *         there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+	if (value == null) {
+	    throw new IllegalArgumentException("Null values are not supported.");
+
+	}
+	final int index = find(key);
+	final V old = (V) mValues[index];
+
+	mKeys[index] = key;
+	mValues[index] = value;
+
+	if (old == null && ++mSize > mKeys.length * LOAD_FACTOR) {
+	    resize();
+
+	}
+	return old;
+
+    }
+
+    /**
+     * Removes the entry for the given key, if present.
+     * 
+     * @param key The key of the entry to remove.
+     * @return The value that was associated with the key, or <tt>null</tt> if
+     *         there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+	final int mask = mKeys.length - 1;
+	int index = find(key);
+	final V old = (V) mValues[index];
+
+	if (old == null) {
+	    return null;
+
+	}
+	mValues[index] = null;
+	mSize--;
+
+	// shift back the following entries of the cluster, so lookups stay correct.
+	int next = (index + 1) & mask;
+	while (mValues[next] != null) {
+	    final int home = hash(mKeys[next]) & mask;
+
+	    if (((next - home) & mask) >= ((next - index) & mask)) {
+		mKeys[index] = mKeys[next];
+		mValues[index] = mValues[next];
+		mValues[next] = null;
+		index = next;
+
+	    }
+	    next = (next + 1) & mask;
+
+	}
+	return old;
+
+    }
+
+    /**
+     * Doubles the size of the table and rehashes every entry.
+     */
+    private void resize() {
+	final long[] oldKeys = mKeys;
+	final Object[] oldValues = mValues;
+
+	mKeys = new long[oldKeys.length * 2];
+	mValues = new Object[oldValues.length * 2];
+
+	for (int i = 0; i < oldKeys.length; i++) {
+	    if (oldValues[i] != null) {
+		final int index = find(oldKeys[i]);
+		mKeys[index] = oldKeys[i];
+		mValues[index] = oldValues[i];
+
+	    }
+	}
+    }
+
+    /**
+     * Gets the number of entries in this map.
+     * 
+     * @return The number mentioned.
+     */
+    public int size() {
+	return mSize;
+
+    }
+
+    /**
+     * Gets every value of this map, in no particular order.
+     * 
+     * @return A new list of the values mentioned.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+	final List<V> values = new ArrayList<>(mSize);
+
+	for (final Object value : mValues) {
+	    if (value != null) {
+		values.add((V) value);
+
+	    }
+	}
+	return values;
+
+    }
+}
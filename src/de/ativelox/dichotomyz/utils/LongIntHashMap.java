@@ -0,0 +1,201 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.util.Arrays;
+
+/**
+ * Provides a hash map from primitive <tt>long</tt> keys to non-negative
+ * <tt>int</tt> values, using open addressing with linear probing. Neither keys
+ * nor values get boxed, thus lookups and updates of existing keys never
+ * allocate. This map is not thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class LongIntHashMap {
+
+    /**
+     * The value returned for keys without an entry.
+     */
+    public static final int MISSING = -1;
+
+    /**
+     * The default number of entries this map can hold before growing.
+     */
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * The maximum ratio of used slots to the table size.
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * The keys of every slot.
+     */
+    private long[] mKeys;
+
+    /**
+     * The values of every slot, a slot is free if its value is
+     * {@link LongIntHashMap#MISSING}.
+     */
+    private int[] mValues;
+
+    /**
+     * The number of entries in this map.
+     */
+    private int mSize;
+
+    /**
+     * Creates a new, empty {@link LongIntHashMap}.
+     */
+    public LongIntHashMap() {
+	this(DEFAULT_EXPECTED_SIZE);
+
+    }
+
+    /**
+     * Creates a new, empty {@link LongIntHashMap}, which is able to hold the
+     * given number of entries without growing.
+     * 
+     * @param expectedSize The number of entries mentioned.
+     */
+    public LongIntHashMap(final int expectedSize) {
+	final int capacity = tableSizeFor((int) (Math.max(expectedSize, 1) / LOAD_FACTOR));
+	mKeys = new long[capacity];
+	mValues = new int[capacity];
+	Arrays.fill(mValues, MISSING);
+	mSize = 0;
+
+    }
+
+    /**
+     * Gets the smallest power of two greater than or equal to the given value.
+     * 
+     * @param value The value mentioned.
+     * @return The power of two mentioned.
+     */
+    private static int tableSizeFor(final int value) {
+	return Math.max(2, Integer.highestOneBit(value - 1) << 1);
+
+    }
+
+    /**
+     * Spreads the bits of the given key, such that snowflake ids, which only
+     * differ in their lower bits, are distributed evenly.
+     * 
+     * @param key The key to hash.
+     * @return The hash of the key.
+     */
+    private static int hash(final long key) {
+	final long h = key * 0x9E3779B97F4A7C15L;
+	return (int) (h ^ (h >>> 32));
+
+    }
+
+    /**
+     * Removes every entry of this map.
+     */
+    public void clear() {
+	Arrays.fill(mValues, MISSING);
+	mSize = 0;
+
+    }
+
+    /**
+     * Whether this map contains an entry for the given key or not.
+     * 
+     * @param key The key to look up.
+     * @return <tt>true</tt> if there's an entry, <tt>false</tt> otherwise.
+     */
+    public boolean containsKey(final long key) {
+	return get(key) != MISSING;
+
+    }
+
+    /**
+     * Finds the slot of the given key, or the free slot it would be put into.
+     * 
+     * @param key The key to look up.
+     * @return The index of the slot mentioned.
+     */
+    private int find(final long key) {
+	final int mask = mKeys.length - 1;
+	int index = hash(key) & mask;
+
+	while (mValues[index] != MISSING && mKeys[index] != key) {
+	    index = (index + 1) & mask;
+
+	}
+	return index;
+
+    }
+
+    /**
+     * Gets the value associated with the given key.
+     * 
+     * @param key The key to look up.
+     * @return The value mentioned, or {@link LongIntHashMap#MISSING} if there's
+     *         none.
+     */
+    public int get(final long key) {
+	return mValues[find(key)];
+
+    }
+
+    /**
+     * Associates the given value with the given key, replacing the value present.
+     * 
+     * @param key   The key.
+     * @param value The value, not negative.
+     * @return The value previously associated with the key, or
+     *         {@link LongIntHashMap#MISSING} if there was none.
+     */
+    public int put(final long key, final int value) {
+	if (value < 0) {
+	    throw new IllegalArgumentException("Negative values are not supported: " + value);
+
+	}
+	final int index = find(key);
+	final int old = mValues[index];
+
+	mKeys[index] = key;
+	mValues[index] = value;
+
+	if (old == MISSING && ++mSize > mKeys.length * LOAD_FACTOR) {
+	    resize();
+
+	}
+	return old;
+
+    }
+
+    /**
+     * Doubles the size of the table and rehashes every entry.
+     */
+    private void resize() {
+	final long[] oldKeys = mKeys;
+	final int[] oldValues = mValues;
+
+	mKeys = new long[oldKeys.length * 2];
+	mValues = new int[oldValues.length * 2];
+	Arrays.fill(mValues, MISSING);
+
+	for (int i = 0; i < oldKeys.length; i++) {
+	    if (oldValues[i] != MISSING) {
+		final int index = find(oldKeys[i]);
+		mKeys[index] = oldKeys[i];
+		mValues[index] = oldValues[i];
+
+	    }
+	}
+    }
+
+    /**
+     * Gets the number of entries in this map.
+     * 
+     * @return The number mentioned.
+     */
+    public int size() {
+	return mSize;
+
+    }
+}
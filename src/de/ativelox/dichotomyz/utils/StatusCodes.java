@@ -0,0 +1,76 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.util.Arrays;
+
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Utility class assigning a stable code to every {@link OnlineStatus}, used
+ * instead of its ordinal wherever a status is persisted, such that a new
+ * version of JDA reordering the enum doesn't change the meaning of stored
+ * data. The codes are part of every stored format, thus statuses may only be
+ * appended. Statuses without a code are coded as {@link OnlineStatus#UNKNOWN}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public final class StatusCodes {
+
+    /**
+     * Every online status, indexed by its code.
+     */
+    private static final OnlineStatus[] STATUSES = { OnlineStatus.ONLINE, OnlineStatus.IDLE,
+	    OnlineStatus.DO_NOT_DISTURB, OnlineStatus.INVISIBLE, OnlineStatus.OFFLINE, OnlineStatus.UNKNOWN };
+
+    /**
+     * The number of codes.
+     */
+    public static final int COUNT = STATUSES.length;
+
+    /**
+     * The codes of every online status, indexed by its ordinal.
+     */
+    private static final int[] CODES = new int[OnlineStatus.values().length];
+
+    static {
+	final int unknown = Arrays.asList(STATUSES).indexOf(OnlineStatus.UNKNOWN);
+	Arrays.fill(CODES, unknown);
+
+	for (int code = 0; code < STATUSES.length; code++) {
+	    CODES[STATUSES[code].ordinal()] = code;
+
+	}
+    }
+
+    private StatusCodes() {
+
+    }
+
+    /**
+     * Gets the code of the given status.
+     * 
+     * @param status The status mentioned, not <tt>null</tt>.
+     * @return The code mentioned, in the range of 0 to {@link StatusCodes#COUNT}
+     *         exclusive.
+     */
+    public static int getCode(final OnlineStatus status) {
+	return CODES[status.ordinal()];
+
+    }
+
+    /**
+     * Gets the status with the given code.
+     * 
+     * @param code The code mentioned.
+     * @return The status mentioned, or <tt>null</tt> if there's no status with
+     *         the given code.
+     */
+    public static OnlineStatus getStatus(final int code) {
+	if (code < 0 || code >= STATUSES.length) {
+	    return null;
+
+	}
+	return STATUSES[code];
+
+    }
+}
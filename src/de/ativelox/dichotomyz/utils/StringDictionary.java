@@ -0,0 +1,190 @@
+package de.ativelox.dichotomyz.utils;
+
+import java.util.Arrays;
+
+/**
+ * Provides a dictionary, which assigns dense <tt>int</tt> ids to strings in the
+ * order they are interned, starting at 0. Strings are looked up with open
+ * addressing and linear probing, reusing the hash cached by every
+ * {@link String}, thus looking up a string already interned never allocates.
+ * This dictionary is not thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class StringDictionary {
+
+    /**
+     * The id returned for strings not interned.
+     */
+    public static final int MISSING = -1;
+
+    /**
+     * The default number of strings this dictionary can hold before growing.
+     */
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * The maximum ratio of used slots to the table size.
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * The ids of every slot, a slot is free if its id is
+     * {@link StringDictionary#MISSING}.
+     */
+    private int[] mSlots;
+
+    /**
+     * The strings, indexed by their ids.
+     */
+    private String[] mStrings;
+
+    /**
+     * The number of strings interned.
+     */
+    private int mSize;
+
+    /**
+     * Creates a new, empty {@link StringDictionary}.
+     */
+    public StringDictionary() {
+	this(DEFAULT_EXPECTED_SIZE);
+
+    }
+
+    /**
+     * Creates a new, empty {@link StringDictionary}, which is able to hold the
+     * given number of strings without growing.
+     * 
+     * @param expectedSize The number of strings mentioned.
+     */
+    public StringDictionary(final int expectedSize) {
+	final int capacity = tableSizeFor((int) (Math.max(expectedSize, 1) / LOAD_FACTOR));
+	mSlots = new int[capacity];
+	Arrays.fill(mSlots, MISSING);
+	mStrings = new String[Math.max(expectedSize, 1)];
+	mSize = 0;
+
+    }
+
+    /**
+     * Gets the smallest power of two greater than or equal to the given value.
+     * 
+     * @param value The value mentioned.
+     * @return The power of two mentioned.
+     */
+    private static int tableSizeFor(final int value) {
+	return Math.max(2, Integer.highestOneBit(value - 1) << 1);
+
+    }
+
+    /**
+     * Spreads the bits of the hash of the given string.
+     * 
+     * @param string The string to hash.
+     * @return The hash of the string.
+     */
+    private static int hash(final String string) {
+	final int h = string.hashCode() * 0x9E3779B9;
+	return h ^ (h >>> 16);
+
+    }
+
+    /**
+     * Finds the slot of the given string, or the free slot it would be put into.
+     * 
+     * @param string The string to look up.
+     * @return The index of the slot mentioned.
+     */
+    private int find(final String string) {
+	final int mask = mSlots.length - 1;
+	int index = hash(string) & mask;
+
+	while (mSlots[index] != MISSING && !mStrings[mSlots[index]].equals(string)) {
+	    index = (index + 1) & mask;
+
+	}
+	return index;
+
+    }
+
+    /**
+     * Gets the string with the given id.
+     * 
+     * @param id The id of the string.
+     * @return The string mentioned.
+     */
+    public String get(final int id) {
+	if (id < 0 || id >= mSize) {
+	    throw new IndexOutOfBoundsException("Unknown id: " + id);
+
+	}
+	return mStrings[id];
+
+    }
+
+    /**
+     * Gets the id of the given string, interning it if needed.
+     * 
+     * @param string The string, not <tt>null</tt>.
+     * @return The id mentioned.
+     */
+    public int intern(final String string) {
+	final int index = find(string);
+
+	if (mSlots[index] != MISSING) {
+	    return mSlots[index];
+
+	}
+
+	if (mSize == mStrings.length) {
+	    mStrings = Arrays.copyOf(mStrings, mSize * 2);
+
+	}
+	mStrings[mSize] = string;
+	mSlots[index] = mSize;
+
+	if (++mSize > mSlots.length * LOAD_FACTOR) {
+	    resize();
+
+	}
+	return mSize - 1;
+
+    }
+
+    /**
+     * Gets the id of the given string, without interning it.
+     * 
+     * @param string The string, not <tt>null</tt>.
+     * @return The id mentioned, or {@link StringDictionary#MISSING} if the string
+     *         is not interned.
+     */
+    public int lookup(final String string) {
+	return mSlots[find(string)];
+
+    }
+
+    /**
+     * Doubles the size of the table and rehashes every string.
+     */
+    private void resize() {
+	mSlots = new int[mSlots.length * 2];
+	Arrays.fill(mSlots, MISSING);
+
+	for (int id = 0; id < mSize; id++) {
+	    mSlots[find(mStrings[id])] = id;
+
+	}
+    }
+
+    /**
+     * Gets the number of strings interned.
+     * 
+     * @return The number mentioned.
+     */
+    public int size() {
+	return mSize;
+
+    }
+}
@@ -1,108 +1,190 @@
 package de.ativelox.dichotomyz.utils;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import de.ativelox.dichotomyz.settings.SettingsProvider;
 
 /**
  * Utility class that provides methods to get timestamps of dates and time in
- * general.
+ * general. The current date and time are read from a {@link CachedClock},
+ * which can be replaced by {@link Timestamp#setClock(CachedClock)}, e.g. by
+ * tests.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
  */
 public class Timestamp {
 
+    /**
+     * The default offset of the time zone dates and times are given in, i.e.
+     * UTC+1 (Berlin).
+     */
+    public static final ZoneOffset DEFAULT_ZONE_OFFSET = ZoneOffset.ofHours(1);
+
     /**
      * The formatter used for dates, in the format dd.MM.yyyy
      */
     private final static DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
     /**
-     * The formatter used for time, in the format HH:mm:ss
+     * The clock the current date and time are read from, created on first use.
      */
-    private final static DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static volatile CachedClock _Clock;
 
     /**
-     * Fits the given string to the length given. If the given string is too short,
-     * it will be filled with leading zeros, and if to short, it will be cut off.
+     * Gets the clock the current date and time are read from. Unless set by
+     * {@link Timestamp#setClock(CachedClock)}, a clock ticking every second in
+     * the zone given by {@link SettingsProvider#getZoneOffset()} is created on
+     * first use.
      * 
-     * @param toFit The String to fit
-     * @param k     The number of characters in the string to trim to.
-     * @return A string of length <tt>k</tt> in the mentioned format.
+     * @return The clock mentioned.
      */
-    private static String fitStringToLength(final String toFit, final int k) {
-	String modified = toFit;
+    public static CachedClock getClock() {
+	CachedClock clock = _Clock;
+
+	if (clock == null) {
+	    synchronized (Timestamp.class) {
+		clock = _Clock;
 
-	while (modified.length() < k) {
-	    modified = "0" + modified;
+		if (clock == null) {
+		    clock = new CachedClock(SettingsProvider.getZoneOffset(), CachedClock.DEFAULT_TICK_MS);
+		    _Clock = clock;
 
+		}
+	    }
 	}
+	return clock;
 
-	if (modified.length() > k) {
-	    modified = modified.substring(0, k);
+    }
 
-	}
-	return modified;
+    /**
+     * Replaces the clock the current date and time are read from. The clock
+     * replaced is not closed.
+     * 
+     * @param clock The new clock.
+     * @return The clock replaced, or <tt>null</tt> if there was none yet.
+     */
+    public static synchronized CachedClock setClock(final CachedClock clock) {
+	final CachedClock old = _Clock;
+	_Clock = clock;
+	return old;
 
     }
 
     /**
-     * Returns a formatted string, given a formatter, in the UTC+1 (Berlin) time
-     * zone.
+     * Formats the given date by {@link Timestamp#DATE_FORMATTER}.
      * 
-     * @param formatter The formatter to format the current {@link LocalDateTime}
-     *                  object.
-     * @return The formatted string mentioned.
+     * @param date The date to format.
+     * @return A formatted string representing the date.
      */
-    private static String getByFormatter(final DateTimeFormatter formatter) {
-	return LocalDateTime.ofInstant(Instant.now(), ZoneOffset.ofOffset("UTC", ZoneOffset.ofHours(1)))
-		.format(formatter);
+    static String formatDate(final LocalDate date) {
+	return date.format(DATE_FORMATTER);
+
     }
 
     /**
-     * Gets the current date, where the time zone is specified by
-     * {@link Timestamp#getByFormatter(DateTimeFormatter)}, formatted by
-     * {@link Timestamp#DATE_FORMATTER}.
+     * Gets the current date, as given by {@link Timestamp#getClock()}, formatted
+     * by {@link Timestamp#DATE_FORMATTER}.
      * 
      * @return A formatted string representing the date
      */
     public static String getCurrentDate() {
-	return getByFormatter(DATE_FORMATTER);
+	return getClock().getDate();
+
+    }
+
+    /**
+     * Parses the given date, formatted by {@link Timestamp#DATE_FORMATTER}.
+     * 
+     * @param date The date to parse.
+     * @return The date mentioned.
+     * @throws DateTimeParseException If the date is not formatted as mentioned.
+     */
+    public static LocalDate parseDate(final String date) throws DateTimeParseException {
+	return LocalDate.parse(date, DATE_FORMATTER);
 
     }
 
     /**
-     * Gets the current time, where the time zone is specified by
-     * {@link Timestamp#getByFormatter(DateTimeFormatter)}, formatted by
-     * {@link Timestamp#TIME_FORMATTER}.
+     * Gets the current time, as given by {@link Timestamp#getClock()}, in the
+     * format HH:mm:ss.
      * 
      * @return A formatted string representing the time.
      */
     public static String getCurrentTime() {
-	return getByFormatter(TIME_FORMATTER);
+	return getClock().getTime();
+
+    }
+
+    /**
+     * Gets the current day, as given by {@link Timestamp#getClock()}.
+     * 
+     * @return The day mentioned.
+     */
+    public static LocalDate getToday() {
+	return getClock().getToday();
+
+    }
+
+    /**
+     * Gets the offset of the time zone dates and times are given in.
+     * 
+     * @return The offset mentioned.
+     */
+    public static ZoneOffset getZoneOffset() {
+	return getClock().getZone();
+
+    }
+
+    /**
+     * Appends the given number to the given builder, with a leading zero if it
+     * has a single digit.
+     * 
+     * @param target The builder to append to.
+     * @param value  The non-negative number to append.
+     * @return The given builder.
+     */
+    private static StringBuilder appendTwoDigits(final StringBuilder target, final long value) {
+	if (value < 10) {
+	    target.append('0');
+
+	}
+	return target.append(value);
+
+    }
+
+    /**
+     * Appends the given time in milliseconds to the given builder, in a
+     * human-readable time representation (hh:mm:ss). Hours are not limited to
+     * two digits, negative times are treated as zero. Doesn't allocate, unless
+     * the builder has to grow.
+     * 
+     * @param target The builder to append to.
+     * @param ms     The milliseconds to append.
+     * @return The given builder.
+     */
+    public static StringBuilder appendReadable(final StringBuilder target, final long ms) {
+	final long seconds = Math.max(ms, 0) / 1000;
+
+	appendTwoDigits(target, seconds / 3600).append(':');
+	appendTwoDigits(target, seconds / 60 % 60).append(':');
+	return appendTwoDigits(target, seconds % 60);
 
     }
 
     /**
      * Converts the given time in milliseconds to a human-readable time
-     * representation (hh:mm:ss).
+     * representation (hh:mm:ss), see
+     * {@link Timestamp#appendReadable(StringBuilder, long)}.
      * 
      * @param ms The milliseconds to convert.
      * @return A formatted string representing the given time.
      */
     public static String msToReadable(final long ms) {
-	int hours = (int) Math.floor(ms / (1000f * 60f * 60f));
-	int hoursRemainder = (int) ms % (1000 * 60 * 60);
-
-	int minutes = (int) Math.floor(hoursRemainder / (1000f * 60f));
-	int minutesRemainder = hoursRemainder % (1000 * 60);
-
-	int seconds = (int) Math.floor(minutesRemainder / 1000f);
-
-	return fitStringToLength(String.valueOf(hours), 2) + ":" + fitStringToLength(String.valueOf(minutes), 2) + ":"
-		+ fitStringToLength(String.valueOf(seconds), 2);
+	return appendReadable(new StringBuilder(8), ms).toString();
 
     }
 
@@ -0,0 +1,109 @@
+package de.ativelox.dichotomyz.utils;
+
+/**
+ * Provides a token bucket, limiting the rate of requests to a given number per
+ * period, while allowing bursts up to the capacity of the bucket. Every token
+ * taken is refilled exactly one period later, thus no window of the length of
+ * the period ever holds more requests than the capacity, which matches rate
+ * limits resetting after a fixed time, like the ones of Discord. The current
+ * time is passed to every call, thus the bucket works with any clock. This
+ * class is thread-safe.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class TokenBucket {
+
+    /**
+     * The time it takes to refill a token taken.
+     */
+    private final long mPeriod;
+
+    /**
+     * The times the tokens were last taken, in the order they are refilled.
+     */
+    private final long[] mTaken;
+
+    /**
+     * Whether the token at the same index of {@link TokenBucket#mTaken} has ever
+     * been taken or not.
+     */
+    private final boolean[] mUsed;
+
+    /**
+     * The index of the token refilled next.
+     */
+    private int mNext;
+
+    /**
+     * Creates a new, full {@link TokenBucket}.
+     * 
+     * @param capacity The maximum number of tokens, i.e. requests per period.
+     * @param period   The time it takes to refill a token taken, in the unit of
+     *                 the clock used.
+     */
+    public TokenBucket(final int capacity, final long period) {
+	if (capacity <= 0 || period <= 0) {
+	    throw new IllegalArgumentException("Invalid capacity or period of the bucket: " + capacity + ", " + period);
+
+	}
+	mPeriod = period;
+	mTaken = new long[capacity];
+	mUsed = new boolean[capacity];
+	mNext = 0;
+
+    }
+
+    /**
+     * Gets the number of tokens currently available.
+     * 
+     * @param now The current time.
+     * @return The number mentioned.
+     */
+    public synchronized int getAvailable(final long now) {
+	int available = 0;
+
+	for (int i = 0; i < mTaken.length; i++) {
+	    if (!mUsed[i] || now - mTaken[i] >= mPeriod) {
+		available++;
+
+	    }
+	}
+	return available;
+
+    }
+
+    /**
+     * Gets the time until a token is available.
+     * 
+     * @param now The current time.
+     * @return The time mentioned, or 0 if a token is available already.
+     */
+    public synchronized long getWaitTime(final long now) {
+	if (!mUsed[mNext]) {
+	    return 0;
+
+	}
+	return Math.max(0, mTaken[mNext] + mPeriod - now);
+
+    }
+
+    /**
+     * Takes a token, if available.
+     * 
+     * @param now The current time.
+     * @return <tt>true</tt> if a token was taken, <tt>false</tt> if the request
+     *         has to wait, see {@link TokenBucket#getWaitTime(long)}.
+     */
+    public synchronized boolean tryAcquire(final long now) {
+	if (getWaitTime(now) > 0) {
+	    return false;
+
+	}
+	mTaken[mNext] = now;
+	mUsed[mNext] = true;
+	mNext = (mNext + 1) % mTaken.length;
+	return true;
+
+    }
+}
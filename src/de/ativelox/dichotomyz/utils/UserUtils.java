@@ -1,19 +1,25 @@
 package de.ativelox.dichotomyz.utils;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.ativelox.dichotomyz.Bot;
 import de.ativelox.dichotomyz.exceptions.PrivateChannelNotFoundException;
-import de.ativelox.dichotomyz.exceptions.UnexpectedGuildSizeException;
+import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.entities.Game;
-import net.dv8tion.jda.core.entities.Guild;
-import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.PrivateChannel;
 import net.dv8tion.jda.core.entities.User;
-import net.dv8tion.jda.core.requests.RestAction;
 
 /**
- * Provides some helper functions to ease user-related access.
+ * Provides some helper functions to ease user-related access. Resolved users
+ * are remembered in a name index, keyed by their name and discriminator, and
+ * the private channel of every user is only opened once. The name index has to
+ * be kept up to date by calling {@link UserUtils#onNameChanged(String, String)}
+ * whenever a user changes its name or discriminator. Users found in the index
+ * are checked against their current name nonetheless, such that a missed
+ * change only costs a search.
  * 
  * @author Ativelox {@literal <ativelox.dev@web.de>}
  *
@@ -30,6 +36,19 @@ public class UserUtils {
      */
     private static boolean _initiated = false;
 
+    /**
+     * A mapping from the keys built by {@link UserUtils#getKey(String, String)}
+     * to the ids of the users resolved so far.
+     */
+    private static final ConcurrentHashMap<String, Long> _UserIds = new ConcurrentHashMap<>();
+
+    /**
+     * A mapping from user ids to their private channels, which are either opened
+     * or about to be opened.
+     */
+    private static final ConcurrentHashMap<Long, CompletableFuture<PrivateChannel>> _PrivateChannels =
+	    new ConcurrentHashMap<>();
+
     /**
      * Initiates this class and makes it ready for use. This should be called as
      * soon as {@link Bot#getJDA()} is ready.
@@ -57,57 +76,142 @@ public class UserUtils {
     }
 
     /**
-     * Gets a rest action for the private channel associated with the given name.
-     * This is due to the fact that a private channel does not have to exists.
+     * Gets the key of the name index for the given name and discriminator. Names
+     * are compared ignoring their case.
+     * 
+     * @param name          The name of the user.
+     * @param discriminator The users discriminator.
+     * @return The key mentioned.
+     */
+    private static String getKey(final String name, final String discriminator) {
+	return name.toLowerCase(Locale.ROOT) + "#" + discriminator;
+
+    }
+
+    /**
+     * Gets the private channel associated with the given name. This is due to the
+     * fact that a private channel does not have to exists, thus it is opened the
+     * first time it is requested, while any later call gets the same channel
+     * without issuing another request.
      * 
      * @param name          The name for which to fetch its associated private
      *                      channel.
      * @param discriminator The users discriminator.
-     * @return The rest action mentioned.
-     * @throws PrivateChannelNotFoundException If the private channel wasn't found
-     *                                         or couldn't be established.
+     * @return A future completed with the private channel, or <tt>null</tt> if
+     *         {@link UserUtils#init(Bot)} hasn't been called yet.
+     * @throws PrivateChannelNotFoundException If there's no user with the given
+     *                                         name and discriminator.
      */
-    public static RestAction<PrivateChannel> getPrivateChannelFromName(final String name, final String discriminator)
-	    throws PrivateChannelNotFoundException {
+    public static CompletableFuture<PrivateChannel> getPrivateChannelFromName(final String name,
+	    final String discriminator) throws PrivateChannelNotFoundException {
 	if (!_initiated) {
 	    return null;
 
 	}
+	final User user = getUserByName(name, discriminator);
+
+	if (user == null) {
+	    throw new PrivateChannelNotFoundException(
+		    "A private channel associated with the user name: " + name + " couldn't be found.");
+
+	}
+	CompletableFuture<PrivateChannel> channel = _PrivateChannels.get(user.getIdLong());
 
-	final List<User> users = _Client.getJDA().getUsersByName(name, true);
+	if (channel == null) {
+	    final CompletableFuture<PrivateChannel> opened = new CompletableFuture<>();
+	    channel = _PrivateChannels.putIfAbsent(user.getIdLong(), opened);
 
-	for (final User user : users) {
-	    if (user.getDiscriminator().equals(discriminator)) {
-		return user.openPrivateChannel();
+	    // only the thread which cached the future opens the channel.
+	    if (channel == null) {
+		openPrivateChannel(user, opened);
+		channel = opened;
 
 	    }
 	}
+	return channel;
 
-	throw new PrivateChannelNotFoundException(
-		"A private channel associated with the user name: " + name + " couldn't be found.");
     }
 
     /**
-     * Gets all users which are currently connected to the same guild as this
-     * client. Internally also knowns as {@link Member}.
+     * Gets the user with the given name and discriminator, looking it up in the
+     * name index first and searching the user cache of every shard if it isn't
+     * indexed yet, or the indexed user is known by another name by now.
      * 
-     * @return A list of all the users in the same guild as the client
-     * @throws UnexpectedGuildSizeException If there were too many, or too few
-     *                                      guilds this client is connected to.
+     * @param name          The name of the user.
+     * @param discriminator The users discriminator.
+     * @return The user mentioned, or <tt>null</tt> if there's none.
      */
-    public static List<Member> getAllUsers() throws UnexpectedGuildSizeException {
-	if (!_initiated) {
-	    return null;
+    private static User getUserByName(final String name, final String discriminator) {
+	final String key = getKey(name, discriminator);
+	final Long id = _UserIds.get(key);
+
+	if (id != null) {
+	    for (final JDA shard : _Client.getShards()) {
+		final User user = shard.getUserById(id);
+
+		if (user != null) {
+		    // the index is stale, if a change of the name has been missed.
+		    if (user.getName().equalsIgnoreCase(name) && user.getDiscriminator().equals(discriminator)) {
+			return user;
 
+		    }
+		    break;
+
+		}
+	    }
+	    _UserIds.remove(key, id);
+
+	}
+
+	// every shard only knows the users of its own guilds.
+	for (final JDA shard : _Client.getShards()) {
+	    final List<User> users = shard.getUsersByName(name, true);
+
+	    for (final User user : users) {
+		if (user.getDiscriminator().equals(discriminator)) {
+		    _UserIds.put(key, user.getIdLong());
+		    return user;
+
+		}
+	    }
 	}
+	return null;
 
-	final List<Guild> guilds = _Client.getJDA().getGuilds();
+    }
 
-	if (guilds.size() != 1) {
-	    throw new UnexpectedGuildSizeException(guilds.size());
+    /**
+     * Removes the user known by the given name and discriminator from the name
+     * index. Should be called whenever a user changes its name or discriminator,
+     * with the values before the change. The private channel of the user stays
+     * valid, since it is bound to the users id.
+     * 
+     * @param oldName          The name of the user before the change.
+     * @param oldDiscriminator The discriminator of the user before the change.
+     */
+    public static void onNameChanged(final String oldName, final String oldDiscriminator) {
+	if (oldName == null || oldDiscriminator == null) {
+	    return;
 
 	}
-	return guilds.get(0).getMembers();
+	_UserIds.remove(getKey(oldName, oldDiscriminator));
+
+    }
+
+    /**
+     * Opens the private channel of the given user. If opening the channel fails,
+     * it is removed from the cache again, such that the next request retries.
+     * 
+     * @param user    The user mentioned.
+     * @param channel The future to complete with the private channel.
+     */
+    private static void openPrivateChannel(final User user, final CompletableFuture<PrivateChannel> channel) {
+	channel.whenComplete((result, failure) -> {
+	    if (failure != null) {
+		_PrivateChannels.remove(user.getIdLong(), channel);
+
+	    }
+	});
+	user.openPrivateChannel().queue(channel::complete, channel::completeExceptionally);
 
     }
 
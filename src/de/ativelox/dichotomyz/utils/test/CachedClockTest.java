@@ -0,0 +1,149 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.utils.test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.utils.CachedClock;
+import de.ativelox.dichotomyz.utils.Timestamp;
+
+/**
+ * Provides Tests for {@link CachedClock}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class CachedClockTest {
+
+    /**
+     * A clock which is set manually.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class ManualClock extends Clock {
+
+	/**
+	 * The current time in ms since the epoch.
+	 */
+	private long mMillis;
+
+	/**
+	 * Creates a new {@link ManualClock}.
+	 * 
+	 * @param millis The current time in ms since the epoch.
+	 */
+	private ManualClock(final long millis) {
+	    mMillis = millis;
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.time.Clock#getZone()
+	 */
+	@Override
+	public ZoneId getZone() {
+	    return ZoneOffset.ofHours(1);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.time.Clock#instant()
+	 */
+	@Override
+	public Instant instant() {
+	    return Instant.ofEpochMilli(mMillis);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.time.Clock#withZone(java.time.ZoneId)
+	 */
+	@Override
+	public Clock withZone(final ZoneId zone) {
+	    throw new UnsupportedOperationException();
+
+	}
+    }
+
+    /**
+     * Test method for {@link de.ativelox.dichotomyz.utils.CachedClock#tick()}.
+     */
+    @Test
+    public void testTickUpdatesAcrossMidnight() {
+	final ManualClock source = new ManualClock(Instant.parse("2018-03-01T22:59:58.500Z").toEpochMilli());
+	final CachedClock clock = new CachedClock(source, 0);
+
+	Assert.assertEquals("01.03.2018", clock.getDate());
+	Assert.assertEquals("23:59:58", clock.getTime());
+
+	// the values only change once ticked.
+	source.mMillis += 1000;
+	Assert.assertEquals("23:59:58", clock.getTime());
+
+	final String date = clock.getDate();
+	clock.tick();
+	Assert.assertEquals("23:59:59", clock.getTime());
+	Assert.assertSame(date, clock.getDate());
+
+	source.mMillis += 1000;
+	clock.tick();
+	Assert.assertEquals("02.03.2018", clock.getDate());
+	Assert.assertEquals("00:00:00", clock.getTime());
+	Assert.assertEquals(LocalDate.of(2018, 3, 2), clock.getToday());
+	Assert.assertEquals(source.mMillis, clock.getMillis());
+
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.Timestamp#setClock(CachedClock)}.
+     */
+    @Test
+    public void testTimestampReadsInjectedClock() {
+	final CachedClock clock = new CachedClock(
+		Clock.fixed(Instant.parse("2018-12-31T12:30:00Z"), ZoneOffset.ofHours(-2)), 0);
+	final CachedClock old = Timestamp.setClock(clock);
+
+	try {
+	    Assert.assertEquals("31.12.2018", Timestamp.getCurrentDate());
+	    Assert.assertEquals("10:30:00", Timestamp.getCurrentTime());
+	    Assert.assertEquals(ZoneOffset.ofHours(-2), Timestamp.getZoneOffset());
+
+	} finally {
+	    Timestamp.setClock(old);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.CachedClock#CachedClock(Clock, long)}.
+     */
+    @Test
+    public void testRejectsZonesWithoutFixedOffset() {
+	try {
+	    new CachedClock(Clock.system(ZoneId.of("Europe/Berlin")), 0);
+	    Assert.fail("Zones without a fixed offset have to be rejected.");
+
+	} catch (final IllegalArgumentException e) {
+	    // expected, since days of such zones don't always have 24 hours.
+
+	}
+    }
+
+}
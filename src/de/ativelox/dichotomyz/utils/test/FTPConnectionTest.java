@@ -0,0 +1,181 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.utils.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.utils.FTPConnection;
+import de.ativelox.dichotomyz.utils.FTPConnectionPool;
+import de.ativelox.dichotomyz.utils.FTPUtils;
+import it.sauronsoftware.ftp4j.FTPClient;
+import it.sauronsoftware.ftp4j.FTPDataTransferListener;
+import it.sauronsoftware.ftp4j.FTPException;
+import it.sauronsoftware.ftp4j.FTPFile;
+
+/**
+ * Provides Tests for {@link FTPConnection}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class FTPConnectionTest {
+
+    /**
+     * A client recording the commands sent, without connecting to a server.
+     * 
+     * @author Ativelox {@literal <ativelox.dev@web.de>}
+     *
+     */
+    private static final class RecordingClient extends FTPClient {
+
+	/**
+	 * The commands sent, after logging in.
+	 */
+	private final List<String> mCommands = new ArrayList<>();
+
+	/**
+	 * Whether this client is connected or not.
+	 */
+	private boolean mConnected;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see it.sauronsoftware.ftp4j.FTPClient#append(java.lang.String,
+	 * java.io.InputStream, long, it.sauronsoftware.ftp4j.FTPDataTransferListener)
+	 */
+	@Override
+	public void append(final String name, final InputStream in, final long offset,
+		final FTPDataTransferListener listener) {
+	    mCommands.add("APPE " + name);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see it.sauronsoftware.ftp4j.FTPClient#changeDirectory(java.lang.String)
+	 */
+	@Override
+	public void changeDirectory(final String path) {
+	    mCommands.add("CWD " + path);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see it.sauronsoftware.ftp4j.FTPClient#connect(java.lang.String)
+	 */
+	@Override
+	public String[] connect(final String host) {
+	    mConnected = true;
+	    return new String[0];
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see it.sauronsoftware.ftp4j.FTPClient#createDirectory(java.lang.String)
+	 */
+	@Override
+	public void createDirectory(final String path) throws FTPException {
+	    mCommands.add("MKD " + path);
+
+	    if (path.equals("/Logs")) {
+		throw new FTPException(550, "Directory exists.");
+
+	    }
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see it.sauronsoftware.ftp4j.FTPClient#isConnected()
+	 */
+	@Override
+	public boolean isConnected() {
+	    return mConnected;
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see it.sauronsoftware.ftp4j.FTPClient#list()
+	 */
+	@Override
+	public FTPFile[] list() {
+	    mCommands.add("LIST");
+
+	    final FTPFile file = new FTPFile();
+	    file.setName("a.log");
+	    return new FTPFile[] { file };
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.FTPUtils#appendFile(FTPConnection, String, String, byte[])}.
+     * 
+     * @throws Exception If the connection fails.
+     */
+    @Test
+    public void testAppendSkipsKnownDirectories() throws Exception {
+	final RecordingClient client = new RecordingClient();
+
+	try (final FTPConnectionPool pool = new FTPConnectionPool("localhost", "user", "password", 1, 60000, 60000,
+		() -> client)) {
+	    final FTPConnection connection = pool.acquire();
+
+	    FTPUtils.appendFile(connection, "Logs//Debug//", "a.log", new byte[] { 1 });
+	    FTPUtils.appendFile(connection, "/Logs/Debug", "a.log", new byte[] { 2 });
+	    FTPUtils.appendFile(connection, "Logs//", "b.log", new byte[] { 3 });
+	    Assert.assertEquals("/Logs", connection.getWorkingDirectory());
+
+	    Assert.assertEquals(Arrays.asList("MKD /Logs", "MKD /Logs/Debug", "CWD /Logs/Debug", "APPE a.log",
+		    "APPE a.log", "CWD /Logs", "APPE b.log"), client.mCommands);
+
+	    pool.release(connection);
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.FTPConnection#fileExists(String, String)}.
+     * 
+     * @throws Exception If the connection fails.
+     */
+    @Test
+    public void testFileExistsUsesCachedListing() throws Exception {
+	final RecordingClient client = new RecordingClient();
+
+	try (final FTPConnectionPool pool = new FTPConnectionPool("localhost", "user", "password", 1, 60000, 60000,
+		() -> client)) {
+	    final FTPConnection connection = pool.acquire();
+
+	    Assert.assertTrue(connection.fileExists("Logs//", "a.log"));
+	    Assert.assertFalse(connection.fileExists("Logs//", "b.log"));
+
+	    FTPUtils.appendFile(connection, "Logs//", "b.log", new byte[] { 1 });
+	    Assert.assertTrue(connection.fileExists("/Logs", "b.log"));
+
+	    Assert.assertEquals(Arrays.asList("CWD /Logs", "LIST", "APPE b.log"), client.mCommands);
+
+	    pool.release(connection);
+
+	}
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.utils.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.utils.LongHashMap;
+
+/**
+ * Provides Tests for {@link LongHashMap}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class LongHashMapTest {
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.LongHashMap#put(long, Object)}.
+     */
+    @Test
+    public void testPutAndGetWhileGrowing() {
+	final LongHashMap<String> map = new LongHashMap<>(2);
+
+	for (long i = 0; i < 1000; i++) {
+	    Assert.assertNull(map.put(i << 22, "v" + i));
+
+	}
+	Assert.assertEquals(1000, map.size());
+
+	for (long i = 0; i < 1000; i++) {
+	    Assert.assertEquals("v" + i, map.get(i << 22));
+
+	}
+	Assert.assertEquals("v7", map.put(7 << 22, "w7"));
+	Assert.assertEquals("w7", map.get(7 << 22));
+	Assert.assertNull(map.get(1));
+    }
+
+    /**
+     * Test method for {@link de.ativelox.dichotomyz.utils.LongHashMap#remove(long)}.
+     */
+    @Test
+    public void testRemoveKeepsOtherEntries() {
+	final LongHashMap<Long> map = new LongHashMap<>();
+
+	for (long i = 0; i < 500; i++) {
+	    map.put(i * 31, i);
+
+	}
+
+	for (long i = 0; i < 500; i += 2) {
+	    Assert.assertEquals(Long.valueOf(i), map.remove(i * 31));
+
+	}
+	Assert.assertEquals(250, map.size());
+
+	for (long i = 0; i < 500; i++) {
+	    Assert.assertEquals(i % 2 == 0 ? null : Long.valueOf(i), map.get(i * 31));
+
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.LongHashMap#LongHashMap(LongHashMap)}.
+     */
+    @Test
+    public void testCopyIsIndependent() {
+	final LongHashMap<String> map = new LongHashMap<>();
+	map.put(1, "a");
+	map.put(2, "b");
+
+	final LongHashMap<String> copy = new LongHashMap<>(map);
+	copy.put(3, "c");
+	copy.remove(1);
+
+	Assert.assertEquals(2, map.size());
+	Assert.assertEquals("a", map.get(1));
+	Assert.assertNull(map.get(3));
+
+	Assert.assertEquals(2, copy.size());
+	Assert.assertEquals(2, copy.values().size());
+	Assert.assertTrue(copy.values().contains("c"));
+	Assert.assertFalse(copy.values().contains("a"));
+    }
+
+}
@@ -0,0 +1,42 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.utils.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.utils.StatusCodes;
+import net.dv8tion.jda.core.OnlineStatus;
+
+/**
+ * Provides Tests for {@link StatusCodes}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class StatusCodesTest {
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.StatusCodes#getCode(OnlineStatus)}.
+     */
+    @Test
+    public void testCodesAreStable() {
+	// the codes are stored on disk, thus must never change.
+	Assert.assertEquals(0, StatusCodes.getCode(OnlineStatus.ONLINE));
+	Assert.assertEquals(1, StatusCodes.getCode(OnlineStatus.IDLE));
+	Assert.assertEquals(2, StatusCodes.getCode(OnlineStatus.DO_NOT_DISTURB));
+	Assert.assertEquals(3, StatusCodes.getCode(OnlineStatus.INVISIBLE));
+	Assert.assertEquals(4, StatusCodes.getCode(OnlineStatus.OFFLINE));
+	Assert.assertEquals(5, StatusCodes.getCode(OnlineStatus.UNKNOWN));
+
+	for (final OnlineStatus status : OnlineStatus.values()) {
+	    Assert.assertEquals(status, StatusCodes.getStatus(StatusCodes.getCode(status)));
+
+	}
+	Assert.assertNull(StatusCodes.getStatus(StatusCodes.COUNT));
+	Assert.assertNull(StatusCodes.getStatus(-1));
+
+    }
+}
@@ -26,4 +26,30 @@ public class TimestampTest {
 	Assert.assertEquals("01:28:43", Timestamp.msToReadable(testMs));
     }
 
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.Timestamp#appendReadable(StringBuilder, long)}.
+     */
+    @Test
+    public void testAppendReadable() {
+	final StringBuilder builder = new StringBuilder("a ");
+
+	Assert.assertSame(builder, Timestamp.appendReadable(builder, 999));
+	Assert.assertEquals("a 00:00:00", builder.toString());
+
+	builder.setLength(0);
+	Timestamp.appendReadable(builder, 86399999);
+	Assert.assertEquals("23:59:59", builder.toString());
+
+	// more than 24 days overflowed the former int arithmetic.
+	builder.setLength(0);
+	Timestamp.appendReadable(builder, 100L * 60 * 60 * 1000 + 61000);
+	Assert.assertEquals("100:01:01", builder.toString());
+
+	builder.setLength(0);
+	Timestamp.appendReadable(builder, -5);
+	Assert.assertEquals("00:00:00", builder.toString());
+
+    }
+
 }
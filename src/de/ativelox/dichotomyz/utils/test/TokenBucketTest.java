@@ -0,0 +1,49 @@
+/**
+ * 
+ */
+package de.ativelox.dichotomyz.utils.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.ativelox.dichotomyz.utils.TokenBucket;
+
+/**
+ * Provides Tests for {@link TokenBucket}.
+ * 
+ * @author Ativelox {@literal <ativelox.dev@web.de>}
+ *
+ */
+public class TokenBucketTest {
+
+    /**
+     * Test method for
+     * {@link de.ativelox.dichotomyz.utils.TokenBucket#tryAcquire(long)}, where a
+     * burst empties the bucket, and every token is refilled one period after it
+     * was taken.
+     */
+    @Test
+    public void testBurstAndRefill() {
+	final TokenBucket bucket = new TokenBucket(5, 5000);
+
+	for (int i = 0; i < 4; i++) {
+	    Assert.assertTrue(bucket.tryAcquire(0));
+
+	}
+	Assert.assertTrue(bucket.tryAcquire(1000));
+	Assert.assertFalse(bucket.tryAcquire(1000));
+	Assert.assertEquals(4000, bucket.getWaitTime(1000));
+
+	// the first four tokens are refilled, but not the one taken later.
+	Assert.assertEquals(4, bucket.getAvailable(5000));
+	for (int i = 0; i < 4; i++) {
+	    Assert.assertTrue(bucket.tryAcquire(5000));
+
+	}
+	Assert.assertFalse(bucket.tryAcquire(5999));
+	Assert.assertTrue(bucket.tryAcquire(6000));
+	Assert.assertEquals(0, bucket.getAvailable(6000));
+
+    }
+
+}